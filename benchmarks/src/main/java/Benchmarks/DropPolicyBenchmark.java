@@ -0,0 +1,81 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Benchmarks;
+
+import DataTypes.*;
+import Logging.*;
+import Metrics.*;
+import NetworkElements.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures ATMNIC.sendCell under each drop policy. Every invocation offers a number of cells to the
+ * nic and then lets the link take up to the line rate (10 cells) away, like one tick of the simulation.
+ * Offering fewer cells than the line rate keeps the output buffer nearly empty, offering more keeps it
+ * in (or past) the region where RED, PPD and EPD start dropping, so the load sets the fill level.
+ * The cells are 8 cell packets (a header cell and 7 data cells) so PPD and EPD see whole packets,
+ * and every other packet has its CLP bit set so WRED sees both classes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DropPolicyBenchmark {
+	private static final int PACKET_CELLS = 8; // the number of cells in each packet
+	private static final int STREAM_CELLS = 1024 * PACKET_CELLS; // the number of cells we cycle through
+
+	@Param({"tail", "red", "ppd", "epd", "ewma-red", "wred"})
+	public String policy; // the name of the drop policy under test (see DropPolicyRegistry)
+
+	@Param({"4", "10", "12", "16", "24"})
+	public int load; // the number of cells offered each tick (the link takes 10)
+
+	private SinkConsumer source; // where the cells are sent from
+	private ATMNIC nic; // the nic under test
+	private SinkConsumer sink; // what the nic's link is connected to
+	private ATMCell[] cells = new ATMCell[STREAM_CELLS]; // the stream of cells offered to the nic
+	private int next = 0; // the next cell in the stream
+
+	@Setup
+	public void setup(){
+		EventLog.setLevel(LogLevel.OFF);
+		MetricsRegistry.getDefault().clear();
+		ATMCellPool.setEnabled(false);
+
+		this.source = new SinkConsumer();
+		this.nic = new ATMNIC(this.source);
+		this.sink = SinkConsumer.connectTo(this.nic);
+		this.source.useDropPolicy(this.policy);
+
+		byte[] payload = new byte[48 * PACKET_CELLS];
+		for(int i=0; i<STREAM_CELLS; i++){
+			if(i % PACKET_CELLS == 0)
+				this.cells[i] = new ATMCell(1, new IPPacket(1, 2, 48 * 8 * PACKET_CELLS), i);
+			else
+				this.cells[i] = new ATMCell(1, payload, 48 * (i % PACKET_CELLS), 48, i);
+			this.cells[i].setCLP((i / PACKET_CELLS) % 2 == 1);
+		}
+	}
+
+	/**
+	 * Offers one tick's worth of cells to the nic, then sends the line rate's worth onto the link
+	 * @since 1.3
+	 */
+	@Benchmark
+	public void tick(){
+		for(int i=0; i<this.load; i++){
+			this.nic.sendCell(this.cells[this.next], this.source);
+			this.next = (this.next + 1) & (STREAM_CELLS - 1);
+		}
+		this.nic.clearOutputBuffers();
+		this.sink.clearInputBuffers();
+	}
+}
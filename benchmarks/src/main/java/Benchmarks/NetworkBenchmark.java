@@ -0,0 +1,112 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Benchmarks;
+
+import DataTypes.*;
+import Logging.*;
+import Metrics.*;
+import NetworkElements.*;
+import Simulation.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Runs whole generated networks (see TreeTopology) one tick at a time, with every computer sending
+ * a packet each tick. The "cells" counter is the number of cells the computers offered to the
+ * network, so JMH reports it as cells per second. Run with -prof gc to get the allocation rate
+ * (per tick and per second) as well, e.g.
+ * java -jar benchmarks/target/benchmarks.jar NetworkBenchmark -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkBenchmark {
+	@Param({"15", "63", "255"})
+	public int routers; // the number of routers in the network
+
+	@Param({"event", "tick", "tick4"})
+	public String mode; // event driven, or every object stepped every tick (on 1 or 4 threads)
+
+	@Param({"1000"})
+	public int packetBits; // the size of the packets the computers send
+
+	@Param({"false", "true"})
+	public boolean pooled; // are cells taken from the cell pool?
+
+	@Param({"fifo", "wfq"})
+	public String queue; // how the routers' nics share their links between VCs
+
+	private TreeTopology network; // the network under test
+	private Simulator simulator; // runs the network when event driven
+	private TickEngine engine; // runs the network when stepped every tick
+	private int cellsPerTick; // the number of cells the computers send each tick
+
+	/**
+	 * The number of cells offered to the network, reported as a rate
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Cells {
+		public long cells; // the number of cells offered
+
+		@Setup(Level.Iteration)
+		public void reset(){
+			this.cells = 0;
+		}
+	}
+
+	@Setup
+	public void setup(){
+		EventLog.setLevel(LogLevel.OFF);
+		MetricsRegistry.getDefault().clear();
+		ATMCellPool.setEnabled(this.pooled);
+
+		this.simulator = new Simulator();
+		this.network = new TreeTopology(this.routers, 42, this.simulator);
+		for(IATMCellConsumer consumer : this.network.getConsumers())
+			consumer.useTailDrop();
+		for(ATMRouter router : this.network.getRouters())
+			if(this.queue.equals("wfq"))
+				router.useWFQ();
+			else
+				router.useFIFO();
+		if(this.mode.equals("tick"))
+			this.engine = new TickEngine(this.network.getConsumers(), 1);
+		else if(this.mode.equals("tick4"))
+			this.engine = new TickEngine(this.network.getConsumers(), 4);
+		else if(!this.mode.equals("event"))
+			throw new IllegalArgumentException("Unknown mode " + this.mode);
+
+		this.cellsPerTick = this.network.getComputers().size() * ((this.packetBits + 48*8 - 1) / (48*8));
+	}
+
+	@TearDown
+	public void tearDown(){
+		if(this.engine!=null)
+			this.engine.shutdown();
+		ATMCellPool.setEnabled(false);
+	}
+
+	/**
+	 * Every computer sends a packet, then the network moves forward one tick
+	 * @since 1.3
+	 */
+	@Benchmark
+	public void tick(Cells counter){
+		for(Computer computer : this.network.getComputers())
+			computer.sendPacket(this.packetBits);
+		if(this.engine!=null)
+			this.engine.tick();
+		else
+			this.simulator.runUntil(this.simulator.getTime()+1);
+		counter.cells += this.cellsPerTick;
+	}
+}
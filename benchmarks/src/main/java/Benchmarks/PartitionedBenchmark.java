@@ -0,0 +1,119 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Benchmarks;
+
+import Logging.*;
+import Metrics.*;
+import NetworkElements.*;
+import Simulation.*;
+import Topology.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Runs a grid of routers (each with a computer, and links with a delay between the routers) on one event
+ * driven simulator, and split by NetworkPartitioner into partitions run by a PartitionedSimulator with a
+ * thread for each. Each operation every computer sends a packet and the network runs for a few ticks.
+ * As in NetworkBenchmark the "cells" counter is the number of cells offered to the network, so the
+ * speedup of the partitioned runs is their cells per second over that of the event driven run, e.g.
+ * java -jar benchmarks/target/benchmarks.jar PartitionedBenchmark -p side=64
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartitionedBenchmark {
+	private static final int DELAY = 4; // the delay of the links between routers, which is the lookahead
+	private static final int TICKS = 16; // the number of ticks run each operation
+
+	@Param({"16", "32"})
+	public int side; // the grid is side x side routers
+
+	@Param({"event", "part1", "part2", "part4"})
+	public String mode; // one event driven simulator, or the grid split into 1, 2 or 4 partitions (each with a thread)
+
+	@Param({"1000"})
+	public int packetBits; // the size of the packets the computers send
+
+	private Network network; // the network under test
+	private Simulator simulator; // runs the network when it isn't partitioned
+	private PartitionedSimulator partitioned; // runs the network when it is partitioned
+	private long time; // the tick the network has run up to
+	private int cellsPerOperation; // the number of cells the computers send each operation
+
+	@Setup
+	public void setup(){
+		EventLog.setLevel(LogLevel.OFF);
+		MetricsRegistry.getDefault().clear();
+
+		this.network = new Network();
+		int routers = this.side*this.side;
+		for(int address=1; address<=routers; address++)
+			this.network.addRouter(address).displayCommands(false);
+		for(int address=1; address<=routers; address++){
+			if(address % this.side != 0)
+				this.network.addLink(address, address+1, 10, DELAY);
+			if(address + this.side <= routers)
+				this.network.addLink(address, address+this.side, 10, DELAY);
+			this.network.addComputer(Integer.toString(address), address, 10, 0).setTrace(false);
+		}
+		this.network.computeRoutes(1);
+
+		if(this.mode.equals("event")){
+			this.simulator = new Simulator();
+			for(IATMCellConsumer consumer : this.network.getConsumers())
+				consumer.setClock(this.simulator);
+		}
+		else if(this.mode.startsWith("part")){
+			int parts = Integer.parseInt(this.mode.substring(4));
+			int[] partition = new NetworkPartitioner(this.network).partition(parts);
+			this.partitioned = new PartitionedSimulator(this.network.getConsumers(), partition, this.network.getLinks(), parts);
+		}
+		else
+			throw new IllegalArgumentException("Unknown mode " + this.mode);
+
+		Random random = new Random(42);
+		for(Computer computer : this.network.getComputers())
+			computer.setupConnection(random.nextInt(routers)+1);
+		if(this.simulator!=null){
+			this.simulator.run();
+			this.time = this.simulator.getTime();
+		}
+		else{
+			this.partitioned.run();
+			this.time = this.partitioned.getTime();
+		}
+
+		this.cellsPerOperation = this.network.getComputers().size() * ((this.packetBits + 48*8 - 1) / (48*8));
+	}
+
+	@TearDown
+	public void tearDown(){
+		if(this.partitioned!=null)
+			this.partitioned.shutdown();
+	}
+
+	/**
+	 * Every computer sends a packet, then the network moves forward a few ticks
+	 * @since 1.3
+	 */
+	@Benchmark
+	public void run(NetworkBenchmark.Cells counter){
+		for(Computer computer : this.network.getComputers())
+			computer.sendPacket(this.packetBits);
+		this.time += TICKS;
+		if(this.simulator!=null)
+			this.simulator.runUntil(this.time);
+		else
+			this.partitioned.runUntil(this.time);
+		counter.cells += this.cellsPerOperation;
+	}
+}
@@ -0,0 +1,153 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Benchmarks;
+
+import DataTypes.*;
+import Logging.*;
+import Metrics.*;
+import NetworkElements.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures ATMRouter.receiveCell on a transit router that already has a number of VCs set up through
+ * it: forwarding a data cell on one of them, a whole call (setup, connect, end) going through it, and
+ * a batch of calls that are all being set up at the same time. The router has a nic towards the callers
+ * and a nic towards the called router, both connected to sinks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouterBenchmark {
+	private static final int ADDRESS = 1, DEST = 2; // the addresses of the router and the router it connects to
+	private static final int LOOKUPS = 4096; // the number of VCs in the lookup sequence (a power of 2)
+	private static final int CONCURRENT_CALLS = 64; // the number of calls set up at once by concurrentCalls
+
+	@Param({"16", "1024", "16384"})
+	public int vcs; // the number of VCs set up through the router
+
+	private ATMRouter router; // the router under test
+	private ATMNIC callerNIC, calledNIC; // the router's nics towards the callers and the called router
+	private SinkConsumer callers, called; // what the router's nics are connected to
+	private int[] lookups = new int[LOOKUPS]; // the VCs the data cells arrive on, in order
+	private int next = 0; // the next VC in the lookup sequence
+	private ATMCell dataCell; // the data cell that is forwarded
+	private int traceID = 0; // the trace ID for the signalling cells
+	private int[] callRefs = new int[CONCURRENT_CALLS]; // the router's references for the calls being set up
+	private int[] inVCs = new int[CONCURRENT_CALLS]; // the VCs the router gave the calls being set up
+
+	@Setup
+	public void setup(){
+		EventLog.setLevel(LogLevel.OFF);
+		MetricsRegistry.getDefault().clear();
+		ATMCellPool.setEnabled(false);
+
+		this.router = new ATMRouter(ADDRESS);
+		this.callerNIC = new ATMNIC(this.router);
+		this.calledNIC = new ATMNIC(this.router);
+		this.callers = SinkConsumer.connectTo(this.callerNIC);
+		this.called = SinkConsumer.connectTo(this.calledNIC);
+		this.router.addNextHopInterface(DEST, this.calledNIC);
+
+		int[] inVCs = new int[this.vcs];
+		for(int i=0; i<this.vcs; i++)
+			inVCs[i] = this.setupCall(i+1);
+		Random random = new Random(42);
+		for(int i=0; i<LOOKUPS; i++)
+			this.lookups[i] = inVCs[random.nextInt(this.vcs)];
+		this.dataCell = new ATMCell(0, new byte[48], 0, 48, 0);
+	}
+
+	/**
+	 * Sends a call through the router, and returns the VC the router gave it on the callers' side
+	 * @since 1.3
+	 */
+	private int setupCall(int outVC){
+		this.connect(this.sendSetup(), outVC);
+		return this.callers.getLastOAMValue();
+	}
+
+	/**
+	 * Sends a setup through the router, and returns the call reference the router gave it on the next hop
+	 * @since 1.3
+	 */
+	private int sendSetup(){
+		this.router.receiveCell(new ATMCell(0, OAMType.SETUP, DEST, this.traceID++), this.callerNIC);
+		this.flush();
+		return this.called.getLastCallRef();
+	}
+
+	/**
+	 * Sends the connect message for a call back through the router
+	 * @since 1.3
+	 */
+	private void connect(int callRef, int outVC){
+		ATMCell conn = new ATMCell(0, OAMType.CONN, outVC, this.traceID++);
+		conn.setCallRef(callRef);
+		this.router.receiveCell(conn, this.calledNIC);
+		this.flush();
+	}
+
+	/**
+	 * Sends the router's signalling messages to the sinks
+	 * @since 1.3
+	 */
+	private void flush(){
+		this.callerNIC.clearOutputBuffers();
+		this.calledNIC.clearOutputBuffers();
+		this.callers.clearInputBuffers();
+		this.called.clearInputBuffers();
+	}
+
+	/**
+	 * Forwards a data cell arriving on one of the VCs
+	 * @since 1.3
+	 */
+	@Benchmark
+	public void forward(){
+		this.dataCell.setVC(this.lookups[this.next]);
+		this.next = (this.next + 1) & (LOOKUPS - 1);
+		this.router.receiveCell(this.dataCell, this.callerNIC);
+		this.calledNIC.clearOutputBuffers();
+		this.called.clearInputBuffers();
+	}
+
+	/**
+	 * Sets up a call through the router and ends it again
+	 * @since 1.3
+	 */
+	@Benchmark
+	public void call(){
+		int inVC = this.setupCall(this.vcs+1);
+		this.router.receiveCell(new ATMCell(inVC, OAMType.END, inVC, this.traceID++), this.callerNIC);
+		this.flush();
+	}
+
+	/**
+	 * Sends the setups for a batch of calls through the router before any of them are connected, then
+	 * connects them and ends them again (each call is one operation)
+	 * @since 1.3
+	 */
+	@Benchmark
+	@OperationsPerInvocation(CONCURRENT_CALLS)
+	public void concurrentCalls(){
+		for(int i=0; i<CONCURRENT_CALLS; i++)
+			this.callRefs[i] = this.sendSetup();
+		for(int i=0; i<CONCURRENT_CALLS; i++){
+			this.connect(this.callRefs[i], this.vcs+1+i);
+			this.inVCs[i] = this.callers.getLastOAMValue();
+		}
+		for(int i=0; i<CONCURRENT_CALLS; i++)
+			this.router.receiveCell(new ATMCell(this.inVCs[i], OAMType.END, this.inVCs[i], this.traceID++), this.callerNIC);
+		this.flush();
+	}
+}
@@ -0,0 +1,161 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Benchmarks;
+
+import DataTypes.*;
+import NetworkElements.*;
+import Simulation.*;
+
+/**
+ * Something for a nic to plug into that throws away every cell it is given, so a benchmark can
+ * push cells through a nic or router without a network behind it
+ */
+public class SinkConsumer implements IATMCellConsumer {
+	private ATMNIC nic = null; // the nic in the sink
+	private long received = 0; // the number of cells the sink has thrown away
+	private int lastOAMValue = -1; // the number carried by the last signalling message received
+	private int lastCallRef = 0; // the call reference of the last signalling message received
+
+	/**
+	 * Creates a sink and plugs it into the other end of a link from a nic
+	 * @param nic the nic the sink is connected to
+	 * @return the sink
+	 * @since 1.3
+	 */
+	public static SinkConsumer connectTo(ATMNIC nic){
+		SinkConsumer sink = new SinkConsumer();
+		new OtoOLink(nic, new ATMNIC(sink));
+		return sink;
+	}
+
+	/**
+	 * Returns the number of cells the sink has thrown away
+	 * @return the number of cells received
+	 * @since 1.3
+	 */
+	public long getReceived(){
+		return this.received;
+	}
+
+	/**
+	 * Returns the number carried by the last signalling message the sink received
+	 * @return the number carried by the last signalling message
+	 * @since 1.3
+	 */
+	public int getLastOAMValue(){
+		return this.lastOAMValue;
+	}
+
+	/**
+	 * Returns the call reference of the last signalling message the sink received
+	 * @return the call reference of the last signalling message
+	 * @since 1.3
+	 */
+	public int getLastCallRef(){
+		return this.lastCallRef;
+	}
+
+	/**
+	 * Returns the nic in the sink
+	 * @return the nic in the sink
+	 * @since 1.3
+	 */
+	public ATMNIC getNIC(){
+		return this.nic;
+	}
+
+	/**
+	 * Plugs a nic into the sink
+	 * @param nic the nic
+	 * @since 1.3
+	 */
+	public void addNIC(ATMNIC nic){
+		this.nic = nic;
+	}
+
+	/**
+	 * Throws away a cell
+	 * @param cell the cell that was received
+	 * @param nic the nic the cell was received on
+	 * @since 1.3
+	 */
+	public void receiveCell(ATMCell cell, ATMNIC nic){
+		this.received++;
+		if(cell.getIsOAM()){
+			this.lastOAMValue = cell.getOAMValue();
+			this.lastCallRef = cell.getCallRef();
+		}
+		ATMCellPool.release(cell);
+	}
+
+	/**
+	 * Moves the cells from the nics output buffer onto the link
+	 * @since 1.3
+	 */
+	public void clearOutputBuffers(){
+		this.nic.clearOutputBuffers();
+	}
+
+	/**
+	 * Passes the cells in the nics input buffer to the sink
+	 * @since 1.3
+	 */
+	public void clearInputBuffers(){
+		this.nic.clearInputBuffers();
+	}
+
+	/**
+	 * Sets the nic in the sink to use tail drop
+	 * @since 1.3
+	 */
+	public void useTailDrop(){
+		this.nic.setIsTailDrop();
+	}
+
+	/**
+	 * Sets the nic in the sink to use RED
+	 * @since 1.3
+	 */
+	public void useRED(){
+		this.nic.setIsRED();
+	}
+
+	/**
+	 * Sets the nic in the sink to use PPD
+	 * @since 1.3
+	 */
+	public void usePPD(){
+		this.nic.setIsPPD();
+	}
+
+	/**
+	 * Sets the nic in the sink to use EPD
+	 * @since 1.3
+	 */
+	public void useEPD(){
+		this.nic.setIsEPD();
+	}
+
+	/**
+	 * Sets the nic in the sink to use a drop policy from the DropPolicyRegistry
+	 * @param name the name of the policy
+	 * @since 1.3
+	 */
+	public void useDropPolicy(String name){
+		this.nic.setDropPolicy(name);
+	}
+
+	/**
+	 * Sets the clock the nic in the sink runs on
+	 * @param clock the clock to use
+	 * @since 1.3
+	 */
+	public void setClock(IClock clock){
+		this.nic.setClock(clock);
+	}
+}
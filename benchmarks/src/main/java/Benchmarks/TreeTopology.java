@@ -0,0 +1,107 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Benchmarks;
+
+import NetworkElements.*;
+import Simulation.*;
+import java.util.*;
+
+/**
+ * Builds a network of routers joined up as a binary tree (router i's parent is router (i-1)/2) with
+ * a computer on every leaf router. Each computer sets up a connection to a router picked at random,
+ * so the routes run up and down the tree and the links near the root carry the most cells.
+ */
+public class TreeTopology {
+	private ArrayList<ATMRouter> routers = new ArrayList<ATMRouter>(); // the routers, router i has address i+1
+	private ArrayList<Computer> computers = new ArrayList<Computer>(); // the computers on the leaf routers
+	private ArrayList<IATMCellConsumer> consumers = new ArrayList<IATMCellConsumer>(); // the routers and the computers
+
+	/**
+	 * Builds the network and sets up every computer's connection, using an event driven simulator
+	 * @param size the number of routers
+	 * @param seed picks the router each computer connects to
+	 * @param simulator the simulator to set the connections up with
+	 * @since 1.3
+	 */
+	public TreeTopology(int size, long seed, Simulator simulator){
+		ATMNIC[] upNICs = new ATMNIC[size]; // upNICs[i] is router i's nic towards its parent
+		ATMNIC[][] downNICs = new ATMNIC[size][2]; // downNICs[i][c] is router i's nic towards its child c
+
+		for(int i=0; i<size; i++){
+			ATMRouter router = new ATMRouter(i+1);
+			router.displayCommands(false);
+			this.routers.add(router);
+			this.consumers.add(router);
+			if(i > 0){
+				int parent = (i-1)/2;
+				upNICs[i] = new ATMNIC(router);
+				downNICs[parent][(i-1)%2] = new ATMNIC(this.routers.get(parent));
+				new OtoOLink(downNICs[parent][(i-1)%2], upNICs[i]);
+			}
+		}
+
+		// the next hop to j is the child whose subtree j is in, otherwise the parent
+		for(int i=0; i<size; i++)
+			for(int j=0; j<size; j++){
+				if(i==j)
+					continue;
+				int k = j;
+				while(k > i && (k-1)/2 != i)
+					k = (k-1)/2;
+				ATMNIC nic = (k > i && (k-1)/2 == i) ? downNICs[i][(k-1)%2] : upNICs[i];
+				this.routers.get(i).addNextHopInterface(j+1, nic);
+			}
+
+		for(int i=0; i<size; i++)
+			if(2*i+1 >= size){
+				Computer computer = new Computer(Integer.toString(i+1));
+				computer.setTrace(false);
+				new OtoOLink(new ATMNIC(computer), new ATMNIC(this.routers.get(i)));
+				this.computers.add(computer);
+				this.consumers.add(computer);
+			}
+
+		for(IATMCellConsumer consumer : this.consumers)
+			consumer.setClock(simulator);
+
+		// set the connections up one at a time, as a burst of signalling can fill the buffers near the
+		// root and there is nothing to retry a setup that is dropped
+		Random random = new Random(seed);
+		for(Computer computer : this.computers){
+			computer.setupConnection(random.nextInt(size)+1);
+			simulator.run();
+		}
+	}
+
+	/**
+	 * Returns the routers in the network
+	 * @return the routers
+	 * @since 1.3
+	 */
+	public List<ATMRouter> getRouters(){
+		return this.routers;
+	}
+
+	/**
+	 * Returns the computers in the network
+	 * @return the computers
+	 * @since 1.3
+	 */
+	public List<Computer> getComputers(){
+		return this.computers;
+	}
+
+	/**
+	 * Returns every router and computer in the network
+	 * @return the routers and computers
+	 * @since 1.3
+	 */
+	public List<IATMCellConsumer> getConsumers(){
+		return this.consumers;
+	}
+}
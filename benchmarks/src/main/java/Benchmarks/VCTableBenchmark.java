@@ -0,0 +1,89 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Benchmarks;
+
+import DataTypes.*;
+import Logging.*;
+import Metrics.*;
+import NetworkElements.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures looking up (and setting up and tearing down) VCs in a VCTable as the table grows.
+ * The VCs looked up are picked at random so the table doesn't sit in the same few cache lines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VCTableBenchmark {
+	private static final int LOOKUPS = 4096; // the number of VCs in the lookup sequence (a power of 2)
+
+	@Param({"16", "1024", "65536", "1048576"})
+	public int size; // the number of VCs in the table
+
+	private VCTable table; // the table under test
+	private int[] lookups = new int[LOOKUPS]; // the VCs to look up, in order
+	private int next = 0; // the next VC in the lookup sequence
+
+	@Setup
+	public void setup(){
+		EventLog.setLevel(LogLevel.OFF);
+		MetricsRegistry.getDefault().clear();
+
+		SinkConsumer router = new SinkConsumer();
+		ATMNIC[] nics = new ATMNIC[4];
+		for(int i=0; i<nics.length; i++)
+			nics[i] = new ATMNIC(router);
+
+		this.table = new VCTable();
+		int[] vcs = new int[this.size];
+		for(int i=0; i<this.size; i++){
+			vcs[i] = this.table.allocate();
+			this.table.setForward(vcs[i], nics[i % nics.length], i+1);
+		}
+		Random random = new Random(42);
+		for(int i=0; i<LOOKUPS; i++)
+			this.lookups[i] = vcs[random.nextInt(this.size)];
+	}
+
+	/**
+	 * Looks up where a cell on a VC should be sent, like ATMRouter does for every data cell
+	 * @since 1.3
+	 */
+	@Benchmark
+	public void lookup(Blackhole blackhole){
+		int vc = this.lookups[this.next];
+		this.next = (this.next + 1) & (LOOKUPS - 1);
+		if(!this.table.isEnd(vc)){
+			blackhole.consume(this.table.getNIC(vc));
+			blackhole.consume(this.table.getOutVC(vc));
+		}
+	}
+
+	/**
+	 * Frees a VC and sets up a new one, like a call ending and another starting on a full table
+	 * @since 1.3
+	 */
+	@Benchmark
+	public int churn(){
+		int vc = this.lookups[this.next];
+		this.next = (this.next + 1) & (LOOKUPS - 1);
+		ATMNIC nic = this.table.getNIC(vc);
+		int outVC = this.table.getOutVC(vc);
+		this.table.release(vc);
+		int newVC = this.table.allocate();
+		this.table.setForward(newVC, nic, outVC);
+		return newVC;
+	}
+}
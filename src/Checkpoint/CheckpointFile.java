@@ -0,0 +1,114 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Checkpoint;
+
+import Simulation.*;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Saves the state of a whole network (e.g. Network.getConsumers()) and the time on its clock to one
+ * file, and restores it into a network built the same way, so a long run can be picked up from where
+ * it was saved instead of being simulated again from the start. The file starts with a header (the
+ * magic number, the format version, the size of the checkpoint, the tick and the number of elements)
+ * followed by each element's state in order. The size is there because a file that is replaced isn't
+ * cut short (see CheckpointWriter), so there may be something left after the end of the checkpoint. Only the state that decides what happens next is saved: the contents of the tables,
+ * buffers and links. The counters in the metrics, the log, and the random number streams are not, so a
+ * restored run makes the same forwarding decisions but not necessarily the same random drops.
+ */
+public class CheckpointFile {
+	private static final int MAGIC = 0x41544D43; // "ATMC", at the start of every checkpoint
+	private static final int VERSION = 5; // the version of the format
+
+	private CheckpointFile(){}
+
+	/**
+	 * Saves the state of every element, and the time on the clock
+	 * @param file the path of the file to write (replaced if it exists)
+	 * @param elements the elements to save (every one has to be ICheckpointable)
+	 * @param clock the clock the elements run on
+	 * @return the size of the checkpoint in bytes
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public static long save(String file, List<?> elements, IClock clock) throws IOException{
+		CheckpointWriter out = new CheckpointWriter(file);
+		try{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			long sizeAt = out.getPosition();
+			out.writeLong(0); // written over once the size is known
+			out.writeLong(clock.getTime());
+			out.writeInt(elements.size());
+			for(int i=0; i<elements.size(); i++){
+				ICheckpointable element = checkpointable(elements.get(i));
+				out.writeString(element.getClass().getName());
+				element.saveState(out);
+			}
+			long size = out.getPosition();
+			out.writeLongAt(sizeAt, size);
+			return size;
+		}
+		finally{
+			out.close();
+		}
+	}
+
+	/**
+	 * Restores the state of every element, and moves the clock to the tick the checkpoint was saved at.
+	 * The elements have to be built the same way as the ones that were saved, in the same order, and be
+	 * on the clock already. An event driven clock can't have any events waiting (so start any traffic
+	 * after restoring)
+	 * @param file the path of the file to read
+	 * @param elements the elements to restore (every one has to be ICheckpointable)
+	 * @param clock the clock the elements run on
+	 * @return the tick the checkpoint was saved at
+	 * @throws IOException if the file can't be read, or doesn't match the elements
+	 * @since 1.3
+	 */
+	public static long restore(String file, List<?> elements, IClock clock) throws IOException{
+		CheckpointReader in = new CheckpointReader(file);
+		try{
+			if(in.readInt()!=MAGIC)
+				throw new IOException("Error (CheckpointFile): " + file + " is not a checkpoint");
+			int version = in.readInt();
+			if(version!=VERSION)
+				throw new IOException("Error (CheckpointFile): " + file + " is version " + version + " of the format, but only version " + VERSION + " can be read");
+			in.setSize(in.readLong());
+			long time = in.readLong();
+			int count = in.readInt();
+			if(count!=elements.size())
+				throw new IOException("Error (CheckpointFile): The checkpoint has " + count + " elements, but there are " + elements.size() + " to restore");
+
+			// the clock has to be moved first, so the cells put back in the buffers are scheduled from that tick
+			clock.setTime(time);
+			for(int i=0; i<count; i++){
+				ICheckpointable element = checkpointable(elements.get(i));
+				String type = in.readString();
+				if(!element.getClass().getName().equals(type))
+					throw new IOException("Error (CheckpointFile): Element " + i + " of the checkpoint is a " + type + ", but the element to restore is a "
+							+ element.getClass().getName());
+				element.restoreState(in);
+			}
+			return time;
+		}
+		finally{
+			in.close();
+		}
+	}
+
+	/**
+	 * Returns an element as something that can be checkpointed
+	 * @since 1.3
+	 */
+	private static ICheckpointable checkpointable(Object element){
+		if(!(element instanceof ICheckpointable))
+			throw new IllegalArgumentException("Error (CheckpointFile): A " + element.getClass().getName() + " can't be checkpointed");
+		return (ICheckpointable) element;
+	}
+}
@@ -0,0 +1,311 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Checkpoint;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+
+/**
+ * Reads a checkpoint file written by CheckpointWriter, through a read only memory mapped window that
+ * slides along the file. Every read has to match the write that made it, in the same order.
+ */
+public class CheckpointReader implements Closeable {
+	private FileChannel channel; // the file
+	private long fileSize; // the size of the file
+	private MappedByteBuffer buffer; // the part of the file being read
+	private long windowStart = 0; // where the window starts in the file
+	private ArrayList<Object> references = new ArrayList<Object>(); // the shared objects read so far, by number
+
+	/**
+	 * Opens a checkpoint file
+	 * @param file the path of the file
+	 * @throws IOException if the file can't be read
+	 * @since 1.3
+	 */
+	public CheckpointReader(String file) throws IOException{
+		this.channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+		this.fileSize = this.channel.size();
+		this.map(0);
+	}
+
+	/**
+	 * Sets where the checkpoint ends, if the file goes on after it (e.g. it replaced a bigger checkpoint)
+	 * @param size the size of the checkpoint in bytes
+	 * @throws IOException if the file is shorter than that
+	 * @since 1.3
+	 */
+	public void setSize(long size) throws IOException{
+		if(size > this.channel.size())
+			throw new EOFException("Error (CheckpointReader): The checkpoint should be " + size + " bytes long, but the file is only " + this.channel.size());
+		this.fileSize = size;
+		if(this.windowStart + this.buffer.limit() > size)
+			this.buffer.limit((int) Math.max(size - this.windowStart, this.buffer.position()));
+	}
+
+	/**
+	 * Reads a byte
+	 * @return the byte
+	 * @throws IOException if the file can't be read, or has ended
+	 * @since 1.3
+	 */
+	public int readByte() throws IOException{
+		this.ensure(1);
+		return this.buffer.get();
+	}
+
+	/**
+	 * Reads a boolean
+	 * @return the boolean
+	 * @throws IOException if the file can't be read, or has ended
+	 * @since 1.3
+	 */
+	public boolean readBoolean() throws IOException{
+		return this.readByte()!=0;
+	}
+
+	/**
+	 * Reads an int
+	 * @return the int
+	 * @throws IOException if the file can't be read, or has ended
+	 * @since 1.3
+	 */
+	public int readInt() throws IOException{
+		this.ensure(4);
+		return this.buffer.getInt();
+	}
+
+	/**
+	 * Reads a long
+	 * @return the long
+	 * @throws IOException if the file can't be read, or has ended
+	 * @since 1.3
+	 */
+	public long readLong() throws IOException{
+		this.ensure(8);
+		return this.buffer.getLong();
+	}
+
+	/**
+	 * Reads a double
+	 * @return the double
+	 * @throws IOException if the file can't be read, or has ended
+	 * @since 1.3
+	 */
+	public double readDouble() throws IOException{
+		this.ensure(8);
+		return this.buffer.getDouble();
+	}
+
+	/**
+	 * Reads a string
+	 * @return the string, or null if a null was written
+	 * @throws IOException if the file can't be read, or has ended
+	 * @since 1.3
+	 */
+	public String readString() throws IOException{
+		int length = this.readInt();
+		if(length < 0)
+			return null;
+		byte[] bytes = new byte[length];
+		this.readBytes(bytes, 0, length);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads some bytes into an array
+	 * @param values the array to put them in
+	 * @param offset where to put them in the array
+	 * @param length the number of bytes
+	 * @throws IOException if the file can't be read, or has ended
+	 * @since 1.3
+	 */
+	public void readBytes(byte[] values, int offset, int length) throws IOException{
+		while(length > 0){
+			int count = Math.min(length, this.room(1));
+			this.buffer.get(values, offset, count);
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/**
+	 * Reads an int array
+	 * @param minLength the length the array has to be at least (the rest is filled with 0s)
+	 * @return the array
+	 * @throws IOException if the file can't be read, or has ended
+	 * @since 1.3
+	 */
+	public int[] readInts(int minLength) throws IOException{
+		int length = this.readLength();
+		int[] values = new int[Math.max(length, minLength)];
+		int offset = 0;
+		while(offset < length){
+			int count = Math.min(length - offset, this.room(4));
+			this.buffer.asIntBuffer().get(values, offset, count);
+			this.buffer.position(this.buffer.position() + count*4);
+			offset += count;
+		}
+		return values;
+	}
+
+	/**
+	 * Reads a long array
+	 * @param minLength the length the array has to be at least (the rest is filled with 0s)
+	 * @return the array
+	 * @throws IOException if the file can't be read, or has ended
+	 * @since 1.3
+	 */
+	public long[] readLongs(int minLength) throws IOException{
+		int length = this.readLength();
+		long[] values = new long[Math.max(length, minLength)];
+		int offset = 0;
+		while(offset < length){
+			int count = Math.min(length - offset, this.room(8));
+			this.buffer.asLongBuffer().get(values, offset, count);
+			this.buffer.position(this.buffer.position() + count*8);
+			offset += count;
+		}
+		return values;
+	}
+
+	/**
+	 * Reads a double array
+	 * @param minLength the length the array has to be at least (the rest is filled with 0s)
+	 * @return the array
+	 * @throws IOException if the file can't be read, or has ended
+	 * @since 1.3
+	 */
+	public double[] readDoubles(int minLength) throws IOException{
+		int length = this.readLength();
+		double[] values = new double[Math.max(length, minLength)];
+		int offset = 0;
+		while(offset < length){
+			int count = Math.min(length - offset, this.room(8));
+			this.buffer.asDoubleBuffer().get(values, offset, count);
+			this.buffer.position(this.buffer.position() + count*8);
+			offset += count;
+		}
+		return values;
+	}
+
+	/**
+	 * Reads a char array
+	 * @param minLength the length the array has to be at least (the rest is filled with 0s)
+	 * @return the array
+	 * @throws IOException if the file can't be read, or has ended
+	 * @since 1.3
+	 */
+	public char[] readChars(int minLength) throws IOException{
+		int length = this.readLength();
+		char[] values = new char[Math.max(length, minLength)];
+		int offset = 0;
+		while(offset < length){
+			int count = Math.min(length - offset, this.room(2));
+			this.buffer.asCharBuffer().get(values, offset, count);
+			this.buffer.position(this.buffer.position() + count*2);
+			offset += count;
+		}
+		return values;
+	}
+
+	/**
+	 * Reads the number of a shared object written with CheckpointWriter.writeReference
+	 * @return the number of the object
+	 * @throws IOException if the file can't be read, or has ended
+	 * @since 1.3
+	 */
+	public int readReference() throws IOException{
+		return this.readInt();
+	}
+
+	/**
+	 * Returns a shared object that has already been read
+	 * @param number the number of the object
+	 * @return the object, or null if it hasn't been read yet (so the caller should read it and call putReference)
+	 * @since 1.3
+	 */
+	public Object getReference(int number){
+		if(number < this.references.size())
+			return this.references.get(number);
+		return null;
+	}
+
+	/**
+	 * Remembers a shared object that has just been read, for the elements that refer to it later
+	 * @param number the number of the object
+	 * @param object the object
+	 * @throws IOException if the number is out of order (the file is corrupt)
+	 * @since 1.3
+	 */
+	public void putReference(int number, Object object) throws IOException{
+		if(number!=this.references.size())
+			throw new IOException("Error (CheckpointReader): Shared object " + number + " is out of order");
+		this.references.add(object);
+	}
+
+	/**
+	 * Closes the file
+	 * @throws IOException if the file can't be closed
+	 * @since 1.3
+	 */
+	public void close() throws IOException{
+		if(this.channel==null)
+			return;
+		this.buffer = null;
+		this.channel.close();
+		this.channel = null;
+	}
+
+	/**
+	 * Reads the length of an array, and checks it is possible
+	 * @since 1.3
+	 */
+	private int readLength() throws IOException{
+		int length = this.readInt();
+		if(length < 0)
+			throw new IOException("Error (CheckpointReader): The checkpoint is corrupt (an array has a length of " + length + ")");
+		return length;
+	}
+
+	/**
+	 * Makes sure a value is in the window
+	 * @since 1.3
+	 */
+	private void ensure(int bytes) throws IOException{
+		if(this.buffer.remaining() < bytes){
+			long position = this.windowStart + this.buffer.position();
+			if(position + bytes > this.fileSize)
+				throw new EOFException("Error (CheckpointReader): The checkpoint ended early");
+			this.map(position);
+		}
+	}
+
+	/**
+	 * Returns how many values of a size are in the window, moving the window on if none are
+	 * @since 1.3
+	 */
+	private int room(int size) throws IOException{
+		this.ensure(size);
+		return this.buffer.remaining() / size;
+	}
+
+	/**
+	 * Maps the window at a place in the file
+	 * @since 1.3
+	 */
+	private void map(long start) throws IOException{
+		this.windowStart = start;
+		long size = Math.min(CheckpointWriter.WINDOW, this.fileSize - start);
+		this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+		this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+	}
+}
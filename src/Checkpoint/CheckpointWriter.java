@@ -0,0 +1,313 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Checkpoint;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.IdentityHashMap;
+
+/**
+ * Writes a checkpoint file through a direct buffer (the window) that is written to the file each time
+ * it fills, so the file can be any size and the values only have to be copied once. The file is never
+ * memory mapped, and a file being replaced is written over rather than emptied first, as Windows won't
+ * cut a file short while a reader still has it mapped. Anything left of the old file after the end of
+ * the new checkpoint is cut off if it can be, and otherwise ignored (so the checkpoint has to say how
+ * long it is, see writeLongAt). Values are written little
+ * endian with no padding, and arrays are copied in bulk. Objects that are shared between the
+ * elements (like the address map of the routing tables) can be written once and referred to after that.
+ */
+public class CheckpointWriter implements Closeable {
+	static final int WINDOW = 16 << 20; // the number of bytes buffered (or mapped, by the reader) at once
+	private FileChannel channel; // the file
+	private ByteBuffer buffer; // the part of the file being written
+	private long windowStart = 0; // where the window starts in the file
+	private IdentityHashMap<Object, Integer> references = new IdentityHashMap<Object, Integer>(); // the shared objects written so far, and their numbers
+
+	/**
+	 * Creates (or replaces) a checkpoint file
+	 * @param file the path of the file
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public CheckpointWriter(String file) throws IOException{
+		this.channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		this.buffer = ByteBuffer.allocateDirect(WINDOW);
+		this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Writes a byte
+	 * @param value the byte
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public void writeByte(int value) throws IOException{
+		this.ensure(1);
+		this.buffer.put((byte) value);
+	}
+
+	/**
+	 * Writes a boolean (as a byte)
+	 * @param value the boolean
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public void writeBoolean(boolean value) throws IOException{
+		this.writeByte(value ? 1 : 0);
+	}
+
+	/**
+	 * Writes an int
+	 * @param value the int
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public void writeInt(int value) throws IOException{
+		this.ensure(4);
+		this.buffer.putInt(value);
+	}
+
+	/**
+	 * Writes a long
+	 * @param value the long
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public void writeLong(long value) throws IOException{
+		this.ensure(8);
+		this.buffer.putLong(value);
+	}
+
+	/**
+	 * Writes a double
+	 * @param value the double
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public void writeDouble(double value) throws IOException{
+		this.ensure(8);
+		this.buffer.putDouble(value);
+	}
+
+	/**
+	 * Writes a string (its length in bytes, then the bytes as UTF-8), or null
+	 * @param value the string
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public void writeString(String value) throws IOException{
+		if(value==null){
+			this.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		this.writeInt(bytes.length);
+		this.writeBytes(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * Writes some bytes (without their length)
+	 * @param values the array holding the bytes
+	 * @param offset where the bytes start in the array
+	 * @param length the number of bytes
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public void writeBytes(byte[] values, int offset, int length) throws IOException{
+		while(length > 0){
+			int count = Math.min(length, this.room(1));
+			this.buffer.put(values, offset, count);
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/**
+	 * Writes the first part of an int array (its length, then the values)
+	 * @param values the array
+	 * @param length the number of values to write
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public void writeInts(int[] values, int length) throws IOException{
+		this.writeInt(length);
+		int offset = 0;
+		while(offset < length){
+			int count = Math.min(length - offset, this.room(4));
+			this.buffer.asIntBuffer().put(values, offset, count);
+			this.buffer.position(this.buffer.position() + count*4);
+			offset += count;
+		}
+	}
+
+	/**
+	 * Writes the first part of a long array (its length, then the values)
+	 * @param values the array
+	 * @param length the number of values to write
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public void writeLongs(long[] values, int length) throws IOException{
+		this.writeInt(length);
+		int offset = 0;
+		while(offset < length){
+			int count = Math.min(length - offset, this.room(8));
+			this.buffer.asLongBuffer().put(values, offset, count);
+			this.buffer.position(this.buffer.position() + count*8);
+			offset += count;
+		}
+	}
+
+	/**
+	 * Writes the first part of a double array (its length, then the values)
+	 * @param values the array
+	 * @param length the number of values to write
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public void writeDoubles(double[] values, int length) throws IOException{
+		this.writeInt(length);
+		int offset = 0;
+		while(offset < length){
+			int count = Math.min(length - offset, this.room(8));
+			this.buffer.asDoubleBuffer().put(values, offset, count);
+			this.buffer.position(this.buffer.position() + count*8);
+			offset += count;
+		}
+	}
+
+	/**
+	 * Writes the first part of a char array (its length, then the values)
+	 * @param values the array
+	 * @param length the number of values to write
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public void writeChars(char[] values, int length) throws IOException{
+		this.writeInt(length);
+		int offset = 0;
+		while(offset < length){
+			int count = Math.min(length - offset, this.room(2));
+			this.buffer.asCharBuffer().put(values, offset, count);
+			this.buffer.position(this.buffer.position() + count*2);
+			offset += count;
+		}
+	}
+
+	/**
+	 * Writes a reference to an object that may be shared by several elements. The first time an object is
+	 * written this returns true, and the caller must then write the object itself; after that only its
+	 * number is written
+	 * @param object the shared object
+	 * @return true if the object hasn't been written before
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public boolean writeReference(Object object) throws IOException{
+		Integer number = this.references.get(object);
+		if(number!=null){
+			this.writeInt(number);
+			return false;
+		}
+		number = this.references.size();
+		this.references.put(object, number);
+		this.writeInt(number);
+		return true;
+	}
+
+	/**
+	 * Writes a long over one written earlier (e.g. a length that wasn't known when it was written)
+	 * @param position where the long was written in the file (see getPosition)
+	 * @param value the long
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public void writeLongAt(long position, long value) throws IOException{
+		if(position < 0 || position + 8 > this.getPosition())
+			throw new IllegalArgumentException("Error (CheckpointWriter): Only what has already been written can be written over");
+		if(position >= this.windowStart){
+			this.buffer.putLong((int) (position - this.windowStart), value);
+			return;
+		}
+		// it has already gone to the file
+		ByteBuffer bytes = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+		bytes.putLong(value);
+		bytes.flip();
+		while(bytes.hasRemaining())
+			position += this.channel.write(bytes, position);
+	}
+
+	/**
+	 * Returns the number of bytes written so far
+	 * @return the size of the checkpoint
+	 * @since 1.3
+	 */
+	public long getPosition(){
+		return this.windowStart + this.buffer.position();
+	}
+
+	/**
+	 * Writes what is left in the window to the file and closes it
+	 * @throws IOException if the file can't be written
+	 * @since 1.3
+	 */
+	public void close() throws IOException{
+		if(this.channel==null)
+			return;
+		try{
+			this.flush();
+			if(this.channel.size() > this.windowStart){
+				try{
+					this.channel.truncate(this.windowStart);
+				}
+				catch(IOException e){
+					// the old file is still mapped somewhere (only a problem on Windows), so the end is left where it was
+				}
+			}
+		}
+		finally{
+			this.buffer = null;
+			this.channel.close();
+			this.channel = null;
+		}
+	}
+
+	/**
+	 * Makes sure there is room for a value in the window
+	 * @since 1.3
+	 */
+	private void ensure(int bytes) throws IOException{
+		if(this.buffer.remaining() < bytes)
+			this.flush();
+	}
+
+	/**
+	 * Returns how many values of a size fit in the window, moving the window on if none do
+	 * @since 1.3
+	 */
+	private int room(int size) throws IOException{
+		this.ensure(size);
+		return this.buffer.remaining() / size;
+	}
+
+	/**
+	 * Writes the window to the file, and starts a new one after it
+	 * @since 1.3
+	 */
+	private void flush() throws IOException{
+		this.buffer.flip();
+		long position = this.windowStart;
+		while(this.buffer.hasRemaining())
+			position += this.channel.write(this.buffer, position);
+		this.windowStart = position;
+		this.buffer.clear();
+	}
+}
@@ -0,0 +1,33 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Checkpoint;
+
+import java.io.IOException;
+
+/**
+ * Something whose state can be written to a checkpoint and read back into an identical copy of it
+ * (e.g. the same router in a network rebuilt from the same topology). An element writes enough about
+ * itself to check that it is being restored into the right place, and complains if it isn't.
+ */
+public interface ICheckpointable {
+	/**
+	 * Writes the element's state
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException;
+
+	/**
+	 * Replaces the element's state with what was written by saveState
+	 * @param in the checkpoint being read
+	 * @throws IOException if the checkpoint can't be read, or was written by a different element
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in) throws IOException;
+}
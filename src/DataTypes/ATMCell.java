@@ -7,12 +7,28 @@
 
 package DataTypes;
 
+import Checkpoint.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
 public class ATMCell {
+	private static final int CELL_HEADER = 0, CELL_PAYLOAD = 1, CELL_OAM = 2, CELL_TEXT = 3; // the kinds of cell in a checkpoint
 	private int vc = 0; // the vc the cell is on
 	private boolean isOAM=false; // says if the cell is OAM
 	private IPPacket packetData = null; // the IP packet header
 	private String data = ""; // The IP packet data (if there is no header)
 	private int traceID = 0; // The trace ID for the cell
+	private OAMType oamType = null; // The type of signalling message (if the cell is OAM)
+	private int oamValue = 0; // The number carried by the signalling message
+	private int callRef = 0; // Which call a signalling message is about (only means something on one hop)
+	private byte[] payload = null; // The buffer holding the IP packet data (if there is no header)
+	private int payloadOffset = 0, payloadLength = 0; // Where this cell's data is in the payload buffer
+	private boolean clp = false; // The cell loss priority bit (cells with it set are dropped first)
+	private boolean endOfFrame = false; // Is this the last cell of its packet? (the AAL5 bit in the payload type)
+	private double finishTime = 0.0; // The WFQ finish tag of the packet this cell is part of
+	private long createdAt = 0; // The tick the cell was sent by a computer
+	private long enqueuedAt = 0; // The tick the cell was put in the output buffer it is in (or was last in)
+	boolean released = false; // has the cell been given back to the pool? (only tracked in debug mode)
 	
 	/**
 	 * Constructor for an ATM cell when there is IP header data
@@ -40,12 +56,111 @@ public class ATMCell {
 		this.traceID = traceID;
 	}
 	
+	/**
+	 * Constructor for an ATM cell carrying a slice of the IP packet data. The data isn't copied, so
+	 * the part of the buffer that the cell points to mustn't be changed while the cell is in the network
+	 * @param vc the vc to send this cell on
+	 * @param payload the buffer holding the packet data
+	 * @param offset where this cell's data starts in the buffer
+	 * @param length how many bytes of data are in this cell (at most 48)
+	 * @param traceID the trace ID of the cell
+	 * @since 1.3
+	 */
+	public ATMCell(int vc, byte[] payload, int offset, int length, int traceID){
+		this.initPayload(vc, payload, offset, length, traceID);
+	}
+	
+	/**
+	 * Constructor for an OAM cell carrying a signalling message
+	 * @param vc the vc to send this cell on
+	 * @param type the type of signalling message
+	 * @param value the number carried by the message (the destination for setup, the VC for conn, etc)
+	 * @param traceID the trace ID of the cell
+	 * @since 1.3
+	 */
+	public ATMCell(int vc, OAMType type, int value, int traceID){
+		this.initOAM(vc, type, value, traceID);
+	}
+	
+	/**
+	 * Sets this cell up as if it had just been made with the IP header constructor (used by the cell pool)
+	 * @since 1.3
+	 */
+	void initHeader(int vc, IPPacket data, int traceID){
+		this.reset();
+		this.vc = vc;
+		this.packetData = data;
+		this.traceID = traceID;
+	}
+	
+	/**
+	 * Sets this cell up as if it had just been made with the payload constructor (used by the cell pool)
+	 * @since 1.3
+	 */
+	void initPayload(int vc, byte[] payload, int offset, int length, int traceID){
+		this.reset();
+		this.vc = vc;
+		this.payload = payload;
+		this.payloadOffset = offset;
+		this.payloadLength = length;
+		this.data = null; // only made if someone asks for the text
+		this.traceID = traceID;
+	}
+	
+	/**
+	 * Sets this cell up as if it had just been made with the OAM constructor (used by the cell pool)
+	 * @since 1.3
+	 */
+	void initOAM(int vc, OAMType type, int value, int traceID){
+		this.reset();
+		this.vc = vc;
+		this.isOAM = true;
+		this.oamType = type;
+		this.oamValue = value;
+		this.data = null; // only made if someone asks for the text
+		this.traceID = traceID;
+	}
+	
+	/**
+	 * Clears out everything in the cell, and drops any references it holds so a pooled cell doesn't keep them alive
+	 * @since 1.3
+	 */
+	void reset(){
+		this.vc = 0;
+		this.isOAM = false;
+		this.packetData = null;
+		this.data = "";
+		this.traceID = 0;
+		this.oamType = null;
+		this.oamValue = 0;
+		this.callRef = 0;
+		this.payload = null;
+		this.payloadOffset = 0;
+		this.payloadLength = 0;
+		this.clp = false;
+		this.endOfFrame = false;
+		this.finishTime = 0.0;
+		this.createdAt = 0;
+		this.enqueuedAt = 0;
+		this.released = false;
+	}
+	
+	/**
+	 * Complains if this cell is being used after it was given back to the pool
+	 * @since 1.3
+	 */
+	private void checkLive(){
+		if(this.released)
+			throw new IllegalStateException("Error (ATMCell): Cell " + this.traceID + " was used after it was released to the pool");
+	}
+	
 	/**
 	 * Returns the IP packet header data contained in this cell (or null if there isn't a header)
 	 * @return the IP packet header data contained in this cell (or null if there isn't a header)
 	 * @since 1.0
 	 */
 	public IPPacket getPacketData(){
+		this.checkLive();
 		return this.packetData;
 	}
 	
@@ -55,15 +170,110 @@ public class ATMCell {
 	 * @since 1.0
 	 */
 	public String getData(){
+		this.checkLive();
+		// signalling messages and payloads are only turned into text if someone asks for it
+		if(this.data==null){
+			if(this.payload!=null)
+				this.data = new String(this.payload, this.payloadOffset, this.payloadLength, StandardCharsets.US_ASCII);
+			else if(this.oamType.hasValue())
+				this.data = this.oamType.getName() + " " + this.oamValue;
+			else
+				this.data = this.oamType.getName();
+		}
 		return this.data;
 	}
 	
+	/**
+	 * Returns the buffer holding this cell's packet data, or null if it doesn't have any
+	 * @return the buffer holding this cell's packet data
+	 * @since 1.3
+	 */
+	public byte[] getPayload(){
+		this.checkLive();
+		return this.payload;
+	}
+	
+	/**
+	 * Returns where this cell's packet data starts in the payload buffer
+	 * @return the offset of this cell's data in the payload buffer
+	 * @since 1.3
+	 */
+	public int getPayloadOffset(){
+		this.checkLive();
+		return this.payloadOffset;
+	}
+	
+	/**
+	 * Returns how many bytes of packet data are in this cell
+	 * @return the number of bytes of packet data in this cell
+	 * @since 1.3
+	 */
+	public int getPayloadLength(){
+		this.checkLive();
+		return this.payloadLength;
+	}
+	
+	/**
+	 * Returns the type of signalling message in this cell, or null if it isn't a signalling message
+	 * @return the type of signalling message in this cell
+	 * @since 1.3
+	 */
+	public OAMType getOAMType(){
+		this.checkLive();
+		// cells made with the text constructor get their type worked out the first time it's needed
+		if(this.oamType==null && this.isOAM && this.getData().length() > 0){
+			this.oamType = OAMType.parse(this.data);
+			if(this.oamType!=null && this.oamType.hasValue()){
+				try{
+					this.oamValue = Integer.parseInt(this.data.substring(this.data.lastIndexOf(' ')+1));
+				}
+				catch(NumberFormatException e){
+					this.oamValue = -1;
+				}
+			}
+		}
+		return this.oamType;
+	}
+	
+	/**
+	 * Returns the number carried by the signalling message in this cell
+	 * @return the number carried by the signalling message
+	 * @since 1.3
+	 */
+	public int getOAMValue(){
+		this.checkLive();
+		this.getOAMType();
+		return this.oamValue;
+	}
+	
+	/**
+	 * Sets the call reference of the signalling message in this cell. Each hop picks its own reference for
+	 * a call, and the replies to a message carry the reference it was sent with
+	 * @param callRef the call reference
+	 * @since 1.3
+	 */
+	public void setCallRef(int callRef){
+		this.checkLive();
+		this.callRef = callRef;
+	}
+	
+	/**
+	 * Returns the call reference of the signalling message in this cell
+	 * @return the call reference (0 if the message isn't about a call)
+	 * @since 1.3
+	 */
+	public int getCallRef(){
+		this.checkLive();
+		return this.callRef;
+	}
+	
 	/**
 	 * Sets if this cell contains OAM information or data
 	 * @param isOAM if true the cell contains OAM
 	 * @since 1.0
 	 */
 	public void setIsOAM(boolean isOAM){
+		this.checkLive();
 		this.isOAM = isOAM;
 	}
 	
@@ -73,6 +283,7 @@ public class ATMCell {
 	 * @since 1.0
 	 */
 	public boolean getIsOAM(){
+		this.checkLive();
 		return this.isOAM;
 	}
 	
@@ -82,6 +293,7 @@ public class ATMCell {
 	 * @since 1.0
 	 */
 	public int getVC(){
+		this.checkLive();
 		return this.vc;
 	}
 	
@@ -91,15 +303,203 @@ public class ATMCell {
 	 * @since 1.0
 	 */
 	public void setVC(int vc){
+		this.checkLive();
 		this.vc = vc;
 	}
 	
+	/**
+	 * Sets the cell loss priority bit of this cell
+	 * @param clp if true the cell is dropped before cells without the bit set
+	 * @since 1.3
+	 */
+	public void setCLP(boolean clp){
+		this.checkLive();
+		this.clp = clp;
+	}
+	
+	/**
+	 * Returns the cell loss priority bit of this cell
+	 * @return true if the cell should be dropped before cells without the bit set
+	 * @since 1.3
+	 */
+	public boolean getCLP(){
+		this.checkLive();
+		return this.clp;
+	}
+	
+	/**
+	 * Marks this cell as the last cell of its packet (or not)
+	 * @param endOfFrame true if this is the last cell of the packet
+	 * @since 1.3
+	 */
+	public void setEndOfFrame(boolean endOfFrame){
+		this.checkLive();
+		this.endOfFrame = endOfFrame;
+	}
+	
+	/**
+	 * Returns if this cell is the last cell of its packet
+	 * @return true if this is the last cell of the packet
+	 * @since 1.3
+	 */
+	public boolean getEndOfFrame(){
+		this.checkLive();
+		return this.endOfFrame;
+	}
+	
+	/**
+	 * Sets the WFQ finish tag of this cell (the finish tag of the packet it is part of)
+	 * @param finishTime the finish tag
+	 * @since 1.3
+	 */
+	public void setFinishTime(double finishTime){
+		this.checkLive();
+		this.finishTime = finishTime;
+	}
+	
+	/**
+	 * Returns the WFQ finish tag of this cell
+	 * @return the finish tag
+	 * @since 1.3
+	 */
+	public double getFinishTime(){
+		this.checkLive();
+		return this.finishTime;
+	}
+	
+	/**
+	 * Sets the tick this cell was sent by a computer
+	 * @param createdAt the tick the cell was made
+	 * @since 1.3
+	 */
+	public void setCreatedAt(long createdAt){
+		this.checkLive();
+		this.createdAt = createdAt;
+	}
+	
+	/**
+	 * Returns the tick this cell was sent by a computer
+	 * @return the tick the cell was made
+	 * @since 1.3
+	 */
+	public long getCreatedAt(){
+		this.checkLive();
+		return this.createdAt;
+	}
+	
+	/**
+	 * Sets the tick this cell was put in an output buffer
+	 * @param enqueuedAt the tick the cell was queued
+	 * @since 1.3
+	 */
+	public void setEnqueuedAt(long enqueuedAt){
+		this.checkLive();
+		this.enqueuedAt = enqueuedAt;
+	}
+	
+	/**
+	 * Returns the tick this cell was put in the output buffer it is in
+	 * @return the tick the cell was queued
+	 * @since 1.3
+	 */
+	public long getEnqueuedAt(){
+		this.checkLive();
+		return this.enqueuedAt;
+	}
+	
 	/**
 	 * Returns the trace ID for this cell
 	 * @return the trace ID for this cell
 	 * @since 1.0
 	 */
 	public int getTraceID(){
+		this.checkLive();
 		return this.traceID;
 	}
+	
+	/**
+	 * Writes this cell to a checkpoint
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException{
+		this.checkLive();
+		// an OAM cell whose text isn't a signalling message we know is saved as its text
+		OAMType type = this.isOAM ? this.getOAMType() : null;
+		if(type!=null){
+			out.writeByte(CELL_OAM);
+			out.writeInt(type.ordinal());
+			out.writeInt(this.oamValue);
+		}
+		else if(this.packetData!=null){
+			out.writeByte(CELL_HEADER);
+			this.packetData.saveState(out);
+		}
+		else if(this.payload!=null){
+			out.writeByte(CELL_PAYLOAD);
+			out.writeInt(this.payloadLength);
+			out.writeBytes(this.payload, this.payloadOffset, this.payloadLength);
+		}
+		else{
+			out.writeByte(CELL_TEXT);
+			out.writeString(this.getData());
+		}
+		out.writeBoolean(this.isOAM);
+		out.writeInt(this.vc);
+		out.writeInt(this.traceID);
+		out.writeInt(this.callRef);
+		out.writeBoolean(this.clp);
+		out.writeBoolean(this.endOfFrame);
+		out.writeDouble(this.finishTime);
+		out.writeLong(this.createdAt);
+		out.writeLong(this.enqueuedAt);
+	}
+	
+	/**
+	 * Reads a cell written by saveState (taking it from the cell pool)
+	 * @param in the checkpoint being read
+	 * @return the cell
+	 * @throws IOException if the checkpoint can't be read
+	 * @since 1.3
+	 */
+	public static ATMCell restoreState(CheckpointReader in) throws IOException{
+		ATMCell cell;
+		int kind = in.readByte();
+		switch(kind){
+		case CELL_OAM: {
+			int type = in.readInt();
+			int value = in.readInt();
+			OAMType[] types = OAMType.values();
+			if(type < 0 || type >= types.length)
+				throw new IOException("Error (ATMCell): The checkpoint is corrupt (unknown signalling message " + type + ")");
+			cell = ATMCellPool.acquire(0, types[type], value, 0);
+			break;
+		}
+		case CELL_HEADER:
+			cell = ATMCellPool.acquire(0, IPPacket.restoreState(in), 0);
+			break;
+		case CELL_PAYLOAD: {
+			byte[] payload = new byte[in.readInt()];
+			in.readBytes(payload, 0, payload.length);
+			cell = ATMCellPool.acquire(0, payload, 0, payload.length, 0);
+			break;
+		}
+		case CELL_TEXT:
+			cell = new ATMCell(0, in.readString(), 0);
+			break;
+		default:
+			throw new IOException("Error (ATMCell): The checkpoint is corrupt (unknown kind of cell " + kind + ")");
+		}
+		cell.isOAM = in.readBoolean();
+		cell.vc = in.readInt();
+		cell.traceID = in.readInt();
+		cell.callRef = in.readInt();
+		cell.clp = in.readBoolean();
+		cell.endOfFrame = in.readBoolean();
+		cell.finishTime = in.readDouble();
+		cell.createdAt = in.readLong();
+		cell.enqueuedAt = in.readLong();
+		return cell;
+	}
 }
@@ -0,0 +1,190 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+/**
+ * An optional pool of cells, so that a simulation running at high load doesn't have to make a new
+ * cell for every piece of every packet. Cells are taken with acquire and given back with release
+ * when they leave the network (dropped, reaching the end of their VC, or delivered). When the pool is
+ * turned off acquire just makes a new cell and release does nothing.
+ * Each thread keeps its own free list, so the tick engine's threads don't fight over the pool. In
+ * debug mode released cells are never handed out again, and any use of one throws an exception.
+ */
+public class ATMCellPool {
+	private static final int MAX_FREE = 1 << 16; // the most free cells each thread will hold on to
+	private static volatile boolean enabled = false; // are cells being reused?
+	private static volatile boolean debug = false; // are we checking for cells used after they were released?
+	private static final ThreadLocal<FreeList> freeLists = new ThreadLocal<FreeList>(){
+		protected FreeList initialValue(){
+			return new FreeList();
+		}
+	};
+
+	/**
+	 * Turns the pool on or off. This should be done before the simulation starts
+	 * @param enabled if true cells will be reused
+	 * @since 1.3
+	 */
+	public static void setEnabled(boolean enabled){
+		ATMCellPool.enabled = enabled;
+	}
+
+	/**
+	 * Returns if the pool is turned on
+	 * @return true if cells are being reused
+	 * @since 1.3
+	 */
+	public static boolean isEnabled(){
+		return enabled;
+	}
+
+	/**
+	 * Turns checking for cells being used after they were released on or off
+	 * @param debug if true released cells are marked and never reused
+	 * @since 1.3
+	 */
+	public static void setDebug(boolean debug){
+		ATMCellPool.debug = debug;
+	}
+
+	/**
+	 * Returns if the pool is checking for cells being used after they were released
+	 * @return true if the pool is in debug mode
+	 * @since 1.3
+	 */
+	public static boolean isDebug(){
+		return debug;
+	}
+
+	/**
+	 * Gets a cell carrying an IP header
+	 * @param vc the vc to send this cell on
+	 * @param data the IP header data for the packet
+	 * @param traceID the trace ID of the cell
+	 * @return the cell
+	 * @since 1.3
+	 */
+	public static ATMCell acquire(int vc, IPPacket data, int traceID){
+		ATMCell cell = take();
+		if(cell==null)
+			return new ATMCell(vc, data, traceID);
+		cell.initHeader(vc, data, traceID);
+		return cell;
+	}
+
+	/**
+	 * Gets a cell carrying a slice of the IP packet data
+	 * @param vc the vc to send this cell on
+	 * @param payload the buffer holding the packet data
+	 * @param offset where this cell's data starts in the buffer
+	 * @param length how many bytes of data are in this cell
+	 * @param traceID the trace ID of the cell
+	 * @return the cell
+	 * @since 1.3
+	 */
+	public static ATMCell acquire(int vc, byte[] payload, int offset, int length, int traceID){
+		ATMCell cell = take();
+		if(cell==null)
+			return new ATMCell(vc, payload, offset, length, traceID);
+		cell.initPayload(vc, payload, offset, length, traceID);
+		return cell;
+	}
+
+	/**
+	 * Gets an OAM cell carrying a signalling message
+	 * @param vc the vc to send this cell on
+	 * @param type the type of signalling message
+	 * @param value the number carried by the message
+	 * @param traceID the trace ID of the cell
+	 * @return the cell
+	 * @since 1.3
+	 */
+	public static ATMCell acquire(int vc, OAMType type, int value, int traceID){
+		ATMCell cell = take();
+		if(cell==null)
+			return new ATMCell(vc, type, value, traceID);
+		cell.initOAM(vc, type, value, traceID);
+		return cell;
+	}
+
+	/**
+	 * Gets an OAM cell carrying a signalling message about a call
+	 * @param vc the vc to send this cell on
+	 * @param type the type of signalling message
+	 * @param value the number carried by the message
+	 * @param callRef the call reference of the message
+	 * @param traceID the trace ID of the cell
+	 * @return the cell
+	 * @since 1.3
+	 */
+	public static ATMCell acquire(int vc, OAMType type, int value, int callRef, int traceID){
+		ATMCell cell = acquire(vc, type, value, traceID);
+		cell.setCallRef(callRef);
+		return cell;
+	}
+
+	/**
+	 * Gives a cell back to the pool once it has left the network. Nothing may use the cell after this
+	 * @param cell the cell to give back
+	 * @since 1.3
+	 */
+	public static void release(ATMCell cell){
+		if(!enabled || cell==null)
+			return;
+
+		if(debug){
+			if(cell.released)
+				throw new IllegalStateException("Error (ATMCellPool): A cell was released twice");
+			// keep it out of the pool, so that anything still holding it will trip over the flag
+			cell.released = true;
+			return;
+		}
+
+		FreeList free = freeLists.get();
+		if(free.size < MAX_FREE){
+			cell.reset();
+			free.push(cell);
+		}
+	}
+
+	/**
+	 * Takes a cell from this thread's free list
+	 * @return a free cell, or null if there isn't one (or the pool is off)
+	 * @since 1.3
+	 */
+	private static ATMCell take(){
+		if(!enabled || debug)
+			return null;
+		return freeLists.get().pop();
+	}
+
+	/**
+	 * A simple stack of free cells
+	 */
+	private static class FreeList {
+		private ATMCell[] cells = new ATMCell[64];
+		private int size = 0;
+
+		private void push(ATMCell cell){
+			if(this.size==this.cells.length){
+				ATMCell[] bigger = new ATMCell[this.cells.length*2];
+				System.arraycopy(this.cells, 0, bigger, 0, this.size);
+				this.cells = bigger;
+			}
+			this.cells[this.size++] = cell;
+		}
+
+		private ATMCell pop(){
+			if(this.size==0)
+				return null;
+			ATMCell cell = this.cells[--this.size];
+			this.cells[this.size] = null;
+			return cell;
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import Checkpoint.*;
+import java.io.IOException;
+
+/**
+ * A fixed size first-in first-out queue of cells, kept in a circular array so that adding and
+ * removing cells never copies or allocates anything
+ */
+public class ATMCellQueue implements IOutputQueue {
+	private ATMCell[] cells; // the slots in the ring
+	private int head = 0; // the slot of the oldest cell
+	private int size = 0; // the number of cells in the queue
+
+	/**
+	 * Creates an empty queue
+	 * @param capacity the maximum number of cells the queue can hold
+	 * @since 1.3
+	 */
+	public ATMCellQueue(int capacity){
+		if(capacity < 1)
+			throw new IllegalArgumentException("Error (ATMCellQueue): The capacity must be at least 1");
+		this.cells = new ATMCell[capacity];
+	}
+
+	/**
+	 * Adds a cell to the back of the queue
+	 * @param cell the cell to add
+	 * @return false if the queue is full and the cell wasn't added
+	 * @since 1.3
+	 */
+	public boolean offer(ATMCell cell){
+		if(this.size==this.cells.length)
+			return false;
+		int tail = this.head + this.size;
+		if(tail >= this.cells.length)
+			tail -= this.cells.length;
+		this.cells[tail] = cell;
+		this.size++;
+		return true;
+	}
+
+	/**
+	 * Removes the cell at the front of the queue
+	 * @return the cell at the front of the queue, or null if the queue is empty
+	 * @since 1.3
+	 */
+	public ATMCell poll(){
+		if(this.size==0)
+			return null;
+		ATMCell cell = this.cells[this.head];
+		this.cells[this.head] = null;
+		this.head++;
+		if(this.head==this.cells.length)
+			this.head = 0;
+		this.size--;
+		return cell;
+	}
+
+	/**
+	 * Returns the cell at the front of the queue without removing it
+	 * @return the cell at the front of the queue, or null if the queue is empty
+	 * @since 1.3
+	 */
+	public ATMCell peek(){
+		if(this.size==0)
+			return null;
+		return this.cells[this.head];
+	}
+
+	/**
+	 * Returns the cell at a given position in the queue (0 is the front)
+	 * @param index the position of the cell
+	 * @return the cell at that position
+	 * @since 1.3
+	 */
+	public ATMCell get(int index){
+		if(index < 0 || index >= this.size)
+			throw new IndexOutOfBoundsException("Error (ATMCellQueue): No cell at position " + index);
+		int slot = this.head + index;
+		if(slot >= this.cells.length)
+			slot -= this.cells.length;
+		return this.cells[slot];
+	}
+
+	/**
+	 * Removes every cell from the queue
+	 * @since 1.3
+	 */
+	public void clear(){
+		while(this.size > 0)
+			this.poll();
+		this.head = 0;
+	}
+
+	/**
+	 * Returns the number of cells in the queue, as every cell shares the one buffer
+	 * @param cell the cell
+	 * @return the number of cells in the queue
+	 * @since 1.3
+	 */
+	public int occupancy(ATMCell cell){
+		return this.size;
+	}
+
+	/**
+	 * Returns the number of cells in the queue
+	 * @return the number of cells in the queue
+	 * @since 1.3
+	 */
+	public int size(){
+		return this.size;
+	}
+
+	/**
+	 * Returns if the queue has no cells in it
+	 * @return true if the queue is empty
+	 * @since 1.3
+	 */
+	public boolean isEmpty(){
+		return this.size==0;
+	}
+
+	/**
+	 * Returns if the queue can't take any more cells
+	 * @return true if the queue is full
+	 * @since 1.3
+	 */
+	public boolean isFull(){
+		return this.size==this.cells.length;
+	}
+
+	/**
+	 * Returns the maximum number of cells the queue can hold
+	 * @return the capacity of the queue
+	 * @since 1.3
+	 */
+	public int capacity(){
+		return this.cells.length;
+	}
+
+	/**
+	 * Writes the cells in the queue to a checkpoint, front first
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException{
+		out.writeInt(this.size);
+		for(int i=0; i<this.size; i++)
+			this.get(i).saveState(out);
+	}
+
+	/**
+	 * Replaces the cells in the queue with the ones written by saveState
+	 * @param in the checkpoint being read
+	 * @throws IOException if the checkpoint can't be read, or has more cells than the queue can hold
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in) throws IOException{
+		this.clear();
+		int size = in.readInt();
+		if(size < 0 || size > this.cells.length)
+			throw new IOException("Error (ATMCellQueue): The checkpoint has " + size + " cells, but the queue only holds " + this.cells.length);
+		for(int i=0; i<size; i++)
+			this.offer(ATMCell.restoreState(in));
+	}
+}
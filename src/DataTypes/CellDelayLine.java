@@ -0,0 +1,154 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import Checkpoint.*;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The cells travelling down one direction of a link, each with the tick it arrives at the far end.
+ * A link has one delay, so cells always come due in the order they were sent; that makes the timing
+ * wheel a single ring of cells where only the front ever needs looking at. The ring grows if more
+ * cells are in flight than it has room for.
+ */
+public class CellDelayLine {
+	private ATMCell[] cells; // the cells in flight
+	private long[] due; // the tick each cell arrives at
+	private int head = 0; // the slot of the cell that arrives next
+	private int size = 0; // the number of cells in flight
+
+	/**
+	 * Creates an empty delay line
+	 * @param capacity the number of cells to make room for to start with
+	 * @since 1.3
+	 */
+	public CellDelayLine(int capacity){
+		capacity = Math.max(capacity, 1);
+		this.cells = new ATMCell[capacity];
+		this.due = new long[capacity];
+	}
+
+	/**
+	 * Puts a cell on the line
+	 * @param cell the cell
+	 * @param dueTime the tick it arrives at (no earlier than the cells already on the line)
+	 * @since 1.3
+	 */
+	public void add(ATMCell cell, long dueTime){
+		if(this.size > 0 && dueTime < this.due[this.slot(this.size-1)])
+			throw new IllegalArgumentException("Error (CellDelayLine): Cells have to arrive in the order they were sent");
+		if(this.size==this.cells.length)
+			this.grow();
+		int slot = this.slot(this.size);
+		this.cells[slot] = cell;
+		this.due[slot] = dueTime;
+		this.size++;
+	}
+
+	/**
+	 * Takes the next cell off the line if it has arrived
+	 * @param time the current tick
+	 * @return the cell, or null if no cell has arrived by this tick
+	 * @since 1.3
+	 */
+	public ATMCell poll(long time){
+		if(this.size==0 || this.due[this.head] > time)
+			return null;
+		ATMCell cell = this.cells[this.head];
+		this.cells[this.head] = null;
+		this.head = this.slot(1);
+		this.size--;
+		return cell;
+	}
+
+	/**
+	 * Returns the tick the next cell arrives at
+	 * @return the tick the next cell arrives at, or -1 if the line is empty
+	 * @since 1.3
+	 */
+	public long getNextDue(){
+		if(this.size==0)
+			return -1;
+		return this.due[this.head];
+	}
+
+	/**
+	 * Returns the number of cells in flight
+	 * @return the number of cells in flight
+	 * @since 1.3
+	 */
+	public int size(){
+		return this.size;
+	}
+
+	/**
+	 * Returns if there are no cells in flight
+	 * @return true if the line is empty
+	 * @since 1.3
+	 */
+	public boolean isEmpty(){
+		return this.size==0;
+	}
+
+	/**
+	 * Writes the cells in flight (and when they arrive) to a checkpoint
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException{
+		out.writeInt(this.size);
+		for(int i=0; i<this.size; i++){
+			int slot = this.slot(i);
+			out.writeLong(this.due[slot]);
+			this.cells[slot].saveState(out);
+		}
+	}
+
+	/**
+	 * Puts the cells written by saveState on the line (which should be empty)
+	 * @param in the checkpoint being read
+	 * @throws IOException if the checkpoint can't be read
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in) throws IOException{
+		int size = in.readInt();
+		for(int i=0; i<size; i++){
+			long dueTime = in.readLong();
+			this.add(ATMCell.restoreState(in), dueTime);
+		}
+	}
+
+	/**
+	 * Returns the slot of the cell a given distance from the front
+	 * @since 1.3
+	 */
+	private int slot(int index){
+		int slot = this.head + index;
+		if(slot >= this.cells.length)
+			slot -= this.cells.length;
+		return slot;
+	}
+
+	/**
+	 * Doubles the room on the line, moving the cells to the start of the new ring
+	 * @since 1.3
+	 */
+	private void grow(){
+		ATMCell[] cells = new ATMCell[this.cells.length*2];
+		long[] due = new long[cells.length];
+		for(int i=0; i<this.size; i++){
+			cells[i] = this.cells[this.slot(i)];
+			due[i] = this.due[this.slot(i)];
+		}
+		this.cells = cells;
+		this.due = due;
+		this.head = 0;
+	}
+}
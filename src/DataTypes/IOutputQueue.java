@@ -0,0 +1,74 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import Checkpoint.*;
+
+/**
+ * The output buffer of a nic, which decides the order cells are sent onto the link in.
+ * ATMCellQueue sends them in the order they arrived, WFQCellQueue shares the link fairly between VCs.
+ * A queue can be checkpointed with the cells in it, and restored into an empty queue of the same capacity.
+ */
+public interface IOutputQueue extends ICheckpointable {
+	/**
+	 * Adds a cell to the queue
+	 * @param cell the cell to add
+	 * @return false if there isn't room for the cell and it wasn't added
+	 * @since 1.3
+	 */
+	public boolean offer(ATMCell cell);
+
+	/**
+	 * Removes the next cell to send
+	 * @return the next cell to send, or null if the queue is empty
+	 * @since 1.3
+	 */
+	public ATMCell poll();
+
+	/**
+	 * Returns the next cell to send without removing it
+	 * @return the next cell to send, or null if the queue is empty
+	 * @since 1.3
+	 */
+	public ATMCell peek();
+
+	/**
+	 * Returns the number of cells sharing the buffer a cell would be put in (what drop policies look at)
+	 * @param cell the cell
+	 * @return the number of cells in the cell's buffer
+	 * @since 1.3
+	 */
+	public int occupancy(ATMCell cell);
+
+	/**
+	 * Returns the number of cells each buffer can hold
+	 * @return the capacity of a buffer
+	 * @since 1.3
+	 */
+	public int capacity();
+
+	/**
+	 * Returns the number of cells in the queue
+	 * @return the number of cells in the queue
+	 * @since 1.3
+	 */
+	public int size();
+
+	/**
+	 * Returns if the queue has no cells in it
+	 * @return true if the queue is empty
+	 * @since 1.3
+	 */
+	public boolean isEmpty();
+
+	/**
+	 * Removes every cell from the queue
+	 * @since 1.3
+	 */
+	public void clear();
+}
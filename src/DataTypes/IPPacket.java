@@ -7,12 +7,15 @@
 
 package DataTypes;
 
+import Checkpoint.*;
+import java.io.IOException;
 import java.net.*;
 
 public class IPPacket {
 	private int size=0; // The size of the packet
-	private Inet4Address source=null, dest=null; // The source and destination addresses
+	private int source=0, dest=0; // The source and destination addresses (packed, see IPv4Address)
 	private int delay=0; // The delay the packet has experienced
+	private long sendTime=0; // The tick the packet was sent at
 	private double finishTime=0; // The expected finish time for the packet in WFQ
 	
 	/**
@@ -24,8 +27,8 @@ public class IPPacket {
 	 */
 	public IPPacket(String source, String dest, int size){
 		try{
-			this.source = (Inet4Address) InetAddress.getByName(source);
-			this.dest = (Inet4Address) InetAddress.getByName(dest);
+			this.source = IPv4Address.parse(source);
+			this.dest = IPv4Address.parse(dest);
 			this.size = size;
 		}
 		catch(Exception e){
@@ -33,6 +36,30 @@ public class IPPacket {
 		}
 	}
 	
+	/**
+	 * Constructor for a packet whose addresses have already been looked up
+	 * @param source the source ip address of this packet
+	 * @param dest the destination ip address of this packet
+	 * @param size the size of this packet (in bits)
+	 * @since 1.3
+	 */
+	public IPPacket(Inet4Address source, Inet4Address dest, int size){
+		this(IPv4Address.fromInet4Address(source), IPv4Address.fromInet4Address(dest), size);
+	}
+	
+	/**
+	 * Constructor for a packet with packed addresses
+	 * @param source the packed source ip address of this packet
+	 * @param dest the packed destination ip address of this packet
+	 * @param size the size of this packet (in bits)
+	 * @since 1.3
+	 */
+	public IPPacket(int source, int dest, int size){
+		this.source = source;
+		this.dest = dest;
+		this.size = size;
+	}
+	
 	/**
 	 * Returns the size of this packet
 	 * @return the size of this packet (in bits)
@@ -48,6 +75,15 @@ public class IPPacket {
 	 * @since 1.0
 	 */
 	public Inet4Address getSource(){
+		return IPv4Address.toInet4Address(this.source);
+	}
+	
+	/**
+	 * Returns the source ip address of this packet packed into an int
+	 * @return the packed source ip address of this packet
+	 * @since 1.3
+	 */
+	public int getSourceAddress(){
 		return this.source;
 	}
 	
@@ -57,6 +93,15 @@ public class IPPacket {
 	 * @since 1.0
 	 */
 	public Inet4Address getDest(){
+		return IPv4Address.toInet4Address(this.dest);
+	}
+	
+	/**
+	 * Returns the destination ip address of this packet packed into an int
+	 * @return the packed destination ip address of this packet
+	 * @since 1.3
+	 */
+	public int getDestAddress(){
 		return this.dest;
 	}
 	
@@ -78,13 +123,31 @@ public class IPPacket {
 		return this.delay;
 	}
 	
+	/**
+	 * Sets the tick this packet was sent at
+	 * @param sendTime the tick the packet was sent at
+	 * @since 1.3
+	 */
+	public void setSendTime(long sendTime){
+		this.sendTime = sendTime;
+	}
+	
+	/**
+	 * Returns the tick this packet was sent at
+	 * @return the tick the packet was sent at
+	 * @since 1.3
+	 */
+	public long getSendTime(){
+		return this.sendTime;
+	}
+	
 	/**
 	 * Returns this packet as a String
 	 * @return the string version of this packet
 	 * @since 1.0
 	 */
 	public String toString(){
-		return this.source.getHostAddress() + " > " + this.dest.getHostAddress() + " took " + this.getDelay() + " time"; 
+		return IPv4Address.toString(this.source) + " > " + IPv4Address.toString(this.dest) + " took " + this.getDelay() + " time"; 
 	}
 	
 	/**
@@ -104,4 +167,37 @@ public class IPPacket {
 	public double getFinishTime(){
 		return this.finishTime;
 	}
+	
+	/**
+	 * Writes this packet header to a checkpoint
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException{
+		out.writeInt(this.size);
+		out.writeInt(this.source);
+		out.writeInt(this.dest);
+		out.writeInt(this.delay);
+		out.writeLong(this.sendTime);
+		out.writeDouble(this.finishTime);
+	}
+	
+	/**
+	 * Reads a packet header written by saveState
+	 * @param in the checkpoint being read
+	 * @return the packet header
+	 * @throws IOException if the checkpoint can't be read
+	 * @since 1.3
+	 */
+	public static IPPacket restoreState(CheckpointReader in) throws IOException{
+		IPPacket packet = new IPPacket(0, 0, 0);
+		packet.size = in.readInt();
+		packet.source = in.readInt();
+		packet.dest = in.readInt();
+		packet.delay = in.readInt();
+		packet.sendTime = in.readLong();
+		packet.finishTime = in.readDouble();
+		return packet;
+	}
 }
@@ -0,0 +1,127 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import java.net.*;
+import java.util.concurrent.*;
+
+/**
+ * Helpers for IPv4 addresses packed into an int (the first octet in the top byte). Dotted quads are
+ * parsed by hand without looking anything up. Host names are resolved once and remembered, and the
+ * Inet4Address objects that are handed out are shared between every packet with the same address.
+ */
+public class IPv4Address {
+	private static final ConcurrentHashMap<String, Integer> hostNames = new ConcurrentHashMap<String, Integer>(); // host names we've already resolved
+	private static final ConcurrentHashMap<Integer, Inet4Address> addresses = new ConcurrentHashMap<Integer, Inet4Address>(); // the shared address objects
+
+	private IPv4Address(){}
+
+	/**
+	 * Turns an address into an int. Dotted quads are parsed directly, anything else is looked up (once)
+	 * @param address the address, e.g. "10.0.0.1"
+	 * @return the packed address
+	 * @throws IllegalArgumentException if the address isn't a dotted quad and can't be resolved to an IPv4 address
+	 * @since 1.3
+	 */
+	public static int parse(String address){
+		int packed = 0, octet = 0, digits = 0, dots = 0;
+		for(int i=0; i<address.length(); i++){
+			char c = address.charAt(i);
+			if(c >= '0' && c <= '9' && digits < 3){
+				octet = octet*10 + (c - '0');
+				digits++;
+			}
+			else if(c=='.' && digits > 0 && dots < 3){
+				if(octet > 255)
+					return resolve(address);
+				packed = (packed << 8) | octet;
+				octet = 0;
+				digits = 0;
+				dots++;
+			}
+			else
+				return resolve(address);
+		}
+		if(dots!=3 || digits==0 || octet > 255)
+			return resolve(address);
+		return (packed << 8) | octet;
+	}
+
+	/**
+	 * Turns a packed address into a dotted quad
+	 * @param address the packed address
+	 * @return the address as a dotted quad
+	 * @since 1.3
+	 */
+	public static String toString(int address){
+		StringBuilder builder = new StringBuilder(15);
+		builder.append(address >>> 24).append('.');
+		builder.append((address >>> 16) & 0xff).append('.');
+		builder.append((address >>> 8) & 0xff).append('.');
+		builder.append(address & 0xff);
+		return builder.toString();
+	}
+
+	/**
+	 * Returns the shared Inet4Address for a packed address
+	 * @param address the packed address
+	 * @return the address object
+	 * @since 1.3
+	 */
+	public static Inet4Address toInet4Address(int address){
+		Inet4Address inet = addresses.get(address);
+		if(inet==null){
+			byte[] bytes = {(byte) (address >>> 24), (byte) (address >>> 16), (byte) (address >>> 8), (byte) address};
+			try{
+				// getByAddress doesn't do any lookups
+				inet = (Inet4Address) InetAddress.getByAddress(bytes);
+			}
+			catch(UnknownHostException e){
+				throw new IllegalStateException(e); // can't happen with 4 bytes
+			}
+			Inet4Address existing = addresses.putIfAbsent(address, inet);
+			if(existing!=null)
+				inet = existing;
+		}
+		return inet;
+	}
+
+	/**
+	 * Packs an Inet4Address into an int
+	 * @param address the address object
+	 * @return the packed address
+	 * @since 1.3
+	 */
+	public static int fromInet4Address(Inet4Address address){
+		byte[] bytes = address.getAddress();
+		return ((bytes[0] & 0xff) << 24) | ((bytes[1] & 0xff) << 16) | ((bytes[2] & 0xff) << 8) | (bytes[3] & 0xff);
+	}
+
+	/**
+	 * Looks up an address that isn't a dotted quad, remembering the answer
+	 * @param address the host name
+	 * @return the packed address
+	 * @since 1.3
+	 */
+	private static int resolve(String address){
+		Integer packed = hostNames.get(address);
+		if(packed==null){
+			try{
+				InetAddress inet = InetAddress.getByName(address);
+				if(!(inet instanceof Inet4Address))
+					throw new IllegalArgumentException("Error (IPv4Address): " + address + " is not an IPv4 address");
+				packed = fromInet4Address((Inet4Address) inet);
+			}
+			catch(UnknownHostException e){
+				throw new IllegalArgumentException("Error (IPv4Address): Could not resolve " + address, e);
+			}
+			hostNames.putIfAbsent(address, packed);
+		}
+		return packed;
+	}
+}
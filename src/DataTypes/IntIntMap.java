@@ -0,0 +1,255 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import Checkpoint.*;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A map from int to int that keeps its keys and values in arrays (open addressing with linear probing),
+ * so nothing is boxed when it is looked up. Used for the routing tables, which have an entry for every
+ * router in the network and are read for every setup message.
+ */
+public class IntIntMap {
+	private static final int FREE = Integer.MIN_VALUE; // marks an empty slot, so it can't be used as a key
+	private int[] keys; // the key in each slot
+	private int[] values; // the value in each slot
+	private int size = 0; // the number of entries in the map
+	private int mask; // the number of slots - 1 (always a power of 2 - 1)
+
+	/**
+	 * Creates an empty map
+	 * @since 1.3
+	 */
+	public IntIntMap(){
+		this(8);
+	}
+
+	/**
+	 * Creates an empty map with room for a number of entries before it has to grow
+	 * @param expected the number of entries we expect to put in the map
+	 * @since 1.3
+	 */
+	public IntIntMap(int expected){
+		if(expected < 0)
+			throw new IllegalArgumentException("Error (IntIntMap): The expected size can't be negative");
+		this.allocate(slotsFor(expected));
+	}
+
+	/**
+	 * Returns the value for a key
+	 * @param key the key to look up
+	 * @param missing the value to return if the key isn't in the map
+	 * @return the value for the key, or missing
+	 * @since 1.3
+	 */
+	public int get(int key, int missing){
+		int slot = this.find(key);
+		if(this.keys[slot]==FREE)
+			return missing;
+		return this.values[slot];
+	}
+
+	/**
+	 * Returns if a key is in the map
+	 * @param key the key to look for
+	 * @return true if the key is in the map
+	 * @since 1.3
+	 */
+	public boolean containsKey(int key){
+		return this.keys[this.find(key)]!=FREE;
+	}
+
+	/**
+	 * Returns if any key in the map has a value. This looks at every slot, so it is only for small maps
+	 * @param value the value to look for
+	 * @return true if some key has the value
+	 * @since 1.3
+	 */
+	public boolean containsValue(int value){
+		for(int i=0; i<this.keys.length; i++)
+			if(this.keys[i]!=FREE && this.values[i]==value)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Puts a key in the map, replacing the value that was there
+	 * @param key the key (anything except Integer.MIN_VALUE)
+	 * @param value the value for the key
+	 * @since 1.3
+	 */
+	public void put(int key, int value){
+		if(key==FREE)
+			throw new IllegalArgumentException("Error (IntIntMap): " + FREE + " can't be used as a key");
+		int slot = this.find(key);
+		this.values[slot] = value;
+		if(this.keys[slot]==FREE){
+			this.keys[slot] = key;
+			this.size++;
+			// keep at least a quarter of the slots free so the probes stay short
+			if(this.size > (this.mask+1) - ((this.mask+1) >>> 2))
+				this.allocate((this.mask+1) * 2);
+		}
+	}
+
+	/**
+	 * Removes a key from the map
+	 * @param key the key to remove
+	 * @param missing the value to return if the key isn't in the map
+	 * @return the value the key had, or missing
+	 * @since 1.3
+	 */
+	public int remove(int key, int missing){
+		int slot = this.find(key);
+		if(this.keys[slot]==FREE)
+			return missing;
+		int value = this.values[slot];
+		this.size--;
+
+		// move any entries after the hole that would no longer be found back into it
+		int hole = slot;
+		int next = (slot+1) & this.mask;
+		while(this.keys[next]!=FREE){
+			int home = mix(this.keys[next]) & this.mask;
+			// the entry can fill the hole if its home slot isn't between the hole and where it is now
+			if(((next - home) & this.mask) >= ((next - hole) & this.mask)){
+				this.keys[hole] = this.keys[next];
+				this.values[hole] = this.values[next];
+				hole = next;
+			}
+			next = (next+1) & this.mask;
+		}
+		this.keys[hole] = FREE;
+		return value;
+	}
+
+	/**
+	 * Removes every entry from the map
+	 * @since 1.3
+	 */
+	public void clear(){
+		Arrays.fill(this.keys, FREE);
+		this.size = 0;
+	}
+
+	/**
+	 * Returns the number of entries in the map
+	 * @return the number of entries in the map
+	 * @since 1.3
+	 */
+	public int size(){
+		return this.size;
+	}
+
+	/**
+	 * Returns if the map has no entries
+	 * @return true if the map is empty
+	 * @since 1.3
+	 */
+	public boolean isEmpty(){
+		return this.size==0;
+	}
+
+	/**
+	 * Returns the keys in the map, in no particular order
+	 * @return a new array of the keys
+	 * @since 1.3
+	 */
+	public int[] keys(){
+		int[] ret = new int[this.size];
+		int n = 0;
+		for(int i=0; i<this.keys.length; i++)
+			if(this.keys[i]!=FREE)
+				ret[n++] = this.keys[i];
+		return ret;
+	}
+
+	/**
+	 * Writes the map to a checkpoint (its slots as they are, so reading it back needs no rehashing)
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException{
+		out.writeInt(this.size);
+		out.writeInts(this.keys, this.keys.length);
+		out.writeInts(this.values, this.values.length);
+	}
+
+	/**
+	 * Replaces the entries in the map with those written by saveState
+	 * @param in the checkpoint being read
+	 * @throws IOException if the checkpoint can't be read
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in) throws IOException{
+		int size = in.readInt();
+		int[] keys = in.readInts(0);
+		int[] values = in.readInts(0);
+		if(keys.length!=values.length || Integer.bitCount(keys.length)!=1)
+			throw new IOException("Error (IntIntMap): The checkpoint is corrupt (a map has " + keys.length + " slots)");
+		this.keys = keys;
+		this.values = values;
+		this.size = size;
+		this.mask = keys.length - 1;
+	}
+
+	/**
+	 * Returns the slot a key is in, or the free slot it would go in
+	 * @since 1.3
+	 */
+	private int find(int key){
+		int slot = mix(key) & this.mask;
+		while(this.keys[slot]!=FREE && this.keys[slot]!=key)
+			slot = (slot+1) & this.mask;
+		return slot;
+	}
+
+	/**
+	 * Makes a new set of slots and puts the current entries in them
+	 * @since 1.3
+	 */
+	private void allocate(int slots){
+		int[] oldKeys = this.keys;
+		int[] oldValues = this.values;
+		this.keys = new int[slots];
+		this.values = new int[slots];
+		Arrays.fill(this.keys, FREE);
+		this.mask = slots-1;
+		if(oldKeys==null)
+			return;
+		for(int i=0; i<oldKeys.length; i++)
+			if(oldKeys[i]!=FREE){
+				int slot = this.find(oldKeys[i]);
+				this.keys[slot] = oldKeys[i];
+				this.values[slot] = oldValues[i];
+			}
+	}
+
+	/**
+	 * Returns the number of slots (a power of 2) needed to hold a number of entries at most 3/4 full
+	 * @since 1.3
+	 */
+	private static int slotsFor(int expected){
+		int slots = 8;
+		while(slots - (slots >>> 2) < expected)
+			slots *= 2;
+		return slots;
+	}
+
+	/**
+	 * Spreads the bits of a key so that addresses that are close together don't end up in neighbouring slots
+	 * @since 1.3
+	 */
+	private static int mix(int key){
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
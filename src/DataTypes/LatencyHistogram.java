@@ -0,0 +1,215 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of delays in ticks, with buckets like an HDR histogram: values below 2^precision get a
+ * bucket each, and above that every power of two is split into 2^(precision-1) buckets, so a value is
+ * only ever out by less than 1 part in 2^(precision-1). The buckets cover every value below
+ * 2^valueBits (by default 2^32 ticks, far longer than any run), and bigger values are counted in the
+ * top bucket. The memory used is fixed when the histogram is made (about 7KB by default), and
+ * recording a value is a little bit arithmetic and an array increment. A histogram should only be
+ * written by one thread at a time.
+ */
+public class LatencyHistogram {
+	private int precision; // the number of bits of each value that are kept
+	private int subBuckets; // 2^precision, the number of values that have a bucket each
+	private int valueBits; // values below 2^valueBits have a bucket
+	private long highestTrackable; // 2^valueBits - 1, the biggest value that has a bucket
+	private long[] counts; // the number of values in each bucket
+	private long count = 0; // the number of values recorded
+	private long total = 0; // the sum of the values
+	private long min = Long.MAX_VALUE, max = 0; // the smallest and biggest values
+
+	/**
+	 * Creates a histogram that is accurate to about 3%
+	 * @since 1.3
+	 */
+	public LatencyHistogram(){
+		this(6);
+	}
+
+	/**
+	 * Creates a histogram for delays below 2^32 ticks
+	 * @param precision the number of bits of each value to keep (values are out by less than 1 part in 2^(precision-1))
+	 * @since 1.3
+	 */
+	public LatencyHistogram(int precision){
+		this(precision, 32);
+	}
+
+	/**
+	 * Creates a histogram
+	 * @param precision the number of bits of each value to keep (values are out by less than 1 part in 2^(precision-1))
+	 * @param valueBits the number of bits in the biggest value that gets a bucket of its own (bigger ones go in the top bucket)
+	 * @since 1.3
+	 */
+	public LatencyHistogram(int precision, int valueBits){
+		if(precision < 1 || precision > 16)
+			throw new IllegalArgumentException("Error (LatencyHistogram): The precision must be between 1 and 16 bits");
+		if(valueBits < precision || valueBits > 63)
+			throw new IllegalArgumentException("Error (LatencyHistogram): The value bits must be between the precision and 63");
+		this.precision = precision;
+		this.valueBits = valueBits;
+		this.highestTrackable = (1L << valueBits) - 1;
+		this.subBuckets = 1 << precision;
+		this.counts = new long[this.subBuckets + (valueBits - precision) * (this.subBuckets >> 1)];
+	}
+
+	/**
+	 * Records a delay
+	 * @param value the delay in ticks (negative delays are counted as 0)
+	 * @since 1.3
+	 */
+	public void record(long value){
+		if(value < 0)
+			value = 0;
+		this.counts[this.bucket(value)]++;
+		this.count++;
+		this.total += value;
+		if(value < this.min)
+			this.min = value;
+		if(value > this.max)
+			this.max = value;
+	}
+
+	/**
+	 * Adds every value recorded in another histogram (with the same precision and value bits) to this one
+	 * @param other the histogram to add
+	 * @since 1.3
+	 */
+	public void add(LatencyHistogram other){
+		if(other.precision!=this.precision || other.valueBits!=this.valueBits)
+			throw new IllegalArgumentException("Error (LatencyHistogram): Only histograms with the same precision and value bits can be added");
+		for(int i=0; i<this.counts.length; i++)
+			this.counts[i] += other.counts[i];
+		this.count += other.count;
+		this.total += other.total;
+		this.min = Math.min(this.min, other.min);
+		this.max = Math.max(this.max, other.max);
+	}
+
+	/**
+	 * Forgets every value recorded
+	 * @since 1.3
+	 */
+	public void reset(){
+		Arrays.fill(this.counts, 0);
+		this.count = 0;
+		this.total = 0;
+		this.min = Long.MAX_VALUE;
+		this.max = 0;
+	}
+
+	/**
+	 * Returns a copy of the histogram
+	 * @return the copy
+	 * @since 1.3
+	 */
+	public LatencyHistogram copy(){
+		LatencyHistogram copy = new LatencyHistogram(this.precision, this.valueBits);
+		copy.add(this);
+		return copy;
+	}
+
+	/**
+	 * Returns the delay that a percentage of the values are no bigger than
+	 * @param percentile the percentage (e.g. 99.9)
+	 * @return the delay in ticks (the top of its bucket), or 0 if nothing has been recorded
+	 * @since 1.3
+	 */
+	public long getValueAtPercentile(double percentile){
+		if(this.count==0)
+			return 0;
+		double fraction = Math.min(Math.max(percentile, 0.0), 100.0) / 100.0;
+		long rank = Math.max(1, (long) Math.ceil(fraction * this.count));
+		long seen = 0;
+		for(int i=0; i<this.counts.length; i++){
+			seen += this.counts[i];
+			if(seen >= rank)
+				return Math.min(Math.max(this.highestValue(i), this.min), this.max);
+		}
+		return this.max;
+	}
+
+	/**
+	 * Returns the number of values recorded
+	 * @return the number of values
+	 * @since 1.3
+	 */
+	public long getCount(){
+		return this.count;
+	}
+
+	/**
+	 * Returns the smallest value recorded
+	 * @return the smallest delay, or 0 if nothing has been recorded
+	 * @since 1.3
+	 */
+	public long getMin(){
+		return this.count==0 ? 0 : this.min;
+	}
+
+	/**
+	 * Returns the biggest value recorded
+	 * @return the biggest delay
+	 * @since 1.3
+	 */
+	public long getMax(){
+		return this.max;
+	}
+
+	/**
+	 * Returns the average of the values recorded
+	 * @return the average delay, or 0 if nothing has been recorded
+	 * @since 1.3
+	 */
+	public double getMean(){
+		return this.count==0 ? 0.0 : (double) this.total / this.count;
+	}
+
+	/**
+	 * Returns the count and the median, 99th and 99.9th percentiles and biggest delays
+	 * @return the summary as text
+	 * @since 1.3
+	 */
+	public String toString(){
+		return String.format("n=%d p50=%d p99=%d p99.9=%d max=%d", this.count, this.getValueAtPercentile(50.0),
+				this.getValueAtPercentile(99.0), this.getValueAtPercentile(99.9), this.max);
+	}
+
+	/**
+	 * Returns the bucket a value goes in
+	 * @since 1.3
+	 */
+	private int bucket(long value){
+		if(value < this.subBuckets)
+			return (int) value;
+		if(value > this.highestTrackable)
+			return this.counts.length - 1;
+		// shift the value down so its top bit is the top bit of the sub buckets
+		int shift = 64 - Long.numberOfLeadingZeros(value) - this.precision;
+		int half = this.subBuckets >> 1;
+		return this.subBuckets + (shift-1) * half + (int) (value >>> shift) - half;
+	}
+
+	/**
+	 * Returns the biggest value that goes in a bucket
+	 * @since 1.3
+	 */
+	private long highestValue(int bucket){
+		if(bucket < this.subBuckets)
+			return bucket;
+		int half = this.subBuckets >> 1;
+		int shift = (bucket - this.subBuckets) / half + 1;
+		long mantissa = (bucket - this.subBuckets) % half + half;
+		return (mantissa << shift) + (1L << shift) - 1;
+	}
+}
@@ -0,0 +1,130 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import Checkpoint.*;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A router's forwarding table: the nic (by its position in the router) to use to get towards each
+ * router on the network. Every router in a network has an entry for (nearly) every other router, so
+ * the map from address to slot can be shared by all of the tables, and each table is then just an
+ * array with a slot for each router. A table only makes its own copy of the map if it is given an
+ * address the shared map doesn't have. The shared map can have addresses added to it (at new slots)
+ * but never removed.
+ */
+public class NextHopTable {
+	private static final int MAX_NICS = 0xFFFF; // the nics are stored in chars, with 0 meaning no route
+	private IntIntMap slots; // Key: router address, Value: the slot in hops
+	private boolean shared; // is the slot map shared with other tables (so we mustn't add to it)?
+	private char[] hops; // the nic index + 1 for each slot, or 0 if there is no route
+
+	/**
+	 * Creates an empty table with its own slot map
+	 * @since 1.3
+	 */
+	public NextHopTable(){
+		this.slots = new IntIntMap();
+		this.shared = false;
+		this.hops = new char[8];
+	}
+
+	/**
+	 * Creates an empty table that shares a map of addresses to slots with other tables
+	 * @param slots the map of router address to slot (the slots should be 0 to slots.size()-1)
+	 * @since 1.3
+	 */
+	public NextHopTable(IntIntMap slots){
+		this.slots = slots;
+		this.shared = true;
+		this.hops = new char[Math.max(8, slots.size())];
+	}
+
+	/**
+	 * Returns the nic to use to get to a router
+	 * @param address the address of the router
+	 * @return the position of the nic in the router, or -1 if there is no route
+	 * @since 1.3
+	 */
+	public int get(int address){
+		int slot = this.slots.get(address, -1);
+		if(slot < 0 || slot >= this.hops.length)
+			return -1;
+		return this.hops[slot]-1;
+	}
+
+	/**
+	 * Sets the nic to use to get to a router
+	 * @param address the address of the router
+	 * @param nic the position of the nic in the router
+	 * @since 1.3
+	 */
+	public void put(int address, int nic){
+		if(nic < 0 || nic >= MAX_NICS)
+			throw new IllegalArgumentException("Error (NextHopTable): The nic index must be between 0 and " + (MAX_NICS-1));
+		int slot = this.slots.get(address, -1);
+		if(slot < 0){
+			// the address is new, so we need a slot map of our own to add it to
+			if(this.shared){
+				IntIntMap copy = new IntIntMap(this.slots.size()+1);
+				for(int key : this.slots.keys())
+					copy.put(key, this.slots.get(key, -1));
+				this.slots = copy;
+				this.shared = false;
+			}
+			slot = this.slots.size();
+			this.slots.put(address, slot);
+		}
+		if(slot >= this.hops.length)
+			this.hops = Arrays.copyOf(this.hops, Math.max(slot+1, this.hops.length*2));
+		this.hops[slot] = (char) (nic+1);
+	}
+
+	/**
+	 * Removes every route from the table
+	 * @since 1.3
+	 */
+	public void clear(){
+		Arrays.fill(this.hops, (char) 0);
+	}
+
+	/**
+	 * Writes the table to a checkpoint. A slot map shared with other tables is only written once
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException{
+		out.writeBoolean(this.shared);
+		if(out.writeReference(this.slots))
+			this.slots.saveState(out);
+		out.writeChars(this.hops, this.hops.length);
+	}
+
+	/**
+	 * Replaces the routes in the table with those written by saveState. Tables that shared a slot map
+	 * when they were written share one again
+	 * @param in the checkpoint being read
+	 * @throws IOException if the checkpoint can't be read
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in) throws IOException{
+		boolean shared = in.readBoolean();
+		int number = in.readReference();
+		IntIntMap slots = (IntIntMap) in.getReference(number);
+		if(slots==null){
+			slots = new IntIntMap();
+			slots.restoreState(in);
+			in.putReference(number, slots);
+		}
+		this.slots = slots;
+		this.shared = shared;
+		this.hops = in.readChars(0);
+	}
+}
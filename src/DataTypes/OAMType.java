@@ -0,0 +1,62 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+/**
+ * The types of signalling message that can be carried in an OAM cell
+ */
+public enum OAMType {
+	SETUP("setup", true), // asks for a connection to the router in the value
+	CALLPRO("callpro", false), // the setup has been received and is being worked on
+	WAIT("wait", true), // the router is busy, try the setup to the router in the value again
+	CONN("conn", true), // the connection is made, use the VC in the value
+	CALLACK("callack", false), // the connect message has been received
+	END("end", true), // tear down the VC in the value
+	ENDACK("endack", false); // the end message has been received
+
+	private String name; // the name of the message when it was sent as text
+	private boolean hasValue; // does the message carry a number?
+
+	private OAMType(String name, boolean hasValue){
+		this.name = name;
+		this.hasValue = hasValue;
+	}
+
+	/**
+	 * Returns the text name of this message type, e.g. "setup"
+	 * @return the text name of this message type
+	 * @since 1.3
+	 */
+	public String getName(){
+		return this.name;
+	}
+
+	/**
+	 * Returns if messages of this type carry a number
+	 * @return true if messages of this type carry a number
+	 * @since 1.3
+	 */
+	public boolean hasValue(){
+		return this.hasValue;
+	}
+
+	/**
+	 * Works out the message type of a text OAM message, e.g. "conn 5"
+	 * @param data the text of the message
+	 * @return the type of the message, or null if it isn't one we know about
+	 * @since 1.3
+	 */
+	public static OAMType parse(String data){
+		int space = data.indexOf(' ');
+		String name = space < 0 ? data : data.substring(0, space);
+		for(OAMType type : values())
+			if(type.name.equals(name))
+				return type;
+		return null;
+	}
+}
@@ -0,0 +1,265 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import Checkpoint.*;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Puts the data cells arriving at the end of their VCs back together into packets (like AAL5), and
+ * counts how many packets arrive whole and how long they took. A packet starts with the cell carrying
+ * its header, which says how many cells it was sent in, and ends with the cell that has the end of frame
+ * bit set. A packet is corrupted if it ends with the wrong number of cells, or if the next packet's
+ * header arrives before its last cell. Cells that arrive when no packet has been started (the header was
+ * lost) are thrown away, and their packet is counted as corrupted when its last cell arrives.
+ *
+ * The end to end delay of every data cell (from the computer sending it to it arriving here) is kept in
+ * a histogram for each VC, and the delay of every whole packet in one histogram for all of them.
+ *
+ * Only the position in the current packet is kept for each VC (in arrays indexed by the VC), so the
+ * memory used doesn't grow with the number of cells, and nothing is made for each cell. That position is
+ * what a checkpoint saves, so a packet arriving across a checkpoint is still put back together; the
+ * counts and histograms aren't saved.
+ */
+public class PacketReassembler implements ICheckpointable {
+	private int[] expected = new int[16]; // the number of cells each VC's packet was sent in (0 if no packet is started)
+	private int[] received = new int[16]; // the number of cells of each VC's packet that have arrived
+	private IPPacket[] packets = new IPPacket[16]; // the header of each VC's packet
+	private long intact = 0, corrupted = 0; // the number of packets that arrived whole, and that didn't
+	private long intactBits = 0; // the bits in the packets that arrived whole
+	private long discardedCells = 0; // the cells thrown away as their packet wasn't whole
+	private LatencyHistogram packetDelay = new LatencyHistogram(); // the delay of the whole packets
+	private LatencyHistogram[] cellDelay = new LatencyHistogram[16]; // the end to end delay of each VC's cells (made when the VC is first used)
+
+	/**
+	 * Adds a data cell to the packet its VC is sending. The cell isn't kept, so it can be given back to the pool afterwards
+	 * @param cell the cell that arrived
+	 * @param time the tick it arrived at
+	 * @since 1.3
+	 */
+	public void receiveCell(ATMCell cell, long time){
+		int vc = this.slot(cell.getVC());
+		if(this.cellDelay[vc]==null)
+			this.cellDelay[vc] = new LatencyHistogram();
+		this.cellDelay[vc].record(time - cell.getCreatedAt());
+		IPPacket packet = cell.getPacketData();
+		if(packet!=null){
+			// the last packet on the VC never got its last cell
+			if(this.expected[vc] > 0)
+				this.packetCorrupted(vc);
+			this.expected[vc] = VCFrameTable.cellsFor(packet.getSize());
+			this.received[vc] = 1;
+			this.packets[vc] = packet;
+		}
+		else if(this.expected[vc] > 0)
+			this.received[vc]++;
+		else{
+			// the header of this packet was lost
+			this.discardedCells++;
+			if(cell.getEndOfFrame())
+				this.corrupted++;
+			return;
+		}
+
+		if(cell.getEndOfFrame()){
+			if(this.received[vc]==this.expected[vc])
+				this.packetIntact(vc, time);
+			else
+				this.packetCorrupted(vc);
+		}
+	}
+
+	/**
+	 * Returns the number of packets that arrived whole
+	 * @return the number of packets
+	 * @since 1.3
+	 */
+	public long getIntact(){
+		return this.intact;
+	}
+
+	/**
+	 * Returns the number of packets that arrived with cells missing
+	 * @return the number of packets
+	 * @since 1.3
+	 */
+	public long getCorrupted(){
+		return this.corrupted;
+	}
+
+	/**
+	 * Returns the number of bits in the packets that arrived whole (the goodput)
+	 * @return the number of bits
+	 * @since 1.3
+	 */
+	public long getIntactBits(){
+		return this.intactBits;
+	}
+
+	/**
+	 * Returns the number of cells that arrived but were thrown away as part of a corrupted packet
+	 * @return the number of cells
+	 * @since 1.3
+	 */
+	public long getDiscardedCells(){
+		return this.discardedCells;
+	}
+
+	/**
+	 * Returns the histogram of the time between a whole packet being sent and its last cell arriving
+	 * @return the packet delay histogram
+	 * @since 1.3
+	 */
+	public LatencyHistogram getPacketDelay(){
+		return this.packetDelay;
+	}
+
+	/**
+	 * Returns the histogram of the time between the cells on a VC being sent and arriving
+	 * @param vc the VC the cells arrived on
+	 * @return the cell delay histogram, or null if no cells have arrived on the VC
+	 * @since 1.3
+	 */
+	public LatencyHistogram getCellDelay(int vc){
+		if(vc < 0 || vc >= this.cellDelay.length)
+			return null;
+		return this.cellDelay[vc];
+	}
+
+	/**
+	 * Returns the average time between a whole packet being sent and its last cell arriving
+	 * @return the average delay in ticks, or 0 if no packets have arrived
+	 * @since 1.3
+	 */
+	public double getMeanLatency(){
+		return this.packetDelay.getMean();
+	}
+
+	/**
+	 * Returns the shortest time a whole packet took
+	 * @return the delay in ticks, or 0 if no packets have arrived
+	 * @since 1.3
+	 */
+	public long getMinLatency(){
+		return this.packetDelay.getMin();
+	}
+
+	/**
+	 * Returns the longest time a whole packet took
+	 * @return the delay in ticks
+	 * @since 1.3
+	 */
+	public long getMaxLatency(){
+		return this.packetDelay.getMax();
+	}
+
+	/**
+	 * Writes the packet each VC is part way through to a checkpoint
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException{
+		int started = 0;
+		for(int vc=0; vc<this.expected.length; vc++)
+			if(this.expected[vc] > 0)
+				started++;
+		out.writeInt(started);
+		for(int vc=0; vc<this.expected.length; vc++)
+			if(this.expected[vc] > 0){
+				out.writeInt(vc);
+				out.writeInt(this.expected[vc]);
+				out.writeInt(this.received[vc]);
+				this.packets[vc].saveState(out);
+			}
+	}
+
+	/**
+	 * Replaces the packets the VCs are part way through with the ones written by saveState
+	 * @param in the checkpoint being read
+	 * @throws IOException if the checkpoint can't be read
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in) throws IOException{
+		Arrays.fill(this.expected, 0);
+		Arrays.fill(this.received, 0);
+		Arrays.fill(this.packets, null);
+		int started = in.readInt();
+		for(int i=0; i<started; i++){
+			int vc = this.slot(in.readInt());
+			this.expected[vc] = in.readInt();
+			this.received[vc] = in.readInt();
+			this.packets[vc] = IPPacket.restoreState(in);
+		}
+	}
+
+	/**
+	 * Returns the packet delay percentiles, and the cell delay percentiles of each VC
+	 * @return the report as text, one line for the packets and one for each VC
+	 * @since 1.3
+	 */
+	public String toString(){
+		StringBuilder out = new StringBuilder();
+		out.append("packets ").append(this.packetDelay).append('\n');
+		for(int vc=0; vc<this.cellDelay.length; vc++)
+			if(this.cellDelay[vc]!=null)
+				out.append("VC ").append(vc).append(" cells ").append(this.cellDelay[vc]).append('\n');
+		return out.toString();
+	}
+
+	/**
+	 * Counts a packet that arrived whole, and starts the VC on a new packet
+	 * @since 1.3
+	 */
+	private void packetIntact(int vc, long time){
+		IPPacket packet = this.packets[vc];
+		packet.addDelay((int) (time - packet.getSendTime()));
+		this.intact++;
+		this.intactBits += packet.getSize();
+		this.packetDelay.record(packet.getDelay());
+		this.endPacket(vc);
+	}
+
+	/**
+	 * Counts a packet that was missing cells, and starts the VC on a new packet
+	 * @since 1.3
+	 */
+	private void packetCorrupted(int vc){
+		this.corrupted++;
+		this.discardedCells += this.received[vc];
+		this.endPacket(vc);
+	}
+
+	/**
+	 * Forgets the packet a VC was sending
+	 * @since 1.3
+	 */
+	private void endPacket(int vc){
+		this.expected[vc] = 0;
+		this.received[vc] = 0;
+		this.packets[vc] = null;
+	}
+
+	/**
+	 * Returns where a VC's state is kept, making room for it if needed
+	 * @since 1.3
+	 */
+	private int slot(int vc){
+		if(vc < 0)
+			vc = 0;
+		if(vc >= this.expected.length){
+			int length = Math.max(vc+1, this.expected.length*2);
+			this.expected = Arrays.copyOf(this.expected, length);
+			this.received = Arrays.copyOf(this.received, length);
+			this.packets = Arrays.copyOf(this.packets, length);
+			this.cellDelay = Arrays.copyOf(this.cellDelay, length);
+		}
+		return vc;
+	}
+}
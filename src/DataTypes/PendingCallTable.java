@@ -0,0 +1,253 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import NetworkElements.*;
+import Checkpoint.*;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * The calls a router has passed a setup on for, and is waiting for a connect message back. When a setup
+ * is forwarded the router gives the call its own call reference, and remembers the nic the setup came in
+ * on and the reference the previous hop used. The connect message comes back with our reference, which
+ * tells us who to pass it on to. References are indexes into arrays, and are reused once a call is done.
+ * Reference 0 is never handed out, so it can mean "no call".
+ *
+ * A setup that is dropped further on never gets a connect back, so calls that have waited too long can be
+ * expired. The calls are also kept in the order they were added (a ring of references and the tick each
+ * was added at), so finding the ones that have timed out only looks at the oldest.
+ */
+public class PendingCallTable {
+	private ATMNIC[] upstreamNIC = new ATMNIC[16]; // the nic the setup came in on (null if the reference is free)
+	private int[] upstreamRef = new int[16]; // the reference the previous hop gave the call
+	private int[] destination = new int[16]; // the router the call is to
+	private long[] addedAt = new long[16]; // the tick the call was added at
+	private int[] free = new int[16]; // references that have been used and given back
+	private int freeCount = 0; // the number of references in free
+	private int nextRef = 1; // the lowest reference that has never been used
+	private int size = 0; // the number of calls waiting
+	private int[] order = new int[16]; // the calls in the order they were added, oldest first from orderHead (a ring)
+	private long[] orderTime = new long[16]; // the tick each call in order was added at (if it isn't the call's addedAt the call is gone)
+	private int orderHead = 0, orderCount = 0; // where the oldest call in order is, and how many there are
+
+	/**
+	 * Adds a call that we are passing a setup on for
+	 * @param nic the nic the setup came in on
+	 * @param ref the reference the previous hop gave the call
+	 * @param destination the router the call is to
+	 * @param time the current tick
+	 * @return the reference for the call on the next hop
+	 * @since 1.3
+	 */
+	public int add(ATMNIC nic, int ref, int destination, long time){
+		if(nic==null)
+			throw new IllegalArgumentException("Error (PendingCallTable): The nic of a call can't be null");
+		int callRef;
+		if(this.freeCount > 0)
+			callRef = this.free[--this.freeCount];
+		else{
+			callRef = this.nextRef++;
+			if(callRef >= this.upstreamNIC.length){
+				int length = this.upstreamNIC.length*2;
+				this.upstreamNIC = Arrays.copyOf(this.upstreamNIC, length);
+				this.upstreamRef = Arrays.copyOf(this.upstreamRef, length);
+				this.destination = Arrays.copyOf(this.destination, length);
+				this.addedAt = Arrays.copyOf(this.addedAt, length);
+			}
+		}
+		this.upstreamNIC[callRef] = nic;
+		this.upstreamRef[callRef] = ref;
+		this.destination[callRef] = destination;
+		this.addedAt[callRef] = time;
+		this.size++;
+		this.addToOrder(callRef, time);
+		return callRef;
+	}
+
+	/**
+	 * Removes the calls added before a tick, which are taken to have been dropped on the way. Their
+	 * references are reused, so a connect that does come back for one later could be taken for another call
+	 * @param before the tick the calls have to have been added at or after to be kept
+	 * @return the number of calls removed
+	 * @since 1.3
+	 */
+	public int expire(long before){
+		int expired = 0;
+		while(this.orderCount > 0){
+			int callRef = this.order[this.orderHead];
+			long time = this.orderTime[this.orderHead];
+			boolean waiting = this.upstreamNIC[callRef]!=null && this.addedAt[callRef]==time;
+			if(waiting && time >= before)
+				break;
+			this.orderHead = (this.orderHead + 1) & (this.order.length - 1);
+			this.orderCount--;
+			if(waiting){
+				this.remove(callRef);
+				expired++;
+			}
+		}
+		return expired;
+	}
+
+	/**
+	 * Returns if a reference belongs to a call that is waiting
+	 * @param callRef our reference for the call
+	 * @return true if the call is waiting
+	 * @since 1.3
+	 */
+	public boolean contains(int callRef){
+		return callRef > 0 && callRef < this.nextRef && this.upstreamNIC[callRef]!=null;
+	}
+
+	/**
+	 * Returns the nic the setup for a call came in on
+	 * @param callRef our reference for the call
+	 * @return the nic, or null if the call isn't waiting
+	 * @since 1.3
+	 */
+	public ATMNIC getNIC(int callRef){
+		if(!this.contains(callRef))
+			return null;
+		return this.upstreamNIC[callRef];
+	}
+
+	/**
+	 * Returns the reference the previous hop gave a call
+	 * @param callRef our reference for the call
+	 * @return the previous hop's reference
+	 * @since 1.3
+	 */
+	public int getUpstreamRef(int callRef){
+		if(!this.contains(callRef))
+			throw new IllegalArgumentException("Error (PendingCallTable): There is no call " + callRef);
+		return this.upstreamRef[callRef];
+	}
+
+	/**
+	 * Returns the router a call is to
+	 * @param callRef our reference for the call
+	 * @return the address of the router
+	 * @since 1.3
+	 */
+	public int getDestination(int callRef){
+		if(!this.contains(callRef))
+			throw new IllegalArgumentException("Error (PendingCallTable): There is no call " + callRef);
+		return this.destination[callRef];
+	}
+
+	/**
+	 * Removes a call once it is done, so its reference can be used again
+	 * @param callRef our reference for the call
+	 * @since 1.3
+	 */
+	public void remove(int callRef){
+		if(!this.contains(callRef))
+			return;
+		this.upstreamNIC[callRef] = null;
+		if(this.freeCount==this.free.length)
+			this.free = Arrays.copyOf(this.free, this.free.length*2);
+		this.free[this.freeCount++] = callRef;
+		this.size--;
+	}
+
+	/**
+	 * Returns the number of calls waiting
+	 * @return the number of calls waiting
+	 * @since 1.3
+	 */
+	public int size(){
+		return this.size;
+	}
+
+	/**
+	 * Writes the calls to a checkpoint, with the nics written as their positions in the router
+	 * @param out the checkpoint being written
+	 * @param nics the router's nics
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out, List<ATMNIC> nics) throws IOException{
+		int[] nicIndexes = new int[this.nextRef];
+		for(int i=0; i<this.nextRef; i++)
+			nicIndexes[i] = this.upstreamNIC[i]==null ? -1 : nics.indexOf(this.upstreamNIC[i]);
+		out.writeInts(nicIndexes, this.nextRef);
+		out.writeInts(this.upstreamRef, this.nextRef);
+		out.writeInts(this.destination, this.nextRef);
+		out.writeLongs(this.addedAt, this.nextRef);
+		out.writeInts(this.free, this.freeCount);
+		out.writeInt(this.size);
+	}
+
+	/**
+	 * Replaces the calls in the table with those written by saveState
+	 * @param in the checkpoint being read
+	 * @param nics the router's nics
+	 * @throws IOException if the checkpoint can't be read, or refers to a nic the router doesn't have
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in, List<ATMNIC> nics) throws IOException{
+		int[] nicIndexes = in.readInts(0);
+		int length = Math.max(16, nicIndexes.length);
+		ATMNIC[] upstreamNIC = new ATMNIC[length];
+		for(int i=0; i<nicIndexes.length; i++){
+			if(nicIndexes[i] >= nics.size())
+				throw new IOException("Error (PendingCallTable): The checkpoint refers to nic " + nicIndexes[i] + " but the router only has " + nics.size());
+			if(nicIndexes[i] >= 0)
+				upstreamNIC[i] = nics.get(nicIndexes[i]);
+		}
+		this.nextRef = Math.max(1, nicIndexes.length);
+		this.upstreamNIC = upstreamNIC;
+		this.upstreamRef = in.readInts(length);
+		this.destination = in.readInts(length);
+		this.addedAt = in.readLongs(length);
+		int[] free = in.readInts(0);
+		this.freeCount = free.length;
+		this.free = Arrays.copyOf(free, Math.max(16, free.length));
+		this.size = in.readInt();
+
+		// put the waiting calls back in the order they were added
+		ArrayList<Integer> waiting = new ArrayList<Integer>();
+		for(int i=1; i<this.nextRef; i++)
+			if(this.upstreamNIC[i]!=null)
+				waiting.add(i);
+		final long[] addedAt = this.addedAt;
+		Collections.sort(waiting, new Comparator<Integer>(){
+			public int compare(Integer a, Integer b){
+				return Long.compare(addedAt[a], addedAt[b]);
+			}
+		});
+		this.orderHead = 0;
+		this.orderCount = 0;
+		for(int i=0; i<waiting.size(); i++)
+			this.addToOrder(waiting.get(i), this.addedAt[waiting.get(i)]);
+	}
+
+	/**
+	 * Adds a call to the end of the order the calls were added in, making the ring bigger if it is full
+	 * @since 1.3
+	 */
+	private void addToOrder(int callRef, long time){
+		if(this.orderCount==this.order.length){
+			int[] order = new int[this.order.length*2];
+			long[] orderTime = new long[this.order.length*2];
+			for(int i=0; i<this.orderCount; i++){
+				int at = (this.orderHead + i) & (this.order.length - 1);
+				order[i] = this.order[at];
+				orderTime[i] = this.orderTime[at];
+			}
+			this.order = order;
+			this.orderTime = orderTime;
+			this.orderHead = 0;
+		}
+		int at = (this.orderHead + this.orderCount) & (this.order.length - 1);
+		this.order[at] = callRef;
+		this.orderTime[at] = time;
+		this.orderCount++;
+	}
+}
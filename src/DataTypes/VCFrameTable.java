@@ -0,0 +1,141 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import Checkpoint.*;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Where each VC on a nic is in the packet it is sending, for the drop policies that drop whole packets.
+ * A packet's first cell carries its size, so we know how many cells follow it, and whether they are
+ * being let through or dropped. The state of each VC is one int in an array indexed by the VC: 0 between
+ * packets, n if the next n cells belong to a packet being let through, and -n if they belong to a packet
+ * being dropped. Cells of different VCs can be mixed together without a drop on one VC affecting another.
+ */
+public class VCFrameTable {
+	private static final int CELL_BITS = 48 * 8; // the number of bits of packet in a cell
+	private int[] state = new int[16]; // the cells still to come of each VC's packet (negative if they are being dropped)
+
+	/**
+	 * Returns the number of cells a packet is sent in
+	 * @param bits the size of the packet in bits
+	 * @return the number of cells, including the first
+	 * @since 1.3
+	 */
+	public static int cellsFor(int bits){
+		return Math.max(1, (bits + CELL_BITS - 1) / CELL_BITS);
+	}
+
+	/**
+	 * Starts a new packet on a VC, when its first cell arrives
+	 * @param vc the VC the packet is on
+	 * @param bits the size of the packet in bits
+	 * @param dropping true if the packet's cells are to be dropped
+	 * @since 1.3
+	 */
+	public void startFrame(int vc, int bits, boolean dropping){
+		int cells = cellsFor(bits) - 1;
+		this.state[this.slot(vc)] = dropping ? -cells : cells;
+	}
+
+	/**
+	 * Moves a VC on to its next cell, when a cell that isn't the first of a packet arrives
+	 * @param vc the VC the cell is on
+	 * @return true if the cell belongs to a packet that is being dropped
+	 * @since 1.3
+	 */
+	public boolean nextCell(int vc){
+		if(vc < 0 || vc >= this.state.length)
+			return false;
+		int cells = this.state[vc];
+		if(cells > 0){
+			this.state[vc] = cells - 1;
+			return false;
+		}
+		if(cells < 0){
+			this.state[vc] = cells + 1;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Drops the rest of the packet a VC is sending
+	 * @param vc the VC the packet is on
+	 * @since 1.3
+	 */
+	public void dropRest(int vc){
+		if(vc < 0 || vc >= this.state.length)
+			return;
+		if(this.state[vc] > 0)
+			this.state[vc] = -this.state[vc];
+	}
+
+	/**
+	 * Returns if the rest of a VC's packet is being dropped
+	 * @param vc the VC to look up
+	 * @return true if the cells still to come are being dropped
+	 * @since 1.3
+	 */
+	public boolean isDropping(int vc){
+		return vc >= 0 && vc < this.state.length && this.state[vc] < 0;
+	}
+
+	/**
+	 * Returns the number of cells still to come of the packet a VC is sending
+	 * @param vc the VC to look up
+	 * @return the number of cells, or 0 if the VC is between packets
+	 * @since 1.3
+	 */
+	public int getCellsRemaining(int vc){
+		if(vc < 0 || vc >= this.state.length)
+			return 0;
+		return Math.abs(this.state[vc]);
+	}
+
+	/**
+	 * Forgets every VC's packet
+	 * @since 1.3
+	 */
+	public void clear(){
+		Arrays.fill(this.state, 0);
+	}
+
+	/**
+	 * Writes where each VC is in its packet to a checkpoint
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException{
+		out.writeInts(this.state, this.state.length);
+	}
+
+	/**
+	 * Replaces the state of every VC with what was written by saveState
+	 * @param in the checkpoint being read
+	 * @throws IOException if the checkpoint can't be read
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in) throws IOException{
+		this.state = in.readInts(16);
+	}
+
+	/**
+	 * Returns where a VC's state is kept, making room for it if needed
+	 * @since 1.3
+	 */
+	private int slot(int vc){
+		if(vc < 0)
+			vc = 0;
+		if(vc >= this.state.length)
+			this.state = Arrays.copyOf(this.state, Math.max(vc+1, this.state.length*2));
+		return vc;
+	}
+}
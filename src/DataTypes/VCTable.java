@@ -0,0 +1,208 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import NetworkElements.*;
+import Checkpoint.*;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The VC table for a router. Maps an input VC to the nic and VC it should be forwarded on, or marks
+ * it as ending at this router. Entries are kept in arrays indexed by the VC number, so a lookup
+ * doesn't box anything, and a bitmap of the VCs in use lets us find the lowest free VC 64 at a time.
+ * VC 0 is used for signalling so it is never handed out.
+ */
+public class VCTable {
+	private ATMNIC[] outNIC = new ATMNIC[64]; // the nic to forward each VC on (null if it isn't forwarded)
+	private int[] outVC = new int[64]; // the VC to forward each VC on
+	private long[] used = new long[1]; // a bit for each VC that has been allocated
+	private long[] end = new long[1]; // a bit for each VC that ends at this router
+	private int searchFrom = 0; // the first word in the used bitmap that might have a free VC
+	private int size = 0; // the number of VCs allocated
+
+	/**
+	 * Creates an empty VC table
+	 * @since 1.3
+	 */
+	public VCTable(){
+		this.used[0] = 1L; // VC 0 is for signalling
+	}
+
+	/**
+	 * Allocates the lowest numbered VC that isn't in use
+	 * @return the VC that was allocated
+	 * @since 1.3
+	 */
+	public int allocate(){
+		int word = this.searchFrom;
+		while(word < this.used.length && this.used[word]==-1L)
+			word++;
+		if(word==this.used.length)
+			this.growBitmaps(word+1);
+		this.searchFrom = word;
+
+		int vc = (word << 6) + Long.numberOfTrailingZeros(~this.used[word]);
+		this.used[word] |= 1L << vc;
+		this.size++;
+		return vc;
+	}
+
+	/**
+	 * Sets an allocated VC to be forwarded on a nic with a new VC number
+	 * @param vc the input VC
+	 * @param nic the nic to forward cells on
+	 * @param newVC the VC to forward cells on
+	 * @since 1.3
+	 */
+	public void setForward(int vc, ATMNIC nic, int newVC){
+		if(vc >= this.outNIC.length){
+			int length = this.outNIC.length;
+			while(length <= vc)
+				length *= 2;
+			ATMNIC[] nics = new ATMNIC[length];
+			System.arraycopy(this.outNIC, 0, nics, 0, this.outNIC.length);
+			int[] vcs = new int[length];
+			System.arraycopy(this.outVC, 0, vcs, 0, this.outVC.length);
+			this.outNIC = nics;
+			this.outVC = vcs;
+		}
+		this.outNIC[vc] = nic;
+		this.outVC[vc] = newVC;
+	}
+
+	/**
+	 * Sets an allocated VC as ending at this router
+	 * @param vc the VC that ends here
+	 * @since 1.3
+	 */
+	public void setEnd(int vc){
+		this.end[vc >>> 6] |= 1L << vc;
+	}
+
+	/**
+	 * Returns if a VC ends at this router
+	 * @param vc the VC to look up
+	 * @return true if the VC ends at this router
+	 * @since 1.3
+	 */
+	public boolean isEnd(int vc){
+		if(vc < 0 || (vc >>> 6) >= this.end.length)
+			return false;
+		return (this.end[vc >>> 6] & (1L << vc)) != 0;
+	}
+
+	/**
+	 * Returns the nic a VC is forwarded on
+	 * @param vc the VC to look up
+	 * @return the nic to forward on, or null if the VC isn't forwarded
+	 * @since 1.3
+	 */
+	public ATMNIC getNIC(int vc){
+		if(vc < 0 || vc >= this.outNIC.length)
+			return null;
+		return this.outNIC[vc];
+	}
+
+	/**
+	 * Returns the VC number a VC is forwarded with. Only valid if getNIC returns a nic
+	 * @param vc the VC to look up
+	 * @return the new VC number
+	 * @since 1.3
+	 */
+	public int getOutVC(int vc){
+		return this.outVC[vc];
+	}
+
+	/**
+	 * Frees up a VC so that it can be allocated again
+	 * @param vc the VC to free
+	 * @since 1.3
+	 */
+	public void release(int vc){
+		if(vc <= 0 || (vc >>> 6) >= this.used.length || (this.used[vc >>> 6] & (1L << vc))==0)
+			return;
+		int word = vc >>> 6;
+		this.used[word] &= ~(1L << vc);
+		this.end[word] &= ~(1L << vc);
+		if(vc < this.outNIC.length)
+			this.outNIC[vc] = null;
+		if(word < this.searchFrom)
+			this.searchFrom = word;
+		this.size--;
+	}
+
+	/**
+	 * Returns the number of VCs that are allocated
+	 * @return the number of VCs allocated
+	 * @since 1.3
+	 */
+	public int size(){
+		return this.size;
+	}
+
+	/**
+	 * Writes the table to a checkpoint, with the nics written as their positions in the router
+	 * @param out the checkpoint being written
+	 * @param nics the router's nics
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out, List<ATMNIC> nics) throws IOException{
+		int[] nicIndexes = new int[this.outNIC.length];
+		for(int i=0; i<nicIndexes.length; i++)
+			nicIndexes[i] = this.outNIC[i]==null ? -1 : nics.indexOf(this.outNIC[i]);
+		out.writeInts(nicIndexes, nicIndexes.length);
+		out.writeInts(this.outVC, this.outVC.length);
+		out.writeLongs(this.used, this.used.length);
+		out.writeLongs(this.end, this.end.length);
+		out.writeInt(this.searchFrom);
+		out.writeInt(this.size);
+	}
+
+	/**
+	 * Replaces the VCs in the table with those written by saveState
+	 * @param in the checkpoint being read
+	 * @param nics the router's nics
+	 * @throws IOException if the checkpoint can't be read, or refers to a nic the router doesn't have
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in, List<ATMNIC> nics) throws IOException{
+		int[] nicIndexes = in.readInts(0);
+		ATMNIC[] outNIC = new ATMNIC[nicIndexes.length];
+		for(int i=0; i<nicIndexes.length; i++){
+			if(nicIndexes[i] >= nics.size())
+				throw new IOException("Error (VCTable): The checkpoint refers to nic " + nicIndexes[i] + " but the router only has " + nics.size());
+			if(nicIndexes[i] >= 0)
+				outNIC[i] = nics.get(nicIndexes[i]);
+		}
+		this.outNIC = outNIC;
+		this.outVC = in.readInts(outNIC.length);
+		this.used = in.readLongs(1);
+		this.end = in.readLongs(this.used.length);
+		this.searchFrom = in.readInt();
+		this.size = in.readInt();
+	}
+
+	/**
+	 * Makes the bitmaps big enough to hold a number of words
+	 * @param words the number of words needed
+	 * @since 1.3
+	 */
+	private void growBitmaps(int words){
+		int length = this.used.length*2;
+		if(length < words)
+			length = words;
+		long[] newUsed = new long[length];
+		System.arraycopy(this.used, 0, newUsed, 0, this.used.length);
+		long[] newEnd = new long[length];
+		System.arraycopy(this.end, 0, newEnd, 0, this.end.length);
+		this.used = newUsed;
+		this.end = newEnd;
+	}
+}
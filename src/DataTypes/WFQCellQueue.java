@@ -0,0 +1,375 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import Checkpoint.*;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A weighted fair queue of cells (self-clocked fair queuing). Every VC has its own buffer, and each
+ * packet is given a finish tag when its header cell arrives: the later of the virtual time and the
+ * VC's last finish tag, plus the packet's length in cells divided by the VC's weight. The rest of
+ * the packet's cells inherit the tag, and the cell with the smallest tag is sent next, so each VC
+ * gets a share of the link in proportion to its weight however much the other VCs are sending.
+ * The virtual time is the tag of the last cell sent. The VCs that have cells waiting are kept in a
+ * heap ordered by the tag of their first cell, so sending a cell costs O(log active VCs).
+ * Signalling cells (and cells without a header in front of them) count as packets of one cell.
+ * A packet is charged for all of its cells even if some are dropped, so a VC sending more than its
+ * share does better with a drop policy that drops whole packets (EPD).
+ * VC numbers below 0 share VC 0's buffer.
+ */
+public class WFQCellQueue implements IOutputQueue {
+	private static final int CELL_BITS = 48 * 8; // the number of bits of packet in a cell
+
+	private int capacity; // the number of cells each VC's buffer can hold
+	private int size = 0; // the number of cells in the queue
+	private double virtualTime = 0.0; // the finish tag of the last cell sent
+	private ATMCellQueue[] queues = new ATMCellQueue[16]; // each VC's buffer (made when the VC is first used)
+	private double[] weights = new double[16]; // each VC's weight (0 means it hasn't been set, so 1)
+	private double[] lastFinish = new double[16]; // the finish tag of the last packet queued on each VC
+	private int[] packetCells = new int[16]; // the number of cells still to come of the last packet queued on each VC
+	private double[] headTag = new double[16]; // the finish tag of the first cell in each VC's buffer
+	private int[] heap = new int[16]; // the VCs with cells waiting, heap ordered by headTag then VC
+	private int[] heapIndex = new int[16]; // where each VC is in the heap (-1 if it isn't)
+	private int heapSize = 0; // the number of VCs in the heap
+
+	/**
+	 * Creates an empty queue
+	 * @param capacity the number of cells each VC's buffer can hold
+	 * @since 1.3
+	 */
+	public WFQCellQueue(int capacity){
+		if(capacity < 1)
+			throw new IllegalArgumentException("Error (WFQCellQueue): The capacity must be at least 1");
+		this.capacity = capacity;
+		Arrays.fill(this.heapIndex, -1);
+	}
+
+	/**
+	 * Sets the share of the link a VC gets, relative to the other VCs (every VC starts with a weight of 1)
+	 * @param vc the VC
+	 * @param weight the weight of the VC
+	 * @since 1.3
+	 */
+	public void setWeight(int vc, double weight){
+		if(weight <= 0.0)
+			throw new IllegalArgumentException("Error (WFQCellQueue): The weight must be above 0");
+		int slot = this.slot(vc);
+		this.weights[slot] = weight;
+	}
+
+	/**
+	 * Returns the share of the link a VC gets, relative to the other VCs
+	 * @param vc the VC
+	 * @return the weight of the VC
+	 * @since 1.3
+	 */
+	public double getWeight(int vc){
+		int slot = vc < 0 ? 0 : vc;
+		if(slot >= this.weights.length || this.weights[slot]==0.0)
+			return 1.0;
+		return this.weights[slot];
+	}
+
+	/**
+	 * Returns the virtual time (the finish tag of the last cell sent)
+	 * @return the virtual time
+	 * @since 1.3
+	 */
+	public double getVirtualTime(){
+		return this.virtualTime;
+	}
+
+	/**
+	 * Tags a cell and adds it to its VC's buffer
+	 * @param cell the cell to add
+	 * @return false if the VC's buffer is full and the cell wasn't added
+	 * @since 1.3
+	 */
+	public boolean offer(ATMCell cell){
+		int vc = this.slot(cell.getVC());
+		ATMCellQueue queue = this.queues[vc];
+		if(queue==null){
+			queue = new ATMCellQueue(this.capacity);
+			this.queues[vc] = queue;
+		}
+		if(queue.isFull())
+			return false;
+
+		// a header starts a new packet, the packet's other cells get its tag
+		double tag;
+		IPPacket packet = cell.getPacketData();
+		if(packet!=null || this.packetCells[vc]==0 || cell.getIsOAM()){
+			int cells = 1;
+			if(packet!=null)
+				cells = Math.max(1, (packet.getSize() + CELL_BITS - 1) / CELL_BITS);
+			tag = Math.max(this.virtualTime, this.lastFinish[vc]) + cells / this.getWeight(vc);
+			this.lastFinish[vc] = tag;
+			this.packetCells[vc] = cells - 1;
+			if(packet!=null)
+				packet.setFinishTime(tag);
+		}
+		else{
+			tag = this.lastFinish[vc];
+			this.packetCells[vc]--;
+		}
+		cell.setFinishTime(tag);
+
+		queue.offer(cell);
+		this.size++;
+		if(queue.size()==1){
+			this.headTag[vc] = tag;
+			this.heapAdd(vc);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the cell with the smallest finish tag
+	 * @return the next cell to send, or null if the queue is empty
+	 * @since 1.3
+	 */
+	public ATMCell poll(){
+		if(this.heapSize==0)
+			return null;
+		int vc = this.heap[0];
+		ATMCellQueue queue = this.queues[vc];
+		ATMCell cell = queue.poll();
+		this.size--;
+		this.virtualTime = this.headTag[vc];
+
+		if(queue.isEmpty())
+			this.heapRemoveFirst();
+		else{
+			this.headTag[vc] = queue.peek().getFinishTime();
+			this.siftDown(0);
+		}
+		return cell;
+	}
+
+	/**
+	 * Returns the cell with the smallest finish tag without removing it
+	 * @return the next cell to send, or null if the queue is empty
+	 * @since 1.3
+	 */
+	public ATMCell peek(){
+		if(this.heapSize==0)
+			return null;
+		return this.queues[this.heap[0]].peek();
+	}
+
+	/**
+	 * Returns the number of cells in the buffer of a cell's VC
+	 * @param cell the cell
+	 * @return the number of cells in the cell's VC's buffer
+	 * @since 1.3
+	 */
+	public int occupancy(ATMCell cell){
+		int vc = cell.getVC();
+		if(vc < 0)
+			vc = 0;
+		if(vc >= this.queues.length || this.queues[vc]==null)
+			return 0;
+		return this.queues[vc].size();
+	}
+
+	/**
+	 * Returns the number of cells each VC's buffer can hold
+	 * @return the capacity of a VC's buffer
+	 * @since 1.3
+	 */
+	public int capacity(){
+		return this.capacity;
+	}
+
+	/**
+	 * Returns the number of cells in the queue (on every VC)
+	 * @return the number of cells in the queue
+	 * @since 1.3
+	 */
+	public int size(){
+		return this.size;
+	}
+
+	/**
+	 * Returns if the queue has no cells in it
+	 * @return true if the queue is empty
+	 * @since 1.3
+	 */
+	public boolean isEmpty(){
+		return this.size==0;
+	}
+
+	/**
+	 * Removes every cell from the queue
+	 * @since 1.3
+	 */
+	public void clear(){
+		while(this.heapSize > 0){
+			int vc = this.heap[--this.heapSize];
+			this.queues[vc].clear();
+			this.heapIndex[vc] = -1;
+		}
+		this.size = 0;
+	}
+
+	/**
+	 * Writes the virtual time, the weights and tags of each VC, and the cells in each VC's buffer to a checkpoint
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException{
+		out.writeDouble(this.virtualTime);
+		out.writeDoubles(this.weights, this.weights.length);
+		out.writeDoubles(this.lastFinish, this.lastFinish.length);
+		out.writeInts(this.packetCells, this.packetCells.length);
+		out.writeInt(this.heapSize);
+		for(int i=0; i<this.heapSize; i++){
+			out.writeInt(this.heap[i]);
+			this.queues[this.heap[i]].saveState(out);
+		}
+	}
+
+	/**
+	 * Replaces the state of the queue with what was written by saveState
+	 * @param in the checkpoint being read
+	 * @throws IOException if the checkpoint can't be read, or has more cells on a VC than its buffer holds
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in) throws IOException{
+		this.clear();
+		this.virtualTime = in.readDouble();
+		double[] weights = in.readDoubles(0);
+		double[] lastFinish = in.readDoubles(0);
+		int[] packetCells = in.readInts(0);
+		if(weights.length!=lastFinish.length || weights.length!=packetCells.length)
+			throw new IOException("Error (WFQCellQueue): The checkpoint is corrupt (the VC tables are different lengths)");
+		this.slot(weights.length-1);
+		Arrays.fill(this.weights, 0.0);
+		Arrays.fill(this.lastFinish, 0.0);
+		Arrays.fill(this.packetCells, 0);
+		System.arraycopy(weights, 0, this.weights, 0, weights.length);
+		System.arraycopy(lastFinish, 0, this.lastFinish, 0, lastFinish.length);
+		System.arraycopy(packetCells, 0, this.packetCells, 0, packetCells.length);
+
+		int active = in.readInt();
+		for(int i=0; i<active; i++){
+			int vc = this.slot(in.readInt());
+			ATMCellQueue queue = this.queues[vc];
+			if(queue==null){
+				queue = new ATMCellQueue(this.capacity);
+				this.queues[vc] = queue;
+			}
+			queue.restoreState(in);
+			if(queue.isEmpty() || this.heapIndex[vc]!=-1)
+				throw new IOException("Error (WFQCellQueue): The checkpoint is corrupt (VC " + vc + " is listed wrongly)");
+			this.size += queue.size();
+			this.headTag[vc] = queue.peek().getFinishTime();
+			this.heapAdd(vc);
+		}
+	}
+
+	/**
+	 * Returns where a VC's state is kept, making room for it if needed
+	 * @since 1.3
+	 */
+	private int slot(int vc){
+		if(vc < 0)
+			vc = 0;
+		if(vc >= this.queues.length){
+			int length = Math.max(vc+1, this.queues.length*2);
+			this.queues = Arrays.copyOf(this.queues, length);
+			this.weights = Arrays.copyOf(this.weights, length);
+			this.lastFinish = Arrays.copyOf(this.lastFinish, length);
+			this.packetCells = Arrays.copyOf(this.packetCells, length);
+			this.headTag = Arrays.copyOf(this.headTag, length);
+			this.heap = Arrays.copyOf(this.heap, length);
+			int old = this.heapIndex.length;
+			this.heapIndex = Arrays.copyOf(this.heapIndex, length);
+			Arrays.fill(this.heapIndex, old, length, -1);
+		}
+		return vc;
+	}
+
+	/**
+	 * Returns if VC a should be sent before VC b
+	 * @since 1.3
+	 */
+	private boolean before(int a, int b){
+		double tagA = this.headTag[a], tagB = this.headTag[b];
+		return tagA < tagB || (tagA==tagB && a < b);
+	}
+
+	/**
+	 * Puts a VC in the heap
+	 * @since 1.3
+	 */
+	private void heapAdd(int vc){
+		int i = this.heapSize++;
+		this.heap[i] = vc;
+		this.heapIndex[vc] = i;
+		this.siftUp(i);
+	}
+
+	/**
+	 * Takes the first VC out of the heap
+	 * @since 1.3
+	 */
+	private void heapRemoveFirst(){
+		int vc = this.heap[0];
+		this.heapIndex[vc] = -1;
+		this.heapSize--;
+		if(this.heapSize > 0){
+			this.heap[0] = this.heap[this.heapSize];
+			this.heapIndex[this.heap[0]] = 0;
+			this.siftDown(0);
+		}
+	}
+
+	/**
+	 * Moves a VC up the heap until its parent goes before it
+	 * @since 1.3
+	 */
+	private void siftUp(int i){
+		int vc = this.heap[i];
+		while(i > 0){
+			int parent = (i-1) >>> 1;
+			if(!this.before(vc, this.heap[parent]))
+				break;
+			this.heap[i] = this.heap[parent];
+			this.heapIndex[this.heap[i]] = i;
+			i = parent;
+		}
+		this.heap[i] = vc;
+		this.heapIndex[vc] = i;
+	}
+
+	/**
+	 * Moves a VC down the heap until it goes before its children
+	 * @since 1.3
+	 */
+	private void siftDown(int i){
+		int vc = this.heap[i];
+		while(true){
+			int child = 2*i + 1;
+			if(child >= this.heapSize)
+				break;
+			if(child+1 < this.heapSize && this.before(this.heap[child+1], this.heap[child]))
+				child++;
+			if(!this.before(this.heap[child], vc))
+				break;
+			this.heap[i] = this.heap[child];
+			this.heapIndex[this.heap[i]] = i;
+			i = child;
+		}
+		this.heap[i] = vc;
+		this.heapIndex[vc] = i;
+	}
+}
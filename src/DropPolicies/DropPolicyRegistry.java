@@ -0,0 +1,65 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DropPolicies;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * The drop policies that nics can be set to use by name. Each nic needs its own policy object, so
+ * policies are registered as factories. The built in policies are "tail", "red", "ppd", "epd",
+ * "ewma-red" and "wred"; other policies can be added with register.
+ */
+public class DropPolicyRegistry {
+	private static final ConcurrentHashMap<String, Supplier<? extends IDropPolicy>> factories = new ConcurrentHashMap<String, Supplier<? extends IDropPolicy>>(); // the policies, by name
+
+	static{
+		register("tail", TailDrop::new);
+		register("red", RED::new);
+		register("ppd", PPD::new);
+		register("epd", EPD::new);
+		register("ewma-red", EWMARED::new);
+		register("wred", WRED::new);
+	}
+
+	private DropPolicyRegistry(){}
+
+	/**
+	 * Makes a policy available by name, replacing any policy that already has the name
+	 * @param name the name of the policy
+	 * @param factory makes a new policy object for each nic
+	 * @since 1.3
+	 */
+	public static void register(String name, Supplier<? extends IDropPolicy> factory){
+		factories.put(name, factory);
+	}
+
+	/**
+	 * Makes a new policy object
+	 * @param name the name of the policy
+	 * @return the new policy object
+	 * @throws IllegalArgumentException if there isn't a policy with the name
+	 * @since 1.3
+	 */
+	public static IDropPolicy create(String name){
+		Supplier<? extends IDropPolicy> factory = factories.get(name);
+		if(factory==null)
+			throw new IllegalArgumentException("Error (DropPolicyRegistry): There is no drop policy called " + name);
+		return factory.get();
+	}
+
+	/**
+	 * Returns the names of the policies that are available
+	 * @return the names of the policies
+	 * @since 1.3
+	 */
+	public static Set<String> getNames(){
+		return new TreeSet<String>(factories.keySet());
+	}
+}
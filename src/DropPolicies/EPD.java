@@ -0,0 +1,164 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DropPolicies;
+
+import Checkpoint.*;
+import DataTypes.*;
+import Logging.*;
+import Metrics.*;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Early packet discard. The decision is made when a packet's header cell arrives: if the packet
+ * might not fit (each of its cells is given a RED style chance of being dropped) the whole packet
+ * is dropped, otherwise all of it is let through. Packets are followed per VC, so cells of other VCs
+ * mixed in with a dropped packet are still let through.
+ *
+ * A packet of k cells arriving at a queue of q cells is let through if none of its cells would have
+ * been dropped, which is the product of (1 - (q+i-startDropAt)/(capacity-startDropAt)) over its
+ * cells. Each term is (capacity-q-i)/(capacity-startDropAt), so the product is a ratio of factorials,
+ * and is worked out from a table of log factorials with one random number per packet.
+ */
+public class EPD implements IDropPolicy, ICheckpointable {
+	private static volatile double[] logFactorials = {0.0, 0.0}; // ln(n!) for n up to the biggest buffer seen so far
+	private int startDropAt = 10; // the minimum number of cells in the output buffer before we start dropping cells
+	private VCFrameTable frames = new VCFrameTable(); // where each VC is in its packet, and if the rest is being dropped
+
+	/**
+	 * Creates an EPD policy that starts dropping at 10 cells
+	 * @since 1.3
+	 */
+	public EPD(){}
+
+	/**
+	 * Creates an EPD policy
+	 * @param startDropAt the minimum number of cells in the output buffer before we start dropping cells
+	 * @since 1.3
+	 */
+	public EPD(int startDropAt){
+		this.startDropAt = startDropAt;
+	}
+
+	/**
+	 * Decides if a packet is dropped when its header cell arrives, and drops the rest of a dropped packet
+	 * @param cell the cell offered to the nic
+	 * @param queued the number of cells in the nic's output buffer
+	 * @param capacity the number of cells the output buffer can hold
+	 * @param random the nic's random number stream
+	 * @return true if the cell should be dropped
+	 * @since 1.3
+	 */
+	public boolean dropCell(ATMCell cell, int queued, int capacity, SplittableRandom random){
+		IPPacket cellPacket = cell.getPacketData();
+		int vc = cell.getVC();
+		if(cellPacket == null){
+			boolean dropping = this.frames.nextCell(vc);
+			if(dropping)
+				EventLog.log(LogEvent.NIC_CELL_DROPPED, null, cell.getTraceID());
+			return dropping;
+		}
+
+		int packetSize = cellPacket.getSize();
+		int cells = VCFrameTable.cellsFor(packetSize);
+		double dropProbability = this.dropProbability(cells, queued, capacity);
+		boolean drop = dropProbability >= 1.0 || (dropProbability > 0.0 && random.nextDouble() < dropProbability);
+		this.frames.startFrame(vc, packetSize, drop);
+		if(drop){
+			EventLog.log(LogEvent.NIC_PACKET_WILL_BE_DROPPED, null, cell.getTraceID(), cells, dropProbability);
+			EventLog.log(LogEvent.NIC_CELL_DROPPED, null, cell.getTraceID());
+		}
+		return drop;
+	}
+
+	/**
+	 * Drops the rest of the packet, as it didn't fit after all
+	 * @param cell the cell that was dropped
+	 * @since 1.3
+	 */
+	public void cellOverflowed(ATMCell cell){
+		this.frames.dropRest(cell.getVC());
+		EventLog.log(LogEvent.NIC_CELL_DROPPED, null, cell.getTraceID());
+	}
+
+	/**
+	 * Returns the reason that cells dropped by this policy are counted under
+	 * @return EPD
+	 * @since 1.3
+	 */
+	public DropReason getReason(){
+		return DropReason.EPD;
+	}
+
+	/**
+	 * Writes where each VC is in its packet to a checkpoint
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException{
+		this.frames.saveState(out);
+	}
+
+	/**
+	 * Replaces where each VC is in its packet with what was written by saveState
+	 * @param in the checkpoint being read
+	 * @throws IOException if the checkpoint can't be read
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in) throws IOException{
+		this.frames.restoreState(in);
+	}
+
+	/**
+	 * Returns the chance that at least one cell of a packet would be dropped
+	 * @since 1.3
+	 */
+	private double dropProbability(int cells, int queued, int capacity){
+		// the cells that go in before the queue reaches startDropAt can't be dropped
+		int first = Math.max(0, this.startDropAt + 1 - queued);
+		if(first >= cells)
+			return 0.0;
+		int range = capacity - this.startDropAt;
+		// the last cell would fill the buffer, so it is certain to be dropped
+		int lowest = capacity - queued - (cells - 1);
+		if(range <= 0 || lowest <= 0)
+			return 1.0;
+		int highest = capacity - queued - first;
+		double logKeep = logFactorial(highest) - logFactorial(lowest - 1) - (cells - first) * Math.log(range);
+		return 1.0 - Math.exp(logKeep);
+	}
+
+	/**
+	 * Returns ln(n!), growing the shared table if needed
+	 * @since 1.3
+	 */
+	private static double logFactorial(int n){
+		double[] table = logFactorials;
+		if(n >= table.length)
+			table = growLogFactorials(n);
+		return table[n];
+	}
+
+	/**
+	 * Makes the table of log factorials big enough to hold n
+	 * @since 1.3
+	 */
+	private static synchronized double[] growLogFactorials(int n){
+		double[] table = logFactorials;
+		if(n < table.length)
+			return table;
+		int old = table.length;
+		table = Arrays.copyOf(table, Math.max(n+1, old*2));
+		for(int i=old; i<table.length; i++)
+			table[i] = table[i-1] + Math.log(i);
+		logFactorials = table;
+		return table;
+	}
+}
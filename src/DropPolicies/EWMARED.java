@@ -0,0 +1,188 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DropPolicies;
+
+import Checkpoint.*;
+import DataTypes.*;
+import Logging.*;
+import Metrics.*;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * Random early detection on an exponentially weighted moving average of the queue length (Floyd and
+ * Jacobson's RED), so short bursts get through and drops are spread out rather than bunched together.
+ * Below minThreshold nothing is dropped. Between the thresholds the drop probability rises linearly
+ * to maxProbability, and is raised the longer it has been since the last drop so that drops are
+ * evenly spaced. Above maxThreshold it rises to 1 at twice maxThreshold ("gentle" RED), as a buffer
+ * of a few tens of cells would otherwise swing straight from hardly dropping to dropping everything.
+ * The averaging is done per cell offered, rather than per unit of time.
+ */
+public class EWMARED implements IDropPolicy, ICheckpointable {
+	private double weight; // how much each new queue length moves the average
+	private double average = 0.0; // the averaged queue length
+	private double[] minThreshold, maxThreshold, maxProbability; // the thresholds (in cells) for each class of cell
+	private int[] count; // the number of cells (of each class) let through since the last drop
+
+	/**
+	 * Creates a RED policy that drops between 5 and 15 averaged cells
+	 * @since 1.3
+	 */
+	public EWMARED(){
+		this(5, 15, 0.1, 0.02);
+	}
+
+	/**
+	 * Creates a RED policy
+	 * @param minThreshold the averaged queue length that we start dropping cells at
+	 * @param maxThreshold the averaged queue length that the drop probability reaches maxProbability at
+	 * @param maxProbability the drop probability at maxThreshold
+	 * @param weight how much each new queue length moves the average (between 0 and 1)
+	 * @since 1.3
+	 */
+	public EWMARED(double minThreshold, double maxThreshold, double maxProbability, double weight){
+		this(1, weight);
+		this.setThresholds(0, minThreshold, maxThreshold, maxProbability);
+	}
+
+	/**
+	 * Creates a RED policy with a number of classes of cell, that each have their own thresholds
+	 * @param classes the number of classes of cell
+	 * @param weight how much each new queue length moves the average (between 0 and 1)
+	 * @since 1.3
+	 */
+	protected EWMARED(int classes, double weight){
+		if(weight <= 0.0 || weight > 1.0)
+			throw new IllegalArgumentException("Error (EWMARED): The weight must be between 0 and 1");
+		this.weight = weight;
+		this.minThreshold = new double[classes];
+		this.maxThreshold = new double[classes];
+		this.maxProbability = new double[classes];
+		this.count = new int[classes];
+	}
+
+	/**
+	 * Sets the thresholds for a class of cell
+	 * @param dropClass the class of cell
+	 * @param minThreshold the averaged queue length that we start dropping cells at
+	 * @param maxThreshold the averaged queue length that the drop probability reaches maxProbability at
+	 * @param maxProbability the drop probability at maxThreshold
+	 * @since 1.3
+	 */
+	protected void setThresholds(int dropClass, double minThreshold, double maxThreshold, double maxProbability){
+		if(minThreshold < 0 || maxThreshold <= minThreshold)
+			throw new IllegalArgumentException("Error (EWMARED): The max threshold must be above the min threshold");
+		if(maxProbability <= 0.0 || maxProbability > 1.0)
+			throw new IllegalArgumentException("Error (EWMARED): The max probability must be between 0 and 1");
+		this.minThreshold[dropClass] = minThreshold;
+		this.maxThreshold[dropClass] = maxThreshold;
+		this.maxProbability[dropClass] = maxProbability;
+	}
+
+	/**
+	 * Returns which class of cell a cell is in
+	 * @param cell the cell
+	 * @return the class of the cell
+	 * @since 1.3
+	 */
+	protected int getDropClass(ATMCell cell){
+		return 0;
+	}
+
+	/**
+	 * Returns the averaged queue length
+	 * @return the averaged queue length
+	 * @since 1.3
+	 */
+	public double getAverage(){
+		return this.average;
+	}
+
+	/**
+	 * Updates the averaged queue length, then drops the cell with the probability for its class
+	 * @param cell the cell offered to the nic
+	 * @param queued the number of cells in the nic's output buffer
+	 * @param capacity the number of cells the output buffer can hold
+	 * @param random the nic's random number stream
+	 * @return true if the cell should be dropped
+	 * @since 1.3
+	 */
+	public boolean dropCell(ATMCell cell, int queued, int capacity, SplittableRandom random){
+		this.average += this.weight * (queued - this.average);
+
+		int dropClass = this.getDropClass(cell);
+		double min = this.minThreshold[dropClass], max = this.maxThreshold[dropClass];
+		if(this.average < min){
+			this.count[dropClass] = 0;
+			return false;
+		}
+
+		double dropProbability;
+		if(this.average < max){
+			// spread the drops out by raising the probability the longer it's been since the last one
+			double p = this.maxProbability[dropClass] * (this.average - min) / (max - min);
+			double spread = 1.0 - this.count[dropClass] * p;
+			dropProbability = spread <= p ? 1.0 : p / spread;
+		}
+		else
+			dropProbability = Math.min(1.0, this.maxProbability[dropClass] + (1.0 - this.maxProbability[dropClass]) * (this.average - max) / max);
+
+		if(random.nextDouble() >= dropProbability){
+			this.count[dropClass]++;
+			return false;
+		}
+		this.count[dropClass] = 0;
+		EventLog.log(LogEvent.NIC_CELL_DROPPED_WITH_PROBABILITY, null, cell.getTraceID(), 0, dropProbability);
+		return true;
+	}
+
+	/**
+	 * Logs that the cell was dropped because the buffer was full
+	 * @param cell the cell that was dropped
+	 * @since 1.3
+	 */
+	public void cellOverflowed(ATMCell cell){
+		this.count[this.getDropClass(cell)] = 0;
+		EventLog.log(LogEvent.NIC_CELL_TAIL_DROPPED, null, cell.getTraceID());
+	}
+
+	/**
+	 * Returns the reason that cells dropped by this policy are counted under
+	 * @return RED
+	 * @since 1.3
+	 */
+	public DropReason getReason(){
+		return DropReason.RED;
+	}
+
+	/**
+	 * Writes the averaged queue length, and the cells let through since the last drop, to a checkpoint
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException{
+		out.writeDouble(this.average);
+		out.writeInts(this.count, this.count.length);
+	}
+
+	/**
+	 * Replaces the averaged queue length and the counts with what was written by saveState
+	 * @param in the checkpoint being read
+	 * @throws IOException if the checkpoint can't be read, or has a different number of classes of cell
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in) throws IOException{
+		double average = in.readDouble();
+		int[] count = in.readInts(0);
+		if(count.length!=this.count.length)
+			throw new IOException("Error (EWMARED): The checkpoint has " + count.length + " classes of cell, not " + this.count.length);
+		this.average = average;
+		this.count = count;
+	}
+}
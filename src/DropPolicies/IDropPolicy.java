@@ -0,0 +1,46 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DropPolicies;
+
+import DataTypes.*;
+import Metrics.*;
+import java.util.SplittableRandom;
+
+/**
+ * Decides which of the cells offered to a nic are dropped rather than put in its output buffer.
+ * Every nic has its own policy object, so a policy can remember things about the cells it has seen
+ * (e.g. that it is in the middle of dropping a packet). A policy that remembers things should also
+ * implement ICheckpointable, so its nic can be checkpointed. New policies can be made available by name
+ * through DropPolicyRegistry.
+ */
+public interface IDropPolicy {
+	/**
+	 * Decides if a cell should be dropped. The policy logs the drop (if it wants to)
+	 * @param cell the cell offered to the nic
+	 * @param queued the number of cells in the nic's output buffer
+	 * @param capacity the number of cells the output buffer can hold
+	 * @param random the nic's random number stream
+	 * @return true if the cell should be dropped
+	 * @since 1.3
+	 */
+	public boolean dropCell(ATMCell cell, int queued, int capacity, SplittableRandom random);
+
+	/**
+	 * Called when a cell the policy let through was dropped anyway because the output buffer was full
+	 * @param cell the cell that was dropped
+	 * @since 1.3
+	 */
+	public void cellOverflowed(ATMCell cell);
+
+	/**
+	 * Returns the reason that cells dropped by this policy are counted under
+	 * @return the drop reason
+	 * @since 1.3
+	 */
+	public DropReason getReason();
+}
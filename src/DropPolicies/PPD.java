@@ -0,0 +1,110 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DropPolicies;
+
+import Checkpoint.*;
+import DataTypes.*;
+import Logging.*;
+import Metrics.*;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * Partial packet discard. Cells are dropped like RED, but once a cell of a packet has been dropped
+ * the rest of that packet's cells are dropped too (the packet is useless without them). Packets are
+ * followed per VC, so a drop on one VC doesn't throw away the packets of other VCs mixed in with it.
+ */
+public class PPD implements IDropPolicy, ICheckpointable {
+	private int startDropAt = 10; // the minimum number of cells in the output buffer before we start dropping cells
+	private VCFrameTable frames = new VCFrameTable(); // where each VC is in its packet, and if the rest is being dropped
+
+	/**
+	 * Creates a PPD policy that starts dropping at 10 cells
+	 * @since 1.3
+	 */
+	public PPD(){}
+
+	/**
+	 * Creates a PPD policy
+	 * @param startDropAt the minimum number of cells in the output buffer before we start dropping cells
+	 * @since 1.3
+	 */
+	public PPD(int startDropAt){
+		this.startDropAt = startDropAt;
+	}
+
+	/**
+	 * Drops the rest of a packet that has already lost a cell, otherwise drops the cell like RED
+	 * @param cell the cell offered to the nic
+	 * @param queued the number of cells in the nic's output buffer
+	 * @param capacity the number of cells the output buffer can hold
+	 * @param random the nic's random number stream
+	 * @return true if the cell should be dropped
+	 * @since 1.3
+	 */
+	public boolean dropCell(ATMCell cell, int queued, int capacity, SplittableRandom random){
+		IPPacket packet = cell.getPacketData();
+		int vc = cell.getVC();
+		if(packet == null && this.frames.nextCell(vc)){
+			EventLog.log(LogEvent.NIC_CELL_DROPPED_SUBSEQUENT, null, cell.getTraceID());
+			return true;
+		}
+		boolean drop = false;
+		if(queued > this.startDropAt){
+			double dropProbability = (double)(queued - this.startDropAt) / (double)(capacity - this.startDropAt);
+			if(random.nextDouble() <= dropProbability){
+				drop = true;
+				EventLog.log(LogEvent.NIC_CELL_DROPPED_WITH_PROBABILITY, null, cell.getTraceID(), 0, dropProbability);
+			}
+		}
+		if(packet != null)
+			this.frames.startFrame(vc, packet.getSize(), drop);
+		else if(drop)
+			this.frames.dropRest(vc);
+		return drop;
+	}
+
+	/**
+	 * Drops the rest of the packet, as it has lost a cell
+	 * @param cell the cell that was dropped
+	 * @since 1.3
+	 */
+	public void cellOverflowed(ATMCell cell){
+		this.frames.dropRest(cell.getVC());
+		EventLog.log(LogEvent.NIC_CELL_TAIL_DROPPED, null, cell.getTraceID());
+	}
+
+	/**
+	 * Returns the reason that cells dropped by this policy are counted under
+	 * @return PPD
+	 * @since 1.3
+	 */
+	public DropReason getReason(){
+		return DropReason.PPD;
+	}
+
+	/**
+	 * Writes where each VC is in its packet to a checkpoint
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException{
+		this.frames.saveState(out);
+	}
+
+	/**
+	 * Replaces where each VC is in its packet with what was written by saveState
+	 * @param in the checkpoint being read
+	 * @throws IOException if the checkpoint can't be read
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in) throws IOException{
+		this.frames.restoreState(in);
+	}
+}
@@ -0,0 +1,74 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DropPolicies;
+
+import DataTypes.*;
+import Logging.*;
+import Metrics.*;
+import java.util.SplittableRandom;
+
+/**
+ * Random early detection on the instantaneous queue length. Once the output buffer holds more than
+ * startDropAt cells, each cell is dropped with a probability that grows linearly to 1 as the buffer
+ * fills. (See EWMARED for RED on an averaged queue length.)
+ */
+public class RED implements IDropPolicy {
+	private int startDropAt = 10; // the minimum number of cells in the output buffer before we start dropping cells
+
+	/**
+	 * Creates a RED policy that starts dropping at 10 cells
+	 * @since 1.3
+	 */
+	public RED(){}
+
+	/**
+	 * Creates a RED policy
+	 * @param startDropAt the minimum number of cells in the output buffer before we start dropping cells
+	 * @since 1.3
+	 */
+	public RED(int startDropAt){
+		this.startDropAt = startDropAt;
+	}
+
+	/**
+	 * Drops the cell with a probability based on how far the buffer is past startDropAt
+	 * @param cell the cell offered to the nic
+	 * @param queued the number of cells in the nic's output buffer
+	 * @param capacity the number of cells the output buffer can hold
+	 * @param random the nic's random number stream
+	 * @return true if the cell should be dropped
+	 * @since 1.3
+	 */
+	public boolean dropCell(ATMCell cell, int queued, int capacity, SplittableRandom random){
+		if(queued <= this.startDropAt)
+			return false;
+		double dropProbability = (double)(queued - this.startDropAt) / (double)(capacity - this.startDropAt);
+		if(random.nextDouble() > dropProbability)
+			return false;
+		EventLog.log(LogEvent.NIC_CELL_DROPPED_WITH_PROBABILITY, null, cell.getTraceID(), 0, dropProbability);
+		return true;
+	}
+
+	/**
+	 * Logs that the cell was dropped because the buffer was full
+	 * @param cell the cell that was dropped
+	 * @since 1.3
+	 */
+	public void cellOverflowed(ATMCell cell){
+		EventLog.log(LogEvent.NIC_CELL_TAIL_DROPPED, null, cell.getTraceID());
+	}
+
+	/**
+	 * Returns the reason that cells dropped by this policy are counted under
+	 * @return RED
+	 * @since 1.3
+	 */
+	public DropReason getReason(){
+		return DropReason.RED;
+	}
+}
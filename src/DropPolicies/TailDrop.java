@@ -0,0 +1,52 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DropPolicies;
+
+import DataTypes.*;
+import Logging.*;
+import Metrics.*;
+import java.util.SplittableRandom;
+
+/**
+ * Drops cells only when the output buffer is full
+ */
+public class TailDrop implements IDropPolicy {
+	/**
+	 * Drops the cell if the output buffer is full
+	 * @param cell the cell offered to the nic
+	 * @param queued the number of cells in the nic's output buffer
+	 * @param capacity the number of cells the output buffer can hold
+	 * @param random the nic's random number stream
+	 * @return true if the cell should be dropped
+	 * @since 1.3
+	 */
+	public boolean dropCell(ATMCell cell, int queued, int capacity, SplittableRandom random){
+		if(queued < capacity)
+			return false;
+		EventLog.log(LogEvent.NIC_CELL_TAIL_DROPPED, null, cell.getTraceID());
+		return true;
+	}
+
+	/**
+	 * Logs that the cell was dropped because the buffer was full
+	 * @param cell the cell that was dropped
+	 * @since 1.3
+	 */
+	public void cellOverflowed(ATMCell cell){
+		EventLog.log(LogEvent.NIC_CELL_TAIL_DROPPED, null, cell.getTraceID());
+	}
+
+	/**
+	 * Returns the reason that cells dropped by this policy are counted under
+	 * @return TAIL
+	 * @since 1.3
+	 */
+	public DropReason getReason(){
+		return DropReason.TAIL;
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DropPolicies;
+
+import DataTypes.*;
+import Metrics.*;
+
+/**
+ * Weighted RED. Cells share one averaged queue length (see EWMARED) but each class of cell has its own
+ * thresholds. The class is the cell's CLP (cell loss priority) bit, so cells with CLP set start
+ * being dropped sooner and faster than the cells with it clear.
+ */
+public class WRED extends EWMARED {
+	/**
+	 * Creates a WRED policy. CLP 0 cells are dropped between 10 and 18 averaged cells (up to 10% of them),
+	 * CLP 1 cells between 4 and 10 (up to 50% of them)
+	 * @since 1.3
+	 */
+	public WRED(){
+		this(0.02);
+		this.setThresholds(false, 10, 18, 0.1);
+		this.setThresholds(true, 4, 10, 0.5);
+	}
+
+	/**
+	 * Creates a WRED policy, whose thresholds must be set with setThresholds
+	 * @param weight how much each new queue length moves the average (between 0 and 1)
+	 * @since 1.3
+	 */
+	public WRED(double weight){
+		super(2, weight);
+	}
+
+	/**
+	 * Sets the thresholds for the cells with or without the CLP bit set
+	 * @param clp the CLP bit of the cells the thresholds are for
+	 * @param minThreshold the averaged queue length that we start dropping cells at
+	 * @param maxThreshold the averaged queue length that the drop probability reaches maxProbability at
+	 * @param maxProbability the drop probability at maxThreshold
+	 * @since 1.3
+	 */
+	public void setThresholds(boolean clp, double minThreshold, double maxThreshold, double maxProbability){
+		this.setThresholds(clp ? 1 : 0, minThreshold, maxThreshold, maxProbability);
+	}
+
+	/**
+	 * Returns which class of cell a cell is in
+	 * @param cell the cell
+	 * @return 1 if the cell's CLP bit is set, otherwise 0
+	 * @since 1.3
+	 */
+	protected int getDropClass(ATMCell cell){
+		return cell.getCLP() ? 1 : 0;
+	}
+
+	/**
+	 * Returns the reason that cells dropped by this policy are counted under
+	 * @return WRED
+	 * @since 1.3
+	 */
+	public DropReason getReason(){
+		return DropReason.WRED;
+	}
+}
@@ -0,0 +1,246 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Logging;
+
+import java.io.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The log that the network elements write their events to, instead of printing them as they happen.
+ * Events are checked against their component's level first, so a filtered out event costs one array
+ * read. Events that pass are put into a fixed size ring buffer without taking a lock (any number of
+ * threads can log at once), and a background thread turns them into text and writes them out.
+ * If the ring fills up the logging thread waits for the writer to catch up, so nothing is lost.
+ */
+public class EventLog {
+	private static final int CAPACITY = 1 << 16; // the number of slots in the ring (a power of 2)
+	private static final int MASK = CAPACITY - 1;
+
+	private static final int[] levels = new int[LogComponent.values().length]; // the level of each component
+	private static volatile boolean async = true; // are events written by the background thread?
+	private static PrintStream out = System.out; // where the events are written
+
+	// the ring. a slot is free for the event with sequence number s when sequences[slot]==s, and full when it is s+1
+	private static final LogEvent[] events = new LogEvent[CAPACITY];
+	private static final Object[] names = new Object[CAPACITY];
+	private static final int[] traceIDs = new int[CAPACITY];
+	private static final int[] values = new int[CAPACITY];
+	private static final double[] probabilities = new double[CAPACITY];
+	private static final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+	private static final AtomicLong tail = new AtomicLong(0); // the next sequence number to hand out to a logger
+	private static volatile long head = 0; // the next sequence number the writer will read
+	private static volatile Thread writer = null; // the background thread
+
+	static{
+		for(int i=0; i<CAPACITY; i++)
+			sequences.set(i, i);
+		setLevel(LogLevel.INFO);
+		Runtime.getRuntime().addShutdownHook(new Thread(){
+			public void run(){
+				EventLog.flush();
+			}
+		});
+	}
+
+	private EventLog(){}
+
+	/**
+	 * Sets the level of every component
+	 * @param level the level to log at
+	 * @since 1.3
+	 */
+	public static void setLevel(LogLevel level){
+		for(LogComponent component : LogComponent.values())
+			setLevel(component, level);
+	}
+
+	/**
+	 * Sets the level of one component
+	 * @param component the component to set the level of
+	 * @param level the level to log at
+	 * @since 1.3
+	 */
+	public static void setLevel(LogComponent component, LogLevel level){
+		levels[component.ordinal()] = level.ordinal();
+	}
+
+	/**
+	 * Returns the level of a component
+	 * @param component the component
+	 * @return the level the component logs at
+	 * @since 1.3
+	 */
+	public static LogLevel getLevel(LogComponent component){
+		return LogLevel.values()[levels[component.ordinal()]];
+	}
+
+	/**
+	 * Sets where events are written. Anything already logged is written to the old stream first
+	 * @param stream the stream to write to
+	 * @since 1.3
+	 */
+	public static void setOutput(PrintStream stream){
+		flush();
+		synchronized(EventLog.class){
+			out = stream;
+		}
+	}
+
+	/**
+	 * Sets if events are written by a background thread, or straight away by the thread that logs them
+	 * @param async if true events are written by a background thread
+	 * @since 1.3
+	 */
+	public static void setAsync(boolean async){
+		flush();
+		EventLog.async = async;
+	}
+
+	/**
+	 * Returns if an event would be logged
+	 * @param event the event
+	 * @return true if the event's component is logging at the event's level
+	 * @since 1.3
+	 */
+	public static boolean isEnabled(LogEvent event){
+		return levels[event.getComponent().ordinal()] >= event.getLevel().ordinal();
+	}
+
+	/**
+	 * Logs an event about a cell
+	 * @param event the event
+	 * @param name the name of whatever logged the event
+	 * @param traceID the trace ID of the cell
+	 * @since 1.3
+	 */
+	public static void log(LogEvent event, Object name, int traceID){
+		if(levels[event.getComponent().ordinal()] >= event.getLevel().ordinal())
+			append(event, name, traceID, 0, 0.0);
+	}
+
+	/**
+	 * Logs an event with a number
+	 * @param event the event
+	 * @param name the name of whatever logged the event
+	 * @param traceID the trace ID of the cell
+	 * @param value the number
+	 * @since 1.3
+	 */
+	public static void log(LogEvent event, Object name, int traceID, int value){
+		if(levels[event.getComponent().ordinal()] >= event.getLevel().ordinal())
+			append(event, name, traceID, value, 0.0);
+	}
+
+	/**
+	 * Logs an event with a probability
+	 * @param event the event
+	 * @param name the name of whatever logged the event
+	 * @param traceID the trace ID of the cell
+	 * @param value the number
+	 * @param probability the probability
+	 * @since 1.3
+	 */
+	public static void log(LogEvent event, Object name, int traceID, int value, double probability){
+		if(levels[event.getComponent().ordinal()] >= event.getLevel().ordinal())
+			append(event, name, traceID, value, probability);
+	}
+
+	/**
+	 * Waits until everything that has been logged so far has been written
+	 * @since 1.3
+	 */
+	public static void flush(){
+		long target = tail.get();
+		while(head < target){
+			if(writer==null || !writer.isAlive())
+				drain(); // nobody else is going to do it
+			else
+				LockSupport.parkNanos(50000);
+		}
+		synchronized(EventLog.class){
+			out.flush();
+		}
+	}
+
+	/**
+	 * Puts an event into the ring, or writes it straight away if we aren't async
+	 * @since 1.3
+	 */
+	private static void append(LogEvent event, Object name, int traceID, int value, double probability){
+		if(!async){
+			StringBuilder builder = new StringBuilder(80);
+			event.format(builder, name, traceID, value, probability);
+			synchronized(EventLog.class){
+				out.println(builder);
+			}
+			return;
+		}
+		if(writer==null)
+			startWriter();
+
+		long sequence = tail.getAndIncrement();
+		int slot = (int) (sequence & MASK);
+		// wait for the writer to empty the slot if the ring has wrapped round
+		while(sequences.get(slot)!=sequence)
+			LockSupport.parkNanos(1000);
+		events[slot] = event;
+		names[slot] = name;
+		traceIDs[slot] = traceID;
+		values[slot] = value;
+		probabilities[slot] = probability;
+		sequences.lazySet(slot, sequence+1); // publishes the fields written above
+	}
+
+	/**
+	 * Writes out every event that is ready in the ring
+	 * @return the number of events written
+	 * @since 1.3
+	 */
+	private static synchronized int drain(){
+		StringBuilder builder = new StringBuilder(80);
+		int written = 0;
+		long next = head;
+		while(true){
+			int slot = (int) (next & MASK);
+			if(sequences.get(slot)!=next+1)
+				break;
+			builder.setLength(0);
+			events[slot].format(builder, names[slot], traceIDs[slot], values[slot], probabilities[slot]);
+			out.println(builder);
+			events[slot] = null;
+			names[slot] = null;
+			sequences.lazySet(slot, next+CAPACITY); // free for the event that wraps round to it
+			next++;
+			head = next;
+			written++;
+		}
+		if(written > 0)
+			out.flush();
+		return written;
+	}
+
+	/**
+	 * Starts the background writer thread
+	 * @since 1.3
+	 */
+	private static synchronized void startWriter(){
+		if(writer!=null)
+			return;
+		Thread thread = new Thread("EventLog writer"){
+			public void run(){
+				while(true)
+					if(drain()==0)
+						LockSupport.parkNanos(100000);
+			}
+		};
+		thread.setDaemon(true);
+		thread.start();
+		writer = thread;
+	}
+}
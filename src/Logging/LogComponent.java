@@ -0,0 +1,19 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Logging;
+
+/**
+ * The parts of the simulation that log events. Each one has its own log level
+ */
+public enum LogComponent {
+	NIC,
+	ROUTER,
+	COMPUTER,
+	LINK,
+	SIMULATION;
+}
@@ -0,0 +1,125 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Logging;
+
+/**
+ * The events that can be logged. Each event belongs to a component, has a level, and has a
+ * template for its text. The template is only filled in by the log's writer thread, so logging an
+ * event never builds a string on the thread running the simulation. In a template %n is the name
+ * of whatever logged the event, %t is the trace ID of the cell, %v is a number, and %p is a probability.
+ */
+public enum LogEvent {
+	NIC_CELL_TAIL_DROPPED(LogComponent.NIC, LogLevel.INFO, "The cell %t was tail dropped"),
+	NIC_CELL_DROPPED_WITH_PROBABILITY(LogComponent.NIC, LogLevel.INFO, "The cell %t was dropped with probability %p"),
+	NIC_CELL_DROPPED_SUBSEQUENT(LogComponent.NIC, LogLevel.INFO, "The cell %t was dropped as a subsequent packet"),
+	NIC_PACKET_WILL_BE_DROPPED(LogComponent.NIC, LogLevel.INFO, "This packet of %v cells will be dropped with probability %p, id = %t"),
+	NIC_CELL_DROPPED(LogComponent.NIC, LogLevel.INFO, "The cell %t was dropped"),
+
+	ROUTER_SND_SETUP(LogComponent.ROUTER, LogLevel.INFO, "SND SETUP: %n sent a setup %t"),
+	ROUTER_REC_SETUP(LogComponent.ROUTER, LogLevel.INFO, "REC SETUP: %n received a setup message %t"),
+	ROUTER_SND_CALLPRO(LogComponent.ROUTER, LogLevel.INFO, "SND CALLPRO: %n sent a call proceeding message %t"),
+	ROUTER_REC_CALLPRO(LogComponent.ROUTER, LogLevel.INFO, "REC CALLPRO: %n received a call proceeding message %t"),
+	ROUTER_SND_CONN(LogComponent.ROUTER, LogLevel.INFO, "SND CONN: %n sent a connect message %t"),
+	ROUTER_REC_CONN(LogComponent.ROUTER, LogLevel.INFO, "REC CONN: %n received a connect message %t"),
+	ROUTER_SND_CALLACK(LogComponent.ROUTER, LogLevel.INFO, "SND CALLACK: %n sent a connect ack message %t"),
+	ROUTER_REC_CALLACK(LogComponent.ROUTER, LogLevel.INFO, "REC CALLACK: %n received a connect ack message %t"),
+	ROUTER_SND_END(LogComponent.ROUTER, LogLevel.INFO, "SND ENDACK: %n sent an end message %t"),
+	ROUTER_REC_END(LogComponent.ROUTER, LogLevel.INFO, "REC ENDACK: %n received an end message %t"),
+	ROUTER_SND_ENDACK(LogComponent.ROUTER, LogLevel.INFO, "SND ENDACK: %n sent an end ack message %t"),
+	ROUTER_REC_ENDACK(LogComponent.ROUTER, LogLevel.INFO, "REC ENDACK: %n received an end ack message %t"),
+	ROUTER_SND_WAIT(LogComponent.ROUTER, LogLevel.INFO, "SND WAIT: %n sent a wait message %t"),
+	ROUTER_REC_WAIT(LogComponent.ROUTER, LogLevel.INFO, "REC WAIT: %n received a wait message %t"),
+	ROUTER_FIRST_FREE_VC(LogComponent.ROUTER, LogLevel.INFO, "Trace (ATMRouter): First free VC = %v"),
+	ROUTER_VC_FREED(LogComponent.ROUTER, LogLevel.INFO, "Finish freeing up VC %v"),
+	ROUTER_CELL_DEAD_END(LogComponent.ROUTER, LogLevel.INFO, "The cell is destined for this router (%v), taken off network %t"),
+	ROUTER_CELL_NO_VC(LogComponent.ROUTER, LogLevel.INFO, "The cell is trying to be sent on an incorrect VC %t"),
+	ROUTER_NO_ROUTE(LogComponent.ROUTER, LogLevel.WARN, "Warning (ATMRouter): %n has no route to router %v, setup dropped %t"),
+	ROUTER_CALLS_TIMED_OUT(LogComponent.ROUTER, LogLevel.INFO, "%n gave up waiting for a connect on %v calls"),
+
+	COMPUTER_SND_SETUP(LogComponent.COMPUTER, LogLevel.INFO, "SND SETUP: %n sent a connect setup %t"),
+	COMPUTER_REC_CALLPRO(LogComponent.COMPUTER, LogLevel.INFO, "REC CALLPRO: %n received a call proceeding message %t"),
+	COMPUTER_REC_CONN(LogComponent.COMPUTER, LogLevel.INFO, "REC CONN: %n received a connect message %t"),
+	COMPUTER_SND_CALLACK(LogComponent.COMPUTER, LogLevel.INFO, "SND CALLACK: %n sent a connect ack message %t"),
+	COMPUTER_SND_END(LogComponent.COMPUTER, LogLevel.INFO, "SND END: %n sent an end message %t"),
+	COMPUTER_REC_ENDACK(LogComponent.COMPUTER, LogLevel.INFO, "REC ENDACK: %n received an end ack message %t"),
+	COMPUTER_REC_WAIT(LogComponent.COMPUTER, LogLevel.INFO, "REC WAIT: %n received a wait message %t"),
+	COMPUTER_CONNECTION_SETUP(LogComponent.COMPUTER, LogLevel.INFO, "The connection is setup on VC %v"),
+	COMPUTER_SND_PACKET(LogComponent.COMPUTER, LogLevel.DEBUG, "(Computer) Trace: sending packet from computer"),
+	COMPUTER_SND_CELL(LogComponent.COMPUTER, LogLevel.DEBUG, "(Computer) Trace: sending a cell for the part of the packet %t"),
+
+	SIMULATION_TICK(LogComponent.SIMULATION, LogLevel.INFO, "** TIME = %v **");
+
+	private LogComponent component; // the component that logs this event
+	private LogLevel level; // the level this event is logged at
+	private String[] text; // the template split up around its placeholders
+	private char[] fields; // the placeholder after each piece of text (or 0 at the end)
+
+	private LogEvent(LogComponent component, LogLevel level, String template){
+		this.component = component;
+		this.level = level;
+
+		// split the template up now, so filling it in is just appending
+		int pieces = 1;
+		for(int i=0; i<template.length()-1; i++)
+			if(template.charAt(i)=='%')
+				pieces++;
+		this.text = new String[pieces];
+		this.fields = new char[pieces];
+		int start = 0, piece = 0;
+		for(int i=0; i<template.length()-1; i++){
+			if(template.charAt(i)=='%'){
+				this.text[piece] = template.substring(start, i);
+				this.fields[piece] = template.charAt(i+1);
+				piece++;
+				start = i+2;
+				i++;
+			}
+		}
+		this.text[piece] = template.substring(start);
+	}
+
+	/**
+	 * Returns the component this event belongs to
+	 * @return the component this event belongs to
+	 * @since 1.3
+	 */
+	public LogComponent getComponent(){
+		return this.component;
+	}
+
+	/**
+	 * Returns the level this event is logged at
+	 * @return the level this event is logged at
+	 * @since 1.3
+	 */
+	public LogLevel getLevel(){
+		return this.level;
+	}
+
+	/**
+	 * Fills in this event's template
+	 * @param out where to write the text
+	 * @param name the name of whatever logged the event
+	 * @param traceID the trace ID of the cell
+	 * @param value the number
+	 * @param probability the probability
+	 * @since 1.3
+	 */
+	public void format(StringBuilder out, Object name, int traceID, int value, double probability){
+		for(int i=0; i<this.text.length; i++){
+			out.append(this.text[i]);
+			switch(this.fields[i]){
+			case 'n': out.append(name); break;
+			case 't': out.append(traceID); break;
+			case 'v': out.append(value); break;
+			case 'p': out.append(probability); break;
+			default: break;
+			}
+		}
+	}
+}
@@ -0,0 +1,19 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Logging;
+
+/**
+ * How much a component should log. Each level includes everything in the levels above it
+ */
+public enum LogLevel {
+	OFF, // nothing is logged
+	ERROR, // only things that went wrong
+	WARN, // things that might be wrong
+	INFO, // what the network is doing (drops, signalling)
+	DEBUG; // everything
+}
@@ -0,0 +1,20 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Metrics;
+
+/**
+ * Why a nic dropped a cell
+ */
+public enum DropReason {
+	TAIL, // the buffer was full
+	RED, // random early detection
+	PPD, // partial packet discard
+	EPD, // early packet discard
+	WRED, // weighted random early detection
+	OTHER; // a drop policy that was plugged in from outside
+}
@@ -0,0 +1,115 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.*;
+import javax.management.*;
+
+/**
+ * Keeps track of the counters of every nic and router. Nics and routers add themselves to the
+ * default registry when they are made, and the registry can publish them all through JMX
+ * (under the "ATM" domain) or take a snapshot of them.
+ */
+public class MetricsRegistry {
+	private static final MetricsRegistry defaultRegistry = new MetricsRegistry();
+
+	private ConcurrentLinkedQueue<NICMetrics> nics = new ConcurrentLinkedQueue<NICMetrics>(); // the counters of every nic
+	private ConcurrentLinkedQueue<RouterMetrics> routers = new ConcurrentLinkedQueue<RouterMetrics>(); // the counters of every router
+	private ArrayList<ObjectName> registered = new ArrayList<ObjectName>(); // the names we have published through JMX
+
+	/**
+	 * Returns the registry that nics and routers add themselves to
+	 * @return the default registry
+	 * @since 1.3
+	 */
+	public static MetricsRegistry getDefault(){
+		return defaultRegistry;
+	}
+
+	/**
+	 * Adds a nic's counters to the registry
+	 * @param metrics the nic's counters
+	 * @since 1.3
+	 */
+	public void add(NICMetrics metrics){
+		this.nics.add(metrics);
+	}
+
+	/**
+	 * Adds a router's counters to the registry
+	 * @param metrics the router's counters
+	 * @since 1.3
+	 */
+	public void add(RouterMetrics metrics){
+		this.routers.add(metrics);
+	}
+
+	/**
+	 * Forgets every counter (and takes them out of JMX), e.g. before building a new network
+	 * @since 1.3
+	 */
+	public synchronized void clear(){
+		this.unregisterMBeans();
+		this.nics.clear();
+		this.routers.clear();
+	}
+
+	/**
+	 * Publishes every counter in the registry through the platform MBean server
+	 * @throws JMException if the counters couldn't be published
+	 * @since 1.3
+	 */
+	public synchronized void registerMBeans() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		this.unregisterMBeans();
+		for(NICMetrics nic : this.nics){
+			ObjectName name = new ObjectName("ATM:type=NIC,name=" + ObjectName.quote(nic.getName()));
+			server.registerMBean(nic, name);
+			this.registered.add(name);
+		}
+		for(RouterMetrics router : this.routers){
+			ObjectName name = new ObjectName("ATM:type=Router,address=" + router.getAddress());
+			server.registerMBean(router, name);
+			this.registered.add(name);
+		}
+	}
+
+	/**
+	 * Takes everything this registry published out of the platform MBean server
+	 * @since 1.3
+	 */
+	public synchronized void unregisterMBeans(){
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for(ObjectName name : this.registered){
+			try{
+				server.unregisterMBean(name);
+			}
+			catch(JMException e){
+				// somebody else already took it out
+			}
+		}
+		this.registered.clear();
+	}
+
+	/**
+	 * Takes a copy of every counter in the registry
+	 * @return the copy
+	 * @since 1.3
+	 */
+	public MetricsSnapshot snapshot(){
+		ArrayList<NICMetrics> nicCopies = new ArrayList<NICMetrics>();
+		for(NICMetrics nic : this.nics)
+			nicCopies.add(nic.copy());
+		ArrayList<RouterMetrics> routerCopies = new ArrayList<RouterMetrics>();
+		for(RouterMetrics router : this.routers)
+			routerCopies.add(router.copy());
+		return new MetricsSnapshot(nicCopies, routerCopies);
+	}
+}
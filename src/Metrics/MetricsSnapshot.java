@@ -0,0 +1,114 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Metrics;
+
+import DataTypes.*;
+import java.util.*;
+
+/**
+ * A copy of every nic and router counter at one moment
+ */
+public class MetricsSnapshot {
+	private List<NICMetrics> nics; // the nic counters
+	private List<RouterMetrics> routers; // the router counters
+
+	/**
+	 * Creates a snapshot from copies of the counters
+	 * @param nics copies of the nic counters
+	 * @param routers copies of the router counters
+	 * @since 1.3
+	 */
+	public MetricsSnapshot(List<NICMetrics> nics, List<RouterMetrics> routers){
+		this.nics = Collections.unmodifiableList(nics);
+		this.routers = Collections.unmodifiableList(routers);
+	}
+
+	/**
+	 * Returns the nic counters
+	 * @return the nic counters
+	 * @since 1.3
+	 */
+	public List<NICMetrics> getNICs(){
+		return this.nics;
+	}
+
+	/**
+	 * Returns the router counters
+	 * @return the router counters
+	 * @since 1.3
+	 */
+	public List<RouterMetrics> getRouters(){
+		return this.routers;
+	}
+
+	/**
+	 * Returns the number of cells dropped for a reason across every nic
+	 * @param reason the reason
+	 * @return the number of cells dropped
+	 * @since 1.3
+	 */
+	public long getTotalDropped(DropReason reason){
+		long total = 0;
+		for(NICMetrics nic : this.nics)
+			total += nic.getDropped(reason);
+		return total;
+	}
+
+	/**
+	 * Returns the number of cells sent across every nic
+	 * @return the number of cells sent
+	 * @since 1.3
+	 */
+	public long getTotalSent(){
+		long total = 0;
+		for(NICMetrics nic : this.nics)
+			total += nic.getSent();
+		return total;
+	}
+
+	/**
+	 * Returns a table of the counters
+	 * @return the counters as text
+	 * @since 1.3
+	 */
+	public String toString(){
+		StringBuilder out = new StringBuilder();
+		out.append(String.format("%-24s %10s %10s %10s", "NIC", "enqueued", "sent", "arrivals"));
+		for(DropReason reason : DropReason.values())
+			out.append(String.format(" %8s", reason.name()));
+		out.append('\n');
+		for(NICMetrics nic : this.nics){
+			out.append(String.format("%-24s %10d %10d %10d", nic.getName(), nic.getEnqueued(), nic.getSent(), nic.getArrivals()));
+			for(DropReason reason : DropReason.values())
+				out.append(String.format(" %8d", nic.getDropped(reason)));
+			out.append('\n');
+		}
+
+		// how long cells waited in the output buffers (ticks), for the nics that sent anything
+		out.append(String.format("%-24s %10s %10s %10s %10s %10s", "NIC queueing delay", "cells", "p50", "p99", "p99.9", "max"));
+		out.append('\n');
+		for(NICMetrics nic : this.nics){
+			LatencyHistogram delay = nic.getQueueDelay();
+			if(delay.getCount() > 0)
+				out.append(String.format("%-24s %10d %10d %10d %10d %10d\n", nic.getName(), delay.getCount(), delay.getValueAtPercentile(50.0),
+						delay.getValueAtPercentile(99.0), delay.getValueAtPercentile(99.9), delay.getMax()));
+		}
+
+		out.append(String.format("%-24s %10s %10s %10s", "Router", "forwarded", "no VC", "dead end"));
+		for(OAMType type : OAMType.values())
+			out.append(String.format(" %8s", type.getName()));
+		out.append('\n');
+		for(RouterMetrics router : this.routers){
+			out.append(String.format("%-24s %10d %10d %10d", "Router " + router.getAddress(), router.getForwarded(), router.getNoVC(), router.getDeadEnds()));
+			for(OAMType type : OAMType.values())
+				out.append(String.format(" %8d", router.getReceived(type)));
+			out.append('\n');
+		}
+		return out.toString();
+	}
+}
@@ -0,0 +1,182 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Metrics;
+
+import DataTypes.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * The counters for one nic: cells put in the output buffer, cells dropped (and why), cells sent
+ * onto the link, cells arriving from the link, a histogram of how full the output buffer was
+ * each time a cell was offered to it, and a histogram of how long cells waited in the output buffer.
+ * Counters can be read by other threads (e.g. JMX) while the simulation is running, but the delay
+ * histogram is only up to date once the nic's thread has stopped.
+ */
+public class NICMetrics implements NICMetricsMXBean {
+	private String name; // what the nic is called
+	private LongAdder enqueued = new LongAdder(); // cells put in the output buffer
+	private LongAdder sent = new LongAdder(); // cells sent onto the link
+	private LongAdder arrivals = new LongAdder(); // cells that arrived in the input buffer
+	private LongAdder[] drops = new LongAdder[DropReason.values().length]; // cells dropped, by reason
+	private AtomicLongArray occupancy; // occupancy[n] is the number of cells that found n cells in the output buffer
+	private LatencyHistogram queueDelay = null; // the ticks cells spent in the output buffer (made when the first cell is sent)
+
+	/**
+	 * Creates the counters for a nic
+	 * @param name what the nic is called
+	 * @param bufferCells the size of the nic's output buffer
+	 * @since 1.3
+	 */
+	public NICMetrics(String name, int bufferCells){
+		this.name = name;
+		for(int i=0; i<this.drops.length; i++)
+			this.drops[i] = new LongAdder();
+		this.occupancy = new AtomicLongArray(bufferCells+1);
+	}
+
+	/**
+	 * Counts a cell being put in the output buffer
+	 * @since 1.3
+	 */
+	public void recordEnqueue(){
+		this.enqueued.increment();
+	}
+
+	/**
+	 * Counts a cell being dropped
+	 * @param reason why the cell was dropped
+	 * @since 1.3
+	 */
+	public void recordDrop(DropReason reason){
+		this.drops[reason.ordinal()].increment();
+	}
+
+	/**
+	 * Counts a cell being sent onto the link
+	 * @since 1.3
+	 */
+	public void recordSent(){
+		this.sent.increment();
+	}
+
+	/**
+	 * Counts a cell arriving from the link
+	 * @since 1.3
+	 */
+	public void recordArrival(){
+		this.arrivals.increment();
+	}
+
+	/**
+	 * Adds to the occupancy histogram
+	 * @param cells the number of cells in the output buffer when a cell was offered to it
+	 * @since 1.3
+	 */
+	public void recordOccupancy(int cells){
+		int bucket = Math.min(cells, this.occupancy.length()-1);
+		this.occupancy.incrementAndGet(bucket);
+	}
+
+	/**
+	 * Adds to the queueing delay histogram
+	 * @param ticks the number of ticks a cell spent in the output buffer
+	 * @since 1.3
+	 */
+	public void recordQueueDelay(long ticks){
+		if(this.queueDelay==null)
+			this.queueDelay = new LatencyHistogram();
+		this.queueDelay.record(ticks);
+	}
+
+	/**
+	 * Returns the histogram of how long cells spent in the output buffer
+	 * @return the queueing delay histogram (an empty one if no cells have been sent)
+	 * @since 1.3
+	 */
+	public LatencyHistogram getQueueDelay(){
+		LatencyHistogram delay = this.queueDelay;
+		return delay==null ? new LatencyHistogram() : delay;
+	}
+
+	public Map<String, Long> getQueueDelayPercentiles(){
+		LatencyHistogram delay = this.getQueueDelay();
+		Map<String, Long> map = new LinkedHashMap<String, Long>();
+		map.put("p50", delay.getValueAtPercentile(50.0));
+		map.put("p99", delay.getValueAtPercentile(99.0));
+		map.put("p99.9", delay.getValueAtPercentile(99.9));
+		map.put("max", delay.getMax());
+		return map;
+	}
+
+	public String getName(){
+		return this.name;
+	}
+
+	public long getEnqueued(){
+		return this.enqueued.sum();
+	}
+
+	public long getSent(){
+		return this.sent.sum();
+	}
+
+	public long getArrivals(){
+		return this.arrivals.sum();
+	}
+
+	/**
+	 * Returns the number of cells dropped for a reason
+	 * @param reason the reason
+	 * @return the number of cells dropped for that reason
+	 * @since 1.3
+	 */
+	public long getDropped(DropReason reason){
+		return this.drops[reason.ordinal()].sum();
+	}
+
+	public long getDropped(){
+		long total = 0;
+		for(int i=0; i<this.drops.length; i++)
+			total += this.drops[i].sum();
+		return total;
+	}
+
+	public Map<String, Long> getDropsByReason(){
+		Map<String, Long> map = new LinkedHashMap<String, Long>();
+		for(DropReason reason : DropReason.values())
+			map.put(reason.name(), this.getDropped(reason));
+		return map;
+	}
+
+	public long[] getQueueOccupancy(){
+		long[] counts = new long[this.occupancy.length()];
+		for(int i=0; i<counts.length; i++)
+			counts[i] = this.occupancy.get(i);
+		return counts;
+	}
+
+	/**
+	 * Returns a copy of the counters as they are now, which won't change as the simulation carries on
+	 * @return a copy of the counters
+	 * @since 1.3
+	 */
+	public NICMetrics copy(){
+		NICMetrics copy = new NICMetrics(this.name, this.occupancy.length()-1);
+		copy.enqueued.add(this.enqueued.sum());
+		copy.sent.add(this.sent.sum());
+		copy.arrivals.add(this.arrivals.sum());
+		for(int i=0; i<this.drops.length; i++)
+			copy.drops[i].add(this.drops[i].sum());
+		for(int i=0; i<this.occupancy.length(); i++)
+			copy.occupancy.set(i, this.occupancy.get(i));
+		if(this.queueDelay!=null)
+			copy.queueDelay = this.queueDelay.copy();
+		return copy;
+	}
+}
@@ -0,0 +1,24 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Metrics;
+
+import java.util.Map;
+
+/**
+ * The counters for a nic, as seen through JMX
+ */
+public interface NICMetricsMXBean {
+	public String getName();
+	public long getEnqueued();
+	public long getSent();
+	public long getArrivals();
+	public long getDropped();
+	public Map<String, Long> getDropsByReason();
+	public long[] getQueueOccupancy();
+	public Map<String, Long> getQueueDelayPercentiles();
+}
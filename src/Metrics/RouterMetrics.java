@@ -0,0 +1,147 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Metrics;
+
+import DataTypes.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * The counters for one router: data cells forwarded, data cells with no VC, cells that reached
+ * the end of their VC, and the signalling messages received and sent by type
+ */
+public class RouterMetrics implements RouterMetricsMXBean {
+	private int address; // the address of the router
+	private LongAdder forwarded = new LongAdder(); // data cells forwarded
+	private LongAdder noVC = new LongAdder(); // cells on a VC that doesn't exist
+	private LongAdder deadEnds = new LongAdder(); // cells that reached the end of their VC
+	private LongAdder[] received = new LongAdder[OAMType.values().length]; // signalling messages received, by type
+	private LongAdder[] sent = new LongAdder[OAMType.values().length]; // signalling messages sent, by type
+
+	/**
+	 * Creates the counters for a router
+	 * @param address the address of the router
+	 * @since 1.3
+	 */
+	public RouterMetrics(int address){
+		this.address = address;
+		for(int i=0; i<this.received.length; i++){
+			this.received[i] = new LongAdder();
+			this.sent[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Counts a data cell being forwarded
+	 * @since 1.3
+	 */
+	public void recordForwarded(){
+		this.forwarded.increment();
+	}
+
+	/**
+	 * Counts a cell arriving on a VC that doesn't exist
+	 * @since 1.3
+	 */
+	public void recordNoVC(){
+		this.noVC.increment();
+	}
+
+	/**
+	 * Counts a cell reaching the end of its VC
+	 * @since 1.3
+	 */
+	public void recordDeadEnd(){
+		this.deadEnds.increment();
+	}
+
+	/**
+	 * Counts a signalling message being received
+	 * @param type the type of message
+	 * @since 1.3
+	 */
+	public void recordReceived(OAMType type){
+		this.received[type.ordinal()].increment();
+	}
+
+	/**
+	 * Counts a signalling message being sent
+	 * @param type the type of message
+	 * @since 1.3
+	 */
+	public void recordSent(OAMType type){
+		this.sent[type.ordinal()].increment();
+	}
+
+	public int getAddress(){
+		return this.address;
+	}
+
+	public long getForwarded(){
+		return this.forwarded.sum();
+	}
+
+	public long getNoVC(){
+		return this.noVC.sum();
+	}
+
+	public long getDeadEnds(){
+		return this.deadEnds.sum();
+	}
+
+	/**
+	 * Returns the number of signalling messages of a type received
+	 * @param type the type of message
+	 * @return the number received
+	 * @since 1.3
+	 */
+	public long getReceived(OAMType type){
+		return this.received[type.ordinal()].sum();
+	}
+
+	/**
+	 * Returns the number of signalling messages of a type sent
+	 * @param type the type of message
+	 * @return the number sent
+	 * @since 1.3
+	 */
+	public long getSent(OAMType type){
+		return this.sent[type.ordinal()].sum();
+	}
+
+	public Map<String, Long> getSignallingReceived(){
+		Map<String, Long> map = new LinkedHashMap<String, Long>();
+		for(OAMType type : OAMType.values())
+			map.put(type.getName(), this.getReceived(type));
+		return map;
+	}
+
+	public Map<String, Long> getSignallingSent(){
+		Map<String, Long> map = new LinkedHashMap<String, Long>();
+		for(OAMType type : OAMType.values())
+			map.put(type.getName(), this.getSent(type));
+		return map;
+	}
+
+	/**
+	 * Returns a copy of the counters as they are now, which won't change as the simulation carries on
+	 * @return a copy of the counters
+	 * @since 1.3
+	 */
+	public RouterMetrics copy(){
+		RouterMetrics copy = new RouterMetrics(this.address);
+		copy.forwarded.add(this.forwarded.sum());
+		copy.noVC.add(this.noVC.sum());
+		copy.deadEnds.add(this.deadEnds.sum());
+		for(int i=0; i<this.received.length; i++){
+			copy.received[i].add(this.received[i].sum());
+			copy.sent[i].add(this.sent[i].sum());
+		}
+		return copy;
+	}
+}
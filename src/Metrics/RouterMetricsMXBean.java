@@ -0,0 +1,22 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Metrics;
+
+import java.util.Map;
+
+/**
+ * The counters for a router, as seen through JMX
+ */
+public interface RouterMetricsMXBean {
+	public int getAddress();
+	public long getForwarded();
+	public long getNoVC();
+	public long getDeadEnds();
+	public Map<String, Long> getSignallingReceived();
+	public Map<String, Long> getSignallingSent();
+}
@@ -7,19 +7,34 @@
 
 package NetworkElements;
 
+import Checkpoint.*;
 import DataTypes.*;
+import DropPolicies.*;
+import Logging.*;
+import Metrics.*;
+import Simulation.*;
+import Tracing.*;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class ATMNIC {
+public class ATMNIC implements ISimEntity, ICheckpointable{
+	private static final AtomicInteger nextID = new AtomicInteger(0); // hands out the nic IDs
 	private IATMCellConsumer parent; // The router or computer that this nic is in
 	private OtoOLink link; // The link connected to this nic
 	private boolean trace = false; // should we print out debug statements?
 	private ArrayList<ATMCell> inputBuffer = new ArrayList<ATMCell>(); // Where cells are put between the parent and nic
-	private ArrayList<ATMCell> outputBuffer = new ArrayList<ATMCell>(); // Where cells are put to be outputted
-	private boolean tail=true, red=false, ppd=false, epd=false; // set what type of drop mechanism
+	private IOutputQueue outputBuffer; // Where cells are put to be outputted (FIFO, or fair queued per VC)
+	private IDropPolicy dropPolicy = new TailDrop(); // decides which cells are dropped
 	private int maximumBufferCells = 20; // the maximum number of cells in the output buffer
-	private int startDropAt = 10; // the minimum number of cells in the output buffer before we start dropping cells
-	private boolean prevPacketDropped = false;
+	private IClock clock = null; // the clock the nic runs on
+	private Simulator simulator = null; // the event driven simulator, or null if the nic is stepped by a tick loop
+	private boolean outputScheduled = false, inputScheduled = false; // are there events waiting to clear the buffers?
+	private int rank; // the order the simulator runs this nic in against the others in the same phase
+	private int id; // the ID of this nic (in the order the nics were made)
+	private NICMetrics metrics; // the counters for this nic
+	private SplittableRandom random; // the random numbers for this nic's drop decisions
+	private int traceNode; // the router's address in the trace records (-1 if the nic is in a computer)
 	
 	/**
 	 * Default constructor for an ATM NIC
@@ -28,6 +43,12 @@ public class ATMNIC {
 	 */
 	public ATMNIC(IATMCellConsumer parent){
 		this.parent = parent;
+		this.outputBuffer = new ATMCellQueue(this.maximumBufferCells);
+		this.id = nextID.getAndIncrement();
+		this.traceNode = parent instanceof ATMRouter ? ((ATMRouter) parent).getAddress() : -1;
+		this.metrics = new NICMetrics("NIC " + this.id, this.maximumBufferCells);
+		MetricsRegistry.getDefault().add(this.metrics);
+		this.random = RandomStreams.forName("NIC " + this.id); // the parent can give us a better named stream
 		this.parent.addNIC(this);
 	}
 	
@@ -49,145 +70,48 @@ public class ATMNIC {
 				System.out.println("Warning (ATM NIC): You are sending a null cell");
 		}
 		
-		
-		if(this.tail) this.runTailDrop(cell);
-		else if(this.red) this.runRED(cell);
-		else if(this.ppd) this.runPPD(cell);
-		else if(this.epd) this.runEPD(cell);
-	}
-	
-	/**
-	 * Runs tail drop on the cell
-	 * @param cell the cell to be added/dropped
-	 * @since 1.0
-	 */
-	private void runTailDrop(ATMCell cell){
-		boolean cellDropped = false;
-		
-		if(outputBuffer.size() >= maximumBufferCells)
+		int queued = this.outputBuffer.occupancy(cell);
+		this.metrics.recordOccupancy(queued);
+		boolean cellDropped = this.dropPolicy.dropCell(cell, queued, this.outputBuffer.capacity(), this.random);
+		DropReason reason = cellDropped ? this.dropPolicy.getReason() : null;
+		// the policy can let a cell through when there isn't room for it, which is a tail drop whatever the policy
+		if(!cellDropped && !this.addToOutputBuffer(cell)){
+			this.dropPolicy.cellOverflowed(cell);
 			cellDropped = true;
-		else
-			outputBuffer.add(cell);
-		
-		// Output to the console what happened
-		if(cellDropped)
-			System.out.println("The cell " + cell.getTraceID() + " was tail dropped");
-		else
-			if(this.trace)
-			System.out.println("The cell " + cell.getTraceID() + " was added to the output queue");
-	}
-	
-	/**
-	 * Runs Random early detection on the cell
-	 * @param cell the cell to be added/dropped from the queue
-	 * @since 1.0
-	 */
-	private void runRED(ATMCell cell){
-		boolean cellDropped = false;
-		double dropProbability = 0.0;
-		
-		int outputSize = outputBuffer.size();
-		if(outputSize > startDropAt) {
-			dropProbability = (double)(outputBuffer.size() - startDropAt) / (double)(maximumBufferCells - startDropAt);
-			if(Math.random() <= dropProbability )
-				cellDropped = true;
-		}
-		if(!cellDropped) {
-			outputBuffer.add(cell);
+			reason = DropReason.TAIL;
 		}
 		
+		TraceRecorder trace = TraceRecorder.getDefault();
+		if(trace!=null)
+			trace.record(this.now(), this.traceNode, this.id, cell.getVC(), cell.getTraceID(), cellDropped ? TraceEventType.DROP : TraceEventType.ENQUEUE,
+					cellDropped ? reason.ordinal() : 0, queued);
+		
 		// Output to the console what happened
-		if(cellDropped)
-			System.out.println("The cell " + cell.getTraceID() + " was dropped with probability " + dropProbability);
+		if(cellDropped){
+			this.metrics.recordDrop(reason);
+			ATMCellPool.release(cell);
+		}
 		else
 			if(this.trace)
 			System.out.println("The cell " + cell.getTraceID() + " was added to the output queue");
 	}
 	
 	/**
-	 * Runs Partial packet drop on the cell
-	 * @param cell the cell to be added/dropped from the queue
-	 * @since 1.0
-	 */
-	private void runPPD(ATMCell cell){
-		boolean cellDropped = false;
-		double dropProbability = 0.0;
-		
-		if(prevPacketDropped) {
-			if(cell.getPacketData() == null) {
-				cellDropped = true;
-				System.out.println("The cell " + cell.getTraceID() + " was dropped as a subsequent packet");
-			} else {
-				prevPacketDropped = false;
-			}
-		}
-		if(!cellDropped) {
-			int outputSize = outputBuffer.size();
-			if(outputSize > startDropAt) {
-				dropProbability = (double)(outputSize - startDropAt) / (double)(maximumBufferCells - startDropAt);
-				if(Math.random() <= dropProbability ) {
-					prevPacketDropped = true;
-					cellDropped = true;
-					System.out.println("The cell " + cell.getTraceID() + " was dropped with probability " + dropProbability);
-				}
-			}
-		}
-		if(!cellDropped) {
-			outputBuffer.add(cell);
-		}
-		
-		// Output to the console what happened
-			
-		if(this.trace && !cellDropped)
-			System.out.println("The cell " + cell.getTraceID() + " was added to the output queue");
-	}
-	
-	/**
-	 * Runs Early packet drop on the cell
-	 * @param cell the cell to be added/dropped from the queue
-	 * @since 1.0
+	 * Adds a cell to the output buffer, and makes sure it will be cleared if we are event driven
+	 * @param cell the cell to add
+	 * @return false if the buffer was full and the cell could not be added
+	 * @since 1.3
 	 */
-	private void runEPD(ATMCell cell){
-		boolean cellDropped = false;
-		boolean passCheck = false;
-		double dropProbability = 0.0;
-		
-		IPPacket cellPacket = cell.getPacketData();
-		if(cellPacket != null) {
-			prevPacketDropped = false;
-			int outputSize = outputBuffer.size();
-			int packetSize = cellPacket.getSize();
-			int cellSize = 48 * 8;
-			int packetNum = packetSize / cellSize;
-			if(packetNum % cellSize > 0)
-				packetNum ++;
-			for(int i = 0; i < packetNum; i ++) {
-				int tempSize = outputSize + i;
-				if(tempSize > startDropAt) {
-					dropProbability = (double)(tempSize - startDropAt) / (double)(maximumBufferCells - startDropAt);
-					if(Math.random() <= dropProbability ) {
-						System.out.println("Cell " + i + " of this packet will be dropped with probablity " + dropProbability + ", id = " + cell.getTraceID());
-						prevPacketDropped = true;
-						cellDropped = true;
-						break;
-					}
-				}
-				
-			}
-		} else {
-			if(prevPacketDropped)
-				cellDropped = true;
+	private boolean addToOutputBuffer(ATMCell cell){
+		cell.setEnqueuedAt(this.now());
+		if(!this.outputBuffer.offer(cell))
+			return false;
+		this.metrics.recordEnqueue();
+		if(this.simulator!=null && !this.outputScheduled){
+			this.outputScheduled = true;
+			this.simulator.scheduleNext(this, Simulator.PHASE_OUTPUT, this.rank);
 		}
-		
-		if(!cellDropped)
-			outputBuffer.add(cell);
-		
-		// Output to the console what happened
-		if(cellDropped)
-			System.out.println("The cell " + cell.getTraceID() + " was dropped");
-		else
-			if(this.trace)
-			System.out.println("The cell " + cell.getTraceID() + " was added to the output queue");
+		return true;
 	}
 	
 	/**
@@ -195,10 +119,7 @@ public class ATMNIC {
 	 * @since 1.0
 	 */
 	public void setIsTailDrop(){
-		this.red=false;
-		this.tail=true;
-		this.ppd=false;
-		this.epd=false;
+		this.setDropPolicy(new TailDrop());
 	}
 	
 	/**
@@ -206,10 +127,7 @@ public class ATMNIC {
 	 * @since 1.0
 	 */
 	public void setIsRED(){
-		this.red=true;
-		this.tail=false;
-		this.ppd=false;
-		this.epd=false;
+		this.setDropPolicy(new RED());
 	}
 	
 	/**
@@ -217,10 +135,7 @@ public class ATMNIC {
 	 * @since 1.0
 	 */
 	public void setIsPPD(){
-		this.red=false;
-		this.tail=false;
-		this.ppd=true;
-		this.epd=false;
+		this.setDropPolicy(new PPD());
 	}
 	
 	/**
@@ -228,10 +143,136 @@ public class ATMNIC {
 	 * @since 1.0
 	 */
 	public void setIsEPD(){
-		this.red=false;
-		this.tail=false;
-		this.ppd=false;
-		this.epd=true;
+		this.setDropPolicy(new EPD());
+	}
+	
+	/**
+	 * Sets that the nic should send cells in the order they arrived, from one shared buffer
+	 * @since 1.3
+	 */
+	public void setIsFIFO(){
+		if(!(this.outputBuffer instanceof ATMCellQueue))
+			this.setOutputQueue(new ATMCellQueue(this.maximumBufferCells));
+	}
+	
+	/**
+	 * Sets that the nic should share the link fairly between VCs (weighted fair queuing), with a
+	 * buffer for each VC. The weights can be set through getOutputQueue
+	 * @since 1.3
+	 */
+	public void setIsWFQ(){
+		if(!(this.outputBuffer instanceof WFQCellQueue))
+			this.setOutputQueue(new WFQCellQueue(this.maximumBufferCells));
+	}
+	
+	/**
+	 * Replaces the output buffer. Cells already waiting are moved to the new one (or dropped if they don't fit)
+	 * @param queue the new output buffer
+	 * @since 1.3
+	 */
+	public void setOutputQueue(IOutputQueue queue){
+		IOutputQueue old = this.outputBuffer;
+		this.outputBuffer = queue;
+		while(!old.isEmpty()){
+			ATMCell cell = old.poll();
+			if(!queue.offer(cell)){
+				EventLog.log(LogEvent.NIC_CELL_TAIL_DROPPED, null, cell.getTraceID());
+				this.metrics.recordDrop(DropReason.TAIL);
+				ATMCellPool.release(cell);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the output buffer
+	 * @return the output buffer
+	 * @since 1.3
+	 */
+	public IOutputQueue getOutputQueue(){
+		return this.outputBuffer;
+	}
+	
+	/**
+	 * Sets the policy the nic uses when deciding weather or not to add cells to the queue
+	 * @param dropPolicy the policy (which mustn't be shared with any other nic)
+	 * @since 1.3
+	 */
+	public void setDropPolicy(IDropPolicy dropPolicy){
+		if(dropPolicy==null)
+			throw new IllegalArgumentException("Error (ATM NIC): The drop policy can't be null");
+		this.dropPolicy = dropPolicy;
+	}
+	
+	/**
+	 * Sets the nic to use a drop policy from the DropPolicyRegistry
+	 * @param name the name of the policy
+	 * @since 1.3
+	 */
+	public void setDropPolicy(String name){
+		this.setDropPolicy(DropPolicyRegistry.create(name));
+	}
+	
+	/**
+	 * Returns the policy the nic uses when deciding weather or not to add cells to the queue
+	 * @return the drop policy
+	 * @since 1.3
+	 */
+	public IDropPolicy getDropPolicy(){
+		return this.dropPolicy;
+	}
+	
+	/**
+	 * Returns the ID of this nic
+	 * @return the ID of this nic
+	 * @since 1.3
+	 */
+	public int getID(){
+		return this.id;
+	}
+	
+	/**
+	 * Sets the random number stream used for this nic's drop decisions
+	 * @param random the stream (which mustn't be shared with anything else)
+	 * @since 1.3
+	 */
+	public void setRandom(SplittableRandom random){
+		this.random = random;
+	}
+	
+	/**
+	 * Returns the random number stream used for this nic's drop decisions
+	 * @return the stream
+	 * @since 1.3
+	 */
+	public SplittableRandom getRandom(){
+		return this.random;
+	}
+	
+	/**
+	 * Returns the counters for this nic
+	 * @return the counters for this nic
+	 * @since 1.3
+	 */
+	public NICMetrics getMetrics(){
+		return this.metrics;
+	}
+	
+	/**
+	 * Returns the router or computer this nic is in
+	 * @return the nic's parent
+	 * @since 1.3
+	 */
+	public IATMCellConsumer getParent(){
+		return this.parent;
+	}
+	
+	/**
+	 * Returns the link connected to this nic
+	 * @return the link, or null if the nic isn't connected to one
+	 * @since 1.3
+	 */
+	public OtoOLink getLink(){
+		return this.link;
 	}
 	
 	/**
@@ -241,6 +282,8 @@ public class ATMNIC {
 	 */
 	public void connectOtoOLink(OtoOLink link){
 		this.link = link;
+		if(this.clock!=null)
+			link.setClock(this.clock);
 	}
 	
 	/**
@@ -249,24 +292,150 @@ public class ATMNIC {
 	 * @since 1.0
 	 */
 	public void receiveCell(ATMCell cell){
+		this.metrics.recordArrival();
 		this.inputBuffer.add(cell);
-
+		if(this.simulator!=null && !this.inputScheduled){
+			this.inputScheduled = true;
+			this.simulator.scheduleNext(this, Simulator.PHASE_INPUT, this.rank);
+		}
+	}
+	
+	/**
+	 * Sets the clock this nic runs on. If it is an event driven simulator the nic will only
+	 * schedule events when it has cells in its buffers, otherwise it expects to be stepped every tick.
+	 * The simulator runs nics in the order they were given it, which is the order a tick loop steps them in
+	 * @param clock the clock this nic runs on
+	 * @since 1.3
+	 */
+	public void setClock(IClock clock){
+		this.clock = clock;
+		if(this.link!=null)
+			this.link.setClock(clock);
+		if(clock instanceof Simulator){
+			this.simulator = (Simulator) clock;
+			this.rank = this.simulator.register(this);
+		}
+		else
+			this.simulator = null;
+		this.outputScheduled = false;
+		this.inputScheduled = false;
+		
+		// make sure anything already waiting in the buffers gets cleared
+		if(this.simulator!=null){
+			if(!this.outputBuffer.isEmpty()){
+				this.outputScheduled = true;
+				this.simulator.scheduleNext(this, Simulator.PHASE_OUTPUT, this.rank);
+			}
+			if(!this.inputBuffer.isEmpty()){
+				this.inputScheduled = true;
+				this.simulator.scheduleNext(this, Simulator.PHASE_INPUT, this.rank);
+			}
+		}
+	}
+	
+	/**
+	 * Writes the cells in the nic's buffers, its drop policy's state, and the cells in flight from it on
+	 * its link to a checkpoint
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException{
+		out.writeString(this.outputBuffer.getClass().getName());
+		out.writeInt(this.outputBuffer.capacity());
+		this.outputBuffer.saveState(out);
+		out.writeInt(this.inputBuffer.size());
+		for(int i=0; i<this.inputBuffer.size(); i++)
+			this.inputBuffer.get(i).saveState(out);
+		
+		out.writeString(this.dropPolicy.getClass().getName());
+		if(this.dropPolicy instanceof ICheckpointable)
+			((ICheckpointable) this.dropPolicy).saveState(out);
+		
+		out.writeBoolean(this.link!=null);
+		if(this.link!=null)
+			this.link.saveState(this, out);
 	}
 	
 	/**
-	 * Moves the cells from the output buffer to the line (then they get moved to the next nic's input buffer)
+	 * Replaces the nic's buffers, drop policy state and cells in flight with what was written by saveState.
+	 * The nic has to have been set up the same way as the one that was saved (the same kind of output
+	 * buffer and drop policy). If the nic has a clock, the cells restored are scheduled on it
+	 * @param in the checkpoint being read
+	 * @throws IOException if the checkpoint can't be read, or was written by a nic set up differently
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in) throws IOException{
+		String queueType = in.readString();
+		int capacity = in.readInt();
+		if(!this.outputBuffer.getClass().getName().equals(queueType) || this.outputBuffer.capacity()!=capacity)
+			throw new IOException("Error (ATM NIC): The checkpoint has a " + queueType + " of " + capacity + " cells, but this nic has a "
+					+ this.outputBuffer.getClass().getName() + " of " + this.outputBuffer.capacity() + " cells");
+		this.outputBuffer.restoreState(in);
+		this.inputBuffer.clear();
+		int inputCells = in.readInt();
+		for(int i=0; i<inputCells; i++)
+			this.inputBuffer.add(ATMCell.restoreState(in));
+		
+		String policyType = in.readString();
+		if(!this.dropPolicy.getClass().getName().equals(policyType))
+			throw new IOException("Error (ATM NIC): The checkpoint has a " + policyType + " drop policy, but this nic has a "
+					+ this.dropPolicy.getClass().getName());
+		if(this.dropPolicy instanceof ICheckpointable)
+			((ICheckpointable) this.dropPolicy).restoreState(in);
+		
+		boolean linked = in.readBoolean();
+		if(linked!=(this.link!=null))
+			throw new IOException("Error (ATM NIC): The checkpoint is of a nic that " + (linked ? "was" : "wasn't") + " connected to a link");
+		if(this.link!=null)
+			this.link.restoreState(this, in);
+		
+		// schedule the cells that are now waiting in the buffers
+		if(this.clock!=null)
+			this.setClock(this.clock);
+	}
+	
+	/**
+	 * Called by the simulator when it is time to clear one of the buffers
+	 * @param time the current tick
+	 * @param phase which buffer to clear
+	 * @since 1.3
+	 */
+	public void handleEvent(long time, int phase){
+		if(phase==Simulator.PHASE_OUTPUT){
+			this.outputScheduled = false;
+			this.clearOutputBuffers();
+			// anything over the line rate has to wait for the next tick
+			if(!this.outputBuffer.isEmpty()){
+				this.outputScheduled = true;
+				this.simulator.scheduleNext(this, Simulator.PHASE_OUTPUT, this.rank);
+			}
+		}
+		else if(phase==Simulator.PHASE_INPUT){
+			this.inputScheduled = false;
+			this.clearInputBuffers();
+		}
+	}
+	
+	/**
+	 * Moves the cells from the output buffer to the line (then they get moved to the next nic's input
+	 * buffer, straight away or once they have crossed the link)
 	 * @since 1.0
 	 */
 	public void clearOutputBuffers(){
-        int line_rate = 10;
-        for(int i=0; i<Math.min(line_rate,this.outputBuffer.size()); i++)
-                this.link.sendCell(this.outputBuffer.get(i), this);
-        ArrayList<ATMCell> temp = new ArrayList<ATMCell>();
-        for(int i=Math.min(line_rate,this.outputBuffer.size()); i<this.outputBuffer.size(); i++)
-                temp.add(this.outputBuffer.get(i));
-        this.outputBuffer.clear();
-        this.outputBuffer.addAll(temp);
-}
+		this.link.deliverFrom(this);
+		int line_rate = this.link.getBandwidth();
+		long now = this.now();
+		TraceRecorder trace = TraceRecorder.getDefault();
+		for(int i=0; i<line_rate && !this.outputBuffer.isEmpty(); i++){
+			ATMCell cell = this.outputBuffer.poll();
+			this.metrics.recordSent();
+			this.metrics.recordQueueDelay(now - cell.getEnqueuedAt());
+			if(trace!=null)
+				trace.record(now, this.traceNode, this.id, cell.getVC(), cell.getTraceID(), TraceEventType.FORWARD, 0, (int) (now - cell.getEnqueuedAt()));
+			this.link.sendCell(cell, this);
+		}
+	}
 	
 	/**
 	 * Moves cells from this nics input buffer to its output buffer
@@ -277,4 +446,12 @@ public class ATMNIC {
 			this.parent.receiveCell(this.inputBuffer.get(i), this);
 		this.inputBuffer.clear();
 	}
+	
+	/**
+	 * Returns the current tick, or 0 if the nic hasn't been given a clock
+	 * @since 1.3
+	 */
+	long now(){
+		return this.clock!=null ? this.clock.getTime() : 0;
+	}
 }
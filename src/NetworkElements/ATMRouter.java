@@ -7,20 +7,31 @@
 
 package NetworkElements;
 
+import java.io.IOException;
 import java.util.*;
 
+import Checkpoint.*;
 import DataTypes.*;
+import Logging.*;
+import Metrics.*;
+import Simulation.*;
+import Tracing.*;
 
-public class ATMRouter implements IATMCellConsumer{
+public class ATMRouter implements IATMCellConsumer, ICheckpointable{
+	private static final long DEFAULT_CALL_TIMEOUT = 10000; // the ticks we wait for a connect before giving up on a call
 	private int address; // The AS address of this router
 	private ArrayList<ATMNIC> nics = new ArrayList<ATMNIC>(); // all of the nics in this router
-	private TreeMap<Integer, ATMNIC> nextHop = new TreeMap<Integer, ATMNIC>(); // a map of which interface to use to get to a given router on the network
-	private TreeMap<Integer, NICVCPair> VCtoVC = new TreeMap<Integer, NICVCPair>(); // a map of input VC to output nic and new VC number
-	private HashSet<Integer> endVCs = new HashSet<Integer>();
+	private NextHopTable nextHop = new NextHopTable(); // a map of which interface (the index in nics) to use to get to a given router on the network
+	private VCTable VCtoVC = new VCTable(); // a map of input VC to output nic and new VC number, and the VCs that end here
 	private boolean trace=false; // should we print out debug code?
-	private int traceID = (int) (Math.random() * 100000); // create a random trace id for cells
-	private ATMNIC currentConnAttemptNIC = null; // The nic that is currently trying to setup a connection
+	private int traceID; // create a random trace id for cells
+	private PendingCallTable pendingCalls = new PendingCallTable(); // the calls we have passed a setup on for, waiting for a connect
+	private long callTimeout = DEFAULT_CALL_TIMEOUT; // the ticks we wait for a connect before giving up on a call
 	private boolean displayCommands = true; // should we output the commands that are received?
+	private IClock clock = null; // the clock the router's nics run on
+	private String logName; // what the router is called in the log
+	private RouterMetrics metrics; // the counters for this router
+	private PacketReassembler reassembler = new PacketReassembler(); // puts the data cells on VCs that end here back into packets
 	
 	/**
 	 * The default constructor for an ATM router
@@ -29,6 +40,59 @@ public class ATMRouter implements IATMCellConsumer{
 	 */
 	public ATMRouter(int address){
 		this.address = address;
+		this.logName = "Router " + address;
+		this.traceID = RandomStreams.forName(this.logName).nextInt(100000);
+		this.metrics = new RouterMetrics(address);
+		MetricsRegistry.getDefault().add(this.metrics);
+	}
+	
+	/**
+	 * Returns the address of this router
+	 * @return the address of this router
+	 * @since 1.3
+	 */
+	public int getAddress(){
+		return this.address;
+	}
+	
+	/**
+	 * Returns the number of calls we have passed a setup on for and are still waiting to hear back about
+	 * @return the number of calls being set up through this router
+	 * @since 1.3
+	 */
+	public int getPendingCalls(){
+		return this.pendingCalls.size();
+	}
+	
+	/**
+	 * Sets how long we wait for a connect to come back for a call we passed a setup on for. A setup that is
+	 * dropped further on is never answered, so after this the call is forgotten. The reference is then used
+	 * again, so this should be well over the longest time a setup can take to be answered
+	 * @param ticks the number of ticks to wait
+	 * @since 1.3
+	 */
+	public void setCallTimeout(long ticks){
+		if(ticks < 1)
+			throw new IllegalArgumentException("Error (ATMRouter): The call timeout must be at least 1 tick");
+		this.callTimeout = ticks;
+	}
+	
+	/**
+	 * Returns the counters for this router
+	 * @return the counters for this router
+	 * @since 1.3
+	 */
+	public RouterMetrics getMetrics(){
+		return this.metrics;
+	}
+	
+	/**
+	 * Returns the packets that have arrived on VCs that end at this router, put back together from their cells
+	 * @return the reassembler, with the counts of whole and corrupted packets
+	 * @since 1.3
+	 */
+	public PacketReassembler getReassembler(){
+		return this.reassembler;
 	}
 	
 	/**
@@ -37,7 +101,10 @@ public class ATMRouter implements IATMCellConsumer{
 	 * @since 1.0
 	 */
 	public void addNIC(ATMNIC nic){
+		nic.setRandom(RandomStreams.forName(this.logName + " NIC " + this.nics.size()));
 		this.nics.add(nic);
+		if(this.clock!=null)
+			nic.setClock(this.clock);
 	}
 	
 	/**
@@ -52,144 +119,145 @@ public class ATMRouter implements IATMCellConsumer{
 		
 		if(cell.getIsOAM()){
 			// What's OAM for?
-			String data = cell.getData();
-			if(data.startsWith("setup")) {
+			OAMType type = cell.getOAMType();
+			if(type==null){
+				ATMCellPool.release(cell);
+				return;
+			}
+			this.metrics.recordReceived(type);
+			boolean consumed = true; // does the message stop at this router?
+			switch(type) {
+			case SETUP: {
 				this.receivedSetup(cell);
-				int destAddr = this.getIntFromEndOfString(data);
-				//check whether the router is setting up a connection
-				if(currentConnAttemptNIC != null) {
-					ATMCell waitCell = new ATMCell(0, "wait " + destAddr, this.getTraceID());
-					waitCell.setIsOAM(true);
-					nic.sendCell(waitCell, this);
-					this.sentWait(waitCell);
+				int destAddr = cell.getOAMValue();
+				int callRef = cell.getCallRef();
+				//send call proceeding
+				ATMCell ackCell = ATMCellPool.acquire(0, OAMType.CALLPRO, 0, callRef, this.getTraceID());
+				this.sentCallProceeding(cell);
+				nic.sendCell(ackCell, this);
+				//check the destAddr
+				if(address == destAddr) {
+					int freeVC = VCtoVC.allocate();
+					if(this.displayCommands)
+						EventLog.log(LogEvent.ROUTER_FIRST_FREE_VC, this.logName, 0, freeVC);
+					VCtoVC.setEnd(freeVC);
+					ATMCell connCell = ATMCellPool.acquire(0, OAMType.CONN, freeVC, callRef, this.getTraceID());
+					this.sentConnect(connCell);
+					nic.sendCell(connCell, this);
 				} else {
-					//send call proceeding
-					ATMCell ackCell = new ATMCell(0, "callpro", this.getTraceID());
-					ackCell.setIsOAM(true);	
-					nic.sendCell(ackCell, this);
-					this.sentCallProceeding(cell);
-					//check the destAddr
-					if(address == destAddr) {
-						int freeVC = this.getFirstFreeVC();
-						if(this.displayCommands)
-							System.out.println("Trace (ATMRouter): First free VC = " + freeVC);
-						endVCs.add(freeVC);
-						ATMCell connCell = new ATMCell(0, "conn " + freeVC, this.getTraceID());
-						connCell.setIsOAM(true);
-						nic.sendCell(connCell, this);
-						this.sentConnect(connCell);
+					ATMNIC outNIC = this.getNextHopInterface(destAddr);
+					consumed = false;
+					if(outNIC == null) {
+						// we don't know the way to that router
+						this.cellNoRoute(cell, destAddr);
 					} else {
-						currentConnAttemptNIC = nic;
-						nextHop.get(destAddr).sendCell(cell, this);
+						// forget the calls whose setups were lost, then remember where this one came from and give
+						// it our own reference on the next hop
+						long now = this.clock!=null ? this.clock.getTime() : 0;
+						int expired = this.pendingCalls.expire(now - this.callTimeout);
+						if(expired > 0)
+							EventLog.log(LogEvent.ROUTER_CALLS_TIMED_OUT, this.logName, 0, expired);
+						cell.setCallRef(this.pendingCalls.add(nic, callRef, destAddr, now));
 						this.sentSetup(cell);
+						outNIC.sendCell(cell, this);
 					}
 				}
-			} else if(data.startsWith("callpro")) {
+				break;
+			}
+			case CALLPRO:
 				this.receivedCallProceeding(cell);
-			} else if(data.startsWith("wait")) {
+				break;
+			case WAIT: {
 				this.receivedWait(cell);
-				int destAddr = this.getIntFromEndOfString(data);
-				ATMCell setupCell = new ATMCell(0, "setup " + destAddr, this.getTraceID());
-				setupCell.setIsOAM(true);
-				nic.sendCell(setupCell, this);
-				this.sentSetup(setupCell);
-			} else if(data.startsWith("conn")) {
+				// routers don't send wait any more, but if one comes back for a call we are setting up try again
+				int callRef = cell.getCallRef();
+				if(this.pendingCalls.contains(callRef)) {
+					ATMCell setupCell = ATMCellPool.acquire(0, OAMType.SETUP, this.pendingCalls.getDestination(callRef), callRef, this.getTraceID());
+					this.sentSetup(setupCell);
+					nic.sendCell(setupCell, this);
+				}
+				break;
+			}
+			case CONN: {
 				this.receivedConnect(cell);
-				if(currentConnAttemptNIC != null) {
-					int outVcNum = this.getIntFromEndOfString(data);
-					int inVcNum = this.getFirstFreeVC();
-					VCtoVC.put(inVcNum, new NICVCPair(nic, outVcNum));
+				// the connect comes back with our reference, which tells us where the setup came from
+				int callRef = cell.getCallRef();
+				ATMNIC upstreamNIC = this.pendingCalls.getNIC(callRef);
+				if(upstreamNIC != null) {
+					int upstreamRef = this.pendingCalls.getUpstreamRef(callRef);
+					this.pendingCalls.remove(callRef);
+					int outVcNum = cell.getOAMValue();
+					int inVcNum = VCtoVC.allocate();
+					VCtoVC.setForward(inVcNum, nic, outVcNum);
 					//send connect ack
-					ATMCell callackCell = new ATMCell(0, "callack", this.getTraceID());
-					callackCell.setIsOAM(true);
-					nic.sendCell(callackCell, this);
+					ATMCell callackCell = ATMCellPool.acquire(0, OAMType.CALLACK, 0, callRef, this.getTraceID());
 					this.sentConnectAck(callackCell);
+					nic.sendCell(callackCell, this);
 					//send connect to downstream router
-					ATMCell connCell = new ATMCell(0, "conn " + inVcNum, this.getTraceID());
-					connCell.setIsOAM(true);
-					currentConnAttemptNIC.sendCell(connCell, this);
+					ATMCell connCell = ATMCellPool.acquire(0, OAMType.CONN, inVcNum, upstreamRef, this.getTraceID());
 					this.sentConnect(connCell);
-					currentConnAttemptNIC = null;
-				} else {
-					
+					upstreamNIC.sendCell(connCell, this);
 				}
-			} else if(data.startsWith("callack")) {
+				break;
+			}
+			case CALLACK:
 				this.receiveConnectAck(cell);
-			} else if(data.startsWith("endack")) {
+				break;
+			case ENDACK:
 				this.receivedEndAck(cell);
-			} else if(data.startsWith("end")) {
+				break;
+			case END: {
 				this.receiveEnd(cell);
-				int vcNum = this.getIntFromEndOfString(data);
-				if(!endVCs.contains(vcNum)) {
-					if(VCtoVC.containsKey(vcNum)) {
-						NICVCPair pair = VCtoVC.get(vcNum);
-						VCtoVC.remove(vcNum);
-						ATMCell endCell = new ATMCell(0, "end " + pair.getVC(), this.getTraceID());
-						endCell.setIsOAM(true);
-						pair.getNIC().sendCell(endCell, this);
+				int vcNum = cell.getOAMValue();
+				if(!VCtoVC.isEnd(vcNum)) {
+					ATMNIC outNIC = VCtoVC.getNIC(vcNum);
+					if(outNIC != null) {
+						int outVcNum = VCtoVC.getOutVC(vcNum);
+						VCtoVC.release(vcNum);
+						ATMCell endCell = ATMCellPool.acquire(0, OAMType.END, outVcNum, this.getTraceID());
 						this.sentEnd(endCell);
+						outNIC.sendCell(endCell, this);
 					} else {
 						this.cellNoVC(cell);
 					}
 				} else {
-					System.out.println("Finish freeing up VC " + vcNum);
-					endVCs.remove(vcNum);
+					EventLog.log(LogEvent.ROUTER_VC_FREED, this.logName, 0, vcNum);
+					VCtoVC.release(vcNum);
 				}
-				ATMCell endackCell = new ATMCell(0, "endack", this.getTraceID());
-				endackCell.setIsOAM(true);
-				nic.sendCell(endackCell, this);
+				ATMCell endackCell = ATMCellPool.acquire(0, OAMType.ENDACK, 0, this.getTraceID());
 				this.sentEndAck(endackCell);
+				nic.sendCell(endackCell, this);
+				break;
 			}
+			}
+			if(consumed)
+				ATMCellPool.release(cell);
 		}
 		else{
 			// find the nic and new VC number to forward the cell on
 			// otherwise the cell has nowhere to go. output to the console and drop the cell
 			int vcNum = cell.getVC();
-			if(endVCs.contains(vcNum)) {
+			if(VCtoVC.isEnd(vcNum)) {
+				TraceRecorder trace = TraceRecorder.getDefault();
+				if(trace!=null){
+					long now = this.clock!=null ? this.clock.getTime() : 0;
+					trace.record(now, this.address, nic.getID(), vcNum, cell.getTraceID(), TraceEventType.DELIVER, 0, (int) (now - cell.getCreatedAt()));
+				}
 				this.cellDeadEnd(cell);
 			} else {
-				if(!VCtoVC.containsKey(vcNum)) {
+				ATMNIC outNIC = VCtoVC.getNIC(vcNum);
+				if(outNIC == null) {
 					this.cellNoVC(cell);
+					ATMCellPool.release(cell);
 				} else {
-					NICVCPair pair = VCtoVC.get(vcNum);
-					cell.setVC(pair.getVC());
-					pair.getNIC().sendCell(cell, this);
+					cell.setVC(VCtoVC.getOutVC(vcNum));
+					this.metrics.recordForwarded();
+					outNIC.sendCell(cell, this);
 				}
 			}
 		}		
 	}
 	
-	/**
-	 * Gets the free VC number in this router
-	 * @return first free VC number
-	 */
-	private int getFirstFreeVC() {
-		int i = 1;
-		while(VCtoVC.containsKey(i))
-			i ++;
-		return i;
-	}
-	
-	/**
-	 * Gets the number from the end of a string
-	 * @param string the sting to try and get a number from
-	 * @return the number from the end of the string, or -1 if the end of the string is not a number
-	 * @since 1.0
-	 */
-	private int getIntFromEndOfString(String string){
-		// Try getting the number from the end of the string
-		try{
-			String num = string.split(" ")[string.split(" ").length-1];
-			return Integer.parseInt(num);
-		}
-		// Couldn't do it, so return -1
-		catch(Exception e){
-			if(trace)
-				System.out.println("Could not get int from end of string");
-			return -1;
-		}
-	}
-	
 	/**
 	 * This method returns a sequentially increasing random trace ID, so that we can
 	 * differentiate cells in the network
@@ -209,7 +277,63 @@ public class ATMRouter implements IATMCellConsumer{
 	 * @since 1.0
 	 */
 	public void addNextHopInterface(int destAddress, ATMNIC outInterface){
-		this.nextHop.put(destAddress, outInterface);
+		int index = this.nics.indexOf(outInterface);
+		if(index < 0)
+			throw new IllegalArgumentException("Error (ATMRouter): The next hop nic for " + destAddress + " isn't in " + this.logName);
+		this.addNextHopInterface(destAddress, index);
+	}
+	
+	/**
+	 * Tells the router the nic to use to get towards a given router on the network
+	 * @param destAddress the destination address of the ATM router
+	 * @param nicIndex the position of the nic to use in getNICs()
+	 * @since 1.3
+	 */
+	public void addNextHopInterface(int destAddress, int nicIndex){
+		if(nicIndex < 0 || nicIndex >= this.nics.size())
+			throw new IllegalArgumentException("Error (ATMRouter): " + this.logName + " doesn't have a nic " + nicIndex);
+		this.nextHop.put(destAddress, nicIndex);
+	}
+	
+	/**
+	 * Returns the nic to use to get towards a given router on the network
+	 * @param destAddress the address of the ATM router
+	 * @return the nic to use, or null if we don't know the way there
+	 * @since 1.3
+	 */
+	public ATMNIC getNextHopInterface(int destAddress){
+		int index = this.nextHop.get(destAddress);
+		if(index < 0)
+			return null;
+		return this.nics.get(index);
+	}
+	
+	/**
+	 * Forgets every next hop, so the forwarding table can be filled in again
+	 * @since 1.3
+	 */
+	public void clearNextHops(){
+		this.nextHop.clear();
+	}
+	
+	/**
+	 * Replaces the forwarding table (so that it can share its address map with the other routers in the network)
+	 * @param table the new forwarding table, with the nics given by their position in getNICs()
+	 * @since 1.3
+	 */
+	public void setNextHopTable(NextHopTable table){
+		if(table==null)
+			throw new IllegalArgumentException("Error (ATMRouter): The next hop table can't be null");
+		this.nextHop = table;
+	}
+	
+	/**
+	 * Returns the nics in this router, in the order they were added
+	 * @return the nics in this router
+	 * @since 1.3
+	 */
+	public List<ATMNIC> getNICs(){
+		return Collections.unmodifiableList(this.nics);
 	}
 	
 	/**
@@ -230,6 +354,58 @@ public class ATMRouter implements IATMCellConsumer{
 			this.nics.get(i).clearInputBuffers();
 	}
 	
+	/**
+	 * Sets the clock that the nics in the router run on
+	 * @param clock the clock to use (an event driven simulator, or a tick loop)
+	 * @since 1.3
+	 */
+	public void setClock(IClock clock){
+		this.clock = clock;
+		for(int i=0; i<this.nics.size(); i++)
+			nics.get(i).setClock(clock);
+	}
+	
+	/**
+	 * Writes the router's VC table, forwarding table, calls being set up, the packets it is part way through
+	 * reassembling, and each of its nics to a checkpoint
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException{
+		out.writeInt(this.address);
+		out.writeInt(this.nics.size());
+		out.writeInt(this.traceID);
+		this.VCtoVC.saveState(out, this.nics);
+		this.nextHop.saveState(out);
+		this.pendingCalls.saveState(out, this.nics);
+		this.reassembler.saveState(out);
+		for(int i=0; i<this.nics.size(); i++)
+			this.nics.get(i).saveState(out);
+	}
+	
+	/**
+	 * Replaces the router's state with what was written by saveState. The router has to have been built
+	 * the same way as the one that was saved (the same address, and the same nics in the same order)
+	 * @param in the checkpoint being read
+	 * @throws IOException if the checkpoint can't be read, or was written by a different router
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in) throws IOException{
+		int address = in.readInt();
+		int nicCount = in.readInt();
+		if(address!=this.address || nicCount!=this.nics.size())
+			throw new IOException("Error (ATMRouter): The checkpoint is of router " + address + " with " + nicCount + " nics, but this is router "
+					+ this.address + " with " + this.nics.size());
+		this.traceID = in.readInt();
+		this.VCtoVC.restoreState(in, this.nics);
+		this.nextHop.restoreState(in);
+		this.pendingCalls.restoreState(in, this.nics);
+		this.reassembler.restoreState(in);
+		for(int i=0; i<this.nics.size(); i++)
+			this.nics.get(i).restoreState(in);
+	}
+	
 	/**
 	 * Sets the nics in the router to use tail drop as their drop mechanism
 	 * @since 1.0
@@ -266,6 +442,34 @@ public class ATMRouter implements IATMCellConsumer{
 			nics.get(i).setIsEPD();
 	}
 	
+	/**
+	 * Sets all of the nics in the router to send cells in the order they arrived
+	 * @since 1.3
+	 */
+	public void useFIFO(){
+		for(int i=0; i<this.nics.size(); i++)
+			nics.get(i).setIsFIFO();
+	}
+	
+	/**
+	 * Sets all of the nics in the router to share their links fairly between VCs
+	 * @since 1.3
+	 */
+	public void useWFQ(){
+		for(int i=0; i<this.nics.size(); i++)
+			nics.get(i).setIsWFQ();
+	}
+	
+	/**
+	 * Sets all of the nics in the router to use a drop policy from the DropPolicyRegistry
+	 * @param name the name of the policy
+	 * @since 1.3
+	 */
+	public void useDropPolicy(String name){
+		for(int i=0; i<this.nics.size(); i++)
+			nics.get(i).setDropPolicy(name);
+	}
+	
 	/**
 	 * Sets if the commands should be displayed from the router in the console
 	 * @param displayComments should the commands be displayed or not?
@@ -276,147 +480,157 @@ public class ATMRouter implements IATMCellConsumer{
 	}
 	
 	/**
-	 * Outputs to the console that a cell has been dropped because it reached its destination
+	 * Logs that a cell has reached its destination, adds it to its packet, and gives it back to the cell pool
 	 * @since 1.0
 	 */
 	public void cellDeadEnd(ATMCell cell){
+		this.metrics.recordDeadEnd();
+		this.reassembler.receiveCell(cell, this.clock!=null ? this.clock.getTime() : 0);
 		if(this.displayCommands)
-		System.out.println("The cell is destined for this router (" + this.address + "), taken off network " + cell.getTraceID());
+		EventLog.log(LogEvent.ROUTER_CELL_DEAD_END, this.logName, cell.getTraceID(), this.address);
+		ATMCellPool.release(cell);
+	}
+	
+	/**
+	 * Logs that a setup has been dropped as there is no route to the router it is for, and gives it back to the cell pool
+	 * @since 1.3
+	 */
+	private void cellNoRoute(ATMCell cell, int destAddress){
+		EventLog.log(LogEvent.ROUTER_NO_ROUTE, this.logName, cell.getTraceID(), destAddress);
+		ATMCellPool.release(cell);
 	}
 	
 	/**
-	 * Outputs to the console that a cell has been dropped as no such VC exists
+	 * Logs that a cell has been dropped as no such VC exists
 	 * @since 1.0
 	 */
 	public void cellNoVC(ATMCell cell){
+		this.metrics.recordNoVC();
 		if(this.displayCommands)
-		System.out.println("The cell is trying to be sent on an incorrect VC " + cell.getTraceID());
+		EventLog.log(LogEvent.ROUTER_CELL_NO_VC, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that a connect message has been sent
+	 * Logs that a connect message has been sent
 	 * @since 1.0
 	 */
 	private void sentSetup(ATMCell cell){
+		this.metrics.recordSent(OAMType.SETUP);
 		if(this.displayCommands)
-		System.out.println("SND SETUP: Router " +this.address+ " sent a setup " + cell.getTraceID());
+		EventLog.log(LogEvent.ROUTER_SND_SETUP, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that a setup message has been sent
+	 * Logs that a setup message has been sent
 	 * @since 1.0
 	 */
 	private void receivedSetup(ATMCell cell){
 		if(this.displayCommands)
-		System.out.println("REC SETUP: Router " +this.address+ " received a setup message " + cell.getTraceID());
+		EventLog.log(LogEvent.ROUTER_REC_SETUP, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that a call proceeding message has been received
+	 * Logs that a call proceeding message has been received
 	 * @since 1.0
 	 */
 	private void receivedCallProceeding(ATMCell cell){
 		if(this.displayCommands)
-		System.out.println("REC CALLPRO: Router " +this.address+ " received a call proceeding message " + cell.getTraceID());
+		EventLog.log(LogEvent.ROUTER_REC_CALLPRO, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that a connect message has been sent
+	 * Logs that a connect message has been sent
 	 * @since 1.0
 	 */
 	private void sentConnect(ATMCell cell){
+		this.metrics.recordSent(OAMType.CONN);
 		if(this.displayCommands)
-		System.out.println("SND CONN: Router " +this.address+ " sent a connect message " + cell.getTraceID());
+		EventLog.log(LogEvent.ROUTER_SND_CONN, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that a connect message has been received
+	 * Logs that a connect message has been received
 	 * @since 1.0
 	 */
 	private void receivedConnect(ATMCell cell){
 		if(this.displayCommands)
-		System.out.println("REC CONN: Router " +this.address+ " received a connect message " + cell.getTraceID());
+		EventLog.log(LogEvent.ROUTER_REC_CONN, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that a connect ack message has been sent
+	 * Logs that a connect ack message has been sent
 	 * @since 1.0
 	 * @version 1.2
 	 */
 	private void sentConnectAck(ATMCell cell){
+		this.metrics.recordSent(OAMType.CALLACK);
 		if(this.displayCommands)
-		System.out.println("SND CALLACK: Router " +this.address+ " sent a connect ack message " + cell.getTraceID());
+		EventLog.log(LogEvent.ROUTER_SND_CALLACK, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that a connect ack message has been received
+	 * Logs that a connect ack message has been received
 	 * @since 1.0
 	 */
 	private void receiveConnectAck(ATMCell cell){
 		if(this.displayCommands)
-		System.out.println("REC CALLACK: Router " +this.address+ " received a connect ack message " + cell.getTraceID());
+		EventLog.log(LogEvent.ROUTER_REC_CALLACK, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that an call proceeding message has been received
+	 * Logs that an call proceeding message has been received
 	 * @since 1.0
 	 */
 	private void sentCallProceeding(ATMCell cell){
+		this.metrics.recordSent(OAMType.CALLPRO);
 		if(this.displayCommands)
-		System.out.println("SND CALLPRO: Router " +this.address+ " sent a call proceeding message " + cell.getTraceID());
+		EventLog.log(LogEvent.ROUTER_SND_CALLPRO, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that an end message has been sent
+	 * Logs that an end message has been sent
 	 * @since 1.0
 	 */
 	private void sentEnd(ATMCell cell){
+		this.metrics.recordSent(OAMType.END);
 		if(this.displayCommands)
-		System.out.println("SND ENDACK: Router " +this.address+ " sent an end message " + cell.getTraceID());
+		EventLog.log(LogEvent.ROUTER_SND_END, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that an end message has been received
+	 * Logs that an end message has been received
 	 * @since 1.0
 	 */
 	private void receiveEnd(ATMCell cell){
 		if(this.displayCommands)
-		System.out.println("REC ENDACK: Router " +this.address+ " received an end message " + cell.getTraceID());
+		EventLog.log(LogEvent.ROUTER_REC_END, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that an end ack message has been received
+	 * Logs that an end ack message has been received
 	 * @since 1.0
 	 */
 	private void receivedEndAck(ATMCell cell){
 		if(this.displayCommands)
-		System.out.println("REC ENDACK: Router " +this.address+ " received an end ack message " + cell.getTraceID());
+		EventLog.log(LogEvent.ROUTER_REC_ENDACK, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that an end ack message has been sent
+	 * Logs that an end ack message has been sent
 	 * @since 1.0
 	 */
 	private void sentEndAck(ATMCell cell){
+		this.metrics.recordSent(OAMType.ENDACK);
 		if(this.displayCommands)
-		System.out.println("SND ENDACK: Router " +this.address+ " sent an end ack message " + cell.getTraceID());
-	}
-	
-	/**
-	 * Outputs to the console that a wait message has been sent
-	 * @since 1.0
-	 */
-	private void sentWait(ATMCell cell){
-		if(this.displayCommands)
-		System.out.println("SND WAIT: Router " +this.address+ " sent a wait message " + cell.getTraceID());
+		EventLog.log(LogEvent.ROUTER_SND_ENDACK, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that a wait message has been received
+	 * Logs that a wait message has been received
 	 * @since 1.0
 	 */
 	private void receivedWait(ATMCell cell){
 		if(this.displayCommands)
-		System.out.println("REC WAIT: Router " +this.address+ " received a wait message " + cell.getTraceID());
+		EventLog.log(LogEvent.ROUTER_REC_WAIT, this.logName, cell.getTraceID());
 	}
 }
@@ -7,32 +7,50 @@
 
 package NetworkElements;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.Arrays;
 
+import Checkpoint.*;
 import DataTypes.*;
+import Logging.*;
+import Simulation.*;
+import Tracing.*;
 
-public class Computer implements IATMCellConsumer{
+public class Computer implements IATMCellConsumer, ICheckpointable{
+	private static final int CELL_PAYLOAD = 48; // the number of bytes of data in an ATM cell
+	private static final int PACKET_SOURCE = IPv4Address.parse("10.0.0.1"); // the addresses put in the packet headers
+	private static final int PACKET_DEST = IPv4Address.parse("10.0.0.2");
 	private ATMNIC nic=null;
 	private Boolean trace=true;
-	private int traceID = (int) (Math.random() * 100000);
-	private int vcNumber=-1;
+	private int traceID;
 	private String address="";
-	private HashMap<Integer, Integer> routeMap = new HashMap<>();//Key: destAddr, Value: VC number
-	private int destToConnect = -1;
+	private String logName = "Computer "; // what the computer is called in the log
+	private IntIntMap routeMap = new IntIntMap();//Key: destAddr, Value: VC number
+	private int lastDest = -1; // the destination of the connection made most recently (used by the one connection methods)
+	private IntIntMap pendingCalls = new IntIntMap(); // Key: call reference, Value: the router the setup was sent to
+	private int nextCallRef = 1; // the call reference for the next setup we send
+	private IClock clock = null; // the clock the computer's nic runs on
+	private byte[] payloadBuffer = new byte[0]; // the packet data that cells point into (it's dummy data so it's shared by every packet)
+	private PacketReassembler reassembler = new PacketReassembler(); // puts the data cells that arrive back into packets
 	
 	/**
 	 * The default constructor for a computer
 	 * @since 1.0
 	 * @deprecated in v1.2
 	 */
-	public Computer(){}
+	public Computer(){
+		this("");
+	}
 	
 	/**
-	 * The default constructor for a computer
+	 * The default constructor for a computer. Its random streams are named after its address, so the
+	 * computers in a network need different addresses to make different random decisions
 	 * @since 1.2
 	 */
 	public Computer(String address){
 		this.address = address;
+		this.logName = "Computer " + address;
+		this.traceID = RandomStreams.forName(this.logName).nextInt(100000);
 	}
 	
 	/**
@@ -43,45 +61,72 @@ public class Computer implements IATMCellConsumer{
 	 */
 	public void receiveCell(ATMCell cell, ATMNIC nic){
 		if(cell.getIsOAM()){
-			String data = cell.getData();
-			if(data.startsWith("callpro")) {
-				this.receivedCallProceeding(cell);
-			} else if(data.startsWith("conn")) {
-				this.receivedConnect(cell);
-				int vcNum = this.getIntFromEndOfString(data);
-				this.vcNumber = vcNum;
-				System.out.println("The connection is setup on VC " + this.vcNumber);
-				//send connect ack
-				ATMCell callackCell = new ATMCell(0, "callack", this.getTraceID());
-				callackCell.setIsOAM(true);
-				nic.sendCell(callackCell, this);
-				this.sentConnectAck(callackCell);
-			} else if(data.startsWith("endack")) {
-				this.receivedEndAck(cell);
-			} else if(data.startsWith("wait")) {
-				this.receivedWait(cell);
-				//send setup again
-				int destAddr = this.getIntFromEndOfString(data);
-				ATMCell setupCell = new ATMCell(0, "setup " + destAddr, this.getTraceID());
-				setupCell.setIsOAM(true);
-				nic.sendCell(setupCell, this);
-				this.sentSetup(setupCell);
+			OAMType type = cell.getOAMType();
+			// unknown messages are ignored
+			if(type!=null){
+				switch(type) {
+				case CALLPRO:
+					this.receivedCallProceeding(cell);
+					break;
+				case CONN: {
+					this.receivedConnect(cell);
+					// the call reference tells us which of our setups this is the answer to
+					int dest = this.pendingCalls.remove(cell.getCallRef(), -1);
+					int vc = cell.getOAMValue();
+					if(dest >= 0){
+						this.routeMap.put(dest, vc);
+						this.lastDest = dest;
+					}
+					EventLog.log(LogEvent.COMPUTER_CONNECTION_SETUP, this.logName, 0, vc);
+					//send connect ack
+					ATMCell callackCell = ATMCellPool.acquire(0, OAMType.CALLACK, 0, cell.getCallRef(), this.getTraceID());
+					this.sentConnectAck(callackCell);
+					nic.sendCell(callackCell, this);
+					break;
+				}
+				case ENDACK:
+					this.receivedEndAck(cell);
+					break;
+				case WAIT: {
+					this.receivedWait(cell);
+					//send setup again
+					ATMCell setupCell = ATMCellPool.acquire(0, OAMType.SETUP, cell.getOAMValue(), cell.getCallRef(), this.getTraceID());
+					this.sentSetup(setupCell);
+					nic.sendCell(setupCell, this);
+					break;
+				}
+				default:
+					break;
+				}
 			}
 		}
 		else{
-			
+			long now = this.clock!=null ? this.clock.getTime() : 0;
+			TraceRecorder trace = TraceRecorder.getDefault();
+			if(trace!=null)
+				trace.record(now, -1, nic.getID(), cell.getVC(), cell.getTraceID(), TraceEventType.DELIVER, 0, (int) (now - cell.getCreatedAt()));
+			this.reassembler.receiveCell(cell, now);
 		}
+		
+		// every cell stops here, so it can go back to the pool
+		ATMCellPool.release(cell);
 	}
 
 	/**
-	 * This method sends an ATM cell containing 'setup' and an address to the router
+	 * This method sends an ATM cell containing 'setup' and an address to the router. The computer can have
+	 * connections to many routers at once, but only one to each (if there already is one, or a setup to the
+	 * router is still waiting for its connect, nothing is sent)
 	 * @param toAddress the address we want to connect to
 	 * @since 1.0
 	 */
 	public void setupConnection(int toAddress){
-		// Create the ATM cell to send
-		ATMCell conn = new ATMCell(0, "setup " + toAddress, this.getTraceID());
-		conn.setIsOAM(true);	
+		if(this.routeMap.containsKey(toAddress) || this.pendingCalls.containsValue(toAddress))
+			return;
+		
+		// Create the ATM cell to send, with a call reference so the replies can be matched up with it
+		int callRef = this.nextCallRef++;
+		this.pendingCalls.put(callRef, toAddress);
+		ATMCell conn = ATMCellPool.acquire(0, OAMType.SETUP, toAddress, callRef, this.getTraceID());
 		
 		// Output to the console
 		this.sentSetup(conn);
@@ -91,93 +136,165 @@ public class Computer implements IATMCellConsumer{
 	}
 	
 	/**
-	 * This method sends an ATM cell saying that we want to end the VC that we currently have open
-	 * Currently each computer can only have one VC, but the routers can have many VC open
+	 * This method sends an ATM cell saying that we want to end the VC that was set up most recently
 	 * @since 1.0
 	 */
 	public void endConnection(){
-		if(this.vcNumber < 0)
+		this.endConnection(this.lastDest);
+	}
+	
+	/**
+	 * This method sends an ATM cell saying that we want to end the VC to a router
+	 * @param dest the address of the router the connection is to
+	 * @since 1.3
+	 */
+	public void endConnection(int dest){
+		int vc = this.routeMap.remove(dest, -1);
+		if(vc < 0)
 			return;
+		if(dest==this.lastDest)
+			this.lastDest = -1;
 		// Create the ATM cell to send
-		ATMCell end = new ATMCell(this.vcNumber, "end " + this.vcNumber, this.getTraceID());
-		end.setIsOAM(true);
+		ATMCell end = ATMCellPool.acquire(vc, OAMType.END, vc, this.getTraceID());
 		
 		// Output to the console
 		this.sentEnd(end);
-		this.vcNumber = -1;
 		
 		// Send the cell
 		this.nic.sendCell(end, this);
 	}
 	
 	/**
-	 * Gets the number from the end of a string
-	 * @param string the sting to try and get a number from
-	 * @return the number from the end of the string, or -1 if the end of the string is not a number
-	 * @since 1.0
+	 * Returns the VC of the connection to a router
+	 * @param dest the address of the router
+	 * @return the VC, or -1 if there is no connection to that router
+	 * @since 1.3
 	 */
-	private int getIntFromEndOfString(String string){
-		// Try getting the number from the end of the string
-		try{
-			String num = string.split(" ")[string.split(" ").length-1];
-			return Integer.parseInt(num);
-		}
-		// Couldn't do it, so return -1
-		catch(Exception e){
-			if(trace)
-				System.out.println("Could not get int from end of string");
-			return -1;
-		}
+	public int getVC(int dest){
+		return this.routeMap.get(dest, -1);
+	}
+	
+	/**
+	 * Returns the packets that have arrived at this computer, put back together from their cells
+	 * @return the reassembler, with the counts of whole and corrupted packets
+	 * @since 1.3
+	 */
+	public PacketReassembler getReassembler(){
+		return this.reassembler;
+	}
+	
+	/**
+	 * Returns the number of connections the computer has open
+	 * @return the number of connections
+	 * @since 1.3
+	 */
+	public int getConnectionCount(){
+		return this.routeMap.size();
 	}
 	
 	/**
 	 * Sends a packet from this computer to another ip address (not really since there aren't any place to send...)
-	 * @param dest the destination address of the packet
+	 * on the connection that was set up most recently
 	 * @param size the size of the packet
 	 * @since 1.0
 	 * @version 1.2
 	 */
 	public void sendPacket(int size){
+		this.sendPacket(this.lastDest, size);
+	}
+	
+	/**
+	 * Sends a packet from this computer down the connection to a router
+	 * @param dest the address of the router the connection is to
+	 * @param size the size of the packet in bits
+	 * @since 1.3
+	 */
+	public void sendPacket(int dest, int size){
+		int vc = this.routeMap.get(dest, -1);
 		// Print error messages if needed
-		if(this.nic==null)
+		if(vc < 0){
+			System.err.println("Error (Computer): " + this.logName + " has no connection to " + dest);
+			return;
+		}
+		if(this.nic==null){
 			System.err.println("The computer you are sending from does not have a NIC!");
-		if(trace)
-			System.out.println("(Computer) Trace: sending packet from computer");	
+			return;
+		}
+		if(this.trace)
+			EventLog.log(LogEvent.COMPUTER_SND_PACKET, this.logName, this.traceID);
 		
+		// the payload cells point into the shared buffer, so make sure it is big enough for this packet
+		int bytes = (size + 7) / 8;
+		if(this.payloadBuffer.length < bytes)
+			this.growPayloadBuffer(bytes);
+		
+		long now = this.clock!=null ? this.clock.getTime() : 0;
 		int bitsRemaining = size;
+		int offset = 0;
 		boolean firstCell = true;
 		
 		while(bitsRemaining > 0){
-			if(trace)
-				System.out.println("(Computer) Trace: sending a cell for the part of the packet " + traceID);
+			if(this.trace)
+				EventLog.log(LogEvent.COMPUTER_SND_CELL, this.logName, this.traceID);
 			
 			// If it's the first cell we'll send the IP header info
+			ATMCell cell;
 			if(firstCell){
-				nic.sendCell(new ATMCell(this.vcNumber, new IPPacket("10.0.0.1", "10.0.0.2", size), this.getTraceID()), this);
+				IPPacket packet = new IPPacket(PACKET_SOURCE, PACKET_DEST, size);
+				packet.setSendTime(now);
+				cell = ATMCellPool.acquire(vc, packet, this.getTraceID());
 				firstCell=false;
 			}
-			// otherwise we'll just send some fake data that would be in the packet
+			// otherwise we'll send the next 48 bytes of the packet data
 			else{
-				// Make some dummy packet data
-				String data = "";
-				for(int i=0; (i <= 48*8) && (i <=bitsRemaining); i++)
-					data += "d";
-				
-				nic.sendCell(new ATMCell(this.vcNumber, data, this.getTraceID()), this);
+				int length = Math.min(CELL_PAYLOAD, bytes - offset);
+				cell = ATMCellPool.acquire(vc, this.payloadBuffer, offset, length, this.getTraceID());
 			}
 			
 			// 48*8 bits of data sent in an ATM cell payload
 			bitsRemaining -= 48*8;
+			offset += CELL_PAYLOAD;
+			// the receiver knows the packet is finished when it sees the end of frame bit
+			cell.setEndOfFrame(bitsRemaining <= 0);
+			cell.setCreatedAt(now);
+			nic.sendCell(cell, this);
 		}
 	}
 	
+	/**
+	 * Makes the payload buffer big enough to hold a packet, filled with dummy data
+	 * @param bytes the number of bytes the buffer needs to hold
+	 * @since 1.3
+	 */
+	private void growPayloadBuffer(int bytes){
+		// round up to a whole number of cells, and at least double so we don't keep growing
+		int length = Math.max(bytes, this.payloadBuffer.length*2);
+		length = ((length + CELL_PAYLOAD - 1) / CELL_PAYLOAD) * CELL_PAYLOAD;
+		
+		// cells already in the network keep pointing at the old buffer, so make a new one rather than copying
+		this.payloadBuffer = new byte[length];
+		Arrays.fill(this.payloadBuffer, (byte) 'd');
+	}
+	
+	/**
+	 * Sets if the computer logs trace statements as it sends packets (at the DEBUG level)
+	 * @param trace if true the trace statements are logged
+	 * @since 1.3
+	 */
+	public void setTrace(boolean trace){
+		this.trace = trace;
+	}
+
 	/**
 	 * adds a nic to this computer
 	 * @param nic the nic to be added (only one nic per computer)
 	 * @since 1.0
 	 */
 	public void addNIC(ATMNIC nic){
+		nic.setRandom(RandomStreams.forName(this.logName + " NIC"));
 		this.nic = nic;
+		if(this.clock!=null)
+			nic.setClock(this.clock);
 	}
 	
 	/**
@@ -208,6 +325,61 @@ public class Computer implements IATMCellConsumer{
 		return ret;
 	}
 	
+	/**
+	 * Sets the clock that the nic in the computer runs on
+	 * @param clock the clock to use (an event driven simulator, or a tick loop)
+	 * @since 1.3
+	 */
+	public void setClock(IClock clock){
+		this.clock = clock;
+		if(this.nic!=null)
+			this.nic.setClock(clock);
+	}
+	
+	/**
+	 * Writes the computer's connections, the calls it is setting up, the packets it is part way through
+	 * reassembling, and its nic to a checkpoint
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(CheckpointWriter out) throws IOException{
+		out.writeString(this.address);
+		out.writeInt(this.traceID);
+		this.routeMap.saveState(out);
+		out.writeInt(this.lastDest);
+		this.pendingCalls.saveState(out);
+		out.writeInt(this.nextCallRef);
+		this.reassembler.saveState(out);
+		out.writeBoolean(this.nic!=null);
+		if(this.nic!=null)
+			this.nic.saveState(out);
+	}
+	
+	/**
+	 * Replaces the computer's state with what was written by saveState. The computer has to have been
+	 * built the same way as the one that was saved (the same address, connected the same way)
+	 * @param in the checkpoint being read
+	 * @throws IOException if the checkpoint can't be read, or was written by a different computer
+	 * @since 1.3
+	 */
+	public void restoreState(CheckpointReader in) throws IOException{
+		String address = in.readString();
+		if(!this.address.equals(address))
+			throw new IOException("Error (Computer): The checkpoint is of computer " + address + ", but this is computer " + this.address);
+		this.traceID = in.readInt();
+		this.routeMap.restoreState(in);
+		this.lastDest = in.readInt();
+		this.pendingCalls.restoreState(in);
+		this.nextCallRef = in.readInt();
+		this.reassembler.restoreState(in);
+		boolean hasNIC = in.readBoolean();
+		if(hasNIC!=(this.nic!=null))
+			throw new IOException("Error (Computer): The checkpoint is of a computer that " + (hasNIC ? "had" : "didn't have") + " a nic");
+		if(this.nic!=null)
+			this.nic.restoreState(in);
+	}
+	
 	/**
 	 * Sets the nic in the computer to use tail drop as its drop mechanism
 	 * @since 1.0
@@ -241,65 +413,74 @@ public class Computer implements IATMCellConsumer{
 	}
 	
 	/**
-	 * Outputs to the console that a connect message has been sent
+	 * Sets the nic in the computer to use a drop policy from the DropPolicyRegistry
+	 * @param name the name of the policy
+	 * @since 1.3
+	 */
+	public void useDropPolicy(String name){
+		this.nic.setDropPolicy(name);
+	}
+	
+	/**
+	 * Logs that a connect message has been sent
 	 * @since 1.0
 	 * @version 1.2
 	 */
 	private void sentSetup(ATMCell cell){
-		System.out.println("SND SETUP: Computer "+address+" sent a connect setup " + cell.getTraceID());
+		EventLog.log(LogEvent.COMPUTER_SND_SETUP, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that a call proceeding message has been received
+	 * Logs that a call proceeding message has been received
 	 * @since 1.0
 	 * @version 1.2
 	 */
 	private void receivedCallProceeding(ATMCell cell){
-		System.out.println("REC CALLPRO: Computer "+address+" received a call proceeding message " + cell.getTraceID());
+		EventLog.log(LogEvent.COMPUTER_REC_CALLPRO, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that a connect message has been received
+	 * Logs that a connect message has been received
 	 * @since 1.0
 	 * @version 1.2
 	 */
 	private void receivedConnect(ATMCell cell){
-		System.out.println("REC CONN: Computer "+address+" received a connect message " + cell.getTraceID());
+		EventLog.log(LogEvent.COMPUTER_REC_CONN, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that an end message has been received
+	 * Logs that an end message has been received
 	 * @since 1.0
 	 * @version 1.2
 	 */
 	private void sentEnd(ATMCell cell){
-		System.out.println("SND END: Computer "+address+" sent an end message " + cell.getTraceID());
+		EventLog.log(LogEvent.COMPUTER_SND_END, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that an end message has been received
+	 * Logs that an end message has been received
 	 * @since 1.0
 	 * @version 1.2
 	 */
 	private void receivedEndAck(ATMCell cell){
-		System.out.println("REC ENDACK: Computer "+address+" received an end ack message " + cell.getTraceID());
+		EventLog.log(LogEvent.COMPUTER_REC_ENDACK, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that a wait message has been received
+	 * Logs that a wait message has been received
 	 * @since 1.0
 	 * @version 1.2
 	 */
 	private void receivedWait(ATMCell cell){
-		System.out.println("REC WAIT: Computer "+address+" received a wait message " + cell.getTraceID());
+		EventLog.log(LogEvent.COMPUTER_REC_WAIT, this.logName, cell.getTraceID());
 	}
 	
 	/**
-	 * Outputs to the console that a connect ack message has been sent
+	 * Logs that a connect ack message has been sent
 	 * @since 1.2
 	 */
 	private void sentConnectAck(ATMCell cell){
-		System.out.println("SND CALLACK: Computer "+address+" sent a connect ack message " + cell.getTraceID());
+		EventLog.log(LogEvent.COMPUTER_SND_CALLACK, this.logName, cell.getTraceID());
 	}
 	
 }
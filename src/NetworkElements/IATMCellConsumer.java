@@ -8,6 +8,7 @@
 package NetworkElements;
 
 import DataTypes.*;
+import Simulation.*;
 
 public interface IATMCellConsumer {
 	public void addNIC(ATMNIC nic);
@@ -18,4 +19,6 @@ public interface IATMCellConsumer {
 	public void useRED();
 	public void usePPD();
 	public void useEPD();
+	public void useDropPolicy(String name);
+	public void setClock(IClock clock);
 }
@@ -0,0 +1,26 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package NetworkElements;
+
+import DataTypes.*;
+
+/**
+ * Carries the cells sent down one direction of a link to a nic that is simulated somewhere else (e.g.
+ * by another thread in a partitioned simulation). The channel has to hand the cell to the nic's
+ * receiveCell at the tick it is due, in the output phase, as the link would have done.
+ */
+public interface ICellChannel {
+	/**
+	 * Takes a cell that has been sent down the link
+	 * @param cell the cell
+	 * @param to the nic at the far end of the link
+	 * @param dueTime the tick the cell arrives at
+	 * @since 1.3
+	 */
+	public void send(ATMCell cell, ATMNIC to, long dueTime);
+}
@@ -7,19 +7,52 @@
 
 package NetworkElements;
 
+import Checkpoint.*;
 import DataTypes.*;
+import Simulation.*;
+import java.io.IOException;
 
-public class OtoOLink {
+public class OtoOLink implements ISimEntity{
 	private ATMNIC r1NIC=null, r2NIC=null;
 	private Boolean trace=false;
+	private int bandwidth = 10; // the number of cells that can be sent down the link each tick (in each direction)
+	private int delay = 0; // the number of ticks a cell takes to get to the other end
+	private CellDelayLine r1ToR2 = null, r2ToR1 = null; // the cells in flight in each direction (if there is a delay)
+	private IClock clock = null; // the clock the link runs on
+	private Simulator simulator = null; // the event driven simulator, or null if the nics deliver the cells
+	private long lastScheduled = -1; // the last tick we have a delivery event for
+	private ICellChannel r1Remote = null, r2Remote = null; // where the cells sent from each nic go, if the far end is simulated elsewhere
 	
 	/**
-	 * The default constructor for a OtoOLink
+	 * The default constructor for a OtoOLink, which carries 10 cells a tick with no delay
 	 * @param computerNIC
 	 * @param routerNIC
 	 * @since 1.0
 	 */
 	public OtoOLink(ATMNIC r1NIC, ATMNIC r2NIC){	
+		this(r1NIC, r2NIC, 10, 0);
+	}
+	
+	/**
+	 * Constructor for a OtoOLink with a given speed and delay
+	 * @param r1NIC the nic at one end
+	 * @param r2NIC the nic at the other end
+	 * @param bandwidth the number of cells that can be sent down the link each tick (in each direction)
+	 * @param delay the number of ticks a cell takes to get to the other end (0 means it arrives in the tick it was sent)
+	 * @since 1.3
+	 */
+	public OtoOLink(ATMNIC r1NIC, ATMNIC r2NIC, int bandwidth, int delay){
+		if(bandwidth < 1)
+			throw new IllegalArgumentException("Error (OtoOLink): The bandwidth must be at least 1 cell a tick");
+		if(delay < 0)
+			throw new IllegalArgumentException("Error (OtoOLink): The delay can't be negative");
+		this.bandwidth = bandwidth;
+		this.delay = delay;
+		if(delay > 0){
+			this.r1ToR2 = new CellDelayLine(bandwidth * delay);
+			this.r2ToR1 = new CellDelayLine(bandwidth * delay);
+		}
+		
 		this.r1NIC = r1NIC;
 		this.r1NIC.connectOtoOLink(this);
 		this.r2NIC = r2NIC;
@@ -44,15 +77,236 @@ public class OtoOLink {
 			if(this.trace)
 				System.out.println("(OtoOLink) Trace: sending cell from router A to router B");
 			
-			this.r2NIC.receiveCell(cell);
+			if(this.r1Remote!=null)
+				this.r1Remote.send(cell, this.r2NIC, nic.now() + this.delay);
+			else if(this.delay==0)
+				this.r2NIC.receiveCell(cell);
+			else
+				this.putOnLine(this.r1ToR2, cell);
 		}
 		else if(this.r2NIC.equals(nic)){
 			if(this.trace)
 				System.out.println("(OtoOLink) Trace: sending cell from router B to router A");
 			
-			this.r1NIC.receiveCell(cell);
+			if(this.r2Remote!=null)
+				this.r2Remote.send(cell, this.r1NIC, nic.now() + this.delay);
+			else if(this.delay==0)
+				this.r1NIC.receiveCell(cell);
+			else
+				this.putOnLine(this.r2ToR1, cell);
 		}
 		else
 			System.err.println("(OtoOLink) Error: You are trying to send a cell down a link that you are not connected to");
 	}
+	
+	/**
+	 * Puts a cell on one direction of the link, to arrive delay ticks from now
+	 * @since 1.3
+	 */
+	private void putOnLine(CellDelayLine line, ATMCell cell){
+		if(this.clock==null)
+			throw new IllegalStateException("Error (OtoOLink): A link with a delay needs a clock to know when cells arrive");
+		long due = this.clock.getTime() + this.delay;
+		line.add(cell, due);
+		// when event driven the link delivers the cells itself
+		if(this.simulator!=null && due > this.lastScheduled){
+			this.lastScheduled = due;
+			this.simulator.schedule(this, due, Simulator.PHASE_OUTPUT);
+		}
+	}
+	
+	/**
+	 * Passes the cells that have arrived by now to the nic at the far end from a nic. The nics call
+	 * this every tick when they aren't event driven
+	 * @param nic the nic the cells were sent from
+	 * @since 1.3
+	 */
+	public void deliverFrom(ATMNIC nic){
+		if(this.delay==0 || this.clock==null)
+			return;
+		long time = this.clock.getTime();
+		if(this.r1NIC==nic)
+			this.deliver(this.r1ToR2, this.r2NIC, time);
+		else if(this.r2NIC==nic)
+			this.deliver(this.r2ToR1, this.r1NIC, time);
+	}
+	
+	/**
+	 * Passes the cells on a line that have arrived by a given tick to a nic
+	 * @since 1.3
+	 */
+	private void deliver(CellDelayLine line, ATMNIC to, long time){
+		ATMCell cell;
+		while((cell = line.poll(time))!=null)
+			to.receiveCell(cell);
+	}
+	
+	/**
+	 * Called by the simulator when cells are due to arrive
+	 * @param time the current tick
+	 * @param phase the phase (output)
+	 * @since 1.3
+	 */
+	public void handleEvent(long time, int phase){
+		this.deliver(this.r1ToR2, this.r2NIC, time);
+		this.deliver(this.r2ToR1, this.r1NIC, time);
+		
+		// cells sent before we were event driven may not have an event of their own
+		long due = this.getNextDue();
+		if(due!=Long.MAX_VALUE && due > this.lastScheduled){
+			this.lastScheduled = due;
+			this.simulator.schedule(this, due, Simulator.PHASE_OUTPUT);
+		}
+	}
+	
+	/**
+	 * Makes sure the cells in flight get delivered when we are event driven (after the clock changes,
+	 * or cells are put on the link from a checkpoint)
+	 * @since 1.3
+	 */
+	private void scheduleInFlight(){
+		this.lastScheduled = -1;
+		if(this.simulator!=null && this.delay > 0){
+			long due = this.getNextDue();
+			if(due!=Long.MAX_VALUE){
+				this.lastScheduled = Math.max(due, this.simulator.nextSlot(Simulator.PHASE_OUTPUT));
+				this.simulator.schedule(this, this.lastScheduled, Simulator.PHASE_OUTPUT);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the direction of the link that carries cells sent from a nic
+	 * @since 1.3
+	 */
+	private CellDelayLine lineFrom(ATMNIC nic){
+		if(this.r1NIC==nic)
+			return this.r1ToR2;
+		if(this.r2NIC==nic)
+			return this.r2ToR1;
+		throw new IllegalArgumentException("Error (OtoOLink): The nic is not connected to this link");
+	}
+	
+	/**
+	 * Returns the tick the next cell in flight (in either direction) arrives at
+	 * @return the tick, or Long.MAX_VALUE if there aren't any cells on the link
+	 * @since 1.3
+	 */
+	private long getNextDue(){
+		long due = Long.MAX_VALUE;
+		if(!this.r1ToR2.isEmpty())
+			due = this.r1ToR2.getNextDue();
+		if(!this.r2ToR1.isEmpty())
+			due = Math.min(due, this.r2ToR1.getNextDue());
+		return due;
+	}
+	
+	/**
+	 * Sets the clock the link runs on. The nics at either end pass their clock on to the link
+	 * @param clock the clock to use (an event driven simulator, or a tick loop)
+	 * @since 1.3
+	 */
+	public void setClock(IClock clock){
+		if(this.clock==clock)
+			return;
+		this.clock = clock;
+		this.simulator = clock instanceof Simulator ? (Simulator) clock : null;
+		this.scheduleInFlight();
+	}
+	
+	/**
+	 * Sends the cells from one nic through a channel instead of down the link, for when the nic at the
+	 * far end is simulated somewhere else. The link has to have a delay, so the far end has time to
+	 * hear about a cell before it arrives. Cells already in flight from the nic are passed to the channel
+	 * @param nic the nic the cells are sent from
+	 * @param channel the channel, or null to send cells down the link again
+	 * @since 1.3
+	 */
+	public void setRemote(ATMNIC nic, ICellChannel channel){
+		if(channel!=null && this.delay==0)
+			throw new IllegalStateException("Error (OtoOLink): A link with no delay can't send its cells through a channel");
+		CellDelayLine line = this.delay > 0 ? this.lineFrom(nic) : null;
+		if(this.r1NIC==nic)
+			this.r1Remote = channel;
+		else
+			this.r2Remote = channel;
+		if(channel!=null){
+			ATMNIC to = this.r1NIC==nic ? this.r2NIC : this.r1NIC;
+			while(!line.isEmpty()){
+				long due = line.getNextDue();
+				channel.send(line.poll(due), to, due);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the nic at one end of the link
+	 * @return the nic the link was made with first
+	 * @since 1.3
+	 */
+	public ATMNIC getR1NIC(){
+		return this.r1NIC;
+	}
+	
+	/**
+	 * Returns the nic at the other end of the link
+	 * @return the nic the link was made with second
+	 * @since 1.3
+	 */
+	public ATMNIC getR2NIC(){
+		return this.r2NIC;
+	}
+	
+	/**
+	 * Writes the cells in flight from a nic (and when they arrive) to a checkpoint. Each nic writes its
+	 * own direction of the link
+	 * @param nic the nic the cells were sent from
+	 * @param out the checkpoint being written
+	 * @throws IOException if the checkpoint can't be written
+	 * @since 1.3
+	 */
+	public void saveState(ATMNIC nic, CheckpointWriter out) throws IOException{
+		out.writeInt(this.delay);
+		if(this.delay > 0)
+			this.lineFrom(nic).saveState(out);
+	}
+	
+	/**
+	 * Replaces the cells in flight from a nic with the ones written by saveState
+	 * @param nic the nic the cells were sent from
+	 * @param in the checkpoint being read
+	 * @throws IOException if the checkpoint can't be read, or was written by a link with a different delay
+	 * @since 1.3
+	 */
+	public void restoreState(ATMNIC nic, CheckpointReader in) throws IOException{
+		int delay = in.readInt();
+		if(delay!=this.delay)
+			throw new IOException("Error (OtoOLink): The checkpoint is of a link with a delay of " + delay + ", but this link has a delay of " + this.delay);
+		if(this.delay==0)
+			return;
+		CellDelayLine line = this.lineFrom(nic);
+		ATMCell cell;
+		while((cell = line.poll(Long.MAX_VALUE))!=null)
+			ATMCellPool.release(cell);
+		line.restoreState(in);
+		this.scheduleInFlight();
+	}
+	
+	/**
+	 * Returns the number of cells that can be sent down the link each tick (in each direction)
+	 * @return the bandwidth of the link in cells per tick
+	 * @since 1.3
+	 */
+	public int getBandwidth(){
+		return this.bandwidth;
+	}
+	
+	/**
+	 * Returns the number of ticks a cell takes to get to the other end
+	 * @return the delay of the link in ticks
+	 * @since 1.3
+	 */
+	public int getDelay(){
+		return this.delay;
+	}
 }
@@ -0,0 +1,24 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Simulation;
+
+public interface IClock {
+	/**
+	 * Returns the current simulation time (in ticks)
+	 * @return the current simulation time
+	 * @since 1.3
+	 */
+	public long getTime();
+
+	/**
+	 * Moves the clock to a tick (e.g. the tick a checkpoint was taken at), as if that tick had just finished
+	 * @param time the tick
+	 * @since 1.3
+	 */
+	public void setTime(long time);
+}
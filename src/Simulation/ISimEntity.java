@@ -0,0 +1,18 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Simulation;
+
+public interface ISimEntity {
+	/**
+	 * Called by the simulator when an event scheduled for this entity comes due
+	 * @param time the tick the event was scheduled for
+	 * @param phase the phase of the tick the event was scheduled for
+	 * @since 1.3
+	 */
+	public void handleEvent(long time, int phase);
+}
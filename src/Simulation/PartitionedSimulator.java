@@ -0,0 +1,417 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Simulation;
+
+import DataTypes.*;
+import NetworkElements.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs a network split into partitions (e.g. by NetworkPartitioner) on several threads at once. Each
+ * partition has its own event driven Simulator, and its routers and computers run on it as they would on
+ * their own. The links between partitions (which have to have a delay) don't touch the nic at the far
+ * end: the cells sent down them go into an outbox for the far partition instead, with the tick they arrive at.
+ *
+ * The partitions are kept in step conservatively, a window of ticks at a time. A cell sent down a link
+ * between partitions takes at least the lookahead (the smallest delay of those links) to arrive, so in a
+ * window starting at the earliest event anywhere and lasting the lookahead, nothing one partition does can
+ * reach another. Every partition runs its window without waiting for the others, then at the end of the
+ * window (the only point the threads wait for each other) the outboxes are emptied into the partitions the
+ * cells are going to, to be delivered when they are due. Only one thread writes to an outbox during a
+ * window, and only one reads it between windows, so no locks are needed. The cells arriving at a partition
+ * are put in order of arrival tick, then partition sent from, then the order they were sent in, so a run
+ * comes out the same however many threads are used. Idle stretches with no events anywhere are skipped.
+ *
+ * The traffic for a computer has to be generated on its partition's simulator (see getSimulator), and
+ * anything shared between partitions has to be safe to use from several threads.
+ */
+public class PartitionedSimulator {
+	private Partition[] partitions; // the partitions, by number
+	private IdentityHashMap<IATMCellConsumer, Partition> partitionOf = new IdentityHashMap<IATMCellConsumer, Partition>(); // the partition each router and computer is in
+	private int lookahead = Integer.MAX_VALUE; // the smallest delay of the links between partitions
+	private int cutLinks = 0; // the number of links between partitions
+	private ForkJoinPool pool = null; // the workers, or null if the partitions are run on the calling thread
+	private long time = -1; // the tick every partition has run up to
+	private long windows = 0; // the number of windows run
+	private long cellsExchanged = 0; // the number of cells passed between partitions
+
+	/**
+	 * Creates a simulator for a partitioned network, and puts every router and computer on its partition's clock
+	 * @param consumers the routers and computers
+	 * @param partition the partition of each router and computer (in the same order)
+	 * @param links every link between the routers and computers
+	 * @param threads the number of threads to run the partitions on (1 runs them on the calling thread)
+	 * @since 1.3
+	 */
+	public PartitionedSimulator(List<? extends IATMCellConsumer> consumers, int[] partition, List<OtoOLink> links, int threads){
+		if(partition.length!=consumers.size())
+			throw new IllegalArgumentException("Error (PartitionedSimulator): There are " + consumers.size() + " elements but " + partition.length + " partitions given");
+		int count = 0;
+		for(int i=0; i<partition.length; i++){
+			if(partition[i] < 0)
+				throw new IllegalArgumentException("Error (PartitionedSimulator): The partitions can't be negative");
+			count = Math.max(count, partition[i]+1);
+		}
+		this.partitions = new Partition[count];
+		for(int p=0; p<count; p++)
+			this.partitions[p] = new Partition(p, count);
+		for(int i=0; i<partition.length; i++){
+			IATMCellConsumer consumer = consumers.get(i);
+			this.partitionOf.put(consumer, this.partitions[partition[i]]);
+			consumer.setClock(this.partitions[partition[i]].simulator);
+		}
+
+		// send the cells on the links between partitions through the outboxes
+		for(int l=0; l<links.size(); l++){
+			OtoOLink link = links.get(l);
+			Partition a = this.partitionOf.get(link.getR1NIC().getParent());
+			Partition b = this.partitionOf.get(link.getR2NIC().getParent());
+			if(a==null || b==null)
+				throw new IllegalArgumentException("Error (PartitionedSimulator): A link goes to an element that isn't in a partition");
+			if(a==b){
+				link.setRemote(link.getR1NIC(), null);
+				link.setRemote(link.getR2NIC(), null);
+				continue;
+			}
+			if(link.getDelay() < 1)
+				throw new IllegalArgumentException("Error (PartitionedSimulator): A link with no delay can't go between partitions " + a.number + " and " + b.number);
+			this.cutLinks++;
+			this.lookahead = Math.min(this.lookahead, link.getDelay());
+			link.setRemote(link.getR1NIC(), a.outboxes[b.number]);
+			link.setRemote(link.getR2NIC(), b.outboxes[a.number]);
+		}
+
+		if(threads > 1 && count > 1)
+			this.pool = new ForkJoinPool(Math.min(threads, count));
+	}
+
+	/**
+	 * Returns the simulator a router or computer runs on (which traffic for it has to be scheduled on)
+	 * @param consumer the router or computer
+	 * @return its partition's simulator
+	 * @since 1.3
+	 */
+	public Simulator getSimulator(IATMCellConsumer consumer){
+		Partition partition = this.partitionOf.get(consumer);
+		if(partition==null)
+			throw new IllegalArgumentException("Error (PartitionedSimulator): The element isn't in a partition");
+		return partition.simulator;
+	}
+
+	/**
+	 * Returns the simulator of a partition
+	 * @param partition the number of the partition
+	 * @return the partition's simulator
+	 * @since 1.3
+	 */
+	public Simulator getSimulator(int partition){
+		return this.partitions[partition].simulator;
+	}
+
+	/**
+	 * Returns the number of partitions
+	 * @return the number of partitions
+	 * @since 1.3
+	 */
+	public int getPartitionCount(){
+		return this.partitions.length;
+	}
+
+	/**
+	 * Returns how far the partitions can run without hearing from each other
+	 * @return the lookahead in ticks, or Integer.MAX_VALUE if no links go between partitions
+	 * @since 1.3
+	 */
+	public int getLookahead(){
+		return this.lookahead;
+	}
+
+	/**
+	 * Returns the number of links between partitions
+	 * @return the number of links
+	 * @since 1.3
+	 */
+	public int getCutLinks(){
+		return this.cutLinks;
+	}
+
+	/**
+	 * Returns the number of windows that have been run (the number of times the threads waited for each other)
+	 * @return the number of windows
+	 * @since 1.3
+	 */
+	public long getWindows(){
+		return this.windows;
+	}
+
+	/**
+	 * Returns the number of cells that have been passed from one partition to another
+	 * @return the number of cells
+	 * @since 1.3
+	 */
+	public long getCellsExchanged(){
+		return this.cellsExchanged;
+	}
+
+	/**
+	 * Returns the tick every partition has run up to
+	 * @return the current simulation time
+	 * @since 1.3
+	 */
+	public long getTime(){
+		return this.time;
+	}
+
+	/**
+	 * Runs every partition up to and including a given tick. Every partition's clock is left at that tick
+	 * @param endTime the last tick to run
+	 * @since 1.3
+	 */
+	public void runUntil(long endTime){
+		while(true){
+			this.exchange();
+			long start = Long.MAX_VALUE;
+			for(int p=0; p<this.partitions.length; p++){
+				long next = this.partitions[p].simulator.getNextEventTime();
+				if(next >= 0)
+					start = Math.min(start, next);
+			}
+			if(start > endTime)
+				break;
+			long end = endTime;
+			if(this.lookahead!=Integer.MAX_VALUE)
+				end = Math.min(endTime, start + this.lookahead - 1);
+			this.runWindow(end);
+			this.time = Math.max(this.time, end);
+			this.windows++;
+		}
+		this.runWindow(endTime);
+		this.time = Math.max(this.time, endTime);
+	}
+
+	/**
+	 * Runs until there are no events left in any partition
+	 * @since 1.3
+	 */
+	public void run(){
+		while(true){
+			this.exchange();
+			long last = -1;
+			for(int p=0; p<this.partitions.length; p++)
+				last = Math.max(last, this.partitions[p].simulator.getNextEventTime());
+			if(last < 0)
+				return;
+			// every event known about now happens by the last of the partitions' next events, or is sent in a later window
+			this.runUntil(Math.max(last, this.time));
+		}
+	}
+
+	/**
+	 * Stops the worker threads. The simulator can't be used after this
+	 * @since 1.3
+	 */
+	public void shutdown(){
+		if(this.pool!=null)
+			this.pool.shutdown();
+	}
+
+	/**
+	 * Runs every partition up to a tick, on the worker threads if there are any
+	 * @since 1.3
+	 */
+	private void runWindow(long end){
+		if(this.pool==null)
+			for(int p=0; p<this.partitions.length; p++)
+				this.partitions[p].simulator.runUntil(end);
+		else
+			this.pool.invoke(new WindowTask(0, this.partitions.length, end));
+	}
+
+	/**
+	 * Empties every outbox into the partition the cells are going to
+	 * @since 1.3
+	 */
+	private void exchange(){
+		for(int to=0; to<this.partitions.length; to++){
+			Partition partition = this.partitions[to];
+			for(int from=0; from<this.partitions.length; from++){
+				Outbox outbox = this.partitions[from].outboxes[to];
+				if(outbox==null || outbox.size==0)
+					continue;
+				for(int i=0; i<outbox.size; i++)
+					partition.arrive(outbox.cells[i], outbox.nics[i], outbox.due[i]);
+				this.cellsExchanged += outbox.size;
+				outbox.clear();
+			}
+			partition.scheduleArrivals();
+		}
+	}
+
+	/**
+	 * A partition: its simulator, its outboxes, and the cells that are on their way to it
+	 */
+	private static class Partition implements ISimEntity {
+		private int number; // the number of the partition
+		private Simulator simulator = new Simulator(); // runs the partition's routers and computers
+		private Outbox[] outboxes; // the cells sent to each other partition in this window
+		private PriorityQueue<Arrival> arrivals = new PriorityQueue<Arrival>(); // the cells on their way to the partition, earliest first
+		private ArrayDeque<Arrival> freeArrivals = new ArrayDeque<Arrival>(); // arrivals that can be reused
+		private long sequence = 0; // keeps cells arriving at the same tick in the order they were passed over
+		private long scheduled = Long.MAX_VALUE; // the earliest tick we have an event waiting for
+
+		/**
+		 * Creates a partition
+		 * @param number the number of the partition
+		 * @param count the number of partitions
+		 * @since 1.3
+		 */
+		private Partition(int number, int count){
+			this.number = number;
+			this.outboxes = new Outbox[count];
+			for(int p=0; p<count; p++)
+				if(p!=number)
+					this.outboxes[p] = new Outbox();
+		}
+
+		/**
+		 * Adds a cell to the cells on their way to the partition
+		 * @param cell the cell
+		 * @param nic the nic it is going to
+		 * @param due the tick it arrives at
+		 * @since 1.3
+		 */
+		private void arrive(ATMCell cell, ATMNIC nic, long due){
+			if(due < this.simulator.nextSlot(Simulator.PHASE_OUTPUT))
+				throw new IllegalStateException("Error (PartitionedSimulator): A cell arrived at partition " + this.number + " in the past (tick " + due + ")");
+			Arrival arrival = this.freeArrivals.poll();
+			if(arrival==null)
+				arrival = new Arrival();
+			arrival.cell = cell;
+			arrival.nic = nic;
+			arrival.due = due;
+			arrival.sequence = this.sequence++;
+			this.arrivals.add(arrival);
+		}
+
+		/**
+		 * Makes sure the simulator will call us when the next cell arrives
+		 * @since 1.3
+		 */
+		private void scheduleArrivals(){
+			Arrival next = this.arrivals.peek();
+			if(next==null || next.due >= this.scheduled)
+				return;
+			this.scheduled = next.due;
+			this.simulator.schedule(this, next.due, Simulator.PHASE_OUTPUT);
+		}
+
+		/**
+		 * Called by the simulator when cells arrive: passes them to their nics
+		 * @param time the current tick
+		 * @param phase the phase (output)
+		 * @since 1.3
+		 */
+		public void handleEvent(long time, int phase){
+			if(time==this.scheduled)
+				this.scheduled = Long.MAX_VALUE;
+			Arrival arrival;
+			while((arrival = this.arrivals.peek())!=null && arrival.due <= time){
+				this.arrivals.poll();
+				ATMCell cell = arrival.cell;
+				ATMNIC nic = arrival.nic;
+				arrival.cell = null;
+				arrival.nic = null;
+				this.freeArrivals.add(arrival);
+				nic.receiveCell(cell);
+			}
+			this.scheduleArrivals();
+		}
+	}
+
+	/**
+	 * The cells one partition has sent to another in the current window, in the order they were sent.
+	 * Only the sending partition's thread adds to it
+	 */
+	private static class Outbox implements ICellChannel {
+		private ATMCell[] cells = new ATMCell[16]; // the cells
+		private ATMNIC[] nics = new ATMNIC[16]; // the nic each cell is going to
+		private long[] due = new long[16]; // the tick each cell arrives at
+		private int size = 0; // the number of cells
+
+		/**
+		 * Adds a cell that has been sent down a link to the other partition
+		 * @param cell the cell
+		 * @param to the nic at the far end of the link
+		 * @param dueTime the tick the cell arrives at
+		 * @since 1.3
+		 */
+		public void send(ATMCell cell, ATMNIC to, long dueTime){
+			if(this.size==this.cells.length){
+				int length = this.size*2;
+				this.cells = Arrays.copyOf(this.cells, length);
+				this.nics = Arrays.copyOf(this.nics, length);
+				this.due = Arrays.copyOf(this.due, length);
+			}
+			this.cells[this.size] = cell;
+			this.nics[this.size] = to;
+			this.due[this.size++] = dueTime;
+		}
+
+		/**
+		 * Empties the outbox
+		 * @since 1.3
+		 */
+		private void clear(){
+			Arrays.fill(this.cells, 0, this.size, null);
+			Arrays.fill(this.nics, 0, this.size, null);
+			this.size = 0;
+		}
+	}
+
+	/**
+	 * A cell on its way to a partition
+	 */
+	private static class Arrival implements Comparable<Arrival> {
+		private ATMCell cell; // the cell
+		private ATMNIC nic; // the nic it is going to
+		private long due; // the tick it arrives at
+		private long sequence; // the order it was passed to the partition in
+
+		public int compareTo(Arrival o){
+			if(this.due!=o.due)
+				return this.due < o.due ? -1 : 1;
+			return Long.compare(this.sequence, o.sequence);
+		}
+	}
+
+	/**
+	 * Runs a range of the partitions up to the end of a window, splitting the range between the threads
+	 */
+	private class WindowTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private int from, to;
+		private long end;
+
+		private WindowTask(int from, int to, long end){
+			this.from = from;
+			this.to = to;
+			this.end = end;
+		}
+
+		protected void compute(){
+			if(this.to - this.from > 1){
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new WindowTask(this.from, middle, this.end), new WindowTask(middle, this.to, this.end));
+				return;
+			}
+			partitions[this.from].simulator.runUntil(this.end);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * Hands out the random number streams used by the network elements. Every stream comes from one
+ * master seed and the name of whatever is using it (e.g. "Router 9"), so a network built the same way
+ * with the same seed makes exactly the same random decisions every run, whichever order the elements
+ * are made in. Each element has a stream of its own, so threads stepping different elements never
+ * share (or wait on) a generator. The seed has to be set before the network is built.
+ */
+public class RandomStreams {
+	private static final long DEFAULT_SEED = 0x2545F4914F6CDD1DL; // the master seed if none is set
+	private static volatile long masterSeed = DEFAULT_SEED; // every stream is made from this
+
+	private RandomStreams(){}
+
+	/**
+	 * Sets the master seed. Only streams handed out after this are affected
+	 * @param seed the master seed
+	 * @since 1.3
+	 */
+	public static void setSeed(long seed){
+		masterSeed = seed;
+	}
+
+	/**
+	 * Returns the master seed
+	 * @return the master seed
+	 * @since 1.3
+	 */
+	public static long getSeed(){
+		return masterSeed;
+	}
+
+	/**
+	 * Returns a new stream for something in the network. Asking twice for the same name gives two
+	 * streams with the same numbers in them
+	 * @param name the name of whatever will use the stream
+	 * @return the stream (which mustn't be shared between threads)
+	 * @since 1.3
+	 */
+	public static SplittableRandom forName(String name){
+		long seed = masterSeed;
+		for(int i=0; i<name.length(); i++)
+			seed = mix(seed ^ name.charAt(i));
+		return new SplittableRandom(mix(seed ^ name.length()));
+	}
+
+	/**
+	 * Scrambles the bits of a long (the SplitMix64 finaliser)
+	 * @since 1.3
+	 */
+	private static long mix(long z){
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
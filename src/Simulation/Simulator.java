@@ -0,0 +1,257 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Simulation;
+
+import java.util.*;
+
+/**
+ * An event driven replacement for stepping every object in the network on every tick. Each tick is
+ * split into phases (sources, then output buffers, then input buffers), and within a phase the entities
+ * run in the order they were registered (see register), so that if they are given the clock in the same
+ * order the tick loop steps them, things happen in the same order as the old lockstep loop. Only the
+ * entities that have scheduled work are visited, and ticks that have no events are skipped over.
+ */
+public class Simulator implements IClock {
+	public static final int PHASE_SOURCE = 0; // traffic is generated
+	public static final int PHASE_OUTPUT = 1; // output buffers are moved onto the links
+	public static final int PHASE_INPUT = 2; // input buffers are passed up to the router/computer
+	private static final int PHASE_DONE = 3; // every phase of the current tick has run
+
+	private PriorityQueue<SimEvent> events = new PriorityQueue<SimEvent>(); // the events waiting to happen
+	private ArrayDeque<SimEvent> freeEvents = new ArrayDeque<SimEvent>(); // events that can be reused
+	private long time = -1; // the tick that is running (or last ran)
+	private int phase = PHASE_DONE; // the phase of the tick that is running
+	private long sequence = 0; // keeps events at the same time, phase and rank in the order they were scheduled
+	private IdentityHashMap<ISimEntity, Integer> ranks = new IdentityHashMap<ISimEntity, Integer>(); // the rank of each registered entity
+	private int nextRank = 0; // the rank the next entity registered will get
+	private volatile boolean paused = false; // has someone asked the simulation to stop?
+
+	/**
+	 * Gives an entity a rank, which decides the order it runs in against the other entities that have
+	 * events at the same tick and phase (lower ranks run first). Ranks are given out in the order the
+	 * entities are registered, and registering an entity again returns the rank it already has.
+	 * Entities that are never registered run after all of the registered ones
+	 * @param entity the entity to register
+	 * @return the entity's rank
+	 * @since 1.3
+	 */
+	public int register(ISimEntity entity){
+		Integer rank = this.ranks.get(entity);
+		if(rank==null){
+			rank = this.nextRank++;
+			this.ranks.put(entity, rank);
+		}
+		return rank;
+	}
+
+	/**
+	 * Schedules an entity to be called at a given tick and phase
+	 * @param entity the entity to call
+	 * @param time the tick to call it at
+	 * @param phase the phase of the tick to call it in
+	 * @since 1.3
+	 */
+	public void schedule(ISimEntity entity, long time, int phase){
+		Integer rank = this.ranks.get(entity);
+		this.schedule(entity, time, phase, rank==null ? Integer.MAX_VALUE : rank);
+	}
+
+	/**
+	 * Schedules an entity to be called at a given tick and phase, with the rank it was given by register
+	 * (which saves looking it up when an entity schedules itself often)
+	 * @param entity the entity to call
+	 * @param time the tick to call it at
+	 * @param phase the phase of the tick to call it in
+	 * @param rank the entity's rank
+	 * @since 1.3
+	 */
+	public void schedule(ISimEntity entity, long time, int phase, int rank){
+		if(time < this.nextSlot(phase))
+			throw new IllegalArgumentException("Error (Simulator): You are trying to schedule an event in the past (" + time + ")");
+
+		SimEvent event = this.freeEvents.poll();
+		if(event==null)
+			event = new SimEvent();
+		event.time = time;
+		event.phase = phase;
+		event.rank = rank;
+		event.sequence = this.sequence++;
+		event.entity = entity;
+		this.events.add(event);
+	}
+
+	/**
+	 * Schedules an entity to be called the next time a given phase comes around
+	 * @param entity the entity to call
+	 * @param phase the phase to call it in
+	 * @since 1.3
+	 */
+	public void scheduleNext(ISimEntity entity, int phase){
+		this.schedule(entity, this.nextSlot(phase), phase);
+	}
+
+	/**
+	 * Schedules an entity to be called the next time a given phase comes around, with the rank it was given by register
+	 * @param entity the entity to call
+	 * @param phase the phase to call it in
+	 * @param rank the entity's rank
+	 * @since 1.3
+	 */
+	public void scheduleNext(ISimEntity entity, int phase, int rank){
+		this.schedule(entity, this.nextSlot(phase), phase, rank);
+	}
+
+	/**
+	 * Returns the earliest tick at which a given phase has not run yet
+	 * @param phase the phase we want to run in
+	 * @return the tick that phase will next run at
+	 * @since 1.3
+	 */
+	public long nextSlot(int phase){
+		if(phase > this.phase)
+			return this.time;
+		return this.time+1;
+	}
+
+	/**
+	 * Runs all of the events in the next tick that has any, skipping over the idle ticks before it
+	 * @return false if there was nothing left to run
+	 * @since 1.3
+	 */
+	public boolean step(){
+		this.paused = false;
+		SimEvent next = this.events.peek();
+		if(next==null)
+			return false;
+
+		long tick = next.time;
+		while(!this.paused && (next=this.events.peek())!=null && next.time==tick)
+			this.runEvent();
+		if(!this.paused)
+			this.phase = PHASE_DONE;
+		return true;
+	}
+
+	/**
+	 * Runs every event up to and including a given tick. The clock is left at that tick even if nothing happened in it
+	 * @param endTime the last tick to run
+	 * @since 1.3
+	 */
+	public void runUntil(long endTime){
+		this.paused = false;
+		SimEvent next;
+		while(!this.paused && (next=this.events.peek())!=null && next.time<=endTime)
+			this.runEvent();
+
+		if(!this.paused && endTime >= this.time){
+			this.time = endTime;
+			this.phase = PHASE_DONE;
+		}
+	}
+
+	/**
+	 * Runs events until there are none left or the simulation is paused
+	 * @since 1.3
+	 */
+	public void run(){
+		this.paused = false;
+		while(!this.paused && !this.events.isEmpty())
+			this.runEvent();
+		if(!this.paused)
+			this.phase = PHASE_DONE;
+	}
+
+	/**
+	 * Stops the simulation after the event that is currently running. Running again carries on from where it stopped
+	 * @since 1.3
+	 */
+	public void pause(){
+		this.paused = true;
+	}
+
+	/**
+	 * Returns if there are no events waiting to happen
+	 * @return true if there are no events waiting
+	 * @since 1.3
+	 */
+	public boolean isIdle(){
+		return this.events.isEmpty();
+	}
+
+	/**
+	 * Returns the tick of the next event, or -1 if there aren't any
+	 * @return the tick of the next event
+	 * @since 1.3
+	 */
+	public long getNextEventTime(){
+		SimEvent next = this.events.peek();
+		if(next==null)
+			return -1;
+		return next.time;
+	}
+
+	/**
+	 * Moves the clock to a tick, as if every phase of it had run. Only allowed when there are no events
+	 * waiting, as they would end up in the past
+	 * @param time the tick
+	 * @since 1.3
+	 */
+	public void setTime(long time){
+		if(!this.events.isEmpty())
+			throw new IllegalStateException("Error (Simulator): The time can't be changed while there are events waiting");
+		this.time = time;
+		this.phase = PHASE_DONE;
+	}
+
+	/**
+	 * Returns the tick that is running (or last ran)
+	 * @return the current simulation time
+	 * @since 1.3
+	 */
+	public long getTime(){
+		return this.time;
+	}
+
+	/**
+	 * Takes the next event off the queue and runs it
+	 * @since 1.3
+	 */
+	private void runEvent(){
+		SimEvent event = this.events.poll();
+		ISimEntity entity = event.entity;
+		this.time = event.time;
+		this.phase = event.phase;
+
+		// recycle the event before running it, as the entity will probably schedule another one
+		event.entity = null;
+		this.freeEvents.add(event);
+
+		entity.handleEvent(this.time, this.phase);
+	}
+
+	/**
+	 * An entry in the event queue
+	 */
+	private static class SimEvent implements Comparable<SimEvent>{
+		private long time;
+		private int phase;
+		private int rank;
+		private long sequence;
+		private ISimEntity entity;
+
+		public int compareTo(SimEvent o){
+			if(this.time!=o.time)
+				return this.time < o.time ? -1 : 1;
+			if(this.phase!=o.phase)
+				return this.phase - o.phase;
+			if(this.rank!=o.rank)
+				return this.rank < o.rank ? -1 : 1;
+			return Long.compare(this.sequence, o.sequence);
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Simulation;
+
+import NetworkElements.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Steps every object in the network on every tick, in two phases: all of the output buffers are cleared,
+ * then all of the input buffers are cleared. Within a phase each object only touches its own buffers
+ * (and, through its links, the input buffer of the nic on the other end, which nothing else writes to),
+ * so the objects in a phase can be split across a pool of threads. The end of each phase is a barrier.
+ * The state of the network after each tick is the same as a serial run, although anything printed to
+ * the console may come out in a different order.
+ */
+public class TickEngine implements IClock {
+	private static final int MIN_CHUNK = 64; // the fewest objects we will give to one task
+
+	private IATMCellConsumer[] consumers; // the objects to step
+	private ForkJoinPool pool = null; // the workers, or null if we are running serially
+	private int chunk; // how many objects each task steps
+	private long time = -1; // the tick that is running (or last ran)
+
+	/**
+	 * Creates an engine that steps the given objects serially
+	 * @param consumers the routers and computers in the network
+	 * @since 1.3
+	 */
+	public TickEngine(List<? extends IATMCellConsumer> consumers){
+		this(consumers, 1);
+	}
+
+	/**
+	 * Creates an engine that steps the given objects using a number of threads
+	 * @param consumers the routers and computers in the network
+	 * @param threads the number of threads to use (1 runs everything on the calling thread)
+	 * @since 1.3
+	 */
+	public TickEngine(List<? extends IATMCellConsumer> consumers, int threads){
+		this.consumers = consumers.toArray(new IATMCellConsumer[consumers.size()]);
+		if(threads > 1){
+			this.pool = new ForkJoinPool(threads);
+			// a few tasks per thread so that a slow chunk doesn't hold up the whole phase
+			this.chunk = Math.max(MIN_CHUNK, this.consumers.length / (threads*4));
+		}
+
+		for(int i=0; i<this.consumers.length; i++)
+			this.consumers[i].setClock(this);
+	}
+
+	/**
+	 * Moves time forward by one tick in all of the objects
+	 * @since 1.3
+	 */
+	public void tick(){
+		this.time++;
+		if(this.pool==null){
+			for(int i=0; i<this.consumers.length; i++)
+				this.consumers[i].clearOutputBuffers();
+			for(int i=0; i<this.consumers.length; i++)
+				this.consumers[i].clearInputBuffers();
+		}
+		else{
+			// invoke only returns once every task in the phase is done, which is our barrier
+			this.pool.invoke(new PhaseTask(0, this.consumers.length, Simulator.PHASE_OUTPUT));
+			this.pool.invoke(new PhaseTask(0, this.consumers.length, Simulator.PHASE_INPUT));
+		}
+	}
+
+	/**
+	 * Returns the tick that is running (or last ran)
+	 * @return the current simulation time
+	 * @since 1.3
+	 */
+	public long getTime(){
+		return this.time;
+	}
+
+	/**
+	 * Moves the clock to a tick, so the next call to tick() runs the one after it
+	 * @param time the tick
+	 * @since 1.3
+	 */
+	public void setTime(long time){
+		this.time = time;
+	}
+
+	/**
+	 * Stops the worker threads. The engine can't be used after this
+	 * @since 1.3
+	 */
+	public void shutdown(){
+		if(this.pool!=null)
+			this.pool.shutdown();
+	}
+
+	/**
+	 * Steps a range of the objects through one phase, splitting the range up if it is too big
+	 */
+	private class PhaseTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private int from, to, phase;
+
+		private PhaseTask(int from, int to, int phase){
+			this.from = from;
+			this.to = to;
+			this.phase = phase;
+		}
+
+		protected void compute(){
+			if(this.to - this.from > chunk){
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new PhaseTask(this.from, middle, this.phase), new PhaseTask(middle, this.to, this.phase));
+				return;
+			}
+
+			if(this.phase==Simulator.PHASE_OUTPUT)
+				for(int i=this.from; i<this.to; i++)
+					consumers[i].clearOutputBuffers();
+			else
+				for(int i=this.from; i<this.to; i++)
+					consumers[i].clearInputBuffers();
+		}
+	}
+}
@@ -0,0 +1,288 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Topology;
+
+import DataTypes.*;
+import NetworkElements.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A network of routers and computers joined by links, built up one element at a time (usually by the
+ * TopologyLoader). Once it is built computeRoutes fills in every router's next hop table with the
+ * shortest path (fewest hops) to every other router, doing a breadth first search from each router.
+ * The searches are independent and each one only writes to its own router's table, so they are split
+ * across a pool of threads. The tables all share the network's map of router addresses, which keeps a
+ * network of thousands of routers from needing a hash table per router.
+ */
+public class Network {
+	private static final int MIN_CHUNK = 16; // the fewest routers we will give to one task
+
+	private ArrayList<ATMRouter> routers = new ArrayList<ATMRouter>(); // the routers, in the order they were added
+	private IntIntMap routerIndex = new IntIntMap(); // Key: router address, Value: index in routers
+	private ArrayList<Computer> computers = new ArrayList<Computer>(); // the computers, in the order they were added
+	private HashMap<String, Computer> computerNames = new HashMap<String, Computer>(); // the computers by name
+	private ArrayList<OtoOLink> links = new ArrayList<OtoOLink>(); // every link, including the ones to computers
+	private int[] routerLinks = new int[64]; // 4 ints for each link between routers: router, nic index, router, nic index
+	private int routerLinkCount = 0; // the number of links between routers
+
+	/**
+	 * Adds a router to the network
+	 * @param address the address of the router
+	 * @return the router
+	 * @since 1.3
+	 */
+	public ATMRouter addRouter(int address){
+		if(this.routerIndex.containsKey(address))
+			throw new IllegalArgumentException("Error (Network): There is already a router " + address);
+		ATMRouter router = new ATMRouter(address);
+		this.routerIndex.put(address, this.routers.size());
+		this.routers.add(router);
+		return router;
+	}
+
+	/**
+	 * Adds a computer to the network, linked to a router
+	 * @param name the name (address) of the computer
+	 * @param routerAddress the router the computer is linked to
+	 * @param bandwidth the bandwidth of the link in cells per tick
+	 * @param delay the delay of the link in ticks
+	 * @return the computer
+	 * @since 1.3
+	 */
+	public Computer addComputer(String name, int routerAddress, int bandwidth, int delay){
+		if(this.computerNames.containsKey(name))
+			throw new IllegalArgumentException("Error (Network): There is already a computer " + name);
+		ATMRouter router = this.getExistingRouter(routerAddress);
+		Computer computer = new Computer(name);
+		this.links.add(new OtoOLink(new ATMNIC(computer), new ATMNIC(router), bandwidth, delay));
+		this.computers.add(computer);
+		this.computerNames.put(name, computer);
+		return computer;
+	}
+
+	/**
+	 * Adds a link between two routers
+	 * @param a the address of the router at one end
+	 * @param b the address of the router at the other end
+	 * @param bandwidth the bandwidth of the link in cells per tick
+	 * @param delay the delay of the link in ticks
+	 * @return the link
+	 * @since 1.3
+	 */
+	public OtoOLink addLink(int a, int b, int bandwidth, int delay){
+		if(a==b)
+			throw new IllegalArgumentException("Error (Network): Router " + a + " can't be linked to itself");
+		ATMRouter routerA = this.getExistingRouter(a);
+		ATMRouter routerB = this.getExistingRouter(b);
+		OtoOLink link = new OtoOLink(new ATMNIC(routerA), new ATMNIC(routerB), bandwidth, delay);
+		this.links.add(link);
+
+		if(4*(this.routerLinkCount+1) > this.routerLinks.length)
+			this.routerLinks = Arrays.copyOf(this.routerLinks, this.routerLinks.length*2);
+		int at = 4*this.routerLinkCount++;
+		this.routerLinks[at] = this.routerIndex.get(a, -1);
+		this.routerLinks[at+1] = routerA.getNICs().size()-1;
+		this.routerLinks[at+2] = this.routerIndex.get(b, -1);
+		this.routerLinks[at+3] = routerB.getNICs().size()-1;
+		return link;
+	}
+
+	/**
+	 * Fills in every router's next hop table, using as many threads as there are processors
+	 * @since 1.3
+	 */
+	public void computeRoutes(){
+		this.computeRoutes(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Fills in every router's next hop table with the first hop on a shortest path to every router it
+	 * can reach. When there is more than one shortest path the one through the lowest numbered nic is used
+	 * @param threads the number of threads to use (1 runs everything on the calling thread)
+	 * @since 1.3
+	 */
+	public void computeRoutes(int threads){
+		int n = this.routers.size();
+
+		// put the links into one array of neighbours for each router (compressed sparse rows)
+		int[] start = new int[n+1]; // router i's neighbours are at start[i] to start[i+1]-1
+		for(int l=0; l<this.routerLinkCount; l++){
+			start[this.routerLinks[4*l]+1]++;
+			start[this.routerLinks[4*l+2]+1]++;
+		}
+		for(int i=0; i<n; i++)
+			start[i+1] += start[i];
+		int[] neighbour = new int[start[n]]; // the router at the other end
+		int[] port = new int[start[n]]; // the nic the link is on
+		int[] filled = Arrays.copyOf(start, n);
+		// the nics are added in link order too, so each router's neighbours end up in nic order (which is how ties are broken)
+		for(int l=0; l<this.routerLinkCount; l++){
+			int a = this.routerLinks[4*l], b = this.routerLinks[4*l+2];
+			neighbour[filled[a]] = b;
+			port[filled[a]++] = this.routerLinks[4*l+1];
+			neighbour[filled[b]] = a;
+			port[filled[b]++] = this.routerLinks[4*l+3];
+		}
+
+		int[] address = new int[n];
+		for(int i=0; i<n; i++)
+			address[i] = this.routers.get(i).getAddress();
+
+		if(threads > 1){
+			// a few tasks per thread so that a slow chunk doesn't hold up the rest
+			RouteTask all = new RouteTask(0, n, start, neighbour, port, address, Math.max(MIN_CHUNK, n / (threads*4)));
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try{
+				pool.invoke(all);
+			}
+			finally{
+				pool.shutdown();
+			}
+		}
+		else
+			new RouteTask(0, n, start, neighbour, port, address, Math.max(n, 1)).compute();
+	}
+
+	/**
+	 * Returns the router with a given address
+	 * @param address the address of the router
+	 * @return the router, or null if there isn't one
+	 * @since 1.3
+	 */
+	public ATMRouter getRouter(int address){
+		int index = this.routerIndex.get(address, -1);
+		if(index < 0)
+			return null;
+		return this.routers.get(index);
+	}
+
+	/**
+	 * Returns the computer with a given name
+	 * @param name the name of the computer
+	 * @return the computer, or null if there isn't one
+	 * @since 1.3
+	 */
+	public Computer getComputer(String name){
+		return this.computerNames.get(name);
+	}
+
+	/**
+	 * Returns the routers in the network
+	 * @return the routers, in the order they were added
+	 * @since 1.3
+	 */
+	public List<ATMRouter> getRouters(){
+		return Collections.unmodifiableList(this.routers);
+	}
+
+	/**
+	 * Returns the computers in the network
+	 * @return the computers, in the order they were added
+	 * @since 1.3
+	 */
+	public List<Computer> getComputers(){
+		return Collections.unmodifiableList(this.computers);
+	}
+
+	/**
+	 * Returns every router and computer in the network (the routers first)
+	 * @return the routers and computers
+	 * @since 1.3
+	 */
+	public List<IATMCellConsumer> getConsumers(){
+		ArrayList<IATMCellConsumer> ret = new ArrayList<IATMCellConsumer>(this.routers.size() + this.computers.size());
+		ret.addAll(this.routers);
+		ret.addAll(this.computers);
+		return ret;
+	}
+
+	/**
+	 * Returns every link in the network
+	 * @return the links, in the order they were added
+	 * @since 1.3
+	 */
+	public List<OtoOLink> getLinks(){
+		return Collections.unmodifiableList(this.links);
+	}
+
+	/**
+	 * Returns the router with a given address, or throws an exception if there isn't one
+	 * @since 1.3
+	 */
+	private ATMRouter getExistingRouter(int address){
+		ATMRouter router = this.getRouter(address);
+		if(router==null)
+			throw new IllegalArgumentException("Error (Network): There is no router " + address);
+		return router;
+	}
+
+	/**
+	 * Works out the routes for a range of the routers, splitting the range up if it is too big
+	 */
+	private class RouteTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private int from, to, chunk;
+		private int[] start, neighbour, port, address;
+
+		private RouteTask(int from, int to, int[] start, int[] neighbour, int[] port, int[] address, int chunk){
+			this.from = from;
+			this.to = to;
+			this.start = start;
+			this.neighbour = neighbour;
+			this.port = port;
+			this.address = address;
+			this.chunk = chunk;
+		}
+
+		protected void compute(){
+			if(this.to - this.from > this.chunk){
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new RouteTask(this.from, middle, this.start, this.neighbour, this.port, this.address, this.chunk),
+						new RouteTask(middle, this.to, this.start, this.neighbour, this.port, this.address, this.chunk));
+				return;
+			}
+
+			// the search arrays are shared by every router in the chunk, seen[] is stamped so it never needs clearing
+			int n = routers.size();
+			int[] queue = new int[n];
+			int[] firstHop = new int[n]; // the nic the source uses to get to each router
+			int[] seen = new int[n]; // source+1 if the router has been reached from the source
+			for(int source=this.from; source<this.to; source++){
+				int head = 0, tail = 0;
+				seen[source] = source+1;
+				for(int e=this.start[source]; e<this.start[source+1]; e++){
+					int next = this.neighbour[e];
+					if(seen[next]!=source+1){
+						seen[next] = source+1;
+						firstHop[next] = this.port[e];
+						queue[tail++] = next;
+					}
+				}
+				while(head < tail){
+					int at = queue[head++];
+					for(int e=this.start[at]; e<this.start[at+1]; e++){
+						int next = this.neighbour[e];
+						if(seen[next]!=source+1){
+							seen[next] = source+1;
+							firstHop[next] = firstHop[at];
+							queue[tail++] = next;
+						}
+					}
+				}
+
+				// every table shares the map from address to router index, so each one is just an array of nics
+				NextHopTable table = new NextHopTable(routerIndex);
+				for(int i=0; i<tail; i++)
+					table.put(this.address[queue[i]], firstHop[queue[i]]);
+				routers.get(source).setNextHopTable(table);
+			}
+		}
+	}
+}
@@ -0,0 +1,302 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Topology;
+
+import NetworkElements.*;
+import java.util.*;
+
+/**
+ * Splits the routers and computers of a network into a number of partitions of about the same size,
+ * cutting as few links as it can, so each partition can be simulated by its own thread (see
+ * PartitionedSimulator). Links with less delay than the minimum lookahead (by default, the links with no
+ * delay) are never cut: the elements at their ends are merged into one group first, as a cell crossing
+ * them has to arrive in the same tick it is sent. Computers go in the same group as their router. The groups are then split by growing each partition
+ * out from a seed (breadth first) until it has its share of the elements, and a few passes move the
+ * groups on the edges of the partitions to the neighbouring partition most of their links go to, as
+ * long as that cuts fewer links and keeps the partitions balanced. Everything is kept in int arrays,
+ * so a network of hundreds of thousands of elements is split in a fraction of a second.
+ */
+public class NetworkPartitioner {
+	private static final int REFINE_PASSES = 8; // the most passes made to improve the cut
+	private static final double IMBALANCE = 1.05; // how much bigger than its share a partition can get
+
+	private List<IATMCellConsumer> consumers; // the routers and computers, in the order the partitions are given in
+	private List<OtoOLink> links; // every link
+	private int minLookahead = 1; // links with less delay than this are never cut
+	private int cutLinks = 0; // the number of links cut by the last partition
+	private int lookahead = Integer.MAX_VALUE; // the smallest delay of the links cut by the last partition
+
+	/**
+	 * Creates a partitioner for a network
+	 * @param network the network to split
+	 * @since 1.3
+	 */
+	public NetworkPartitioner(Network network){
+		this(network.getConsumers(), network.getLinks());
+	}
+
+	/**
+	 * Creates a partitioner for a set of routers and computers
+	 * @param consumers the routers and computers
+	 * @param links every link between them
+	 * @since 1.3
+	 */
+	public NetworkPartitioner(List<? extends IATMCellConsumer> consumers, List<OtoOLink> links){
+		this.consumers = new ArrayList<IATMCellConsumer>(consumers);
+		this.links = links;
+	}
+
+	/**
+	 * Sets the smallest delay a link must have to be cut. A bigger value lets each partition run further
+	 * ahead before it has to wait for the others, at the cost of cutting links less freely
+	 * @param minLookahead the smallest delay in ticks (at least 1)
+	 * @since 1.3
+	 */
+	public void setMinLookahead(int minLookahead){
+		if(minLookahead < 1)
+			throw new IllegalArgumentException("Error (NetworkPartitioner): The lookahead must be at least 1 tick");
+		this.minLookahead = minLookahead;
+	}
+
+	/**
+	 * Splits the routers and computers into partitions
+	 * @param parts the number of partitions wanted
+	 * @return the partition of each router and computer, in the order they were given in (fewer
+	 * partitions are used if the groups that can't be split are too big)
+	 * @since 1.3
+	 */
+	public int[] partition(int parts){
+		if(parts < 1)
+			throw new IllegalArgumentException("Error (NetworkPartitioner): There must be at least 1 partition");
+		int n = this.consumers.size();
+		IdentityHashMap<IATMCellConsumer, Integer> index = new IdentityHashMap<IATMCellConsumer, Integer>(n*2);
+		for(int i=0; i<n; i++)
+			index.put(this.consumers.get(i), i);
+
+		// the elements at each end of each link, and merge the ones joined by links too fast to cut
+		int[] ends = new int[2*this.links.size()];
+		int[] delays = new int[this.links.size()];
+		int[] degree = new int[n];
+		int[] group = new int[n];
+		for(int i=0; i<n; i++)
+			group[i] = i;
+		for(int l=0; l<this.links.size(); l++){
+			OtoOLink link = this.links.get(l);
+			Integer a = index.get(link.getR1NIC().getParent()), b = index.get(link.getR2NIC().getParent());
+			if(a==null || b==null)
+				throw new IllegalArgumentException("Error (NetworkPartitioner): A link goes to an element that isn't being partitioned");
+			ends[2*l] = a;
+			ends[2*l+1] = b;
+			delays[l] = link.getDelay();
+			degree[a]++;
+			degree[b]++;
+			if(delays[l] < this.minLookahead)
+				union(group, a, b);
+		}
+		// cutting the only link of an element (a computer) never saves anything, so it stays with its router
+		for(int l=0; l<delays.length; l++)
+			if(degree[ends[2*l]]==1 || degree[ends[2*l+1]]==1)
+				union(group, ends[2*l], ends[2*l+1]);
+
+		// number the groups, and count the elements in each
+		int[] groupOf = new int[n];
+		int[] number = new int[n];
+		Arrays.fill(number, -1);
+		int groups = 0;
+		for(int i=0; i<n; i++){
+			int root = find(group, i);
+			if(number[root] < 0)
+				number[root] = groups++;
+			groupOf[i] = number[root];
+		}
+		int[] weight = new int[groups];
+		for(int i=0; i<n; i++)
+			weight[groupOf[i]]++;
+
+		// the links between groups, as a list of neighbours for each group (compressed sparse rows)
+		int[] start = new int[groups+1];
+		for(int l=0; l<delays.length; l++){
+			int a = groupOf[ends[2*l]], b = groupOf[ends[2*l+1]];
+			if(a!=b){
+				start[a+1]++;
+				start[b+1]++;
+			}
+		}
+		for(int g=0; g<groups; g++)
+			start[g+1] += start[g];
+		int[] neighbour = new int[start[groups]];
+		int[] filled = Arrays.copyOf(start, groups);
+		for(int l=0; l<delays.length; l++){
+			int a = groupOf[ends[2*l]], b = groupOf[ends[2*l+1]];
+			if(a!=b){
+				neighbour[filled[a]++] = b;
+				neighbour[filled[b]++] = a;
+			}
+		}
+
+		int[] part = this.grow(parts, weight, start, neighbour);
+		this.refine(parts, part, weight, start, neighbour);
+
+		int[] result = new int[n];
+		for(int i=0; i<n; i++)
+			result[i] = part[groupOf[i]];
+		this.cutLinks = 0;
+		this.lookahead = Integer.MAX_VALUE;
+		for(int l=0; l<delays.length; l++)
+			if(result[ends[2*l]]!=result[ends[2*l+1]]){
+				this.cutLinks++;
+				this.lookahead = Math.min(this.lookahead, delays[l]);
+			}
+		return result;
+	}
+
+	/**
+	 * Returns the number of links the last partition cut
+	 * @return the number of links between partitions
+	 * @since 1.3
+	 */
+	public int getCutLinks(){
+		return this.cutLinks;
+	}
+
+	/**
+	 * Returns the smallest delay of the links the last partition cut, which is how far each partition
+	 * can run ahead of the others
+	 * @return the lookahead in ticks, or Integer.MAX_VALUE if no links were cut
+	 * @since 1.3
+	 */
+	public int getLookahead(){
+		return this.lookahead;
+	}
+
+	/**
+	 * Grows each partition breadth first from a seed until it has its share of the elements
+	 * @since 1.3
+	 */
+	private int[] grow(int parts, int[] weight, int[] start, int[] neighbour){
+		int groups = weight.length;
+		int[] part = new int[groups];
+		Arrays.fill(part, -1);
+		long remaining = 0;
+		for(int g=0; g<groups; g++)
+			remaining += weight[g];
+
+		int[] queue = new int[groups];
+		int seed = 0; // the lowest group that might not have a partition yet
+		int next = -1; // a group next to the last partition made, to start the next one from
+		for(int p=0; p<parts && seed<groups; p++){
+			// each partition's share of what is left, so a big group doesn't starve the last partitions
+			long target = (remaining + (parts-p) - 1) / (parts-p);
+			long size = 0;
+			int head = 0, tail = 0;
+			while(size < target){
+				if(head==tail){
+					// start next to the last partition if we can, otherwise from the lowest group left
+					int g = next;
+					next = -1;
+					if(g < 0 || part[g] >= 0){
+						while(seed < groups && part[seed]>=0)
+							seed++;
+						if(seed==groups)
+							break;
+						g = seed;
+					}
+					part[g] = p;
+					queue[tail++] = g;
+					size += weight[g];
+					continue;
+				}
+				int g = queue[head++];
+				for(int e=start[g]; e<start[g+1] && size<target; e++){
+					int h = neighbour[e];
+					if(part[h] < 0){
+						part[h] = p;
+						queue[tail++] = h;
+						size += weight[h];
+					}
+				}
+			}
+			remaining -= size;
+			for(int i=Math.max(0, head-1); i<tail && next<0; i++)
+				for(int e=start[queue[i]]; e<start[queue[i]+1]; e++)
+					if(part[neighbour[e]] < 0){
+						next = neighbour[e];
+						break;
+					}
+		}
+		// anything left over goes in the last partition
+		for(int g=0; g<groups; g++)
+			if(part[g] < 0)
+				part[g] = parts-1;
+		return part;
+	}
+
+	/**
+	 * Moves the groups on the edges of the partitions to the partition most of their links go to, when
+	 * that cuts fewer links and keeps the partitions balanced
+	 * @since 1.3
+	 */
+	private void refine(int parts, int[] part, int[] weight, int[] start, int[] neighbour){
+		long[] size = new long[parts];
+		long total = 0;
+		for(int g=0; g<part.length; g++){
+			size[part[g]] += weight[g];
+			total += weight[g];
+		}
+		long max = (long) Math.ceil(IMBALANCE * total / parts);
+		long min = (long) Math.floor(total / parts / IMBALANCE);
+		int[] links = new int[parts]; // the links from the group being looked at to each partition
+		for(int pass=0; pass<REFINE_PASSES; pass++){
+			int moved = 0;
+			for(int g=0; g<part.length; g++){
+				int own = part[g];
+				for(int e=start[g]; e<start[g+1]; e++)
+					links[part[neighbour[e]]]++;
+				int best = own;
+				for(int e=start[g]; e<start[g+1]; e++){
+					int p = part[neighbour[e]];
+					if(links[p] > links[best] && size[p] + weight[g] <= max && size[own] - weight[g] >= min)
+						best = p;
+				}
+				for(int e=start[g]; e<start[g+1]; e++)
+					links[part[neighbour[e]]] = 0;
+				if(best!=own){
+					part[g] = best;
+					size[own] -= weight[g];
+					size[best] += weight[g];
+					moved++;
+				}
+			}
+			if(moved==0)
+				break;
+		}
+	}
+
+	/**
+	 * Returns the group an element is in (halving the path to it as it goes)
+	 * @since 1.3
+	 */
+	private static int find(int[] group, int i){
+		while(group[i]!=i){
+			group[i] = group[group[i]];
+			i = group[i];
+		}
+		return i;
+	}
+
+	/**
+	 * Merges the groups of two elements
+	 * @since 1.3
+	 */
+	private static void union(int[] group, int a, int b){
+		a = find(group, a);
+		b = find(group, b);
+		if(a!=b)
+			group[Math.max(a, b)] = Math.min(a, b);
+	}
+}
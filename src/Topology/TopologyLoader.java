@@ -0,0 +1,278 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Topology;
+
+import DropPolicies.*;
+import NetworkElements.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Builds a Network from a topology file and works out its routes. The file has one element per line,
+ * and anything after a # is a comment:
+ * <pre>
+ * router &lt;address&gt; [drop=&lt;policy&gt;] [queue=fifo|wfq]
+ * router &lt;first address&gt;..&lt;last address&gt; [drop=&lt;policy&gt;] [queue=fifo|wfq]
+ * link &lt;address&gt; &lt;address&gt; [bandwidth=&lt;cells per tick&gt;] [delay=&lt;ticks&gt;]
+ * computer &lt;name&gt; &lt;router address&gt; [bandwidth=&lt;cells per tick&gt;] [delay=&lt;ticks&gt;] [drop=&lt;policy&gt;]
+ * </pre>
+ * Routers have to be declared before they are linked. The drop policies are the names in the
+ * DropPolicyRegistry, and links default to 10 cells a tick with no delay (like the OtoOLink constructor).
+ * A router's drop and queue settings apply to all of its nics, so they are set once the file has been read.
+ */
+public class TopologyLoader {
+	private Network network = new Network(); // the network being built
+	private String source; // what we are reading, for the error messages
+	private int line = 0; // the line we are reading
+	private ArrayList<RouterSettings> routerSettings = new ArrayList<RouterSettings>(); // the drop and queue settings to apply at the end
+
+	/**
+	 * Reads a topology file and builds the network, with its routes worked out
+	 * @param file the path of the topology file
+	 * @return the network
+	 * @throws IOException if the file can't be read
+	 * @since 1.3
+	 */
+	public static Network load(String file) throws IOException{
+		try(Reader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)){
+			return load(reader, file);
+		}
+	}
+
+	/**
+	 * Reads a topology and builds the network, with its routes worked out
+	 * @param reader where to read the topology from
+	 * @param source the name of the topology (used in error messages)
+	 * @return the network
+	 * @throws IOException if the topology can't be read
+	 * @since 1.3
+	 */
+	public static Network load(Reader reader, String source) throws IOException{
+		TopologyLoader loader = new TopologyLoader(source);
+		loader.read(reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader));
+		loader.network.computeRoutes();
+		return loader.network;
+	}
+
+	/**
+	 * Creates a loader for one topology
+	 * @since 1.3
+	 */
+	private TopologyLoader(String source){
+		this.source = source;
+	}
+
+	/**
+	 * Reads every line of the topology
+	 * @since 1.3
+	 */
+	private void read(BufferedReader reader) throws IOException{
+		String text;
+		while((text = reader.readLine())!=null){
+			this.line++;
+			int comment = text.indexOf('#');
+			if(comment >= 0)
+				text = text.substring(0, comment);
+			String[] words = text.trim().split("\\s+");
+			if(words[0].isEmpty())
+				continue;
+
+			switch(words[0]){
+			case "router":
+				this.readRouter(words);
+				break;
+			case "link":
+				this.readLink(words);
+				break;
+			case "computer":
+				this.readComputer(words);
+				break;
+			default:
+				throw this.error("unknown element '" + words[0] + "'");
+			}
+		}
+
+		for(RouterSettings settings : this.routerSettings){
+			if(settings.drop!=null)
+				settings.router.useDropPolicy(settings.drop);
+			if("wfq".equals(settings.queue))
+				settings.router.useWFQ();
+		}
+	}
+
+	/**
+	 * Reads a router line
+	 * @since 1.3
+	 */
+	private void readRouter(String[] words){
+		if(words.length < 2)
+			throw this.error("a router needs an address");
+		String drop = null, queue = null;
+		for(int i=2; i<words.length; i++){
+			String value = this.option(words[i]);
+			if(words[i].startsWith("drop="))
+				drop = this.dropPolicy(value);
+			else if(words[i].startsWith("queue=")){
+				if(!value.equals("fifo") && !value.equals("wfq"))
+					throw this.error("the queue has to be fifo or wfq, not '" + value + "'");
+				queue = value;
+			}
+			else
+				throw this.error("a router can't have the option '" + words[i] + "'");
+		}
+
+		// a range of routers, all with the same settings
+		int first, last;
+		int dots = words[1].indexOf("..");
+		if(dots >= 0){
+			first = this.number(words[1].substring(0, dots));
+			last = this.number(words[1].substring(dots+2));
+			if(last < first)
+				throw this.error("the range " + words[1] + " is backwards");
+		}
+		else
+			first = last = this.number(words[1]);
+
+		for(long address=first; address<=last; address++){
+			if(this.network.getRouter((int) address)!=null)
+				throw this.error("there is already a router " + address);
+			ATMRouter router = this.network.addRouter((int) address);
+			if(drop!=null || queue!=null)
+				this.routerSettings.add(new RouterSettings(router, drop, queue));
+		}
+	}
+
+	/**
+	 * Reads a link line
+	 * @since 1.3
+	 */
+	private void readLink(String[] words){
+		if(words.length < 3)
+			throw this.error("a link needs the addresses of the routers at each end");
+		int a = this.existingRouter(words[1]);
+		int b = this.existingRouter(words[2]);
+		if(a==b)
+			throw this.error("router " + a + " can't be linked to itself");
+		int[] settings = this.linkSettings(words, 3, null);
+		this.network.addLink(a, b, settings[0], settings[1]);
+	}
+
+	/**
+	 * Reads a computer line
+	 * @since 1.3
+	 */
+	private void readComputer(String[] words){
+		if(words.length < 3)
+			throw this.error("a computer needs a name and the address of its router");
+		if(this.network.getComputer(words[1])!=null)
+			throw this.error("there is already a computer " + words[1]);
+		int router = this.existingRouter(words[2]);
+		String[] drop = new String[1];
+		int[] settings = this.linkSettings(words, 3, drop);
+		Computer computer = this.network.addComputer(words[1], router, settings[0], settings[1]);
+		if(drop[0]!=null)
+			computer.useDropPolicy(drop[0]);
+	}
+
+	/**
+	 * Reads the bandwidth and delay options of a link (and the drop policy of a computer)
+	 * @return the bandwidth and delay
+	 * @since 1.3
+	 */
+	private int[] linkSettings(String[] words, int from, String[] drop){
+		int[] settings = {10, 0};
+		for(int i=from; i<words.length; i++){
+			String value = this.option(words[i]);
+			if(words[i].startsWith("bandwidth=")){
+				settings[0] = this.number(value);
+				if(settings[0] < 1)
+					throw this.error("the bandwidth must be at least 1 cell a tick");
+			}
+			else if(words[i].startsWith("delay=")){
+				settings[1] = this.number(value);
+				if(settings[1] < 0)
+					throw this.error("the delay can't be negative");
+			}
+			else if(drop!=null && words[i].startsWith("drop="))
+				drop[0] = this.dropPolicy(value);
+			else
+				throw this.error("unknown option '" + words[i] + "'");
+		}
+		return settings;
+	}
+
+	/**
+	 * Returns the value of a name=value option
+	 * @since 1.3
+	 */
+	private String option(String word){
+		int equals = word.indexOf('=');
+		if(equals < 0 || equals==word.length()-1)
+			throw this.error("'" + word + "' should be name=value");
+		return word.substring(equals+1);
+	}
+
+	/**
+	 * Checks that a drop policy is in the DropPolicyRegistry
+	 * @since 1.3
+	 */
+	private String dropPolicy(String name){
+		if(!DropPolicyRegistry.getNames().contains(name))
+			throw this.error("there is no drop policy called '" + name + "'");
+		return name;
+	}
+
+	/**
+	 * Reads the address of a router that has already been declared
+	 * @since 1.3
+	 */
+	private int existingRouter(String word){
+		int address = this.number(word);
+		if(this.network.getRouter(address)==null)
+			throw this.error("router " + address + " hasn't been declared");
+		return address;
+	}
+
+	/**
+	 * Reads a number
+	 * @since 1.3
+	 */
+	private int number(String word){
+		try{
+			return Integer.parseInt(word);
+		}
+		catch(NumberFormatException e){
+			throw this.error("'" + word + "' isn't a number");
+		}
+	}
+
+	/**
+	 * Makes the exception for a mistake on the current line
+	 * @since 1.3
+	 */
+	private IllegalArgumentException error(String message){
+		return new IllegalArgumentException("Error (TopologyLoader): " + this.source + " line " + this.line + ": " + message);
+	}
+
+	/**
+	 * The settings for a router's nics, which are applied once all of its links have been added
+	 */
+	private static class RouterSettings {
+		private ATMRouter router;
+		private String drop; // the drop policy, or null to leave it as it is
+		private String queue; // fifo or wfq, or null to leave it as it is
+
+		private RouterSettings(ATMRouter router, String drop, String queue){
+			this.router = router;
+			this.drop = drop;
+			this.queue = queue;
+		}
+	}
+}
@@ -0,0 +1,34 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Tracing;
+
+/**
+ * What happened to a cell in a trace record. The ordinal is what is stored in the record, so new types
+ * can only be added at the end
+ */
+public enum TraceEventType {
+	NONE, // an empty record (the unwritten end of a segment)
+	ENQUEUE, // a nic put the cell in its output buffer (value: the cells already in the cell's buffer)
+	DROP, // a nic dropped the cell (value: the cells in the cell's buffer, detail: the DropReason)
+	FORWARD, // a nic sent the cell onto its link (value: the ticks it waited in the output buffer)
+	DELIVER; // the cell reached the end of its VC (value: the ticks since it was sent)
+
+	private static final TraceEventType[] types = values(); // the types by ordinal, without copying the array each time
+
+	/**
+	 * Returns the type stored in a record
+	 * @param code the ordinal of the type
+	 * @return the type, or NONE if the code isn't a type
+	 * @since 1.3
+	 */
+	public static TraceEventType fromCode(int code){
+		if(code < 0 || code >= types.length)
+			return NONE;
+		return types[code];
+	}
+}
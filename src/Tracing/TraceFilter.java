@@ -0,0 +1,142 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Tracing;
+
+import Metrics.*;
+
+/**
+ * Picks out the trace records to look at: a range of ticks, and optionally one router, nic, VC or
+ * cell, and some types of event (and drop reasons). A filter can be parsed from text like
+ * "time=100..200 node=9 type=drop,forward reason=epd", which is what the TraceTool takes.
+ */
+public class TraceFilter {
+	private static final int ANY = Integer.MIN_VALUE; // a field that isn't filtered on
+
+	private long fromTime = Long.MIN_VALUE, toTime = Long.MAX_VALUE; // the range of ticks (inclusive)
+	private int node = ANY, nic = ANY, vc = ANY, traceID = ANY; // the fields that have to match
+	private int types = ~0; // a bit for each TraceEventType that matches
+	private int reasons = ~0; // a bit for each DropReason that matches (for drops)
+
+	/**
+	 * Creates a filter that matches every record
+	 * @since 1.3
+	 */
+	public TraceFilter(){}
+
+	/**
+	 * Creates a filter from its terms, e.g. {"time=100..200", "type=drop"}. The terms are time=from..to
+	 * (either end can be left off), node=, nic=, vc=, trace=, type= (event types, separated by commas)
+	 * and reason= (drop reasons, separated by commas)
+	 * @param terms the terms
+	 * @return the filter
+	 * @since 1.3
+	 */
+	public static TraceFilter parse(String... terms){
+		TraceFilter filter = new TraceFilter();
+		for(String term : terms){
+			int equals = term.indexOf('=');
+			if(equals < 0)
+				throw new IllegalArgumentException("Error (TraceFilter): '" + term + "' should be name=value");
+			String name = term.substring(0, equals), value = term.substring(equals+1);
+			switch(name){
+			case "time": {
+				int dots = value.indexOf("..");
+				if(dots < 0)
+					filter.setTime(Long.parseLong(value), Long.parseLong(value));
+				else
+					filter.setTime(dots==0 ? Long.MIN_VALUE : Long.parseLong(value.substring(0, dots)),
+							dots+2==value.length() ? Long.MAX_VALUE : Long.parseLong(value.substring(dots+2)));
+				break;
+			}
+			case "node":
+				filter.node = Integer.parseInt(value);
+				break;
+			case "nic":
+				filter.nic = Integer.parseInt(value);
+				break;
+			case "vc":
+				filter.vc = Integer.parseInt(value);
+				break;
+			case "trace":
+				filter.traceID = Integer.parseInt(value);
+				break;
+			case "type":
+				filter.types = 0;
+				for(String type : value.split(","))
+					filter.types |= 1 << TraceEventType.valueOf(type.trim().toUpperCase()).ordinal();
+				break;
+			case "reason":
+				filter.reasons = 0;
+				for(String reason : value.split(","))
+					filter.reasons |= 1 << DropReason.valueOf(reason.trim().toUpperCase()).ordinal();
+				break;
+			default:
+				throw new IllegalArgumentException("Error (TraceFilter): There is no filter called '" + name + "'");
+			}
+		}
+		return filter;
+	}
+
+	/**
+	 * Only matches records in a range of ticks
+	 * @param fromTime the first tick
+	 * @param toTime the last tick
+	 * @return this filter
+	 * @since 1.3
+	 */
+	public TraceFilter setTime(long fromTime, long toTime){
+		this.fromTime = fromTime;
+		this.toTime = toTime;
+		return this;
+	}
+
+	/**
+	 * Only matches records of some types of event
+	 * @param types the types
+	 * @return this filter
+	 * @since 1.3
+	 */
+	public TraceFilter setTypes(TraceEventType... types){
+		this.types = 0;
+		for(TraceEventType type : types)
+			this.types |= 1 << type.ordinal();
+		return this;
+	}
+
+	/**
+	 * Only matches the records of one cell
+	 * @param traceID the cell's trace ID
+	 * @return this filter
+	 * @since 1.3
+	 */
+	public TraceFilter setTraceID(int traceID){
+		this.traceID = traceID;
+		return this;
+	}
+
+	/**
+	 * Returns if the reader's current record matches
+	 * @param record the reader, on the record to check
+	 * @return true if the record matches
+	 * @since 1.3
+	 */
+	public boolean matches(TraceReader record){
+		int type = record.getTypeCode();
+		if((this.types & (1 << type))==0)
+			return false;
+		if(type==TraceEventType.DROP.ordinal() && (this.reasons & (1 << record.getDetail()))==0)
+			return false;
+		long time = record.getTime();
+		if(time < this.fromTime || time > this.toTime)
+			return false;
+		return (this.node==ANY || record.getNode()==this.node)
+				&& (this.nic==ANY || record.getNIC()==this.nic)
+				&& (this.vc==ANY || record.getVC()==this.vc)
+				&& (this.traceID==ANY || record.getTraceID()==this.traceID);
+	}
+}
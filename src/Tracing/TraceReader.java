@@ -0,0 +1,189 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Tracing;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.List;
+
+/**
+ * Reads the records written by a TraceRecorder, one segment at a time through a read only memory map,
+ * so a trace of any size can be read without putting it on the heap. The reader is a cursor: next()
+ * moves it to the next record, and the getters read that record's fields straight from the map.
+ * Empty records (the unwritten end of a segment) are skipped. A reader can be limited to a range of
+ * segments, so several threads can each read part of a trace.
+ */
+public class TraceReader implements Closeable {
+	private List<Path> files; // every segment in the trace
+	private int segment; // the segment being read
+	private int lastSegment; // the segment after the last one to read
+	private ByteBuffer buffer = null; // the segment being read
+	private int offset = -TraceRecorder.RECORD_BYTES; // where the current record is in the segment
+
+	/**
+	 * Opens every segment of a trace
+	 * @param directory the directory the trace was recorded in
+	 * @throws IOException if the directory can't be read
+	 * @since 1.3
+	 */
+	public TraceReader(String directory) throws IOException{
+		this(TraceRecorder.segmentFiles(Paths.get(directory)), 0, -1);
+	}
+
+	/**
+	 * Opens a range of the segments of a trace
+	 * @param files the segments of the trace, from getSegments
+	 * @param firstSegment the first segment to read
+	 * @param lastSegment the segment after the last one to read (-1 for every segment)
+	 * @since 1.3
+	 */
+	public TraceReader(List<Path> files, int firstSegment, int lastSegment){
+		this.files = files;
+		this.segment = firstSegment - 1;
+		this.lastSegment = lastSegment < 0 ? files.size() : Math.min(lastSegment, files.size());
+	}
+
+	/**
+	 * Returns the segment files of a trace
+	 * @param directory the directory the trace was recorded in
+	 * @return the segments, in order
+	 * @throws IOException if the directory can't be read
+	 * @since 1.3
+	 */
+	public static List<Path> getSegments(String directory) throws IOException{
+		return TraceRecorder.segmentFiles(Paths.get(directory));
+	}
+
+	/**
+	 * Moves to the next record
+	 * @return false if there are no more records
+	 * @throws IOException if a segment can't be read
+	 * @since 1.3
+	 */
+	public boolean next() throws IOException{
+		while(true){
+			this.offset += TraceRecorder.RECORD_BYTES;
+			if(this.buffer==null || this.offset + TraceRecorder.RECORD_BYTES > this.buffer.limit()){
+				if(!this.nextSegment())
+					return false;
+				continue;
+			}
+			if(this.buffer.get(this.offset+24)!=0)
+				return true;
+		}
+	}
+
+	/**
+	 * Returns the tick of the current record
+	 * @return the tick
+	 * @since 1.3
+	 */
+	public long getTime(){
+		return this.buffer.getLong(this.offset);
+	}
+
+	/**
+	 * Returns the router the current record is from
+	 * @return the router's address, or -1 for a computer
+	 * @since 1.3
+	 */
+	public int getNode(){
+		return this.buffer.getInt(this.offset+8);
+	}
+
+	/**
+	 * Returns the nic the current record is from
+	 * @return the ID of the nic
+	 * @since 1.3
+	 */
+	public int getNIC(){
+		return this.buffer.getInt(this.offset+12);
+	}
+
+	/**
+	 * Returns the VC of the cell in the current record
+	 * @return the VC
+	 * @since 1.3
+	 */
+	public int getVC(){
+		return this.buffer.getInt(this.offset+16);
+	}
+
+	/**
+	 * Returns the trace ID of the cell in the current record
+	 * @return the trace ID
+	 * @since 1.3
+	 */
+	public int getTraceID(){
+		return this.buffer.getInt(this.offset+20);
+	}
+
+	/**
+	 * Returns the ordinal of the TraceEventType of the current record (cheaper than getType)
+	 * @return the type's ordinal
+	 * @since 1.3
+	 */
+	public int getTypeCode(){
+		return this.buffer.get(this.offset+24);
+	}
+
+	/**
+	 * Returns what happened to the cell in the current record
+	 * @return the type of event
+	 * @since 1.3
+	 */
+	public TraceEventType getType(){
+		return TraceEventType.fromCode(this.getTypeCode());
+	}
+
+	/**
+	 * Returns the detail of the current record (the DropReason of a drop)
+	 * @return the detail
+	 * @since 1.3
+	 */
+	public int getDetail(){
+		return this.buffer.get(this.offset+25);
+	}
+
+	/**
+	 * Returns the value of the current record (see TraceEventType)
+	 * @return the value
+	 * @since 1.3
+	 */
+	public int getValue(){
+		return this.buffer.getInt(this.offset+28);
+	}
+
+	/**
+	 * Stops reading
+	 * @since 1.3
+	 */
+	public void close(){
+		this.buffer = null;
+		this.segment = this.lastSegment;
+	}
+
+	/**
+	 * Maps the next segment
+	 * @since 1.3
+	 */
+	private boolean nextSegment() throws IOException{
+		this.buffer = null;
+		if(++this.segment >= this.lastSegment)
+			return false;
+		try(FileChannel channel = FileChannel.open(this.files.get(this.segment), StandardOpenOption.READ)){
+			// a whole number of records, in case the segment is being written
+			long size = channel.size() / TraceRecorder.RECORD_BYTES * TraceRecorder.RECORD_BYTES;
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		this.offset = -TraceRecorder.RECORD_BYTES;
+		return true;
+	}
+}
@@ -0,0 +1,317 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Tracing;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Records what happens to every cell (enqueued, dropped, forwarded, delivered) as fixed size binary
+ * records, for finding out afterwards how a network got congested. Each record is 32 bytes, little endian:
+ * <pre>
+ * 0  long  time     the tick
+ * 8  int   node     the router's address (-1 for a computer)
+ * 12 int   nic      the ID of the nic
+ * 16 int   vc       the VC the cell was on
+ * 20 int   traceID  the cell's trace ID
+ * 24 byte  type     the TraceEventType
+ * 25 byte  detail   the DropReason of a drop (0 otherwise)
+ * 26 short          unused
+ * 28 int   value    depends on the type (see TraceEventType)
+ * </pre>
+ * The records go into segment files (cells-000000.trace, cells-000001.trace, ...) of a fixed number of
+ * records, which are memory mapped, so recording an event is a few stores into the page cache. A
+ * background thread maps the next segment before it is needed and forces each full segment to disk, so
+ * the threads recording events never wait for the file system. Any number of threads can record at once:
+ * each record's place is handed out by one atomic counter, so records are in the order they were handed
+ * out (which is time order within a thread). Records of a partly written segment are zero (NONE), which readers
+ * skip, so the last segment is left at its full size when the recorder is closed (a file can't be cut
+ * short on Windows while it is still mapped, and a mapping only goes away when it is garbage collected).
+ *
+ * The network elements record to the default recorder, if one has been set.
+ */
+public class TraceRecorder implements Closeable {
+	public static final int RECORD_BYTES = 32; // the size of a record
+	static final String PREFIX = "cells-", SUFFIX = ".trace"; // the segment file names are PREFIX + number + SUFFIX
+	private static final int DEFAULT_SEGMENT_RECORDS = 1 << 21; // 64MB segments
+	private static volatile TraceRecorder defaultRecorder = null; // what the network elements record to
+
+	private Path directory; // where the segments are written
+	private int shift; // log2 of the number of records in a segment
+	private long mask; // the record number within a segment
+	private AtomicLong next = new AtomicLong(0); // the number of the next record to hand out
+	private volatile Segment current = null; // the segment the last record went into
+	private HashMap<Long, Segment> open = new HashMap<Long, Segment>(); // the segments that are mapped and not yet full
+	private ExecutorService flusher; // maps the next segments and forces the full ones
+	private boolean closed = false; // has the recorder been closed?
+
+	/**
+	 * Starts recording into a directory, in 64MB segments. Any segments already in the directory are deleted
+	 * @param directory the directory to write the segments to (made if it doesn't exist)
+	 * @throws IOException if the directory can't be written
+	 * @since 1.3
+	 */
+	public TraceRecorder(String directory) throws IOException{
+		this(directory, DEFAULT_SEGMENT_RECORDS);
+	}
+
+	/**
+	 * Starts recording into a directory. Any segments already in the directory are deleted
+	 * @param directory the directory to write the segments to (made if it doesn't exist)
+	 * @param segmentRecords the number of records in a segment (a power of 2)
+	 * @throws IOException if the directory can't be written
+	 * @since 1.3
+	 */
+	public TraceRecorder(String directory, int segmentRecords) throws IOException{
+		if(segmentRecords < 1 || Integer.bitCount(segmentRecords)!=1 || (long) segmentRecords * RECORD_BYTES > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Error (TraceRecorder): The number of records in a segment must be a power of 2, and under 64M");
+		this.directory = Paths.get(directory);
+		this.shift = Integer.numberOfTrailingZeros(segmentRecords);
+		this.mask = segmentRecords - 1;
+		Files.createDirectories(this.directory);
+		for(Path file : segmentFiles(this.directory))
+			Files.delete(file);
+
+		this.flusher = Executors.newSingleThreadExecutor(new ThreadFactory(){
+			public Thread newThread(Runnable task){
+				Thread thread = new Thread(task, "TraceRecorder flusher");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.segment(0);
+	}
+
+	/**
+	 * Sets the recorder that the network elements record to
+	 * @param recorder the recorder, or null to stop recording
+	 * @since 1.3
+	 */
+	public static void setDefault(TraceRecorder recorder){
+		defaultRecorder = recorder;
+	}
+
+	/**
+	 * Returns the recorder that the network elements record to
+	 * @return the recorder, or null if nothing is being recorded
+	 * @since 1.3
+	 */
+	public static TraceRecorder getDefault(){
+		return defaultRecorder;
+	}
+
+	/**
+	 * Records an event
+	 * @param time the tick
+	 * @param node the router's address (-1 for a computer)
+	 * @param nic the ID of the nic
+	 * @param vc the VC the cell was on
+	 * @param traceID the cell's trace ID
+	 * @param type what happened to the cell
+	 * @param detail the DropReason of a drop (0 otherwise)
+	 * @param value depends on the type (see TraceEventType)
+	 * @since 1.3
+	 */
+	public void record(long time, int node, int nic, int vc, int traceID, TraceEventType type, int detail, int value){
+		long index = this.next.getAndIncrement();
+		long number = index >>> this.shift;
+		Segment segment = this.current;
+		if(segment==null || segment.number!=number)
+			segment = this.segment(number);
+
+		ByteBuffer buffer = segment.buffer;
+		int offset = (int) (index & this.mask) * RECORD_BYTES;
+		buffer.putLong(offset, time);
+		buffer.putInt(offset+8, node);
+		buffer.putInt(offset+12, nic);
+		buffer.putInt(offset+16, vc);
+		buffer.putInt(offset+20, traceID);
+		buffer.put(offset+24, (byte) type.ordinal());
+		buffer.put(offset+25, (byte) detail);
+		buffer.putInt(offset+28, value);
+		if(segment.written.incrementAndGet()==this.mask+1)
+			this.finished(segment);
+	}
+
+	/**
+	 * Returns the number of events recorded so far
+	 * @return the number of records
+	 * @since 1.3
+	 */
+	public long getRecordCount(){
+		return this.next.get();
+	}
+
+	/**
+	 * Waits for the segments to be written, and deletes the ones made ahead that nothing was written to.
+	 * Nothing should be recording while the recorder is closed. If it is the default recorder, recording stops
+	 * @throws IOException if a segment can't be written
+	 * @since 1.3
+	 */
+	public void close() throws IOException{
+		synchronized(this){
+			if(this.closed)
+				return;
+			this.closed = true;
+		}
+		if(defaultRecorder==this)
+			defaultRecorder = null;
+		this.flusher.shutdown();
+		try{
+			this.flusher.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		}
+		catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Error (TraceRecorder): Interrupted while waiting for the segments to be written");
+		}
+
+		long records = this.next.get();
+		long last = records >>> this.shift;
+		synchronized(this){
+			for(Segment segment : this.open.values())
+				segment.buffer.force();
+			this.open.clear();
+			this.current = null;
+		}
+		// the flusher may have made segments that nothing was written to
+		for(Path file : segmentFiles(this.directory)){
+			long number = segmentNumber(file);
+			if(number > last || (number==last && (records & this.mask)==0)){
+				try{
+					Files.delete(file);
+				}
+				catch(IOException e){
+					// it is still mapped (only a problem on Windows), and every record in it is NONE anyway
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the segment files in a directory, in order
+	 * @param directory the directory
+	 * @return the paths of the segments
+	 * @throws IOException if the directory can't be read
+	 * @since 1.3
+	 */
+	static List<Path> segmentFiles(Path directory) throws IOException{
+		ArrayList<Path> files = new ArrayList<Path>();
+		try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)){
+			for(Path file : stream)
+				files.add(file);
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	/**
+	 * Returns the number of a segment from its file name
+	 * @since 1.3
+	 */
+	private static long segmentNumber(Path file){
+		String name = file.getFileName().toString();
+		return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+	}
+
+	/**
+	 * Returns a segment, mapping it if the flusher hasn't already, and asks the flusher to map the one after it
+	 * @since 1.3
+	 */
+	private synchronized Segment segment(long number){
+		if(this.closed)
+			throw new IllegalStateException("Error (TraceRecorder): The recorder has been closed");
+		Segment segment = this.open.get(number);
+		if(segment==null){
+			segment = this.map(number);
+			this.open.put(number, segment);
+		}
+		if(this.current==null || number > this.current.number){
+			this.current = segment;
+			final long following = number+1;
+			this.flusher.execute(new Runnable(){
+				public void run(){
+					TraceRecorder.this.prepare(following);
+				}
+			});
+		}
+		return segment;
+	}
+
+	/**
+	 * Maps a segment ahead of the records reaching it (on the flusher thread)
+	 * @since 1.3
+	 */
+	private void prepare(long number){
+		synchronized(this){
+			if(this.closed || this.open.containsKey(number) || (this.current!=null && number <= this.current.number))
+				return;
+		}
+		// map outside the lock, so the recording threads aren't held up by the file system
+		Segment segment = this.map(number);
+		synchronized(this){
+			if(!this.open.containsKey(number))
+				this.open.put(number, segment);
+		}
+	}
+
+	/**
+	 * Hands a full segment to the flusher to be forced to disk
+	 * @since 1.3
+	 */
+	private void finished(final Segment segment){
+		this.flusher.execute(new Runnable(){
+			public void run(){
+				segment.buffer.force();
+				synchronized(TraceRecorder.this){
+					TraceRecorder.this.open.remove(segment.number);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Makes a segment file and maps it
+	 * @since 1.3
+	 */
+	private Segment map(long number){
+		Path file = this.directory.resolve(String.format("%s%06d%s", PREFIX, number, SUFFIX));
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)){
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (this.mask+1) * RECORD_BYTES);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			return new Segment(number, buffer);
+		}
+		catch(IOException e){
+			throw new UncheckedIOException("Error (TraceRecorder): Can't make the trace segment " + file, e);
+		}
+	}
+
+	/**
+	 * A mapped segment file, and how many of its records have been written
+	 */
+	private static class Segment {
+		private final long number; // the number of the segment
+		private final MappedByteBuffer buffer; // the segment's records
+		private final AtomicInteger written = new AtomicInteger(0); // the number of records written into it
+
+		/**
+		 * Creates a segment
+		 * @param number the number of the segment
+		 * @param buffer the mapped file
+		 * @since 1.3
+		 */
+		private Segment(long number, MappedByteBuffer buffer){
+			this.number = number;
+			this.buffer = buffer;
+		}
+	}
+}
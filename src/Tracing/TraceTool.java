@@ -0,0 +1,379 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Tracing;
+
+import DataTypes.*;
+import Metrics.*;
+import java.io.*;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Queries a trace recorded by TraceRecorder from the command line:
+ * <pre>
+ * java Tracing.TraceTool &lt;directory&gt; &lt;command&gt; [options] [filter terms]
+ *   summary          the events of each type, the drops for each reason, and the average waits
+ *   count            the number of events that match
+ *   replay           prints the events that match, in the order they were recorded
+ *   group:&lt;field&gt;    the events of each type for each node, nic, vc or trace, busiest first
+ *   timeline:&lt;ticks&gt; the events of each type in each interval of that many ticks
+ * options: limit=&lt;events&gt; (replay), top=&lt;rows&gt; (group), threads=&lt;threads&gt;
+ * </pre>
+ * The filter terms are described in TraceFilter, e.g. "time=1000..2000 type=drop node=9". Only the
+ * records that match are looked at. Everything but replay reads the segments in parallel, each thread
+ * reading its own segments through a memory map and counting into a few arrays, so a trace of billions
+ * of events is read at the speed of the disk (or page cache) and never put on the heap.
+ */
+public class TraceTool {
+	private static final int TYPES = TraceEventType.values().length; // the number of event types
+	private static final int REASONS = DropReason.values().length; // the number of drop reasons
+
+	private List<Path> segments; // the trace's segment files
+	private TraceFilter filter; // picks the records to look at
+	private String field = null; // what the records are grouped by (node, nic, vc, trace or time), or null for all together
+	private long interval = 1; // the ticks in each group when grouping by time
+	private ForkJoinPool pool; // reads the segments
+
+	private TraceTool(){}
+
+	/**
+	 * Runs a query
+	 * @param args the directory, the command, then the options and filter terms
+	 * @throws IOException if the trace can't be read
+	 * @since 1.3
+	 */
+	public static void main(String[] args) throws IOException{
+		if(args.length < 2){
+			System.err.println("Usage: java Tracing.TraceTool <directory> summary|count|replay|group:<node|nic|vc|trace>|timeline:<ticks> "
+					+ "[limit=<events>] [top=<rows>] [threads=<threads>] [time=<from>..<to>] [node=] [nic=] [vc=] [trace=] [type=] [reason=]");
+			System.exit(1);
+		}
+		long limit = Long.MAX_VALUE;
+		int top = 20;
+		int threads = Runtime.getRuntime().availableProcessors();
+		ArrayList<String> terms = new ArrayList<String>();
+		for(int i=2; i<args.length; i++){
+			if(args[i].startsWith("limit="))
+				limit = Long.parseLong(args[i].substring(6));
+			else if(args[i].startsWith("top="))
+				top = Integer.parseInt(args[i].substring(4));
+			else if(args[i].startsWith("threads="))
+				threads = Integer.parseInt(args[i].substring(8));
+			else
+				terms.add(args[i]);
+		}
+
+		TraceTool tool = new TraceTool();
+		tool.segments = TraceReader.getSegments(args[0]);
+		tool.filter = TraceFilter.parse(terms.toArray(new String[terms.size()]));
+		PrintStream out = System.out;
+		String command = args[1];
+		if(command.equals("replay")){
+			tool.replay(out, limit);
+			return;
+		}
+
+		tool.pool = new ForkJoinPool(Math.max(1, threads));
+		try{
+			if(command.equals("count"))
+				out.println(tool.count().total(0));
+			else if(command.equals("summary"))
+				tool.printSummary(out, tool.count());
+			else if(command.startsWith("group:")){
+				tool.field = command.substring(6);
+				if(!Arrays.asList("node", "nic", "vc", "trace").contains(tool.field))
+					throw new IllegalArgumentException("Error (TraceTool): Can't group by '" + tool.field + "'");
+				tool.printGroups(out, tool.count(), top, true);
+			}
+			else if(command.startsWith("timeline:")){
+				tool.field = "time";
+				tool.interval = Long.parseLong(command.substring(9));
+				if(tool.interval < 1)
+					throw new IllegalArgumentException("Error (TraceTool): The interval must be at least 1 tick");
+				tool.printGroups(out, tool.count(), Integer.MAX_VALUE, false);
+			}
+			else
+				throw new IllegalArgumentException("Error (TraceTool): There is no command called '" + command + "'");
+		}
+		finally{
+			tool.pool.shutdown();
+		}
+	}
+
+	/**
+	 * Prints the records that match, in order
+	 * @since 1.3
+	 */
+	private void replay(PrintStream out, long limit) throws IOException{
+		StringBuilder line = new StringBuilder(80);
+		TraceReader reader = new TraceReader(this.segments, 0, -1);
+		try{
+			for(long printed=0; printed<limit && reader.next(); ){
+				if(!this.filter.matches(reader))
+					continue;
+				line.setLength(0);
+				TraceEventType type = reader.getType();
+				line.append(reader.getTime()).append(' ').append(type).append(" node=").append(reader.getNode())
+						.append(" nic=").append(reader.getNIC()).append(" vc=").append(reader.getVC())
+						.append(" trace=").append(reader.getTraceID()).append(" value=").append(reader.getValue());
+				if(type==TraceEventType.DROP)
+					line.append(" reason=").append(DropReason.values()[reader.getDetail()]);
+				out.println(line);
+				printed++;
+			}
+		}
+		finally{
+			reader.close();
+		}
+	}
+
+	/**
+	 * Counts the records that match, reading the segments in parallel
+	 * @since 1.3
+	 */
+	private Counts count() throws IOException{
+		try{
+			return this.pool.invoke(new CountTask(0, this.segments.size()));
+		}
+		catch(UncheckedIOException e){
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Prints the counts of every type and drop reason, and the average waits
+	 * @since 1.3
+	 */
+	private void printSummary(PrintStream out, Counts counts){
+		out.println("events  " + counts.total(0));
+		for(TraceEventType type : TraceEventType.values())
+			if(type!=TraceEventType.NONE)
+				out.println(String.format("%-8s%d", type.toString().toLowerCase(), counts.get(0, type.ordinal())));
+		for(DropReason reason : DropReason.values())
+			if(counts.getDrops(0, reason.ordinal()) > 0)
+				out.println(String.format("  drop %-6s%d", reason.toString().toLowerCase(), counts.getDrops(0, reason.ordinal())));
+		out.println(String.format("average queue wait %.2f ticks, average delivery delay %.2f ticks",
+				counts.mean(0, TraceEventType.FORWARD.ordinal()), counts.mean(0, TraceEventType.DELIVER.ordinal())));
+	}
+
+	/**
+	 * Prints the counts of each group, busiest first or in order of their keys
+	 * @since 1.3
+	 */
+	private void printGroups(PrintStream out, Counts counts, int top, boolean busiestFirst){
+		Integer[] order = new Integer[counts.size];
+		for(int i=0; i<order.length; i++)
+			order[i] = i;
+		final Counts all = counts;
+		Arrays.sort(order, busiestFirst ? new Comparator<Integer>(){
+			public int compare(Integer a, Integer b){
+				return Long.compare(all.total(b), all.total(a));
+			}
+		} : new Comparator<Integer>(){
+			public int compare(Integer a, Integer b){
+				return Integer.compare(all.keys[a], all.keys[b]);
+			}
+		});
+
+		out.println(String.format("%-12s%12s%12s%12s%12s%12s%10s%10s", this.field.equals("time") ? "from tick" : this.field,
+				"events", "enqueue", "drop", "forward", "deliver", "wait", "delay"));
+		for(int i=0; i<order.length && i<top; i++){
+			int slot = order[i];
+			long key = this.field.equals("time") ? counts.keys[slot] * this.interval : counts.keys[slot];
+			out.println(String.format("%-12d%12d%12d%12d%12d%12d%10.2f%10.2f", key, counts.total(slot),
+					counts.get(slot, TraceEventType.ENQUEUE.ordinal()), counts.get(slot, TraceEventType.DROP.ordinal()),
+					counts.get(slot, TraceEventType.FORWARD.ordinal()), counts.get(slot, TraceEventType.DELIVER.ordinal()),
+					counts.mean(slot, TraceEventType.FORWARD.ordinal()), counts.mean(slot, TraceEventType.DELIVER.ordinal())));
+		}
+		if(order.length > top)
+			out.println("(" + (order.length - top) + " more)");
+	}
+
+	/**
+	 * Returns the group the reader's current record is in
+	 * @since 1.3
+	 */
+	private int keyOf(TraceReader record){
+		if(this.field==null)
+			return 0;
+		switch(this.field){
+		case "node":
+			return record.getNode();
+		case "nic":
+			return record.getNIC();
+		case "vc":
+			return record.getVC();
+		case "trace":
+			return record.getTraceID();
+		default:
+			return (int) Math.floorDiv(record.getTime(), this.interval);
+		}
+	}
+
+	/**
+	 * The number of events of each type (and drops for each reason), and the total of their values, for each group
+	 */
+	private static class Counts {
+		private static final int WIDTH = TYPES + TYPES + REASONS; // the counts, the value totals, then the drops of each reason
+		private IntIntMap slots = new IntIntMap(); // Key: the group, Value: its slot
+		private int[] keys = new int[16]; // the group in each slot
+		private long[] counts = new long[16 * WIDTH]; // the counts of each slot
+		private int size = 0; // the number of groups
+
+		/**
+		 * Counts a record
+		 * @param key the record's group
+		 * @param type the ordinal of the record's type
+		 * @param detail the record's detail
+		 * @param value the record's value
+		 * @since 1.3
+		 */
+		private void add(int key, int type, int detail, int value){
+			int base = this.slot(key) * WIDTH;
+			this.counts[base + type]++;
+			this.counts[base + TYPES + type] += value;
+			if(type==TraceEventType.DROP.ordinal() && detail < REASONS)
+				this.counts[base + TYPES + TYPES + detail]++;
+		}
+
+		/**
+		 * Adds another set of counts to these
+		 * @param other the counts to add
+		 * @since 1.3
+		 */
+		private void addAll(Counts other){
+			for(int i=0; i<other.size; i++){
+				int base = this.slot(other.keys[i]) * WIDTH;
+				for(int j=0; j<WIDTH; j++)
+					this.counts[base + j] += other.counts[i * WIDTH + j];
+			}
+		}
+
+		/**
+		 * Returns the number of events of a type in a group
+		 * @param slot the group's slot
+		 * @param type the ordinal of the type
+		 * @return the number of events
+		 * @since 1.3
+		 */
+		private long get(int slot, int type){
+			return slot < this.size ? this.counts[slot * WIDTH + type] : 0;
+		}
+
+		/**
+		 * Returns the number of drops for a reason in a group
+		 * @param slot the group's slot
+		 * @param reason the ordinal of the drop reason
+		 * @return the number of drops
+		 * @since 1.3
+		 */
+		private long getDrops(int slot, int reason){
+			return slot < this.size ? this.counts[slot * WIDTH + TYPES + TYPES + reason] : 0;
+		}
+
+		/**
+		 * Returns the average value of the events of a type in a group
+		 * @param slot the group's slot
+		 * @param type the ordinal of the type
+		 * @return the average value, or 0 if there weren't any events
+		 * @since 1.3
+		 */
+		private double mean(int slot, int type){
+			long count = this.get(slot, type);
+			return count==0 ? 0.0 : (double) this.counts[slot * WIDTH + TYPES + type] / count;
+		}
+
+		/**
+		 * Returns the number of events in a group
+		 * @param slot the group's slot
+		 * @return the number of events
+		 * @since 1.3
+		 */
+		private long total(int slot){
+			long total = 0;
+			for(int type=0; type<TYPES; type++)
+				total += this.get(slot, type);
+			return total;
+		}
+
+		/**
+		 * Returns the slot of a group, making one if it is new
+		 * @since 1.3
+		 */
+		private int slot(int key){
+			int slot = this.slots.get(key, -1);
+			if(slot >= 0)
+				return slot;
+			slot = this.size++;
+			if(slot==this.keys.length){
+				this.keys = Arrays.copyOf(this.keys, slot*2);
+				this.counts = Arrays.copyOf(this.counts, slot*2 * WIDTH);
+			}
+			this.keys[slot] = key;
+			this.slots.put(key, slot);
+			return slot;
+		}
+	}
+
+	/**
+	 * Counts the records in a range of segments, splitting the range between threads
+	 */
+	private class CountTask extends RecursiveTask<Counts> {
+		private static final long serialVersionUID = 1L;
+
+		private int from, to; // the range of segments
+
+		/**
+		 * Creates a task to count a range of segments
+		 * @param from the first segment
+		 * @param to the segment after the last one
+		 * @since 1.3
+		 */
+		private CountTask(int from, int to){
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * Counts the segments, or splits them in two
+		 * @return the counts
+		 * @since 1.3
+		 */
+		protected Counts compute(){
+			if(this.to - this.from > 1){
+				int middle = (this.from + this.to) >>> 1;
+				CountTask left = new CountTask(this.from, middle);
+				left.fork();
+				Counts counts = new CountTask(middle, this.to).compute();
+				Counts other = left.join();
+				if(other.size > counts.size){
+					other.addAll(counts);
+					return other;
+				}
+				counts.addAll(other);
+				return counts;
+			}
+
+			Counts counts = new Counts();
+			TraceReader reader = new TraceReader(TraceTool.this.segments, this.from, this.to);
+			try{
+				while(reader.next())
+					if(TraceTool.this.filter.matches(reader))
+						counts.add(TraceTool.this.keyOf(reader), reader.getTypeCode(), reader.getDetail(), reader.getValue());
+			}
+			catch(IOException e){
+				throw new UncheckedIOException(e);
+			}
+			finally{
+				reader.close();
+			}
+			return counts;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Traffic;
+
+import NetworkElements.*;
+import java.util.SplittableRandom;
+
+/**
+ * Constant bit rate: sends a packet every interval ticks, starting as soon as it is started
+ */
+public class CBRSource extends TrafficSource {
+	private double interval; // the ticks between packets
+
+	/**
+	 * Creates a source that sends a packet every interval ticks
+	 * @param computer the computer to send the packets from
+	 * @param dest the router the computer's connection goes to
+	 * @param interval the ticks between packets (less than 1 sends more than one packet a tick)
+	 * @param sizes picks the size of each packet
+	 * @since 1.3
+	 */
+	public CBRSource(Computer computer, int dest, double interval, IPacketSizes sizes){
+		super(computer, dest, sizes);
+		if(!(interval > 0))
+			throw new IllegalArgumentException("Error (CBRSource): The interval must be more than 0");
+		this.interval = interval;
+	}
+
+	/**
+	 * Returns when the first packet should be sent
+	 * @param start the time the source is started
+	 * @param random not used
+	 * @return the start time
+	 * @since 1.3
+	 */
+	protected double firstArrival(double start, SplittableRandom random){
+		return start;
+	}
+
+	/**
+	 * Returns when the next packet should be sent
+	 * @param time the time of the packet that was just sent
+	 * @param random not used
+	 * @return the time of the next packet
+	 * @since 1.3
+	 */
+	protected double nextArrival(double time, SplittableRandom random){
+		return time + this.interval;
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Traffic;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Packet sizes picked from a list of sizes, each with a weight (e.g. a histogram measured on a real link)
+ */
+public class EmpiricalPacketSize implements IPacketSizes {
+	private int[] sizes; // the packet sizes in bits
+	private double[] cumulative; // the running total of the weights, ending at 1
+	private double mean; // the average packet size
+
+	/**
+	 * Creates the distribution
+	 * @param sizes the packet sizes in bits
+	 * @param weights how often each size comes up (they don't need to add up to 1)
+	 * @since 1.3
+	 */
+	public EmpiricalPacketSize(int[] sizes, double[] weights){
+		if(sizes.length==0 || sizes.length!=weights.length)
+			throw new IllegalArgumentException("Error (EmpiricalPacketSize): There must be a weight for every size, and at least one size");
+		double total = 0;
+		for(int i=0; i<sizes.length; i++){
+			if(sizes[i] < 1 || !(weights[i] >= 0))
+				throw new IllegalArgumentException("Error (EmpiricalPacketSize): The sizes must be at least 1 bit and the weights can't be negative");
+			total += weights[i];
+		}
+		if(!(total > 0))
+			throw new IllegalArgumentException("Error (EmpiricalPacketSize): The weights can't all be 0");
+
+		this.sizes = Arrays.copyOf(sizes, sizes.length);
+		this.cumulative = new double[sizes.length];
+		double sum = 0;
+		for(int i=0; i<sizes.length; i++){
+			sum += weights[i];
+			this.cumulative[i] = sum / total;
+			this.mean += sizes[i] * weights[i] / total;
+		}
+		this.cumulative[sizes.length-1] = 1.0;
+	}
+
+	/**
+	 * Returns the simple IMIX mix of IP packet sizes: 7 parts 40 bytes, 4 parts 576 bytes and 1 part 1500 bytes
+	 * @return the distribution
+	 * @since 1.3
+	 */
+	public static EmpiricalPacketSize imix(){
+		return new EmpiricalPacketSize(new int[]{40*8, 576*8, 1500*8}, new double[]{7, 4, 1});
+	}
+
+	/**
+	 * Returns the size of the next packet
+	 * @param random the source's random number stream
+	 * @return the size of the packet in bits
+	 * @since 1.3
+	 */
+	public int next(SplittableRandom random){
+		// find the first size whose running total is over u
+		double u = random.nextDouble();
+		int low = 0, high = this.sizes.length-1;
+		while(low < high){
+			int middle = (low + high) >>> 1;
+			if(this.cumulative[middle] > u)
+				high = middle;
+			else
+				low = middle+1;
+		}
+		return this.sizes[low];
+	}
+
+	/**
+	 * Returns the average size of the packets
+	 * @return the mean packet size in bits
+	 * @since 1.3
+	 */
+	public double mean(){
+		return this.mean;
+	}
+}
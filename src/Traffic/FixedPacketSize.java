@@ -0,0 +1,47 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Traffic;
+
+import java.util.SplittableRandom;
+
+/**
+ * Every packet is the same size
+ */
+public class FixedPacketSize implements IPacketSizes {
+	private int bits; // the size of every packet
+
+	/**
+	 * Creates the distribution
+	 * @param bits the size of every packet in bits
+	 * @since 1.3
+	 */
+	public FixedPacketSize(int bits){
+		if(bits < 1)
+			throw new IllegalArgumentException("Error (FixedPacketSize): The packet size must be at least 1 bit");
+		this.bits = bits;
+	}
+
+	/**
+	 * Returns the size of the next packet
+	 * @param random not used
+	 * @return the size of the packet in bits
+	 * @since 1.3
+	 */
+	public int next(SplittableRandom random){
+		return this.bits;
+	}
+
+	/**
+	 * Returns the average size of the packets
+	 * @return the packet size in bits
+	 * @since 1.3
+	 */
+	public double mean(){
+		return this.bits;
+	}
+}
@@ -0,0 +1,30 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Traffic;
+
+import java.util.SplittableRandom;
+
+/**
+ * Picks the size of each packet a traffic source sends
+ */
+public interface IPacketSizes {
+	/**
+	 * Returns the size of the next packet
+	 * @param random the source's random number stream
+	 * @return the size of the packet in bits
+	 * @since 1.3
+	 */
+	public int next(SplittableRandom random);
+
+	/**
+	 * Returns the average size of the packets
+	 * @return the mean packet size in bits
+	 * @since 1.3
+	 */
+	public double mean();
+}
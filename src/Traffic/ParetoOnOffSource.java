@@ -0,0 +1,93 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Traffic;
+
+import NetworkElements.*;
+import java.util.SplittableRandom;
+
+/**
+ * Switches between sending packets at a fixed rate (on) and sending nothing (off), with the length of
+ * each on and off period drawn from a Pareto distribution. With a shape between 1 and 2 the periods are
+ * heavy tailed, and many of these sources together give the long bursts seen in real (self-similar)
+ * traffic. Every on period sends at least one packet. The source starts in an off period, so that a lot
+ * of sources started together don't all burst at once.
+ */
+public class ParetoOnOffSource extends TrafficSource {
+	private double interval; // the ticks between packets while on
+	private double meanOn, meanOff; // the average length of the on and off periods in ticks
+	private double shape; // the Pareto shape (alpha), more than 1
+	private double onEnd = 0; // when the current on period ends
+
+	/**
+	 * Creates the source
+	 * @param computer the computer to send the packets from
+	 * @param dest the router the computer's connection goes to
+	 * @param interval the ticks between packets while on
+	 * @param meanOn the average length of an on period in ticks
+	 * @param meanOff the average length of an off period in ticks
+	 * @param shape the Pareto shape, which must be more than 1 for the means to exist (1.5 is typical)
+	 * @param sizes picks the size of each packet
+	 * @since 1.3
+	 */
+	public ParetoOnOffSource(Computer computer, int dest, double interval, double meanOn, double meanOff, double shape, IPacketSizes sizes){
+		super(computer, dest, sizes);
+		if(!(interval > 0) || !(meanOn > 0) || !(meanOff > 0))
+			throw new IllegalArgumentException("Error (ParetoOnOffSource): The interval and mean period lengths must be more than 0");
+		if(!(shape > 1))
+			throw new IllegalArgumentException("Error (ParetoOnOffSource): The shape must be more than 1");
+		this.interval = interval;
+		this.meanOn = meanOn;
+		this.meanOff = meanOff;
+		this.shape = shape;
+	}
+
+	/**
+	 * Returns when the first packet should be sent (at the end of the first off period)
+	 * @param start the time the source is started
+	 * @param random the source's random number stream
+	 * @return the time of the first packet
+	 * @since 1.3
+	 */
+	protected double firstArrival(double start, SplittableRandom random){
+		return this.startOnPeriod(start, random);
+	}
+
+	/**
+	 * Returns when the next packet should be sent
+	 * @param time the time of the packet that was just sent
+	 * @param random the source's random number stream
+	 * @return the time of the next packet
+	 * @since 1.3
+	 */
+	protected double nextArrival(double time, SplittableRandom random){
+		double next = time + this.interval;
+		if(next < this.onEnd)
+			return next;
+		return this.startOnPeriod(this.onEnd, random);
+	}
+
+	/**
+	 * Waits an off period from a time, then starts an on period
+	 * @return the start of the on period
+	 * @since 1.3
+	 */
+	private double startOnPeriod(double time, SplittableRandom random){
+		double onStart = time + this.pareto(this.meanOff, random);
+		this.onEnd = onStart + this.pareto(this.meanOn, random);
+		return onStart;
+	}
+
+	/**
+	 * Returns a Pareto distributed number with a given mean
+	 * @since 1.3
+	 */
+	private double pareto(double mean, SplittableRandom random){
+		double scale = mean * (this.shape - 1) / this.shape; // the smallest value
+		return scale / Math.pow(1.0 - random.nextDouble(), 1.0 / this.shape);
+	}
+}
@@ -0,0 +1,56 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Traffic;
+
+import NetworkElements.*;
+import java.util.SplittableRandom;
+
+/**
+ * Sends packets as a Poisson process: the gaps between packets are exponentially distributed, so the
+ * packets are independent of each other and bunch up at random
+ */
+public class PoissonSource extends TrafficSource {
+	private double rate; // the average number of packets a tick
+
+	/**
+	 * Creates a source that sends rate packets a tick on average
+	 * @param computer the computer to send the packets from
+	 * @param dest the router the computer's connection goes to
+	 * @param rate the average number of packets a tick
+	 * @param sizes picks the size of each packet
+	 * @since 1.3
+	 */
+	public PoissonSource(Computer computer, int dest, double rate, IPacketSizes sizes){
+		super(computer, dest, sizes);
+		if(!(rate > 0))
+			throw new IllegalArgumentException("Error (PoissonSource): The rate must be more than 0");
+		this.rate = rate;
+	}
+
+	/**
+	 * Returns when the first packet should be sent
+	 * @param start the time the source is started
+	 * @param random the source's random number stream
+	 * @return the time of the first packet
+	 * @since 1.3
+	 */
+	protected double firstArrival(double start, SplittableRandom random){
+		return this.nextArrival(start, random);
+	}
+
+	/**
+	 * Returns when the next packet should be sent
+	 * @param time the time of the packet that was just sent
+	 * @param random the source's random number stream
+	 * @return the time of the next packet
+	 * @since 1.3
+	 */
+	protected double nextArrival(double time, SplittableRandom random){
+		return time - Math.log(1.0 - random.nextDouble()) / this.rate;
+	}
+}
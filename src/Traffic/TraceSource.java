@@ -0,0 +1,129 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Traffic;
+
+import NetworkElements.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Sends the packets in a recorded trace, at the times (counted from when the source is started) and
+ * sizes in the trace
+ */
+public class TraceSource extends TrafficSource {
+	private double[] times; // when each packet is sent, in ticks after the start
+	private int[] sizes; // the size of each packet in bits
+	private double start = 0; // when the source was started
+	private int next = 0; // the packet to send next
+
+	/**
+	 * Creates a source that plays back a trace
+	 * @param computer the computer to send the packets from
+	 * @param dest the router the computer's connection goes to
+	 * @param times when each packet is sent, in ticks after the source is started (in order)
+	 * @param sizes the size of each packet in bits
+	 * @since 1.3
+	 */
+	public TraceSource(Computer computer, int dest, double[] times, int[] sizes){
+		super(computer, dest, null);
+		if(times.length!=sizes.length)
+			throw new IllegalArgumentException("Error (TraceSource): There must be a size for every packet");
+		for(int i=0; i<times.length; i++){
+			if(!(times[i] >= 0) || (i > 0 && times[i] < times[i-1]))
+				throw new IllegalArgumentException("Error (TraceSource): The packet times can't be negative and must be in order");
+			if(sizes[i] < 1)
+				throw new IllegalArgumentException("Error (TraceSource): The packet sizes must be at least 1 bit");
+		}
+		this.times = Arrays.copyOf(times, times.length);
+		this.sizes = Arrays.copyOf(sizes, sizes.length);
+	}
+
+	/**
+	 * Reads a trace from a file. Each line is the time of a packet (in ticks from the start of the trace)
+	 * and its size in bits, and anything after a # is a comment
+	 * @param file the path of the trace
+	 * @param computer the computer to send the packets from
+	 * @param dest the router the computer's connection goes to
+	 * @return the source
+	 * @throws IOException if the file can't be read
+	 * @since 1.3
+	 */
+	public static TraceSource load(String file, Computer computer, int dest) throws IOException{
+		double[] times = new double[1024];
+		int[] sizes = new int[1024];
+		int count = 0, line = 0;
+		try(BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)){
+			String text;
+			while((text = reader.readLine())!=null){
+				line++;
+				int comment = text.indexOf('#');
+				if(comment >= 0)
+					text = text.substring(0, comment);
+				String[] words = text.trim().split("\\s+");
+				if(words[0].isEmpty())
+					continue;
+				if(words.length!=2)
+					throw new IllegalArgumentException("Error (TraceSource): " + file + " line " + line + ": expected a time and a size");
+				if(count==times.length){
+					times = Arrays.copyOf(times, count*2);
+					sizes = Arrays.copyOf(sizes, count*2);
+				}
+				try{
+					times[count] = Double.parseDouble(words[0]);
+					sizes[count] = Integer.parseInt(words[1]);
+				}
+				catch(NumberFormatException e){
+					throw new IllegalArgumentException("Error (TraceSource): " + file + " line " + line + ": '" + text.trim() + "' isn't a time and a size");
+				}
+				count++;
+			}
+		}
+		return new TraceSource(computer, dest, Arrays.copyOf(times, count), Arrays.copyOf(sizes, count));
+	}
+
+	/**
+	 * Returns when the first packet should be sent
+	 * @param start the time the source is started
+	 * @param random not used
+	 * @return the time of the first packet, or infinity if the trace is empty
+	 * @since 1.3
+	 */
+	protected double firstArrival(double start, SplittableRandom random){
+		this.start = start;
+		this.next = 0;
+		if(this.times.length==0)
+			return Double.POSITIVE_INFINITY;
+		return start + this.times[0];
+	}
+
+	/**
+	 * Returns when the next packet should be sent
+	 * @param time the time of the packet that was just sent
+	 * @param random not used
+	 * @return the time of the next packet, or infinity at the end of the trace
+	 * @since 1.3
+	 */
+	protected double nextArrival(double time, SplittableRandom random){
+		this.next++;
+		if(this.next >= this.times.length)
+			return Double.POSITIVE_INFINITY;
+		return this.start + this.times[this.next];
+	}
+
+	/**
+	 * Returns the size of the next packet in the trace
+	 * @param random not used
+	 * @return the size of the packet in bits
+	 * @since 1.3
+	 */
+	protected int nextSize(SplittableRandom random){
+		return this.sizes[this.next];
+	}
+}
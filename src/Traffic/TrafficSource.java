@@ -0,0 +1,154 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Traffic;
+
+import NetworkElements.*;
+import java.util.SplittableRandom;
+
+/**
+ * Something that sends packets from a computer down its connection to a router, at times it picks
+ * itself. Packets are sent at fractional times (so a source can send 2.5 packets a tick on average), and
+ * go out on the first tick at or after their time. Sources are added to a Workload, which gives each one
+ * its own random number stream and calls it on the ticks it has packets to send.
+ */
+public abstract class TrafficSource {
+	private Computer computer; // the computer the packets are sent from
+	private int dest; // the router the computer's connection goes to
+	private IPacketSizes sizes; // picks the size of each packet
+	private SplittableRandom random = null; // the random numbers for this source (set by the workload)
+	private double nextTime = Double.POSITIVE_INFINITY; // when the next packet should be sent
+	private long packetsSent = 0, bitsSent = 0; // what the source has sent so far
+
+	/**
+	 * Sets up the parts every source has
+	 * @param computer the computer to send the packets from
+	 * @param dest the router the computer's connection goes to (see Computer.sendPacket)
+	 * @param sizes picks the size of each packet
+	 * @since 1.3
+	 */
+	protected TrafficSource(Computer computer, int dest, IPacketSizes sizes){
+		if(computer==null)
+			throw new IllegalArgumentException("Error (TrafficSource): A source needs a computer to send from");
+		this.computer = computer;
+		this.dest = dest;
+		this.sizes = sizes;
+	}
+
+	/**
+	 * Returns when the first packet should be sent
+	 * @param start the time the source is started
+	 * @param random the source's random number stream
+	 * @return the time of the first packet, or infinity if the source never sends anything
+	 * @since 1.3
+	 */
+	protected abstract double firstArrival(double start, SplittableRandom random);
+
+	/**
+	 * Returns when the packet after one sent at a given time should be sent
+	 * @param time the time of the packet that was just sent
+	 * @param random the source's random number stream
+	 * @return the time of the next packet, or infinity if the source has finished
+	 * @since 1.3
+	 */
+	protected abstract double nextArrival(double time, SplittableRandom random);
+
+	/**
+	 * Returns the size of the next packet. Sources that know their packet sizes (like a trace) override this
+	 * @param random the source's random number stream
+	 * @return the size of the packet in bits
+	 * @since 1.3
+	 */
+	protected int nextSize(SplittableRandom random){
+		return this.sizes.next(random);
+	}
+
+	/**
+	 * Starts the source (called by the workload)
+	 * @param time the tick the source starts at
+	 * @param random the random number stream for the source
+	 * @return the tick of the first packet, or Long.MAX_VALUE if there isn't one
+	 * @since 1.3
+	 */
+	final long start(long time, SplittableRandom random){
+		this.random = random;
+		this.nextTime = this.firstArrival(time, random);
+		return toTick(this.nextTime);
+	}
+
+	/**
+	 * Sends every packet that is due by a tick (called by the workload)
+	 * @param time the current tick
+	 * @return the tick of the next packet, or Long.MAX_VALUE if the source has finished
+	 * @since 1.3
+	 */
+	final long fire(long time){
+		while(this.nextTime <= time){
+			int size = this.nextSize(this.random);
+			this.computer.sendPacket(this.dest, size);
+			this.packetsSent++;
+			this.bitsSent += size;
+			this.nextTime = this.nextArrival(this.nextTime, this.random);
+		}
+		return toTick(this.nextTime);
+	}
+
+	/**
+	 * Returns the computer the packets are sent from
+	 * @return the computer
+	 * @since 1.3
+	 */
+	public Computer getComputer(){
+		return this.computer;
+	}
+
+	/**
+	 * Returns the router the packets are sent to
+	 * @return the address of the router
+	 * @since 1.3
+	 */
+	public int getDest(){
+		return this.dest;
+	}
+
+	/**
+	 * Returns the distribution the packet sizes are picked from
+	 * @return the packet sizes (null if the source picks its own)
+	 * @since 1.3
+	 */
+	public IPacketSizes getSizes(){
+		return this.sizes;
+	}
+
+	/**
+	 * Returns the number of packets the source has sent
+	 * @return the number of packets sent
+	 * @since 1.3
+	 */
+	public long getPacketsSent(){
+		return this.packetsSent;
+	}
+
+	/**
+	 * Returns the number of bits the source has sent
+	 * @return the number of bits sent
+	 * @since 1.3
+	 */
+	public long getBitsSent(){
+		return this.bitsSent;
+	}
+
+	/**
+	 * Returns the first tick at or after a time
+	 * @since 1.3
+	 */
+	private static long toTick(double time){
+		if(time >= Long.MAX_VALUE)
+			return Long.MAX_VALUE;
+		return (long) Math.ceil(time);
+	}
+}
@@ -0,0 +1,49 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Traffic;
+
+import java.util.SplittableRandom;
+
+/**
+ * Packet sizes picked evenly from a range
+ */
+public class UniformPacketSize implements IPacketSizes {
+	private int min, max; // the smallest and largest packet sizes
+
+	/**
+	 * Creates the distribution
+	 * @param min the smallest packet size in bits
+	 * @param max the largest packet size in bits
+	 * @since 1.3
+	 */
+	public UniformPacketSize(int min, int max){
+		if(min < 1 || max < min)
+			throw new IllegalArgumentException("Error (UniformPacketSize): The sizes must be at least 1 bit, and max can't be less than min");
+		this.min = min;
+		this.max = max;
+	}
+
+	/**
+	 * Returns the size of the next packet
+	 * @param random the source's random number stream
+	 * @return the size of the packet in bits
+	 * @since 1.3
+	 */
+	public int next(SplittableRandom random){
+		return this.min + random.nextInt(this.max - this.min + 1);
+	}
+
+	/**
+	 * Returns the average size of the packets
+	 * @return the mean packet size in bits
+	 * @since 1.3
+	 */
+	public double mean(){
+		return (this.min + (double) this.max) / 2;
+	}
+}
@@ -0,0 +1,239 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Traffic;
+
+import Simulation.*;
+import java.util.*;
+
+/**
+ * A set of traffic sources driven by the simulation clock. The workload keeps its own calendar of when
+ * each source next has a packet to send (a binary heap of source numbers ordered by tick, kept in
+ * arrays), and only has one event at a time in the simulator, for the earliest source. So a million
+ * sources cost a few arrays and one event, not a million events. Sources send in the source phase of a
+ * tick, before the output buffers are cleared.
+ *
+ * When the network is stepped by a tick loop instead, call tick() just before each TickEngine.tick().
+ * Each source gets its own random number stream, named after the workload and the order the source
+ * was added in, so the same workload built the same way sends the same packets every run.
+ */
+public class Workload implements ISimEntity {
+	private String name; // the name of the workload, which the sources' random streams are named after
+	private TrafficSource[] sources = new TrafficSource[16]; // every source, in the order they were added
+	private int count = 0; // the number of sources
+	private long[] due = new long[16]; // the tick each source next sends at
+	private int[] heap = new int[16]; // the sources that haven't finished, earliest due first
+	private int heapSize = 0; // the number of sources in the heap
+	private IClock clock = null; // the clock the workload runs on, or null if it hasn't been started
+	private Simulator simulator = null; // the event driven simulator, or null if a tick loop calls tick()
+	private long scheduled = -1; // the tick of the event we have waiting in the simulator
+
+	/**
+	 * Creates an empty workload
+	 * @param name the name of the workload (different workloads need different names to get different random numbers)
+	 * @since 1.3
+	 */
+	public Workload(String name){
+		this.name = name;
+	}
+
+	/**
+	 * Adds a source to the workload. If the workload has been started the source starts straight away
+	 * @param source the source to add (which mustn't be in any other workload)
+	 * @since 1.3
+	 */
+	public void add(TrafficSource source){
+		if(this.count==this.sources.length){
+			int length = this.count*2;
+			this.sources = Arrays.copyOf(this.sources, length);
+			this.due = Arrays.copyOf(this.due, length);
+			this.heap = Arrays.copyOf(this.heap, length);
+		}
+		int index = this.count++;
+		this.sources[index] = source;
+		if(this.clock!=null){
+			this.startSource(index, this.nextTick());
+			this.scheduleNext();
+		}
+	}
+
+	/**
+	 * Starts every source, on a clock. Sources send their first packets from the next tick
+	 * @param clock the clock (an event driven simulator, or the TickEngine if tick() will be called)
+	 * @since 1.3
+	 */
+	public void start(IClock clock){
+		if(this.clock!=null)
+			throw new IllegalStateException("Error (Workload): The workload " + this.name + " has already been started");
+		this.clock = clock;
+		this.simulator = clock instanceof Simulator ? (Simulator) clock : null;
+		long time = this.nextTick();
+		for(int i=0; i<this.count; i++)
+			this.startSource(i, time);
+		this.scheduleNext();
+	}
+
+	/**
+	 * Sends the packets that are due in the next tick. Only needed when the network is stepped by a tick
+	 * loop, in which case it should be called just before TickEngine.tick()
+	 * @since 1.3
+	 */
+	public void tick(){
+		if(this.clock==null)
+			throw new IllegalStateException("Error (Workload): The workload " + this.name + " hasn't been started");
+		this.fireDue(this.clock.getTime()+1);
+	}
+
+	/**
+	 * Called by the simulator when the earliest source has packets to send
+	 * @param time the current tick
+	 * @param phase the phase (source)
+	 * @since 1.3
+	 */
+	public void handleEvent(long time, int phase){
+		this.fireDue(time);
+		this.scheduleNext();
+	}
+
+	/**
+	 * Returns the sources in the workload
+	 * @return the sources, in the order they were added
+	 * @since 1.3
+	 */
+	public List<TrafficSource> getSources(){
+		return Collections.unmodifiableList(Arrays.asList(this.sources).subList(0, this.count));
+	}
+
+	/**
+	 * Returns the number of sources that still have packets to send
+	 * @return the number of active sources
+	 * @since 1.3
+	 */
+	public int getActiveSources(){
+		return this.heapSize;
+	}
+
+	/**
+	 * Returns the number of packets all of the sources have sent
+	 * @return the number of packets sent
+	 * @since 1.3
+	 */
+	public long getPacketsSent(){
+		long total = 0;
+		for(int i=0; i<this.count; i++)
+			total += this.sources[i].getPacketsSent();
+		return total;
+	}
+
+	/**
+	 * Returns the number of bits all of the sources have sent
+	 * @return the number of bits sent
+	 * @since 1.3
+	 */
+	public long getBitsSent(){
+		long total = 0;
+		for(int i=0; i<this.count; i++)
+			total += this.sources[i].getBitsSent();
+		return total;
+	}
+
+	/**
+	 * Returns the first tick the sources can still send in
+	 * @since 1.3
+	 */
+	private long nextTick(){
+		if(this.simulator!=null)
+			return this.simulator.nextSlot(Simulator.PHASE_SOURCE);
+		return this.clock.getTime()+1;
+	}
+
+	/**
+	 * Starts a source and puts it in the heap (unless it never sends anything)
+	 * @since 1.3
+	 */
+	private void startSource(int index, long time){
+		long first = this.sources[index].start(time, RandomStreams.forName("Workload " + this.name + " source " + index));
+		if(first==Long.MAX_VALUE)
+			return;
+		this.due[index] = Math.max(first, time);
+		this.heap[this.heapSize] = index;
+		this.siftUp(this.heapSize++);
+	}
+
+	/**
+	 * Lets every source that is due by a tick send its packets
+	 * @since 1.3
+	 */
+	private void fireDue(long time){
+		while(this.heapSize > 0 && this.due[this.heap[0]] <= time){
+			int index = this.heap[0];
+			long next = this.sources[index].fire(time);
+			if(next==Long.MAX_VALUE){
+				// the source has finished, so take it out of the heap
+				this.heap[0] = this.heap[--this.heapSize];
+			}
+			else
+				this.due[index] = Math.max(next, time+1);
+			if(this.heapSize > 0)
+				this.siftDown(0);
+		}
+	}
+
+	/**
+	 * Makes sure the simulator will call us when the earliest source is due
+	 * @since 1.3
+	 */
+	private void scheduleNext(){
+		if(this.simulator==null || this.heapSize==0)
+			return;
+		long slot = this.simulator.nextSlot(Simulator.PHASE_SOURCE);
+		long at = Math.max(this.due[this.heap[0]], slot);
+		// an event that is still to come, and not after the one we want, will do
+		if(this.scheduled >= slot && this.scheduled <= at)
+			return;
+		this.scheduled = at;
+		this.simulator.schedule(this, at, Simulator.PHASE_SOURCE);
+	}
+
+	/**
+	 * Moves a source up the heap until its parent is due no later than it
+	 * @since 1.3
+	 */
+	private void siftUp(int at){
+		int index = this.heap[at];
+		long time = this.due[index];
+		while(at > 0){
+			int parent = (at-1) >>> 1;
+			if(this.due[this.heap[parent]] <= time)
+				break;
+			this.heap[at] = this.heap[parent];
+			at = parent;
+		}
+		this.heap[at] = index;
+	}
+
+	/**
+	 * Moves a source down the heap until its children are due no earlier than it
+	 * @since 1.3
+	 */
+	private void siftDown(int at){
+		int index = this.heap[at];
+		long time = this.due[index];
+		while(true){
+			int child = 2*at+1;
+			if(child >= this.heapSize)
+				break;
+			if(child+1 < this.heapSize && this.due[this.heap[child+1]] < this.due[this.heap[child]])
+				child++;
+			if(this.due[this.heap[child]] >= time)
+				break;
+			this.heap[at] = this.heap[child];
+			at = child;
+		}
+		this.heap[at] = index;
+	}
+}
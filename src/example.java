@@ -1,11 +1,21 @@
 
+import DataTypes.*;
+import Logging.*;
+import Metrics.*;
 import NetworkElements.*;
+import Simulation.*;
+import Topology.*;
+import java.io.IOException;
 import java.util.*;
 
 public class example {
 	// This object will be used to move time forward on all objects
 	private ArrayList<IATMCellConsumer> allConsumers = new ArrayList<IATMCellConsumer>();
 	private int time = 0;
+	private Simulator simulator = new Simulator(); // set to null to step every object on every tick instead
+	private int tickThreads = 1; // the number of threads used to step the objects when not event driven
+	private TickEngine engine = null; // steps every object on every tick when not event driven
+	private String topologyFile = null; // the file to load the network from, or null to build it by hand
 	
 	/**
 	 * Create a network and creates connections
@@ -67,7 +77,7 @@ public class example {
 		r5.addNextHopInterface(3, r5n1);
 		r5.addNextHopInterface(9, r5n1);
 		r5.addNextHopInterface(11, r5n1);
-		r5.addNextHopInterface(12, r5n1);
+		r5.addNextHopInterface(13, r5n1);
 		
 		// Connect a computer to r1
 		Computer comp1 = new Computer("1");
@@ -90,6 +100,39 @@ public class example {
 		this.allConsumers.add(comp1);
 		this.allConsumers.add(comp2);
 		
+		this.start(comp1, comp2);
+	}
+	
+	/**
+	 * Loads the network from the topology file (which should have the same routers and computers as go()
+	 * builds by hand, like topologies/example.topo) and creates connections
+	 * @throws IOException if the file can't be read
+	 * @since 1.3
+	 */
+	public void goFromFile() throws IOException{
+		System.out.println("** SYSTEM SETUP **");
+		
+		Network network = TopologyLoader.load(this.topologyFile);
+		this.allConsumers.addAll(network.getConsumers());
+		
+		this.start(network.getComputer("1"), network.getComputer("2"));
+	}
+	
+	/**
+	 * Starts the clock on the network, then sets up connections from the computers and sends some packets
+	 * @param comp1 the computer on AS9
+	 * @param comp2 the computer on AS3
+	 * @since 1.3
+	 */
+	private void start(Computer comp1, Computer comp2){
+		// let the simulator decide which objects have work to do each tick
+		// (or step every object on every tick, split across some threads)
+		if(this.simulator!=null)
+			for(int i=0; i<this.allConsumers.size(); i++)
+				this.allConsumers.get(i).setClock(this.simulator);
+		else
+			this.engine = new TickEngine(this.allConsumers, this.tickThreads);
+		
 		// set the drop mechanism if we want to try them
 		for(int i=0; i<this.allConsumers.size(); i++)
 			this.allConsumers.get(i).useEPD();
@@ -127,27 +170,60 @@ public class example {
 			//this.tock();
 	}
 	
+	/**
+	 * Prints how many packets arrived whole at each router that is the end of a VC, and the percentiles of how long they took
+	 * @since 1.3
+	 */
+	public void printPackets(){
+		for(IATMCellConsumer consumer : this.allConsumers){
+			if(!(consumer instanceof ATMRouter))
+				continue;
+			ATMRouter router = (ATMRouter) consumer;
+			PacketReassembler packets = router.getReassembler();
+			if(packets.getIntact() + packets.getCorrupted() > 0){
+				System.out.println(String.format("Packets at Router %d: %d whole, %d corrupted, %d bits of goodput, delay %.1f ticks (max %d)",
+						router.getAddress(), packets.getIntact(), packets.getCorrupted(), packets.getIntactBits(), packets.getMeanLatency(), packets.getMaxLatency()));
+				System.out.print(packets);
+			}
+		}
+	}
+	
 	/**
 	 * moves time forward in all of the networks objects, so that cells take some amount of time to
 	 * travel from once place to another
 	 * @since 1.0
 	 */
 	public void tock(){
-		System.out.println("** TIME = " + time + " **");
+		EventLog.log(LogEvent.SIMULATION_TICK, null, 0, time);
 		time++;
 		
-		// Move the cells in the output buffers
-		for(int i=0; i<this.allConsumers.size(); i++)
-			allConsumers.get(i).clearOutputBuffers();
-		
-		// Move the cells from the input buffers to the output buffers
-		for(int i=0; i<this.allConsumers.size(); i++)
-			allConsumers.get(i).clearInputBuffers();
+		// Only the objects with cells waiting get called when event driven
+		if(this.simulator!=null)
+			this.simulator.runUntil(time-1);
+		// Move the cells in the output buffers, then move the cells from the input buffers to the output buffers
+		else
+			this.engine.tick();
 	}
 	
-	public static void main(String args[]){
+	public static void main(String args[]) throws IOException{
+		// the same seed gives the same run every time (the log is written in order so runs can be compared)
+		if(args.length > 0){
+			RandomStreams.setSeed(Long.parseLong(args[0]));
+			EventLog.setAsync(false);
+		}
 		example go = new example();
-		go.go();
+		// the network can be loaded from a topology file instead of being built by hand
+		if(args.length > 1){
+			go.topologyFile = args[1];
+			go.goFromFile();
+		}
+		else
+			go.go();
+		if(go.engine!=null)
+			go.engine.shutdown();
+		EventLog.flush();
+		System.out.print(MetricsRegistry.getDefault().snapshot());
+		go.printPackets();
 	}
 }
 
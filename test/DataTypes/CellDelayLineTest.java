@@ -0,0 +1,78 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import org.junit.*;
+
+/**
+ * Tests for CellDelayLine, mostly that cells come off in order when the ring has wrapped around, and
+ * when it grows while it is wrapped
+ */
+public class CellDelayLineTest {
+
+	/**
+	 * Cells only come off the line once they have arrived
+	 * @since 1.3
+	 */
+	@Test
+	public void pollWaitsForTheDueTick(){
+		CellDelayLine line = new CellDelayLine(4);
+		ATMCell cell = new ATMCell(1, "a", 1);
+		assertEquals(-1, line.getNextDue());
+		line.add(cell, 5);
+		assertEquals(5, line.getNextDue());
+		assertNull(line.poll(4));
+		assertSame(cell, line.poll(5));
+		assertTrue(line.isEmpty());
+		assertNull(line.poll(100));
+	}
+
+	/**
+	 * Adding and taking off cells so the front goes round the ring several times, then adding more
+	 * than it has room for while it is wrapped, keeps the cells in order
+	 * @since 1.3
+	 */
+	@Test
+	public void wrapAndGrowKeepOrder(){
+		CellDelayLine line = new CellDelayLine(4);
+		ArrayDeque<ATMCell> expected = new ArrayDeque<ATMCell>();
+		long time = 0;
+		int id = 0;
+		for(int round=0; round<10; round++){
+			// fill the line past its room every few rounds, so it grows with the front part way round
+			int add = round % 3==2 ? 7 : 3;
+			for(int i=0; i<add; i++){
+				ATMCell cell = new ATMCell(1, "c" + id, id++);
+				line.add(cell, time + i);
+				expected.add(cell);
+			}
+			assertEquals(expected.size(), line.size());
+			time += add;
+			int take = Math.min(expected.size(), 3);
+			for(int i=0; i<take; i++)
+				assertSame(expected.poll(), line.poll(time));
+		}
+		while(!expected.isEmpty())
+			assertSame(expected.poll(), line.poll(time));
+		assertTrue(line.isEmpty());
+	}
+
+	/**
+	 * A link has one delay, so a cell can't arrive before one sent earlier
+	 * @since 1.3
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void cellsArriveInOrder(){
+		CellDelayLine line = new CellDelayLine(4);
+		line.add(new ATMCell(1, "a", 1), 5);
+		line.add(new ATMCell(1, "b", 2), 4);
+	}
+}
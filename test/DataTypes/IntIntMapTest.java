@@ -0,0 +1,97 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import org.junit.*;
+
+/**
+ * Tests for IntIntMap, mostly that removing a key moves the entries probed past it back so they can
+ * still be found (including when the probes wrap around the end of the slots)
+ */
+public class IntIntMapTest {
+
+	/**
+	 * Puts, gets and removes a few keys
+	 * @since 1.3
+	 */
+	@Test
+	public void putGetRemove(){
+		IntIntMap map = new IntIntMap();
+		map.put(1, 10);
+		map.put(2, 20);
+		map.put(1, 11);
+		assertEquals(2, map.size());
+		assertEquals(11, map.get(1, -1));
+		assertEquals(20, map.get(2, -1));
+		assertEquals(-1, map.get(3, -1));
+		assertEquals(11, map.remove(1, -1));
+		assertEquals(-1, map.remove(1, -1));
+		assertFalse(map.containsKey(1));
+		assertTrue(map.containsValue(20));
+		assertFalse(map.containsValue(11));
+		assertEquals(1, map.size());
+	}
+
+	/**
+	 * The smallest map has 8 slots and holds 6 entries before it grows, so a few thousand random puts
+	 * and removes of 20 keys cause plenty of collisions and probes that wrap around. After every
+	 * change the map has to match a HashMap
+	 * @since 1.3
+	 */
+	@Test
+	public void removeKeepsCollidingKeysReachable(){
+		IntIntMap map = new IntIntMap();
+		HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+		Random random = new Random(1);
+		for(int i=0; i<20000; i++){
+			int key = random.nextInt(20);
+			if(expected.size() < 6 && random.nextBoolean()){
+				map.put(key, i);
+				expected.put(key, i);
+			}
+			else{
+				Integer value = expected.remove(key);
+				assertEquals(value==null ? -1 : value.intValue(), map.remove(key, -1));
+			}
+			assertEquals(expected.size(), map.size());
+			for(int k=0; k<20; k++){
+				Integer value = expected.get(k);
+				assertEquals("key " + k + " after step " + i, value==null ? -1 : value.intValue(), map.get(k, -1));
+			}
+		}
+	}
+
+	/**
+	 * Growing rehashes every entry into the bigger table
+	 * @since 1.3
+	 */
+	@Test
+	public void growKeepsEntries(){
+		IntIntMap map = new IntIntMap();
+		for(int i=0; i<1000; i++)
+			map.put(i*7919, i);
+		for(int i=0; i<1000; i+=2)
+			assertEquals(i, map.remove(i*7919, -1));
+		assertEquals(500, map.size());
+		for(int i=0; i<1000; i++)
+			assertEquals(i%2==0 ? -1 : i, map.get(i*7919, -1));
+		assertEquals(500, map.keys().length);
+	}
+
+	/**
+	 * Integer.MIN_VALUE marks the free slots, so it can't be a key
+	 * @since 1.3
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void freeMarkerIsNotAKey(){
+		new IntIntMap().put(Integer.MIN_VALUE, 1);
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+/**
+ * Tests for NextHopTable, mostly that tables sharing a slot map don't see each other's routes, and that
+ * a table given an address the shared map doesn't have makes its own copy instead of adding to it
+ */
+public class NextHopTableTest {
+
+	/**
+	 * Makes a slot map for routers 1 to 3
+	 * @since 1.3
+	 */
+	private IntIntMap slots(){
+		IntIntMap slots = new IntIntMap();
+		slots.put(1, 0);
+		slots.put(2, 1);
+		slots.put(3, 2);
+		return slots;
+	}
+
+	/**
+	 * A table with its own slot map adds addresses as they come
+	 * @since 1.3
+	 */
+	@Test
+	public void ownSlotMap(){
+		NextHopTable table = new NextHopTable();
+		assertEquals(-1, table.get(5));
+		for(int address=100; address<120; address++)
+			table.put(address, address % 4);
+		for(int address=100; address<120; address++)
+			assertEquals(address % 4, table.get(address));
+		table.put(100, 3);
+		assertEquals(3, table.get(100));
+		table.clear();
+		assertEquals(-1, table.get(100));
+	}
+
+	/**
+	 * Tables that share a slot map keep their own routes
+	 * @since 1.3
+	 */
+	@Test
+	public void sharedSlotsKeepSeparateRoutes(){
+		IntIntMap slots = this.slots();
+		NextHopTable a = new NextHopTable(slots);
+		NextHopTable b = new NextHopTable(slots);
+		a.put(1, 0);
+		a.put(3, 2);
+		b.put(1, 4);
+		assertEquals(0, a.get(1));
+		assertEquals(-1, a.get(2));
+		assertEquals(2, a.get(3));
+		assertEquals(4, b.get(1));
+		assertEquals(-1, b.get(3));
+	}
+
+	/**
+	 * Giving a table an address that isn't in the shared map copies the map, so the other tables and
+	 * the shared map don't change, and the table still has its routes to the addresses it had
+	 * @since 1.3
+	 */
+	@Test
+	public void newAddressCopiesTheSharedMap(){
+		IntIntMap slots = this.slots();
+		NextHopTable a = new NextHopTable(slots);
+		NextHopTable b = new NextHopTable(slots);
+		a.put(2, 1);
+		b.put(2, 5);
+		a.put(9, 3);
+		assertEquals(3, slots.size());
+		assertFalse(slots.containsKey(9));
+		assertEquals(3, a.get(9));
+		assertEquals(1, a.get(2));
+		assertEquals(-1, b.get(9));
+		assertEquals(5, b.get(2));
+
+		// after the copy the table adds to its own map, and still doesn't touch the shared one
+		a.put(10, 6);
+		assertEquals(6, a.get(10));
+		assertEquals(3, slots.size());
+	}
+
+	/**
+	 * Addresses added to the shared map after a table was made have no route in it until one is put
+	 * there, even if the table's array hasn't grown to cover their slots
+	 * @since 1.3
+	 */
+	@Test
+	public void addressesAddedToTheSharedMapLater(){
+		IntIntMap slots = this.slots();
+		NextHopTable table = new NextHopTable(slots);
+		table.put(1, 0);
+		for(int address=4; address<=20; address++)
+			slots.put(address, slots.size());
+		assertEquals(-1, table.get(20));
+		table.put(20, 2);
+		assertEquals(2, table.get(20));
+		assertEquals(0, table.get(1));
+		assertEquals(20, slots.size());
+	}
+
+	/**
+	 * The nics are kept in chars, so there can't be 65535 of them
+	 * @since 1.3
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void nicMustFit(){
+		new NextHopTable().put(1, 0xFFFF);
+	}
+}
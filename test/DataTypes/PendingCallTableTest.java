@@ -0,0 +1,121 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package DataTypes;
+
+import static org.junit.Assert.*;
+
+import NetworkElements.*;
+import org.junit.*;
+
+/**
+ * Tests for PendingCallTable, mostly that expire only removes the calls that are still waiting and were
+ * added before the tick, even after calls have been removed and their references reused
+ */
+public class PendingCallTableTest {
+	private ATMNIC nic; // the nic the setups came in on
+
+	/**
+	 * Makes a nic for the calls to come in on
+	 * @since 1.3
+	 */
+	@Before
+	public void makeNIC(){
+		this.nic = new ATMNIC(new ATMRouter(1));
+	}
+
+	/**
+	 * Calls are looked up by the reference they were given, and references are reused once a call is done
+	 * @since 1.3
+	 */
+	@Test
+	public void addAndRemove(){
+		PendingCallTable table = new PendingCallTable();
+		int a = table.add(this.nic, 7, 3, 0);
+		int b = table.add(this.nic, 8, 4, 0);
+		assertTrue(a > 0 && b > 0 && a!=b);
+		assertEquals(7, table.getUpstreamRef(a));
+		assertEquals(4, table.getDestination(b));
+		assertSame(this.nic, table.getNIC(a));
+		table.remove(a);
+		assertFalse(table.contains(a));
+		assertNull(table.getNIC(a));
+		assertEquals(1, table.size());
+		assertEquals(a, table.add(this.nic, 9, 5, 1));
+		assertEquals(9, table.getUpstreamRef(a));
+	}
+
+	/**
+	 * Only the calls added before the tick are expired, oldest first
+	 * @since 1.3
+	 */
+	@Test
+	public void expireRemovesOnlyOldCalls(){
+		PendingCallTable table = new PendingCallTable();
+		int a = table.add(this.nic, 1, 2, 10);
+		int b = table.add(this.nic, 1, 2, 20);
+		int c = table.add(this.nic, 1, 2, 30);
+		assertEquals(0, table.expire(10));
+		assertEquals(2, table.expire(30));
+		assertFalse(table.contains(a));
+		assertFalse(table.contains(b));
+		assertTrue(table.contains(c));
+		assertEquals(1, table.size());
+		assertEquals(0, table.expire(30));
+		assertEquals(1, table.expire(31));
+		assertEquals(0, table.size());
+	}
+
+	/**
+	 * A call that was answered (removed) isn't counted when it expires, and if its reference has been
+	 * given to a newer call, that call isn't expired with it
+	 * @since 1.3
+	 */
+	@Test
+	public void expireSkipsAnsweredAndReusedCalls(){
+		PendingCallTable table = new PendingCallTable();
+		int a = table.add(this.nic, 1, 2, 10);
+		int b = table.add(this.nic, 1, 2, 11);
+		table.remove(a);
+		assertEquals(a, table.add(this.nic, 1, 2, 50)); // a's reference, now a new call
+		assertEquals(1, table.expire(20));
+		assertFalse(table.contains(b));
+		assertTrue(table.contains(a));
+		assertEquals(1, table.size());
+		assertEquals(1, table.expire(51));
+		assertFalse(table.contains(a));
+	}
+
+	/**
+	 * The ring the calls are kept in order in grows (and keeps its order) when more calls are waiting than it has room for
+	 * @since 1.3
+	 */
+	@Test
+	public void expireAfterTheOrderGrows(){
+		PendingCallTable table = new PendingCallTable();
+		// move the front of the ring away from slot 0, so growing has to unwrap it
+		for(int i=0; i<10; i++)
+			table.add(this.nic, 1, 2, i);
+		assertEquals(10, table.expire(10));
+		for(int i=0; i<100; i++)
+			table.add(this.nic, 1, 2, 100+i);
+		assertEquals(100, table.size());
+		for(int i=0; i<100; i+=10){
+			assertEquals(10, table.expire(100+i+10));
+			assertEquals(90-i, table.size());
+		}
+	}
+
+	/**
+	 * The nic of a call can't be missing, as a null nic marks a free reference
+	 * @since 1.3
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void nicIsNeeded(){
+		new PendingCallTable().add(null, 1, 2, 0);
+	}
+}
@@ -0,0 +1,167 @@
+/**
+ * @author andy
+ * @version 1.3
+ * @date 17-10-2026
+ * @since 1.3
+ */
+
+package Simulation;
+
+import static org.junit.Assert.*;
+
+import DataTypes.*;
+import Logging.*;
+import Metrics.*;
+import NetworkElements.*;
+import Topology.*;
+import java.util.*;
+import org.junit.*;
+
+/**
+ * Checks that the event driven simulator gives the same results as stepping every object on every tick.
+ * A ring of routers (with a few chords, and links slow enough that the output buffers overflow) is built
+ * three times and run with the same traffic on a Simulator, a TickEngine with one thread, and a
+ * TickEngine with several threads. For each router the packets reassembled intact and corrupted and
+ * the worst latency, and the cells sent and dropped by its nics, are compared. Any difference means
+ * something is happening in a different order.
+ */
+public class EngineEquivalenceTest {
+	private static final int ROUTERS = 12; // the number of routers in the ring
+	private static final int ROUNDS = 60; // the number of times every computer sends a packet
+	private static final int THREADS = 4; // the number of threads the second tick engine uses
+
+	/**
+	 * Turns the log off, as the networks send thousands of messages
+	 * @since 1.3
+	 */
+	@BeforeClass
+	public static void quiet(){
+		EventLog.setLevel(LogLevel.OFF);
+	}
+
+	/**
+	 * Links with no delay, where a cell crosses a link in the tick it is sent
+	 * @since 1.3
+	 */
+	@Test
+	public void withoutDelay(){
+		this.check(0);
+	}
+
+	/**
+	 * Links with a delay, where the cells in flight are scheduled by the links
+	 * @since 1.3
+	 */
+	@Test
+	public void withDelay(){
+		this.check(2);
+	}
+
+	/**
+	 * Runs the network on each engine and compares the counts
+	 * @since 1.3
+	 */
+	private void check(int delay){
+		String event = this.run(delay, 0);
+		assertEquals("one thread", event, this.run(delay, 1));
+		assertEquals(THREADS + " threads", event, this.run(delay, THREADS));
+	}
+
+	/**
+	 * Builds the network and runs the traffic through it
+	 * @param delay the delay of the links between the routers
+	 * @param threads the number of threads of the tick engine, or 0 to run on an event driven simulator
+	 * @return the counts for each router
+	 * @since 1.3
+	 */
+	private String run(int delay, int threads){
+		MetricsRegistry.getDefault().clear();
+		Network network = this.build(delay);
+		Simulator simulator = null;
+		TickEngine engine = null;
+		if(threads==0){
+			simulator = new Simulator();
+			for(IATMCellConsumer consumer : network.getConsumers())
+				consumer.setClock(simulator);
+		}
+		else
+			engine = new TickEngine(network.getConsumers(), threads);
+
+		try{
+			List<Computer> computers = network.getComputers();
+			long time = 0;
+			for(int i=0; i<computers.size(); i++){
+				computers.get(i).setupConnection((i*5+3) % ROUTERS + 1);
+				time = this.advance(simulator, engine, time + 60);
+			}
+			time = this.advance(simulator, engine, time + 200);
+
+			// packets of different sizes, so the buffers fill up unevenly
+			for(int round=0; round<ROUNDS; round++){
+				for(int i=0; i<computers.size(); i++)
+					if(computers.get(i).getConnectionCount() > 0)
+						computers.get(i).sendPacket(400 + (i*round % 5) * 900);
+				time = this.advance(simulator, engine, time + 3);
+			}
+			this.advance(simulator, engine, time + 3000);
+		}
+		finally{
+			if(engine!=null)
+				engine.shutdown();
+		}
+
+		StringBuilder counts = new StringBuilder();
+		long dropped = 0;
+		for(ATMRouter router : network.getRouters()){
+			PacketReassembler reassembler = router.getReassembler();
+			long routerSent = 0, routerDropped = 0;
+			for(ATMNIC nic : router.getNICs()){
+				routerSent += nic.getMetrics().getSent();
+				routerDropped += nic.getMetrics().getDropped();
+			}
+			dropped += routerDropped;
+			counts.append(router.getAddress() + ":" + reassembler.getIntact() + "/" + reassembler.getCorrupted() + "/"
+					+ reassembler.getMaxLatency() + "/" + routerSent + "/" + routerDropped + " ");
+		}
+		// the check only means something if the buffers overflowed
+		assertTrue("no cells were dropped", dropped > 0);
+		return counts.toString().trim();
+	}
+
+	/**
+	 * Builds a ring of routers with a few chords across it, and a computer on each router
+	 * @return the network
+	 * @since 1.3
+	 */
+	private Network build(int delay){
+		Network network = new Network();
+		for(int address=1; address<=ROUTERS; address++)
+			network.addRouter(address).displayCommands(false);
+		for(int address=1; address<=ROUTERS; address++)
+			network.addLink(address, address % ROUTERS + 1, 1, delay);
+		network.addLink(1, 7, 2, delay);
+		network.addLink(3, 9, 1, delay);
+		network.addLink(2, 5, 1, delay);
+		for(int address=1; address<=ROUTERS; address++)
+			network.addComputer("c" + address, address, 4, 0).setTrace(false);
+		network.computeRoutes();
+		return network;
+	}
+
+	/**
+	 * Runs the network up to a tick
+	 * @param simulator the event driven simulator, or null
+	 * @param engine the tick engine, if there is no simulator
+	 * @param end the tick to run up to
+	 * @return the tick run up to
+	 * @since 1.3
+	 */
+	private long advance(Simulator simulator, TickEngine engine, long end){
+		if(simulator!=null)
+			simulator.runUntil(end);
+		else
+			while(engine.getTime() < end)
+				engine.tick();
+		return end;
+	}
+}